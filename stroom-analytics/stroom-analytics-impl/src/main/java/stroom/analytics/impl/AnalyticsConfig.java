@@ -45,6 +45,14 @@ public class AnalyticsConfig extends AbstractConfig implements IsStroomConfig, H
     private final EmailConfig emailConfig;
     @JsonPropertyDescription("Configuration for caching streaming analytics.")
     private final CacheConfig streamingAnalyticCache;
+    @JsonPropertyDescription("Configuration for caching the records extracted from a stream by a streaming " +
+                             "analytic pipeline so that other streaming analytics using the same pipeline can " +
+                             "reuse them rather than processing the stream again.")
+    private final CacheConfig streamingAnalyticExtractionCache;
+    @JsonPropertyDescription("The longest a streaming analytic task will wait for another task to extract the " +
+                             "same stream with the same pipeline before giving up and processing the stream " +
+                             "itself.")
+    private final StroomDuration streamingAnalyticExtractionMaxWait;
     @JsonPropertyDescription("How long should we retain analytic execution history?")
     private final StroomDuration executionHistoryRetention;
 
@@ -58,6 +66,11 @@ public class AnalyticsConfig extends AbstractConfig implements IsStroomConfig, H
                 .maximumSize(1000L)
                 .refreshAfterWrite(StroomDuration.ofMinutes(10))
                 .build();
+        streamingAnalyticExtractionCache = CacheConfig.builder()
+                .maximumSize(10L)
+                .expireAfterWrite(StroomDuration.ofMinutes(1))
+                .build();
+        streamingAnalyticExtractionMaxWait = StroomDuration.ofSeconds(10);
         executionHistoryRetention = StroomDuration.ofDays(10);
     }
 
@@ -69,6 +82,10 @@ public class AnalyticsConfig extends AbstractConfig implements IsStroomConfig, H
                            @JsonProperty("duplicateCheckStore") final DuplicateCheckStoreConfig duplicateCheckStore,
                            @JsonProperty("emailConfig") final EmailConfig emailConfig,
                            @JsonProperty("streamingAnalyticCache") final CacheConfig streamingAnalyticCache,
+                           @JsonProperty("streamingAnalyticExtractionCache") final CacheConfig
+                                   streamingAnalyticExtractionCache,
+                           @JsonProperty("streamingAnalyticExtractionMaxWait") final StroomDuration
+                                   streamingAnalyticExtractionMaxWait,
                            @JsonProperty("executionHistoryRetention") final StroomDuration executionHistoryRetention) {
         this.dbConfig = dbConfig;
         this.timezone = timezone;
@@ -76,6 +93,8 @@ public class AnalyticsConfig extends AbstractConfig implements IsStroomConfig, H
         this.duplicateCheckStore = duplicateCheckStore;
         this.emailConfig = emailConfig;
         this.streamingAnalyticCache = streamingAnalyticCache;
+        this.streamingAnalyticExtractionCache = streamingAnalyticExtractionCache;
+        this.streamingAnalyticExtractionMaxWait = streamingAnalyticExtractionMaxWait;
         this.executionHistoryRetention = executionHistoryRetention;
     }
 
@@ -110,9 +129,33 @@ public class AnalyticsConfig extends AbstractConfig implements IsStroomConfig, H
         return streamingAnalyticCache;
     }
 
+    @JsonProperty("streamingAnalyticExtractionCache")
+    public CacheConfig getStreamingAnalyticExtractionCache() {
+        return streamingAnalyticExtractionCache;
+    }
+
+    @JsonProperty("streamingAnalyticExtractionMaxWait")
+    public StroomDuration getStreamingAnalyticExtractionMaxWait() {
+        return streamingAnalyticExtractionMaxWait;
+    }
+
     @JsonProperty("executionHistoryRetention")
     public StroomDuration getExecutionHistoryRetention() {
         return executionHistoryRetention;
     }
 
+    public AnalyticsConfig withStreamingAnalyticExtractionMaxWait(
+            final StroomDuration streamingAnalyticExtractionMaxWait) {
+        return new AnalyticsConfig(
+                dbConfig,
+                timezone,
+                resultStoreConfig,
+                duplicateCheckStore,
+                emailConfig,
+                streamingAnalyticCache,
+                streamingAnalyticExtractionCache,
+                streamingAnalyticExtractionMaxWait,
+                executionHistoryRetention);
+    }
+
 }
@@ -100,9 +100,11 @@ public class AnalyticsModule extends AbstractModule {
                 .addBinding(ExecutionScheduleImportExportHandlerImpl.class);
 
         GuiceUtil.buildMultiBinder(binder(), Clearable.class)
-                .addBinding(StreamingAnalyticCache.class);
+                .addBinding(StreamingAnalyticCache.class)
+                .addBinding(StreamingAnalyticExtractionCache.class);
         GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
-                .addBinding(StreamingAnalyticCache.class);
+                .addBinding(StreamingAnalyticCache.class)
+                .addBinding(StreamingAnalyticExtractionCache.class);
 
         // Live federated search provision.
         GuiceUtil.buildMultiBinder(binder(), DataSourceProvider.class)
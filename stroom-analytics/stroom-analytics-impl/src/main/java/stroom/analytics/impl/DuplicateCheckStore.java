@@ -51,6 +51,7 @@ import jakarta.inject.Provider;
 import org.lmdbjava.DbiFlags;
 import org.lmdbjava.EnvFlags;
 import org.lmdbjava.PutFlags;
+import org.lmdbjava.Txn;
 
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
@@ -61,6 +62,7 @@ import java.util.Optional;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
 class DuplicateCheckStore {
 
@@ -71,6 +73,10 @@ class DuplicateCheckStore {
     static final int MAX_DBS = 2;
     static final int MAX_READERS = 1;
     static final EnvFlags ENV_FLAGS = EnvFlags.MDB_NOTLS;
+    /**
+     * The minimum number of rows the row hash filter is sized for.
+     */
+    static final long MIN_FILTER_CAPACITY = 10_000;
 
     private final ByteBufferFactory byteBufferFactory;
     private final ByteBuffers byteBuffers;
@@ -81,6 +87,9 @@ class DuplicateCheckStore {
     private final LmdbWriter writer;
     private final LmdbKeySequence lmdbKeySequence;
     private final int maxPutsBeforeCommit = 100;
+    private final int maxPendingInserts = 100;
+    private final List<LmdbKV> pendingInserts = new ArrayList<>();
+    private RowHashBloomFilter rowHashFilter;
     private long uncommittedCount = 0;
 
     DuplicateCheckStore(final DuplicateCheckDirs duplicateCheckDirs,
@@ -119,6 +128,27 @@ class DuplicateCheckStore {
         this.infoDb = lmdbEnv.openDb(INFO_DB_NAME, DbiFlags.MDB_CREATE);
         this.writer = new LmdbWriter(executorProvider, lmdbEnv);
         writeSchemaVersion();
+        this.rowHashFilter = lmdbEnv.readResult(txn ->
+                createRowHashFilter(txn.get(), MIN_FILTER_CAPACITY));
+        LOGGER.debug("Created {} for {}", rowHashFilter, lmdbEnvDir);
+    }
+
+    /**
+     * Build a new row hash filter from all the keys currently in the main db.
+     */
+    private RowHashBloomFilter createRowHashFilter(final Txn<ByteBuffer> txn,
+                                                  final long minCapacity) {
+        final long count = db.getDbi().stat(txn).entries;
+        // Allow for plenty of growth so we don't have to rebuild too often.
+        final RowHashBloomFilter filter = new RowHashBloomFilter(Math.max(minCapacity, count * 2));
+        try (final LmdbIterable iterable = LmdbIterable.create(txn, db.getDbi())) {
+            for (final LmdbEntry entry : iterable) {
+                final ByteBuffer key = entry.getKey();
+                // The key is the row hash, possibly followed by a sequence number.
+                filter.put(key.getLong(key.position()));
+            }
+        }
+        return filter;
     }
 
     /**
@@ -235,7 +265,9 @@ class DuplicateCheckStore {
     }
 
     synchronized void writeColumnNames(final List<String> columnNames) {
+        final AtomicBoolean dropped = new AtomicBoolean();
         writer.write(writeTxn -> {
+            putPendingInserts(writeTxn);
             final Optional<List<String>> optColumnNames = fetchColumnNames(writeTxn);
 
             if (optColumnNames.isPresent()) {
@@ -255,6 +287,7 @@ class DuplicateCheckStore {
                     // Change of columns (added, removed, re-ordered) means any new data won't match the layout
                     // of the existing data, so we have to clear it out.
                     db.drop(writeTxn);
+                    dropped.set(true);
 
                     // Write the new columns
                     LOGGER.debug("writeColumnNames() - Writing column names {}", columnNames);
@@ -267,6 +300,10 @@ class DuplicateCheckStore {
                 writeColumnNames(writeTxn, columnNames);
             }
         }, true);
+
+        if (dropped.get()) {
+            rowHashFilter = new RowHashBloomFilter(MIN_FILTER_CAPACITY);
+        }
     }
 
     /**
@@ -276,32 +313,112 @@ class DuplicateCheckStore {
      */
     synchronized boolean tryInsert(final DuplicateCheckRow duplicateCheckRow) {
         final LmdbKV lmdbKV = duplicateCheckRowSerde.createLmdbKV(duplicateCheckRow);
-        final AtomicBoolean res = new AtomicBoolean();
+        final long rowHash = lmdbKV.key().getLong(lmdbKV.key().position());
+
+        if (!rowHashFilter.mightContain(rowHash)) {
+            // Nothing with this hash has ever been inserted so this row is definitely new. Queue it up
+            // to be written in a batch without needing to look for it in LMDB.
+            LOGGER.debug(() -> "New row (row=" + duplicateCheckRow
+                               + ", " + toString(lmdbKV) +
+                               ", lmdbEnvDir=" + lmdbEnv.getDir() + ")");
+            rowHashFilter.put(rowHash);
+            pendingInserts.add(lmdbKV);
+            if (pendingInserts.size() >= maxPendingInserts) {
+                writePendingInserts();
+            }
+            if (rowHashFilter.isSaturated()) {
+                rebuildRowHashFilter();
+            }
+            return true;
+        }
 
+        // The row may be a duplicate so do the exact check against LMDB.
+        final AtomicBoolean res = new AtomicBoolean();
         writer.write(writeTxn -> {
             try {
                 try {
+                    // Pending rows may share a hash with this one so they must be in the db first.
+                    putPendingInserts(writeTxn);
                     final boolean didInsert = tryInsert(duplicateCheckRow, writeTxn, lmdbKV);
                     res.set(didInsert);
                 } finally {
                     releaseLmdbKv(lmdbKV);
                 }
+                commitIfRequired(writeTxn);
+            } catch (final Throwable e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        });
+
+        return res.get();
+    }
+
+    private void writePendingInserts() {
+        if (!pendingInserts.isEmpty()) {
+            writer.write(writeTxn -> {
+                try {
+                    putPendingInserts(writeTxn);
+                    commitIfRequired(writeTxn);
+                } catch (final Throwable e) {
+                    LOGGER.error(e::getMessage, e);
+                }
+            });
+        }
+    }
 
-                if (uncommittedCount > 0) {
-                    final long count = uncommittedCount;
-                    if (count >= maxPutsBeforeCommit) {
-                        // Commit
-                        LOGGER.trace(() -> "Committing for max puts " + maxPutsBeforeCommit);
-                        writeTxn.commit();
-                        uncommittedCount = 0;
+    /**
+     * Put all the rows that the row hash filter has proven to be new. As nothing with the same hash exists
+     * in the db they can go in with a sequence number of zero without needing to look for a match.
+     */
+    private void putPendingInserts(final WriteTxn writeTxn) {
+        if (!pendingInserts.isEmpty()) {
+            LOGGER.trace(() -> "Putting " + pendingInserts.size() + " pending inserts");
+            try {
+                for (final LmdbKV lmdbKV : pendingInserts) {
+                    final boolean success = db.put(writeTxn,
+                            lmdbKV.key(),
+                            lmdbKV.val(),
+                            PutFlags.MDB_NOOVERWRITE);
+                    if (!success) {
+                        throw new RuntimeException("Expected to put value but failed");
                     }
+                    uncommittedCount++;
                 }
+            } finally {
+                pendingInserts.forEach(this::releaseLmdbKv);
+                pendingInserts.clear();
+            }
+        }
+    }
+
+    private void commitIfRequired(final WriteTxn writeTxn) {
+        if (uncommittedCount >= maxPutsBeforeCommit) {
+            // Commit
+            LOGGER.trace(() -> "Committing for max puts " + maxPutsBeforeCommit);
+            writeTxn.commit();
+            uncommittedCount = 0;
+        }
+    }
+
+    /**
+     * The filter has had more rows added than it was sized for, so its false positive rate is climbing.
+     * Replace it with a bigger one built from the keys in the db.
+     */
+    private void rebuildRowHashFilter() {
+        final long minCapacity = rowHashFilter.getCapacity() * 2;
+        final AtomicReference<RowHashBloomFilter> newFilter = new AtomicReference<>();
+        writer.write(writeTxn -> {
+            try {
+                putPendingInserts(writeTxn);
+                newFilter.set(createRowHashFilter(writeTxn.get(), minCapacity));
             } catch (final Throwable e) {
                 LOGGER.error(e::getMessage, e);
             }
         });
-
-        return res.get();
+        if (newFilter.get() != null) {
+            rowHashFilter = newFilter.get();
+            LOGGER.debug("Rebuilt {} for {}", rowHashFilter, lmdbEnv.getDir());
+        }
     }
 
     private boolean tryInsert(final DuplicateCheckRow duplicateCheckRow,
@@ -366,6 +483,7 @@ class DuplicateCheckStore {
     }
 
     synchronized void flush() {
+        writePendingInserts();
         writer.flush();
         uncommittedCount = 0;
 
@@ -374,6 +492,7 @@ class DuplicateCheckStore {
     }
 
     synchronized void close() {
+        writePendingInserts();
         writer.close();
 
         LOGGER.debug("close called");
@@ -508,6 +627,7 @@ class DuplicateCheckStore {
     private synchronized void delete(final LmdbKV lmdbKV) {
         writer.write(writeTxn -> {
             try {
+                putPendingInserts(writeTxn);
                 lmdbKeySequence.delete(
                         db.getDbi(),
                         writeTxn.get(),
@@ -0,0 +1,131 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.analytics.impl;
+
+/**
+ * A simple in-memory bloom filter over the 64 bit row hashes that {@link DuplicateCheckRowSerde} uses as
+ * the keys of the duplicate check store. If {@link #mightContain(long)} returns false then no row with that
+ * hash has been added so a row can be proven to be new without having to look in LMDB. A return value of
+ * true means the row may or may not be a duplicate and the store must be checked.
+ * <p>
+ * The filter is not thread safe so callers must provide their own synchronisation.
+ * <p>
+ * Pkg-private for testing
+ */
+class RowHashBloomFilter {
+
+    static final double FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private static final double LN_2 = Math.log(2);
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final long capacity;
+    private long insertions;
+
+    /**
+     * @param capacity The number of insertions the filter is sized for. Once this is exceeded the false
+     *                 positive rate will start to rise above {@link #FALSE_POSITIVE_PROBABILITY}.
+     */
+    RowHashBloomFilter(final long capacity) {
+        this.capacity = Math.max(1, capacity);
+        final double optimalBitCount = -this.capacity * Math.log(FALSE_POSITIVE_PROBABILITY) / (LN_2 * LN_2);
+        final int wordCount = Math.toIntExact(Math.max(1, ((long) Math.ceil(optimalBitCount) + 63) >>> 6));
+        this.bits = new long[wordCount];
+        this.bitCount = wordCount * 64L;
+        this.hashCount = (int) Math.max(1, Math.round((double) bitCount / this.capacity * LN_2));
+    }
+
+    /**
+     * Add a row hash to the filter.
+     */
+    void put(final long rowHash) {
+        boolean changed = false;
+        long combinedHash = rowHash;
+        final long increment = mix(rowHash);
+        for (int i = 0; i < hashCount; i++) {
+            final long index = (combinedHash & Long.MAX_VALUE) % bitCount;
+            final int wordIndex = (int) (index >>> 6);
+            final long mask = 1L << index;
+            if ((bits[wordIndex] & mask) == 0) {
+                bits[wordIndex] |= mask;
+                changed = true;
+            }
+            combinedHash += increment;
+        }
+        if (changed) {
+            insertions++;
+        }
+    }
+
+    /**
+     * @return False if the row hash has definitely never been added to this filter, true if it might have been.
+     */
+    boolean mightContain(final long rowHash) {
+        long combinedHash = rowHash;
+        final long increment = mix(rowHash);
+        for (int i = 0; i < hashCount; i++) {
+            final long index = (combinedHash & Long.MAX_VALUE) % bitCount;
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+            combinedHash += increment;
+        }
+        return true;
+    }
+
+    /**
+     * @return True if more distinct row hashes have been added than the filter was sized for, in which case
+     * it should be rebuilt with a larger capacity.
+     */
+    boolean isSaturated() {
+        return insertions > capacity;
+    }
+
+    long getCapacity() {
+        return capacity;
+    }
+
+    long getInsertions() {
+        return insertions;
+    }
+
+    /**
+     * Derive a second, independent hash from the row hash for double hashing. The row hash is already
+     * well distributed so a 64 bit finaliser is sufficient. The result is always odd so it is never zero.
+     */
+    private static long mix(final long rowHash) {
+        long h = rowHash;
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h | 1;
+    }
+
+    @Override
+    public String toString() {
+        return "RowHashBloomFilter{" +
+               "bitCount=" + bitCount +
+               ", hashCount=" + hashCount +
+               ", capacity=" + capacity +
+               ", insertions=" + insertions +
+               '}';
+    }
+}
@@ -0,0 +1,350 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.analytics.impl;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.TextConverterDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.pipeline.state.RecordCount;
+import stroom.query.common.v2.StringFieldValue;
+import stroom.search.extraction.AnalyticFieldListConsumer;
+import stroom.search.extraction.FieldListConsumer;
+import stroom.search.extraction.FieldValue;
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.metrics.Metrics;
+import stroom.util.shared.Clearable;
+import stroom.util.shared.UserRef;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+/**
+ * Lets streaming analytic rules that use the same pipeline share a single run of that pipeline over a
+ * stream. Each rule has its own processor filter so gets its own task for the stream, but the first of
+ * these tasks to run records the extracted records and any others for the same stream either wait for it
+ * to finish or find the records in the cache. They then replay them to their own rule's consumer rather
+ * than decompressing, parsing and transforming the stream again. The read and written record counts of
+ * the task that ran the pipeline are added to the counts of the tasks that replay its records.
+ * <p>
+ * Tasks only wait for {@link AnalyticsConfig#getStreamingAnalyticExtractionMaxWait()} before giving up and
+ * running the pipeline themselves.
+ * <p>
+ * The output of a pipeline can depend on any of the docs it uses so all entries are dropped if a
+ * pipeline, XSLT, text converter or dictionary changes. Reference data can't be tracked in the
+ * same way so entries also expire a fixed time after they are written.
+ */
+@Singleton
+@EntityEventHandler(
+        type = PipelineDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = XsltDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = TextConverterDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = DictionaryDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+public class StreamingAnalyticExtractionCache implements Clearable, EntityEvent.Handler {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(StreamingAnalyticExtractionCache.class);
+    private static final String CACHE_NAME = "Streaming Analytic Extraction Cache";
+
+    /**
+     * Streams that produce more records than this are not shared as holding them all would use too
+     * much memory.
+     */
+    static final int MAX_RECORDS = 10_000;
+
+    private final Provider<AnalyticsConfig> analyticsConfigProvider;
+    private final StroomCache<Key, Extraction> cache;
+    private final ConcurrentMap<Key, CompletableFuture<Extraction>> inFlight = new ConcurrentHashMap<>();
+    private final Meter hitMeter;
+    private final Timer waitTimer;
+    private final Meter timeoutMeter;
+    // Incremented whenever the cache is cleared so that extractions started before then are not cached.
+    private long generation;
+
+    @Inject
+    public StreamingAnalyticExtractionCache(final CacheManager cacheManager,
+                                            final Provider<AnalyticsConfig> analyticsConfigProvider,
+                                            final Metrics metrics) {
+        this.analyticsConfigProvider = analyticsConfigProvider;
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> analyticsConfigProvider.get().getStreamingAnalyticExtractionCache());
+
+        hitMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("hit")
+                .meter()
+                .createAndRegister();
+        waitTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("wait")
+                .addNamePart("time")
+                .timer()
+                .createAndRegister();
+        timeoutMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("timeout")
+                .meter()
+                .createAndRegister();
+    }
+
+    /**
+     * Replay the records for the key to the supplied consumer if another task has extracted them, waiting
+     * for that task to finish if it is still running.
+     *
+     * @return Empty if the records have been replayed, otherwise a recorder that must be set as the consumer
+     * for the pipeline that the caller now needs to run. {@link Recorder#complete(boolean)} must be called on
+     * it once the pipeline has finished.
+     */
+    Optional<Recorder> replayOrRecord(final Key key,
+                                      final AnalyticFieldListConsumer fieldListConsumer,
+                                      final RecordCount recordCount) {
+        final Optional<Extraction> cached = cache.getIfPresent(key);
+        if (cached.isPresent()) {
+            LOGGER.debug("Replaying cached records for {}", key);
+            hitMeter.mark();
+            replay(cached.get(), fieldListConsumer, recordCount);
+            return Optional.empty();
+        }
+
+        final long currentGeneration = getGeneration();
+        final CompletableFuture<Extraction> future = new CompletableFuture<>();
+        final CompletableFuture<Extraction> existing = inFlight.putIfAbsent(key, future);
+        if (existing == null) {
+            LOGGER.debug("Recording records for {}", key);
+            return Optional.of(new Recorder(key, fieldListConsumer, recordCount, future, currentGeneration));
+        }
+
+        // Another task is extracting this stream so wait for it, but not for ever in case it is stuck.
+        LOGGER.debug("Waiting for another task to extract {}", key);
+        final long maxWaitMs = analyticsConfigProvider.get().getStreamingAnalyticExtractionMaxWait().toMillis();
+        Extraction extraction = null;
+        try (final Timer.Context ignored = waitTimer.time()) {
+            extraction = existing.get(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        } catch (final ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } catch (final TimeoutException e) {
+            LOGGER.debug("Timed out waiting for another task to extract {}", key);
+            timeoutMeter.mark();
+        }
+
+        if (extraction != null) {
+            LOGGER.debug("Replaying records from other task for {}", key);
+            hitMeter.mark();
+            replay(extraction, fieldListConsumer, recordCount);
+            return Optional.empty();
+        }
+
+        // The other task wasn't able to share its output, so we will have to run the pipeline ourselves.
+        // Don't bother recording as we would most likely not be able to share it either.
+        LOGGER.debug("Other task didn't share records for {}", key);
+        return Optional.of(new Recorder(key, fieldListConsumer, recordCount, null, currentGeneration));
+    }
+
+    private void replay(final Extraction extraction,
+                        final FieldListConsumer fieldListConsumer,
+                        final RecordCount recordCount) {
+        extraction.records().forEach(record -> record.accept(fieldListConsumer));
+        recordCount.add(extraction.read(), extraction.written());
+    }
+
+    private synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Cache the extraction unless the cache has been cleared since it started, in which case the
+     * pipeline or one of the docs it uses may have changed part way through.
+     *
+     * @return True if the extraction was cached.
+     */
+    private synchronized boolean put(final Key key, final long extractionGeneration, final Extraction extraction) {
+        if (extractionGeneration != generation) {
+            LOGGER.debug("Cache cleared since extraction of {} started", key);
+            return false;
+        }
+        cache.put(key, extraction);
+        return true;
+    }
+
+    @Override
+    public synchronized void clear() {
+        generation++;
+        cache.clear();
+        // Tasks that start after this must not wait for tasks that started before it. Tasks that are
+        // already waiting will be told the extraction couldn't be shared once it completes.
+        inFlight.clear();
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        // Too many things can affect the output of an extraction pipeline to work out which
+        // entries are affected, so just drop the lot.
+        clear();
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param pipelineUuid The UUID of the extraction pipeline.
+     * @param runAsUser    The user the pipeline is run as as this can affect what reference data it can see.
+     * @param metaId       The stream being processed.
+     * @param data         The event ranges being processed if the task is for specific events in the stream.
+     */
+    record Key(String pipelineUuid,
+               UserRef runAsUser,
+               long metaId,
+               String data) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param records The records output by the pipeline.
+     * @param read    The number of records the pipeline read.
+     * @param written The number of records the pipeline wrote.
+     */
+    private record Extraction(List<Consumer<FieldListConsumer>> records,
+                              long read,
+                              long written) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    class Recorder implements AnalyticFieldListConsumer {
+
+        private final Key key;
+        private final AnalyticFieldListConsumer delegate;
+        private final RecordCount recordCount;
+        private final long generation;
+        private CompletableFuture<Extraction> future;
+        private List<Consumer<FieldListConsumer>> records = new ArrayList<>();
+
+        private Recorder(final Key key,
+                         final AnalyticFieldListConsumer delegate,
+                         final RecordCount recordCount,
+                         final CompletableFuture<Extraction> future,
+                         final long generation) {
+            this.key = key;
+            this.delegate = delegate;
+            this.recordCount = recordCount;
+            this.future = future;
+            this.generation = generation;
+        }
+
+        @Override
+        public void acceptFieldValues(final List<FieldValue> fieldValues) {
+            if (future != null) {
+                final List<FieldValue> copy = Collections.unmodifiableList(new ArrayList<>(fieldValues));
+                record(consumer -> consumer.acceptFieldValues(copy));
+            }
+            delegate.acceptFieldValues(fieldValues);
+        }
+
+        @Override
+        public void acceptStringValues(final List<StringFieldValue> stringValues) {
+            if (future != null) {
+                final List<StringFieldValue> copy = Collections.unmodifiableList(new ArrayList<>(stringValues));
+                record(consumer -> consumer.acceptStringValues(copy));
+            }
+            delegate.acceptStringValues(stringValues);
+        }
+
+        private void record(final Consumer<FieldListConsumer> record) {
+            records.add(record);
+            if (records.size() > MAX_RECORDS) {
+                // Too big to share so let any waiting tasks know now so they can get on with it themselves.
+                LOGGER.debug("Too many records to share for {}", key);
+                release(null);
+            }
+        }
+
+        @Override
+        public void start() {
+            delegate.start();
+        }
+
+        @Override
+        public void end() {
+            delegate.end();
+        }
+
+        /**
+         * Share the recorded records with other tasks.
+         *
+         * @param success True if the pipeline processed the whole stream without error. If false the
+         *                records are not shared.
+         */
+        void complete(final boolean success) {
+            if (future != null) {
+                if (success) {
+                    final Extraction extraction = new Extraction(
+                            List.copyOf(records),
+                            recordCount.getRead(),
+                            recordCount.getWritten());
+                    release(put(key, generation, extraction)
+                            ? extraction
+                            : null);
+                } else {
+                    release(null);
+                }
+            }
+        }
+
+        private void release(final Extraction result) {
+            inFlight.remove(key, future);
+            future.complete(result);
+            future = null;
+            records = null;
+        }
+    }
+}
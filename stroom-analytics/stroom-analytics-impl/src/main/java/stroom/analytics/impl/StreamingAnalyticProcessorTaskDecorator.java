@@ -16,11 +16,17 @@
 
 package stroom.analytics.impl;
 
+import stroom.analytics.impl.StreamingAnalyticExtractionCache.Key;
+import stroom.analytics.impl.StreamingAnalyticExtractionCache.Recorder;
 import stroom.analytics.shared.AnalyticRuleDoc;
 import stroom.core.dataprocess.ProcessorTaskDecorator;
 import stroom.dictionary.api.WordListProvider;
 import stroom.docref.DocRef;
+import stroom.pipeline.errorhandler.ErrorReceiverProxy;
+import stroom.pipeline.errorhandler.ErrorStatistics;
+import stroom.pipeline.state.RecordCount;
 import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorTask;
 import stroom.query.api.ParamUtil;
 import stroom.query.api.SearchRequest;
 import stroom.query.api.TableSettings;
@@ -38,6 +44,7 @@ import stroom.search.extraction.FieldValue;
 import stroom.search.extraction.FieldValueExtractor;
 import stroom.search.extraction.FieldValueExtractorFactory;
 import stroom.search.extraction.MemoryIndex;
+import stroom.task.api.TaskContextFactory;
 import stroom.task.api.TaskTerminatedException;
 import stroom.util.concurrent.UncheckedInterruptedException;
 import stroom.util.logging.LambdaLogger;
@@ -65,9 +72,15 @@ public class StreamingAnalyticProcessorTaskDecorator implements ProcessorTaskDec
     private final FieldValueExtractorFactory fieldValueExtractorFactory;
     private final ExpressionPredicateFactory expressionPredicateFactory;
     private final WordListProvider wordListProvider;
+    private final StreamingAnalyticExtractionCache streamingAnalyticExtractionCache;
+    private final ErrorReceiverProxy errorReceiverProxy;
+    private final TaskContextFactory taskContextFactory;
+    private final RecordCount recordCount;
 
     private AnalyticFieldListConsumer fieldListConsumer;
+    private Recorder recorder;
 
+    private ProcessorFilter processorFilter;
     private StreamingAnalytic analytic;
 
     @Inject
@@ -79,7 +92,12 @@ public class StreamingAnalyticProcessorTaskDecorator implements ProcessorTaskDec
                                                    final FieldListConsumerHolder fieldListConsumerHolder,
                                                    final FieldValueExtractorFactory fieldValueExtractorFactory,
                                                    final ExpressionPredicateFactory expressionPredicateFactory,
-                                                   final WordListProvider wordListProvider) {
+                                                   final WordListProvider wordListProvider,
+                                                   final StreamingAnalyticExtractionCache
+                                                           streamingAnalyticExtractionCache,
+                                                   final ErrorReceiverProxy errorReceiverProxy,
+                                                   final TaskContextFactory taskContextFactory,
+                                                   final RecordCount recordCount) {
         this.streamingAnalyticCache = streamingAnalyticCache;
         this.expressionContextFactory = expressionContextFactory;
         this.memoryIndex = memoryIndex;
@@ -89,10 +107,16 @@ public class StreamingAnalyticProcessorTaskDecorator implements ProcessorTaskDec
         this.fieldValueExtractorFactory = fieldValueExtractorFactory;
         this.expressionPredicateFactory = expressionPredicateFactory;
         this.wordListProvider = wordListProvider;
+        this.streamingAnalyticExtractionCache = streamingAnalyticExtractionCache;
+        this.errorReceiverProxy = errorReceiverProxy;
+        this.taskContextFactory = taskContextFactory;
+        this.recordCount = recordCount;
     }
 
     @Override
     public void beforeProcessing(final ProcessorFilter processorFilter) {
+        this.processorFilter = processorFilter;
+
         // Load rule.
         final DocRef analyticRuleRef = new DocRef(AnalyticRuleDoc.TYPE, processorFilter.getPipelineUuid());
         analytic = streamingAnalyticCache.get(analyticRuleRef);
@@ -105,10 +129,41 @@ public class StreamingAnalyticProcessorTaskDecorator implements ProcessorTaskDec
         fieldListConsumer.start();
     }
 
+    @Override
+    public boolean supplyOutput(final ProcessorTask processorTask) {
+        if (fieldListConsumer == null || fieldListConsumer instanceof NullFieldListConsumer) {
+            return false;
+        }
+
+        // Other rules using the same pipeline will each have a task for this stream, so share a single
+        // run of the pipeline between them.
+        final Key key = new Key(
+                getPipeline().getUuid(),
+                processorFilter.getRunAsUser(),
+                processorTask.getMetaId(),
+                processorTask.getData());
+        final Optional<Recorder> optRecorder = streamingAnalyticExtractionCache
+                .replayOrRecord(key, fieldListConsumer, recordCount);
+        optRecorder.ifPresent(aRecorder -> {
+            recorder = aRecorder;
+            fieldListConsumerHolder.setFieldListConsumer(aRecorder);
+        });
+        return optRecorder.isEmpty();
+    }
+
     @Override
     public void afterProcessing() {
-        if (fieldListConsumer != null) {
-            fieldListConsumer.end();
+        try {
+            if (recorder != null) {
+                // Only share the output if the pipeline got through the whole stream cleanly.
+                recorder.complete(!taskContextFactory.current().isTerminated() &&
+                                  errorReceiverProxy.getErrorReceiver() instanceof final ErrorStatistics stats &&
+                                  stats.isAllOk());
+            }
+        } finally {
+            if (fieldListConsumer != null) {
+                fieldListConsumer.end();
+            }
         }
     }
 
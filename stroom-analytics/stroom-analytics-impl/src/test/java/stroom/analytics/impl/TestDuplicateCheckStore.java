@@ -564,6 +564,74 @@ class TestDuplicateCheckStore {
         }
     }
 
+    @Test
+    void testReopenAndFilterGrowth(@TempDir final Path tempDir) {
+        final LmdbEnvDir lmdbEnvDir = new LmdbEnvDir(tempDir, true);
+        Mockito.when(mockDuplicateCheckDirs.getDir(UUID))
+                .thenReturn(lmdbEnvDir);
+
+        final DuplicateCheckStoreConfig duplicateCheckStoreConfig = new DuplicateCheckStoreConfig();
+        final DuplicateCheckRowSerde serde = new DuplicateCheckRowSerde(byteBufferFactory);
+        // Enough rows to force the row hash filter to be rebuilt at least once.
+        final int rowCount = (int) DuplicateCheckStore.MIN_FILTER_CAPACITY * 3;
+
+        try (final ExecutorService executorService = Executors.newSingleThreadExecutor()) {
+            DuplicateCheckStore duplicateCheckStore = null;
+            try {
+                duplicateCheckStore = new DuplicateCheckStore(
+                        mockDuplicateCheckDirs,
+                        byteBufferFactory,
+                        byteBuffers,
+                        duplicateCheckStoreConfig,
+                        serde,
+                        () -> executorService,
+                        UUID);
+                duplicateCheckStore.writeColumnNames(List.of("col1", "col2"));
+
+                for (int i = 0; i < rowCount; i++) {
+                    assertThat(duplicateCheckStore.tryInsert(DuplicateCheckRow.of("row", String.valueOf(i))))
+                            .isTrue();
+                }
+                for (int i = 0; i < rowCount; i++) {
+                    assertThat(duplicateCheckStore.tryInsert(DuplicateCheckRow.of("row", String.valueOf(i))))
+                            .isFalse();
+                }
+                duplicateCheckStore.flush();
+                assertThat(duplicateCheckStore.size())
+                        .isEqualTo(rowCount);
+                duplicateCheckStore.close();
+
+                // Now re-open the store, the filter should be rebuilt from the existing rows
+                duplicateCheckStore = new DuplicateCheckStore(
+                        mockDuplicateCheckDirs,
+                        byteBufferFactory,
+                        byteBuffers,
+                        duplicateCheckStoreConfig,
+                        serde,
+                        () -> executorService,
+                        UUID);
+
+                assertThat(duplicateCheckStore.tryInsert(DuplicateCheckRow.of("row", "0")))
+                        .isFalse();
+                assertThat(duplicateCheckStore.tryInsert(DuplicateCheckRow.of("row", String.valueOf(rowCount - 1))))
+                        .isFalse();
+                assertThat(duplicateCheckStore.tryInsert(DuplicateCheckRow.of("row", String.valueOf(rowCount))))
+                        .isTrue();
+
+                duplicateCheckStore.flush();
+                assertThat(duplicateCheckStore.size())
+                        .isEqualTo(rowCount + 1);
+                duplicateCheckStore.close();
+            } catch (final Throwable e) {
+                NullSafe.consume(duplicateCheckStore, dupCheckStore -> {
+                    dupCheckStore.flush();
+                    dupCheckStore.close();
+                });
+                throw e;
+            }
+        }
+    }
+
     private LmdbEnv createEnv(final LmdbConfig lmdbConfig, final LmdbEnvDir lmdbEnvDir) {
         try {
             final LmdbEnv lmdbEnv = LmdbEnv
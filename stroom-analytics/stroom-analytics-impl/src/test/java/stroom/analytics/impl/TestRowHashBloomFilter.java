@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.analytics.impl;
+
+import net.openhft.hashing.LongHashFunction;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestRowHashBloomFilter {
+
+    @Test
+    void testNoFalseNegatives() {
+        final RowHashBloomFilter filter = new RowHashBloomFilter(10_000);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put(hash(i));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain(hash(i)))
+                    .isTrue();
+        }
+        assertThat(filter.isSaturated())
+                .isFalse();
+    }
+
+    @Test
+    void testFalsePositiveRate() {
+        final int count = 10_000;
+        final RowHashBloomFilter filter = new RowHashBloomFilter(count);
+        for (int i = 0; i < count; i++) {
+            filter.put(hash(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = count; i < count * 11; i++) {
+            if (filter.mightContain(hash(i))) {
+                falsePositives++;
+            }
+        }
+        // Allow some slack over the target rate
+        assertThat((double) falsePositives / (count * 10))
+                .isLessThan(RowHashBloomFilter.FALSE_POSITIVE_PROBABILITY * 2);
+    }
+
+    @Test
+    void testSaturation() {
+        final RowHashBloomFilter filter = new RowHashBloomFilter(100);
+        assertThat(filter.mightContain(hash(0)))
+                .isFalse();
+
+        for (int i = 0; i < 100; i++) {
+            filter.put(hash(i));
+        }
+        assertThat(filter.isSaturated())
+                .isFalse();
+
+        // Same hashes again don't count
+        for (int i = 0; i < 100; i++) {
+            filter.put(hash(i));
+        }
+        assertThat(filter.getInsertions())
+                .isLessThanOrEqualTo(100);
+
+        for (int i = 100; i < 200; i++) {
+            filter.put(hash(i));
+        }
+        assertThat(filter.isSaturated())
+                .isTrue();
+    }
+
+    private static long hash(final int i) {
+        return LongHashFunction.xx3().hashInt(i);
+    }
+}
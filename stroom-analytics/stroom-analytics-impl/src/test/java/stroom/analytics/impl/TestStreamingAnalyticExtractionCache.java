@@ -0,0 +1,253 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.analytics.impl;
+
+import stroom.analytics.impl.StreamingAnalyticExtractionCache.Key;
+import stroom.analytics.impl.StreamingAnalyticExtractionCache.Recorder;
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.pipeline.state.RecordCount;
+import stroom.query.common.v2.StringFieldValue;
+import stroom.search.extraction.AnalyticFieldListConsumer;
+import stroom.util.metrics.Metrics;
+import stroom.util.metrics.MetricsImpl;
+import stroom.util.metrics.MetricsUtil;
+import stroom.util.time.StroomDuration;
+
+import com.codahale.metrics.MetricRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class TestStreamingAnalyticExtractionCache {
+
+    private static final Key KEY = new Key("pipeline-uuid", null, 123L, null);
+    private static final List<StringFieldValue> RECORD_1 = List.of(new StringFieldValue("field", "value1"));
+    private static final List<StringFieldValue> RECORD_2 = List.of(new StringFieldValue("field", "value2"));
+
+    @Mock
+    private AnalyticFieldListConsumer mockLeaderConsumer;
+    @Mock
+    private AnalyticFieldListConsumer mockFollowerConsumer;
+
+    private final Metrics metrics = new MetricsImpl(new MetricRegistry());
+
+    @Test
+    void testReplayFromCache() {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+        recorder.acceptStringValues(RECORD_1);
+        recorder.acceptStringValues(RECORD_2);
+        recorder.complete(true);
+
+        verify(mockLeaderConsumer).acceptStringValues(RECORD_1);
+        verify(mockLeaderConsumer).acceptStringValues(RECORD_2);
+
+        assertThat(cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()))
+                .isEmpty();
+        verify(mockFollowerConsumer).acceptStringValues(RECORD_1);
+        verify(mockFollowerConsumer).acceptStringValues(RECORD_2);
+        assertThat(getMeterCount("hit"))
+                .isEqualTo(1);
+        assertThat(getWaitCount())
+                .isZero();
+
+        // A different stream has to be processed.
+        final Key otherKey = new Key("pipeline-uuid", null, 124L, null);
+        assertThat(cache.replayOrRecord(otherKey, mockFollowerConsumer, new RecordCount()))
+                .isPresent();
+    }
+
+    @Test
+    void testWaitForRunningTask() throws Exception {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+        final CompletableFuture<Optional<Recorder>> follower = CompletableFuture.supplyAsync(() ->
+                cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()));
+
+        recorder.acceptStringValues(RECORD_1);
+        Thread.sleep(100);
+        assertThat(follower)
+                .isNotDone();
+
+        recorder.complete(true);
+        assertThat(follower.get(5, TimeUnit.SECONDS))
+                .isEmpty();
+        verify(mockFollowerConsumer).acceptStringValues(RECORD_1);
+        assertThat(getMeterCount("hit"))
+                .isEqualTo(1);
+        assertThat(getWaitCount())
+                .isEqualTo(1);
+        assertThat(getMeterCount("timeout"))
+                .isZero();
+    }
+
+    @Test
+    void testNotSharedOnFailure() throws Exception {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+        final CompletableFuture<Optional<Recorder>> follower = CompletableFuture.supplyAsync(() ->
+                cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()));
+
+        recorder.acceptStringValues(RECORD_1);
+        recorder.complete(false);
+
+        // The waiting task has to run the pipeline itself.
+        final Recorder followerRecorder = follower.get(5, TimeUnit.SECONDS).orElseThrow();
+        verify(mockFollowerConsumer, never()).acceptStringValues(any());
+        followerRecorder.acceptStringValues(RECORD_1);
+        followerRecorder.complete(true);
+        verify(mockFollowerConsumer).acceptStringValues(RECORD_1);
+
+        // Nothing was cached so the next task records.
+        assertThat(cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()))
+                .isPresent();
+    }
+
+    @Test
+    void testTooManyRecords() throws Exception {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+        final CompletableFuture<Optional<Recorder>> follower = CompletableFuture.supplyAsync(() ->
+                cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()));
+
+        for (int i = 0; i <= StreamingAnalyticExtractionCache.MAX_RECORDS; i++) {
+            recorder.acceptStringValues(RECORD_1);
+        }
+
+        // The waiting task is released before the leader has finished.
+        assertThat(follower.get(5, TimeUnit.SECONDS))
+                .isPresent();
+
+        recorder.acceptStringValues(RECORD_2);
+        recorder.complete(true);
+        verify(mockLeaderConsumer, times(StreamingAnalyticExtractionCache.MAX_RECORDS + 1))
+                .acceptStringValues(RECORD_1);
+        verify(mockLeaderConsumer).acceptStringValues(RECORD_2);
+
+        assertThat(cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()))
+                .isPresent();
+    }
+
+    @Test
+    void testRecordCountsReplayed() {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final RecordCount leaderRecordCount = new RecordCount();
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, leaderRecordCount).orElseThrow();
+        recorder.acceptStringValues(RECORD_1);
+        leaderRecordCount.getReadIncrementor().increment();
+        leaderRecordCount.getReadIncrementor().increment();
+        leaderRecordCount.getWriteIncrementor().increment();
+        recorder.complete(true);
+
+        final RecordCount followerRecordCount = new RecordCount();
+        assertThat(cache.replayOrRecord(KEY, mockFollowerConsumer, followerRecordCount))
+                .isEmpty();
+        assertThat(followerRecordCount.getRead())
+                .isEqualTo(2);
+        assertThat(followerRecordCount.getWritten())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testWaitIsBounded() throws Exception {
+        final StreamingAnalyticExtractionCache cache = createCache(StroomDuration.ofMillis(100));
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+
+        // The leader never finishes so the follower gives up and runs the pipeline itself.
+        final CompletableFuture<Optional<Recorder>> follower = CompletableFuture.supplyAsync(() ->
+                cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()));
+        assertThat(follower.get(5, TimeUnit.SECONDS))
+                .isPresent();
+        verify(mockFollowerConsumer, never()).acceptStringValues(any());
+        assertThat(getMeterCount("timeout"))
+                .isEqualTo(1);
+        assertThat(getMeterCount("hit"))
+                .isZero();
+
+        recorder.complete(true);
+    }
+
+    @Test
+    void testClearDuringExtraction() throws Exception {
+        final StreamingAnalyticExtractionCache cache = createCache();
+
+        final Recorder recorder = cache.replayOrRecord(KEY, mockLeaderConsumer, new RecordCount()).orElseThrow();
+        final CompletableFuture<Optional<Recorder>> follower = CompletableFuture.supplyAsync(() ->
+                cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()));
+        recorder.acceptStringValues(RECORD_1);
+        Thread.sleep(100);
+
+        // A doc the pipeline uses changes part way through the extraction.
+        cache.clear();
+
+        // Tasks that start after the clear don't wait for the old extraction.
+        final Recorder newRecorder = cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount())
+                .orElseThrow();
+
+        // The old extraction isn't shared with the waiting task or cached.
+        recorder.complete(true);
+        assertThat(follower.get(5, TimeUnit.SECONDS))
+                .isPresent();
+        verify(mockFollowerConsumer, never()).acceptStringValues(any());
+
+        newRecorder.acceptStringValues(RECORD_2);
+        newRecorder.complete(true);
+        assertThat(cache.replayOrRecord(KEY, mockFollowerConsumer, new RecordCount()))
+                .isEmpty();
+        verify(mockFollowerConsumer, times(2)).acceptStringValues(RECORD_2);
+    }
+
+    private StreamingAnalyticExtractionCache createCache() {
+        return createCache(new AnalyticsConfig().getStreamingAnalyticExtractionMaxWait());
+    }
+
+    private StreamingAnalyticExtractionCache createCache(final StroomDuration maxWait) {
+        final AnalyticsConfig analyticsConfig = new AnalyticsConfig().withStreamingAnalyticExtractionMaxWait(maxWait);
+        return new StreamingAnalyticExtractionCache(new CacheManagerImpl(), () -> analyticsConfig, metrics);
+    }
+
+    private long getMeterCount(final String name) {
+        return metrics.getRegistry()
+                .meter(MetricsUtil.buildName(StreamingAnalyticExtractionCache.class, name))
+                .getCount();
+    }
+
+    private long getWaitCount() {
+        return metrics.getRegistry()
+                .timer(MetricsUtil.buildName(StreamingAnalyticExtractionCache.class, "wait", "time"))
+                .getCount();
+    }
+}
@@ -18,15 +18,20 @@ package stroom.analytics;
 
 import stroom.ai.impl.MockAiModule;
 import stroom.analytics.impl.AnalyticRuleProcessors;
+import stroom.analytics.impl.AnalyticRuleStore;
 import stroom.analytics.shared.AnalyticProcessType;
 import stroom.analytics.shared.AnalyticRuleDoc;
 import stroom.analytics.shared.QueryLanguageVersion;
 import stroom.app.guice.CoreModule;
 import stroom.app.guice.JerseyModule;
 import stroom.app.uri.UriFactoryModule;
+import stroom.data.shared.StreamTypeNames;
 import stroom.docref.DocRef;
 import stroom.docstore.impl.DocFinderModule;
 import stroom.index.VolumeTestConfigModule;
+import stroom.meta.api.MetaService;
+import stroom.meta.shared.FindMetaCriteria;
+import stroom.meta.shared.Meta;
 import stroom.meta.shared.MetaFields;
 import stroom.meta.statistics.impl.MockMetaStatisticsModule;
 import stroom.node.api.NodeInfo;
@@ -45,8 +50,12 @@ import name.falgout.jeffrey.testing.junit.guice.IncludeModule;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
+
 @ExtendWith(GuiceExtension.class)
 @IncludeModule(UriFactoryModule.class)
 @IncludeModule(CoreModule.class)
@@ -71,6 +80,10 @@ class TestStreamingAnalytics extends AbstractAnalyticsTest {
     private AnalyticRuleProcessors analyticRuleProcessors;
     @Inject
     private ProcessorFilterService processorFilterService;
+    @Inject
+    private AnalyticRuleStore analyticRuleStore;
+    @Inject
+    private MetaService metaService;
 
     @Test
     void testSingleEvent() {
@@ -108,10 +121,62 @@ class TestStreamingAnalytics extends AbstractAnalyticsTest {
         basicTest(query, 9, 6);
     }
 
+    @Test
+    void testSharedExtraction() {
+        final String query = """
+                from index_view
+                where UserId = user5
+                select StreamId, EventId, UserId""";
+
+        // Both rules use the same pipeline so the second to process each stream replays the records
+        // extracted by the first rather than running the pipeline.
+        final AnalyticRuleDoc analyticRuleDoc = createRule(query);
+        createProcessorFilter(query, writeRule(analyticRuleDoc));
+        final DocRef otherRuleDocRef = analyticRuleStore.createDocument("Other Analytic Rule");
+        analyticRuleStore.writeDocument(analyticRuleStore.readDocument(otherRuleDocRef).copy()
+                .languageVersion(analyticRuleDoc.getLanguageVersion())
+                .query(analyticRuleDoc.getQuery())
+                .analyticProcessType(analyticRuleDoc.getAnalyticProcessType())
+                .notifications(new ArrayList<>(analyticRuleDoc.getNotifications()))
+                .errorFeed(analyticRuleDoc.getErrorFeed())
+                .build());
+        createProcessorFilter(query, otherRuleDocRef);
+
+        commonTranslationTestHelper.processAll();
+
+        // Each rule writes its own detections, whether it ran the pipeline or replayed the records, and
+        // they must all have the stream they were found in as their parent.
+        analyticsDataSetup.checkStreamCount(10);
+        final List<Meta> detections = metaService
+                .find(FindMetaCriteria.createWithType(StreamTypeNames.DETECTIONS))
+                .getValues();
+        assertThat(detections)
+                .hasSize(2);
+        final Long parentMetaId = detections.getFirst().getParentMetaId();
+        assertThat(parentMetaId)
+                .isNotNull();
+        assertThat(metaService.getMeta(parentMetaId).getTypeName())
+                .isNotEqualTo(StreamTypeNames.DETECTIONS);
+        assertThat(detections)
+                .extracting(Meta::getParentMetaId)
+                .containsOnly(parentMetaId);
+    }
+
     private void basicTest(final String query,
                            final int expectedStreams,
                            final int expectedRecords) {
-        final AnalyticRuleDoc analyticRuleDoc = AnalyticRuleDoc.builder()
+        final DocRef analyticRuleDocRef = writeRule(createRule(query));
+        createProcessorFilter(query, analyticRuleDocRef);
+
+        // Now run the processing.
+        commonTranslationTestHelper.processAll();
+
+        // As we have created alerts ensure we now have more streams.
+        testDetectionsStream(expectedStreams, expectedRecords);
+    }
+
+    private AnalyticRuleDoc createRule(final String query) {
+        return AnalyticRuleDoc.builder()
                 .uuid(UUID.randomUUID().toString())
                 .languageVersion(QueryLanguageVersion.STROOM_QL_VERSION_0_1)
                 .query(query)
@@ -119,7 +184,9 @@ class TestStreamingAnalytics extends AbstractAnalyticsTest {
                 .notifications(createNotificationConfig())
                 .errorFeed(analyticsDataSetup.getDetections())
                 .build();
-        final DocRef analyticRuleDocRef = writeRule(analyticRuleDoc);
+    }
+
+    private void createProcessorFilter(final String query, final DocRef analyticRuleDocRef) {
         final ExpressionOperator expressionOperator = analyticRuleProcessors
                 .getDefaultProcessingFilterExpression(query);
         final QueryData queryData = QueryData
@@ -140,11 +207,5 @@ class TestStreamingAnalytics extends AbstractAnalyticsTest {
                 .maxMetaCreateTimeMs(Long.MAX_VALUE)
                 .build();
         processorFilterService.create(request);
-
-        // Now run the processing.
-        commonTranslationTestHelper.processAll();
-
-        // As we have created alerts ensure we now have more streams.
-        testDetectionsStream(expectedStreams, expectedRecords);
     }
 }
@@ -30,6 +30,7 @@ import stroom.pipeline.shared.data.PipelineElementType;
 import stroom.pipeline.shared.data.PipelineLayer;
 import stroom.task.api.SimpleTaskContext;
 import stroom.test.AbstractProcessIntegrationTest;
+import stroom.test.common.MockMetrics;
 import stroom.test.common.StroomPipelineTestFileUtil;
 
 import org.junit.jupiter.api.Test;
@@ -70,7 +71,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                new PipelinePlanCache(new MockMetrics()));
         final Pipeline pipeline = pipelineFactory.create(mergedPipelineData, new SimpleTaskContext());
 
         System.out.println(pipeline);
@@ -82,7 +84,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                new PipelinePlanCache(new MockMetrics()));
 
         final String data1 = StroomPipelineTestFileUtil
                 .getString("TestPipelineFactory/EventDataPipeline.Pipeline.json");
@@ -129,7 +132,8 @@ class TestPipelineFactory extends AbstractProcessIntegrationTest {
                 elementRegistryFactory,
                 elementRegistryFactory,
                 new SimpleProcessorFactory(),
-                mockErrorReceiverProxy);
+                mockErrorReceiverProxy,
+                new PipelinePlanCache(new MockMetrics()));
 
         final String data1 = StroomPipelineTestFileUtil
                 .getString("TestPipelineFactory/TestBasePipeline.Pipeline.json");
@@ -79,6 +79,7 @@ import software.amazon.awssdk.transfer.s3.model.FileDownload;
 import software.amazon.awssdk.transfer.s3.model.FileUpload;
 import software.amazon.awssdk.transfer.s3.model.UploadFileRequest;
 import software.amazon.awssdk.transfer.s3.progress.LoggingTransferListener;
+import software.amazon.awssdk.utils.SdkAutoCloseable;
 
 import java.net.URI;
 import java.nio.charset.StandardCharsets;
@@ -97,7 +98,7 @@ import java.util.concurrent.Future;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-public class S3Manager {
+public class S3Manager implements AutoCloseable {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(S3Manager.class);
 
@@ -115,11 +116,77 @@ public class S3Manager {
 
     private final PathCreator pathCreator;
     private final S3ClientConfig s3ClientConfig;
+    private final boolean reuseClients;
+
+    private volatile S3Client sharedClient;
+    private volatile S3AsyncClient sharedAsyncClient;
 
     public S3Manager(final PathCreator pathCreator,
                      final S3ClientConfig s3ClientConfig) {
+        this(pathCreator, s3ClientConfig, false);
+    }
+
+    /**
+     * @param reuseClients If true the S3 clients are created on first use and shared by all
+     *                     subsequent operations until this manager is closed, otherwise a new
+     *                     client is created and closed for every operation.
+     */
+    public S3Manager(final PathCreator pathCreator,
+                     final S3ClientConfig s3ClientConfig,
+                     final boolean reuseClients) {
         this.pathCreator = pathCreator;
         this.s3ClientConfig = s3ClientConfig;
+        this.reuseClients = reuseClients;
+    }
+
+    public S3ClientConfig getS3ClientConfig() {
+        return s3ClientConfig;
+    }
+
+    private ClientLease<S3Client> leaseClient() {
+        if (!reuseClients) {
+            return new ClientLease<>(createClient(s3ClientConfig), true);
+        }
+        S3Client client = sharedClient;
+        if (client == null) {
+            synchronized (this) {
+                client = sharedClient;
+                if (client == null) {
+                    client = createClient(s3ClientConfig);
+                    sharedClient = client;
+                }
+            }
+        }
+        return new ClientLease<>(client, false);
+    }
+
+    private ClientLease<S3AsyncClient> leaseAsyncClient() {
+        if (!reuseClients) {
+            return new ClientLease<>(createAsyncClient(s3ClientConfig), true);
+        }
+        S3AsyncClient client = sharedAsyncClient;
+        if (client == null) {
+            synchronized (this) {
+                client = sharedAsyncClient;
+                if (client == null) {
+                    client = createAsyncClient(s3ClientConfig);
+                    sharedAsyncClient = client;
+                }
+            }
+        }
+        return new ClientLease<>(client, false);
+    }
+
+    @Override
+    public synchronized void close() {
+        if (sharedClient != null) {
+            sharedClient.close();
+            sharedClient = null;
+        }
+        if (sharedAsyncClient != null) {
+            sharedAsyncClient.close();
+            sharedAsyncClient = null;
+        }
     }
 
     private S3AsyncClient createAsyncClient(final S3ClientConfig s3ClientConfig) {
@@ -479,7 +546,8 @@ public class S3Manager {
 
         final PutObjectResponse response;
         if (s3ClientConfig.isAsync()) {
-            try (final S3AsyncClient s3AsyncClient = createAsyncClient(s3ClientConfig)) {
+            try (final ClientLease<S3AsyncClient> lease = leaseAsyncClient()) {
+                final S3AsyncClient s3AsyncClient = lease.client();
                 if (s3ClientConfig.isMultipart()) {
                     try (final S3TransferManager transferManager =
                             S3TransferManager.builder()
@@ -508,7 +576,8 @@ public class S3Manager {
                 }
             }
         } else {
-            try (final S3Client s3Client = createClient(s3ClientConfig)) {
+            try (final ClientLease<S3Client> lease = leaseClient()) {
+                final S3Client s3Client = lease.client();
                 response = s3Client.putObject(request, source);
             }
         }
@@ -523,7 +592,8 @@ public class S3Manager {
 
         final CreateBucketResponse response;
         if (s3ClientConfig.isAsync()) {
-            try (final S3AsyncClient s3AsyncClient = createAsyncClient(s3ClientConfig)) {
+            try (final ClientLease<S3AsyncClient> lease = leaseAsyncClient()) {
+                final S3AsyncClient s3AsyncClient = lease.client();
                 response = s3AsyncClient.createBucket(
                         request).join();
             } catch (final S3Exception e) {
@@ -531,7 +601,8 @@ public class S3Manager {
                 throw e;
             }
         } else {
-            try (final S3Client s3Client = createClient(s3ClientConfig)) {
+            try (final ClientLease<S3Client> lease = leaseClient()) {
+                final S3Client s3Client = lease.client();
                 response = s3Client.createBucket(request);
             } catch (final S3Exception e) {
                 error("Error creating bucket: ", bucketName, null, e);
@@ -554,7 +625,8 @@ public class S3Manager {
 
         final GetObjectResponse response;
         if (s3ClientConfig.isAsync()) {
-            try (final S3AsyncClient s3AsyncClient = createAsyncClient(s3ClientConfig)) {
+            try (final ClientLease<S3AsyncClient> lease = leaseAsyncClient()) {
+                final S3AsyncClient s3AsyncClient = lease.client();
                 if (s3ClientConfig.isMultipart()) {
                     try (final S3TransferManager transferManager =
                             S3TransferManager.builder()
@@ -586,7 +658,8 @@ public class S3Manager {
                 throw e;
             }
         } else {
-            try (final S3Client s3Client = createClient(s3ClientConfig)) {
+            try (final ClientLease<S3Client> lease = leaseClient()) {
+                final S3Client s3Client = lease.client();
                 response = s3Client.getObject(request, dest);
             } catch (final RuntimeException e) {
                 error("Error downloading: ", bucketName, key, e);
@@ -609,14 +682,16 @@ public class S3Manager {
 
         final DeleteObjectResponse response;
         if (s3ClientConfig.isAsync()) {
-            try (final S3AsyncClient s3AsyncClient = createAsyncClient(s3ClientConfig)) {
+            try (final ClientLease<S3AsyncClient> lease = leaseAsyncClient()) {
+                final S3AsyncClient s3AsyncClient = lease.client();
                 response = s3AsyncClient.deleteObject(request).join();
             } catch (final S3Exception e) {
                 error("Error deleting: ", bucketName, key, e);
                 throw e;
             }
         } else {
-            try (final S3Client s3Client = createClient(s3ClientConfig)) {
+            try (final ClientLease<S3Client> lease = leaseClient()) {
+                final S3Client s3Client = lease.client();
                 response = s3Client.deleteObject(request);
             } catch (final S3Exception e) {
                 error("Error deleting: ", bucketName, key, e);
@@ -763,4 +838,22 @@ public class S3Manager {
                bucketName +
                Optional.ofNullable(key).map(k -> ", key=" + k).orElse("");
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A client that is only closed after use if it isn't shared.
+     */
+    private record ClientLease<T extends SdkAutoCloseable>(T client, boolean closeAfterUse)
+            implements AutoCloseable {
+
+        @Override
+        public void close() {
+            if (closeAfterUse) {
+                client.close();
+            }
+        }
+    }
 }
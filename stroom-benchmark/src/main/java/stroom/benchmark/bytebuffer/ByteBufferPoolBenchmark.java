@@ -0,0 +1,105 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.bytebuffer;
+
+import stroom.bytebuffer.ByteBufferPool;
+import stroom.bytebuffer.ByteBufferPoolConfig;
+import stroom.bytebuffer.ByteBufferPoolImpl;
+import stroom.bytebuffer.ByteBufferPoolImpl2;
+import stroom.bytebuffer.ByteBufferPoolImpl3;
+import stroom.bytebuffer.ByteBufferPoolImpl4;
+import stroom.bytebuffer.ByteBufferPoolImpl5;
+import stroom.bytebuffer.PooledByteBuffer;
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.bytebuffer.impl6.ByteBufferPoolImpl6;
+import stroom.bytebuffer.impl6.ByteBufferPoolImpl7;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures the contention between threads getting buffers from, and releasing them to, each of
+ * the {@link ByteBufferPool} implementations. The single threaded benchmark gives the
+ * uncontended cost for comparison.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ByteBufferPoolBenchmark {
+
+    // Buffer sizes typical of LMDB keys and values
+    private static final int[] CAPACITIES = {16, 64, 128, 512, 1_024, 4_096};
+
+    @Benchmark
+    @Threads(1)
+    public void uncontended(final ExecutionPlan plan, final Blackhole blackhole) {
+        getAndRelease(plan.byteBufferPool, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void contended(final ExecutionPlan plan, final Blackhole blackhole) {
+        getAndRelease(plan.byteBufferPool, blackhole);
+    }
+
+    private static void getAndRelease(final ByteBufferPool byteBufferPool, final Blackhole blackhole) {
+        final int capacity = CAPACITIES[ThreadLocalRandom.current().nextInt(CAPACITIES.length)];
+        try (final PooledByteBuffer pooledByteBuffer = byteBufferPool.getPooledByteBuffer(capacity)) {
+            final ByteBuffer byteBuffer = pooledByteBuffer.getByteBuffer();
+            byteBuffer.putLong(0, capacity);
+            blackhole.consume(byteBuffer.getLong(0));
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"1", "2", "3", "4", "5", "6", "7"})
+        public int impl;
+
+        public ByteBufferPool byteBufferPool;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            byteBufferPool = switch (impl) {
+                case 1 -> new ByteBufferPoolImpl();
+                case 2 -> new ByteBufferPoolImpl2();
+                case 3 -> new ByteBufferPoolImpl3();
+                case 4 -> new ByteBufferPoolImpl4(ByteBufferPoolConfig::new);
+                case 5 -> new ByteBufferPoolImpl5();
+                case 6 -> new ByteBufferPoolImpl6(ByteBufferPoolConfig::new);
+                case 7 -> new ByteBufferPoolImpl7(new ByteBufferFactoryImpl());
+                default -> throw new IllegalArgumentException("Unknown impl " + impl);
+            };
+        }
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.data;
+
+import stroom.data.store.impl.fs.BlockGZIPFiles;
+import stroom.util.io.FileUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures writing and reading a block GZIP file of event like data, compressing and reading ahead
+ * on the calling thread or on a pool of threads. The package private block GZIP files are opened
+ * through {@link BlockGZIPFiles} from the stroom-data-store-impl-fs test fixtures.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class BlockGZIPBenchmark {
+
+    @Benchmark
+    public void write(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        try (final OutputStream outputFile = BlockGZIPFiles.createOutputFile(
+                plan.writeFile,
+                plan.executorService,
+                plan.threads)) {
+            for (int i = 0; i < plan.sizeMb; i++) {
+                outputFile.write(plan.data);
+            }
+        }
+        blackhole.consume(Files.size(plan.writeFile));
+    }
+
+    @Benchmark
+    public void read(final ExecutionPlan plan, final Blackhole blackhole) throws IOException {
+        long total = 0;
+        try (final InputStream inputStream = plan.threads > 1
+                ? BlockGZIPFiles.createInputFile(plan.readFile, plan.executorService, plan.threads)
+                : BlockGZIPFiles.createInputFile(plan.readFile, null, 0)) {
+            int len;
+            while ((len = inputStream.read(plan.readBuffer, 0, plan.readBuffer.length)) != -1) {
+                total += len;
+            }
+        }
+        blackhole.consume(total);
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        // The uncompressed size of the file
+        @Param({"64"})
+        public int sizeMb;
+
+        // The number of threads compressing or decompressing blocks
+        @Param({"1", "4"})
+        public int threads;
+
+        public byte[] data;
+        public byte[] readBuffer;
+        public ExecutorService executorService;
+        public Path writeFile;
+        public Path readFile;
+
+        private Path tempDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            tempDir = Files.createTempDirectory("stroom-benchmark");
+            writeFile = tempDir.resolve("write.bgz");
+            readFile = tempDir.resolve("read.bgz");
+            executorService = Executors.newFixedThreadPool(threads);
+            readBuffer = new byte[8_192];
+
+            // 1MB of repetitive, but not identical, event data
+            final StringBuilder sb = new StringBuilder();
+            int i = 0;
+            while (sb.length() < 1_000_000) {
+                sb.append("<Event><Id>")
+                        .append(i)
+                        .append("</Id><User>user")
+                        .append(i % 100)
+                        .append("</User><Action>")
+                        .append(i % 3 == 0
+                                ? "Logon"
+                                : "View")
+                        .append("</Action></Event>\n");
+                i++;
+            }
+            data = sb.toString().getBytes(StandardCharsets.UTF_8);
+
+            try (final OutputStream outputFile = BlockGZIPFiles.createOutputFile(readFile, null, 0)) {
+                for (int j = 0; j < sizeMb; j++) {
+                    outputFile.write(data);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            executorService.shutdown();
+            FileUtil.deleteDir(tempDir);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.query;
+
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionOperator.Op;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.query.api.datasource.QueryField;
+import stroom.query.common.v2.ExpressionPredicateFactory;
+import stroom.query.common.v2.StringValueFunctionFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Measures creating predicates with {@link ExpressionPredicateFactory} from quick filter
+ * strings and evaluating predicates built from filters and expressions against a list of
+ * values, as the quick filters and table filters do.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ExpressionPredicateFactoryBenchmark {
+
+    private static final String FIELD_NAME = "name";
+
+    @Benchmark
+    public void createFilterPredicate(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(plan.expressionPredicateFactory.create(plan.filter));
+    }
+
+    @Benchmark
+    public void testFilterPredicate(final ExecutionPlan plan, final Blackhole blackhole) {
+        int count = 0;
+        for (final String value : plan.values) {
+            if (plan.filterPredicate.test(value)) {
+                count++;
+            }
+        }
+        blackhole.consume(count);
+    }
+
+    @Benchmark
+    public void testExpressionPredicate(final ExecutionPlan plan, final Blackhole blackhole) {
+        int count = 0;
+        for (final String value : plan.values) {
+            if (plan.expressionPredicate.test(value)) {
+                count++;
+            }
+        }
+        blackhole.consume(count);
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        // Fuzzy, prefix, exact, suffix and regex matching
+        @Param({"map", "^this_", "=this_is_my_feed", "$feed", "/^this.*[0-9]+$"})
+        public String filter;
+
+        public ExpressionPredicateFactory expressionPredicateFactory;
+        public Predicate<String> filterPredicate;
+        public Predicate<String> expressionPredicate;
+        public List<String> values;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            expressionPredicateFactory = new ExpressionPredicateFactory();
+            filterPredicate = expressionPredicateFactory.create(filter);
+
+            final QueryField field = QueryField.createText(FIELD_NAME);
+            final ExpressionOperator expression = ExpressionOperator.builder()
+                    .op(Op.OR)
+                    .addTextTerm(field, Condition.CONTAINS, "my_feed")
+                    .addTextTerm(field, Condition.EQUALS, "that_is_my_feed_*")
+                    .addTextTerm(field, Condition.MATCHES_REGEX, "^this.*[0-9]+$")
+                    .build();
+            expressionPredicate = expressionPredicateFactory.create(
+                    expression,
+                    StringValueFunctionFactory.create(field));
+
+            values = new ArrayList<>(10_000);
+            for (int i = 0; i < 10_000; i++) {
+                values.add(switch (i % 4) {
+                    case 0 -> "this_is_my_feed";
+                    case 1 -> "that_is_my_feed_" + i;
+                    case 2 -> "THIS_IS_ANOTHER_FEED_" + i;
+                    default -> "some_map_" + i;
+                });
+            }
+        }
+    }
+}
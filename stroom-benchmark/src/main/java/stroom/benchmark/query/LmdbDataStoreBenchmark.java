@@ -0,0 +1,235 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.query;
+
+import stroom.bytebuffer.impl6.ByteBufferFactoryImpl;
+import stroom.lmdb.LmdbLibrary;
+import stroom.lmdb.LmdbLibraryConfig;
+import stroom.lmdb2.LmdbEnv;
+import stroom.lmdb2.LmdbEnvDir;
+import stroom.lmdb2.LmdbEnvDirFactory;
+import stroom.query.api.Column;
+import stroom.query.api.Format;
+import stroom.query.api.OffsetRange;
+import stroom.query.api.ParamUtil;
+import stroom.query.api.QueryKey;
+import stroom.query.api.ResultRequest;
+import stroom.query.api.SearchRequestSource;
+import stroom.query.api.TableSettings;
+import stroom.query.common.v2.AnnotationMapperFactory;
+import stroom.query.common.v2.DataStore;
+import stroom.query.common.v2.DataStoreSettings;
+import stroom.query.common.v2.ErrorConsumerImpl;
+import stroom.query.common.v2.ExpressionPredicateFactory;
+import stroom.query.common.v2.LmdbDataStore;
+import stroom.query.common.v2.SearchResultStoreConfig;
+import stroom.query.common.v2.Sizes;
+import stroom.query.common.v2.TableResultCreator;
+import stroom.query.language.functions.ExpressionContext;
+import stroom.query.language.functions.FieldIndex;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValString;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures adding rows to a {@link LmdbDataStore}, grouped on one column, until the store has
+ * consumed them all and fetching a page of results from a populated store.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class LmdbDataStoreBenchmark {
+
+    private static final String COMPONENT_ID = "table-1";
+
+    @Benchmark
+    public void insert(final ExecutionPlan plan, final Blackhole blackhole) throws InterruptedException {
+        final DataStore dataStore = plan.createDataStore();
+        try {
+            plan.addRows(dataStore);
+            blackhole.consume(dataStore.getCompletionState().isComplete());
+        } finally {
+            dataStore.clear();
+        }
+    }
+
+    @Benchmark
+    public void fetch(final ExecutionPlan plan, final Blackhole blackhole) {
+        blackhole.consume(new TableResultCreator().create(plan.populatedDataStore, plan.resultRequest));
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"100000"})
+        public int rowCount;
+
+        // The number of distinct values in the grouped column
+        @Param({"100", "10000"})
+        public int groupCount;
+
+        // The number of partitions the grouped results are written to
+        @Param({"1", "4"})
+        public int writerPartitions;
+
+        public TableSettings tableSettings;
+        public ResultRequest resultRequest;
+        public DataStore populatedDataStore;
+
+        private Path tempDir;
+        private ExecutorService executorService;
+        private LmdbEnvDirFactory lmdbEnvDirFactory;
+        private SearchResultStoreConfig resultStoreConfig;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException, InterruptedException {
+            tempDir = Files.createTempDirectory("stroom-benchmark");
+            executorService = Executors.newCachedThreadPool();
+            resultStoreConfig = new SearchResultStoreConfig(
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    null,
+                    writerPartitions,
+                    null,
+                    null);
+
+            final PathCreator pathCreator = new SimplePathCreator(() -> tempDir, () -> tempDir);
+            final LmdbLibraryConfig lmdbLibraryConfig = new LmdbLibraryConfig();
+            lmdbEnvDirFactory = new LmdbEnvDirFactory(
+                    new LmdbLibrary(pathCreator, () -> tempDir, () -> lmdbLibraryConfig), pathCreator);
+
+            tableSettings = TableSettings.builder()
+                    .addColumns(Column.builder()
+                            .id("Key")
+                            .name("Key")
+                            .expression(ParamUtil.create("Key"))
+                            .format(Format.TEXT)
+                            .group(0)
+                            .build())
+                    .addColumns(Column.builder()
+                            .id("Count")
+                            .name("Count")
+                            .expression("count()")
+                            .format(Format.NUMBER)
+                            .build())
+                    .addColumns(Column.builder()
+                            .id("Sum")
+                            .name("Sum")
+                            .expression("sum(" + ParamUtil.create("Value") + ")")
+                            .format(Format.NUMBER)
+                            .build())
+                    .build();
+            resultRequest = ResultRequest.builder()
+                    .componentId(COMPONENT_ID)
+                    .addMappings(tableSettings)
+                    .requestedRange(new OffsetRange(0, 100))
+                    .build();
+
+            populatedDataStore = createDataStore();
+            addRows(populatedDataStore);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            populatedDataStore.clear();
+            executorService.shutdown();
+            FileUtil.deleteDir(tempDir);
+        }
+
+        DataStore createDataStore() {
+            final LmdbEnvDir lmdbEnvDir = lmdbEnvDirFactory
+                    .builder()
+                    .config(resultStoreConfig.getLmdbConfig())
+                    .subDir(UUID.randomUUID().toString())
+                    .build();
+            final LmdbEnv.Builder lmdbEnvBuilder = LmdbEnv
+                    .builder()
+                    .config(resultStoreConfig.getLmdbConfig())
+                    .lmdbEnvDir(lmdbEnvDir);
+            final DataStoreSettings dataStoreSettings = DataStoreSettings
+                    .createBasicSearchResultStoreSettings()
+                    .copy()
+                    .maxResults(Sizes.unlimited())
+                    .build();
+            // Fix the positions of the fields in the rows we add
+            final FieldIndex fieldIndex = new FieldIndex();
+            fieldIndex.create("Key");
+            fieldIndex.create("Value");
+            return new LmdbDataStore(
+                    SearchRequestSource.createBasic(),
+                    lmdbEnvBuilder,
+                    resultStoreConfig,
+                    new QueryKey(UUID.randomUUID().toString()),
+                    COMPONENT_ID,
+                    tableSettings,
+                    new ExpressionContext(),
+                    fieldIndex,
+                    Collections.emptyMap(),
+                    dataStoreSettings,
+                    () -> executorService,
+                    new ErrorConsumerImpl(),
+                    new ByteBufferFactoryImpl(),
+                    new ExpressionPredicateFactory(),
+                    AnnotationMapperFactory.NO_OP,
+                    null);
+        }
+
+        void addRows(final DataStore dataStore) throws InterruptedException {
+            for (int i = 0; i < rowCount; i++) {
+                dataStore.accept(Val.of(
+                        ValString.create("key_" + (i % groupCount)),
+                        ValLong.create(i)));
+            }
+            // Wait for all items to be added.
+            dataStore.getCompletionState().signalComplete();
+            dataStore.getCompletionState().awaitCompletion();
+        }
+    }
+}
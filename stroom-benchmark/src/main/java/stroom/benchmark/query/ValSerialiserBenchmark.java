@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.query;
+
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValBoolean;
+import stroom.query.language.functions.ValDate;
+import stroom.query.language.functions.ValDouble;
+import stroom.query.language.functions.ValInteger;
+import stroom.query.language.functions.ValLong;
+import stroom.query.language.functions.ValNull;
+import stroom.query.language.functions.ValSerialiser;
+import stroom.query.language.functions.ValString;
+import stroom.query.language.functions.ref.KryoDataReader;
+import stroom.query.language.functions.ref.KryoDataWriter;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures writing a row of {@link Val} values to a Kryo payload with {@link ValSerialiser}
+ * and reading it back, as the search result stores do for every stored row.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class ValSerialiserBenchmark {
+
+    @Benchmark
+    public void write(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.output.reset();
+        ValSerialiser.writeArray(new KryoDataWriter(plan.output), plan.row);
+        blackhole.consume(plan.output.position());
+    }
+
+    @Benchmark
+    public void read(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.input.setPosition(0);
+        blackhole.consume(ValSerialiser.readArray(new KryoDataReader(plan.input)));
+    }
+
+    @Benchmark
+    public void roundTrip(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.output.reset();
+        ValSerialiser.writeArray(new KryoDataWriter(plan.output), plan.row);
+        try (final Input input = new Input(plan.output.getBuffer(), 0, plan.output.position())) {
+            blackhole.consume(ValSerialiser.readArray(new KryoDataReader(input)));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ExecutionPlan {
+
+        // The length of the string values in the row
+        @Param({"10", "1000"})
+        public int stringLength;
+
+        public Val[] row;
+        public Output output;
+        public Input input;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final String text = "x".repeat(stringLength);
+            row = new Val[]{
+                    ValString.create(text),
+                    ValString.create("feed_" + text),
+                    ValLong.create(1_234_567_890_123L),
+                    ValInteger.create(42),
+                    ValDouble.create(123.456),
+                    ValBoolean.create(true),
+                    ValDate.create(System.currentTimeMillis()),
+                    ValNull.INSTANCE};
+
+            output = new Output(1024, -1);
+            ValSerialiser.writeArray(new KryoDataWriter(output), row);
+            input = new Input(output.toBytes());
+            output.reset();
+        }
+    }
+}
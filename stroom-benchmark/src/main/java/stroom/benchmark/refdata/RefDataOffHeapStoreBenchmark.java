@@ -0,0 +1,159 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.benchmark.refdata;
+
+import stroom.bytebuffer.PooledByteBufferOutputStream;
+import stroom.pipeline.refdata.ReferenceDataConfig;
+import stroom.pipeline.refdata.ReferenceDataLmdbConfig;
+import stroom.pipeline.refdata.store.MapDefinition;
+import stroom.pipeline.refdata.store.RefDataStore;
+import stroom.pipeline.refdata.store.RefDataStoreFactory;
+import stroom.pipeline.refdata.store.RefDataStoreTestModule;
+import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.StagingValueOutputStream;
+import stroom.pipeline.refdata.store.StringValue;
+import stroom.pipeline.refdata.store.ValueStoreHashAlgorithm;
+import stroom.util.io.FileUtil;
+import stroom.util.time.StroomDuration;
+
+import com.google.inject.Guice;
+import com.google.inject.Injector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Measures key/value lookups against the off heap reference data store, from one thread and
+ * from many threads sharing the store, as the reference data lookups in pipelines do.
+ * <p>
+ * The store is built with {@link RefDataStoreTestModule} from the stroom-pipeline test fixtures so it
+ * has the same mocked feeds and meta as the store tests.
+ * <p>
+ * readTxnReuseMaxAge compares opening a new read txn for each lookup (empty) with each thread
+ * re-using its own read txn.
+ * </p>
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class RefDataOffHeapStoreBenchmark {
+
+    private static final String MAP_NAME = "map1";
+
+    @Benchmark
+    @Threads(1)
+    public void lookup(final ExecutionPlan plan, final Blackhole blackhole) {
+        doLookup(plan, blackhole);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public void concurrentLookup(final ExecutionPlan plan, final Blackhole blackhole) {
+        doLookup(plan, blackhole);
+    }
+
+    private static void doLookup(final ExecutionPlan plan, final Blackhole blackhole) {
+        final String key = plan.keys[ThreadLocalRandom.current().nextInt(plan.keys.length)];
+        blackhole.consume(plan.refDataStore.getValue(plan.mapDefinition, key));
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"100000"})
+        public int entryCount;
+
+        @Param({"", "PT1S"})
+        public String readTxnReuseMaxAge;
+
+        public RefDataStore refDataStore;
+        public MapDefinition mapDefinition;
+        public String[] keys;
+
+        private Path tempDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            tempDir = Files.createTempDirectory("stroom-benchmark");
+            final ReferenceDataConfig referenceDataConfig = new ReferenceDataConfig()
+                    .withLmdbConfig(new ReferenceDataLmdbConfig()
+                            .withLocalDir(tempDir.toAbsolutePath().toString())
+                            .withReaderBlockedByWriter(false)
+                            .withReadTxnReuseMaxAge(readTxnReuseMaxAge.isEmpty()
+                                    ? null
+                                    : StroomDuration.parse(readTxnReuseMaxAge)));
+            final Injector injector = Guice.createInjector(new RefDataStoreTestModule(
+                    () -> referenceDataConfig,
+                    () -> tempDir,
+                    () -> tempDir));
+            refDataStore = injector.getInstance(RefDataStoreFactory.class).getOffHeapStore();
+
+            // Stream 1 is already associated with a feed by the test module
+            final RefStreamDefinition refStreamDefinition = RefDataStoreTestModule.REF_STREAM_1_DEF;
+            mapDefinition = new MapDefinition(refStreamDefinition, MAP_NAME);
+            keys = new String[entryCount];
+            for (int i = 0; i < entryCount; i++) {
+                keys[i] = "key_" + i;
+            }
+
+            final ValueStoreHashAlgorithm valueStoreHashAlgorithm =
+                    injector.getInstance(ValueStoreHashAlgorithm.class);
+            final PooledByteBufferOutputStream.Factory pooledByteBufferOutputStreamFactory =
+                    injector.getInstance(PooledByteBufferOutputStream.Factory.class);
+            refDataStore.doWithLoaderUnlessComplete(refStreamDefinition, System.currentTimeMillis(), loader -> {
+                loader.initialise(false);
+                try (final StagingValueOutputStream stagingValueOutputStream = new StagingValueOutputStream(
+                        valueStoreHashAlgorithm,
+                        pooledByteBufferOutputStreamFactory)) {
+                    for (int i = 0; i < entryCount; i++) {
+                        stagingValueOutputStream.clear();
+                        stagingValueOutputStream.write("value_" + i);
+                        stagingValueOutputStream.setTypeId(StringValue.TYPE_ID);
+                        loader.put(mapDefinition, keys[i], stagingValueOutputStream);
+                    }
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                loader.markPutsComplete();
+                loader.completeProcessing();
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            FileUtil.deleteDir(tempDir);
+        }
+    }
+}
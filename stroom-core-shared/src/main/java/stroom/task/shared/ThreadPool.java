@@ -21,4 +21,14 @@ public interface ThreadPool {
     String getName();
 
     int getPriority();
+
+    /**
+     * @return True if tasks submitted to this pool should each run on their own virtual
+     * thread rather than on a platform thread from a cached pool. Virtual threads suit pools
+     * whose tasks spend most of their time blocked on I/O, e.g. remote calls. The priority
+     * is ignored for virtual threads.
+     */
+    default boolean isUseVirtualThreads() {
+        return false;
+    }
 }
@@ -337,10 +337,20 @@ public abstract class AbstractProcessorTaskExecutor implements ProcessorTaskExec
             // Hold the source and feed so the pipeline filters can get them.
             streamProcessorHolder.setStreamProcessor(processor, processorTask);
 
-            // Process the streams.
-            final PipelineData pipelineData = pipelineDataCache.get(pipelineDoc);
-            final Pipeline pipeline = pipelineFactory.create(pipelineData, taskContext);
-            processNestedStreams(pipeline, meta, streamSource, taskContext);
+            // Hold the stream being processed. This must be done before the decorator is asked to supply
+            // the output as any streams it writes need the source stream as their parent.
+            metaHolder.setMeta(meta);
+            final StreamLocationFactory streamLocationFactory = new StreamLocationFactory();
+            locationFactory.setLocationFactory(streamLocationFactory);
+
+            // Process the streams unless the decorator can supply the output without running the pipeline.
+            if (getProcessDecorator().supplyOutput(processorTask)) {
+                LOGGER.debug(() -> "Output supplied by decorator for" + info);
+            } else {
+                final PipelineData pipelineData = pipelineDataCache.get(pipelineDoc);
+                final Pipeline pipeline = pipelineFactory.create(pipelineData, taskContext);
+                processNestedStreams(pipeline, meta, streamSource, streamLocationFactory, taskContext);
+            }
 
             final String finishedInfo = FINISHED +
                                         info +
@@ -387,16 +397,11 @@ public abstract class AbstractProcessorTaskExecutor implements ProcessorTaskExec
     private void processNestedStreams(final Pipeline pipeline,
                                       final Meta meta,
                                       final Source source,
+                                      final StreamLocationFactory streamLocationFactory,
                                       final TaskContext taskContext) {
         boolean startedProcessing = false;
 
-        // Get the stream providers.
-        metaHolder.setMeta(meta);
-
         try {
-            final StreamLocationFactory streamLocationFactory = new StreamLocationFactory();
-            locationFactory.setLocationFactory(streamLocationFactory);
-
             // Loop over the stream boundaries and process each
             // sequentially.
             final long count = source.count();
@@ -18,6 +18,7 @@ package stroom.core.dataprocess;
 
 import stroom.docref.DocRef;
 import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorTask;
 
 public interface ProcessorTaskDecorator {
 
@@ -25,5 +26,16 @@ public interface ProcessorTaskDecorator {
 
     void beforeProcessing(ProcessorFilter processorFilter);
 
+    /**
+     * Called once the pipeline has been resolved but before it is created, to give the decorator the
+     * chance to supply the output of processing the task from elsewhere, e.g. from another task that has
+     * processed the same data with the same pipeline.
+     *
+     * @return True if the output has been supplied and the pipeline does not need to be run.
+     */
+    default boolean supplyOutput(final ProcessorTask processorTask) {
+        return false;
+    }
+
     void afterProcessing();
 }
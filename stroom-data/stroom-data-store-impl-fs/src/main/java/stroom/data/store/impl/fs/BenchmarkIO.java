@@ -103,6 +103,9 @@ class BenchmarkIO {
         final Path bgzipIdxFile2 = dir.resolve("test2.idx");
         final Path bgzipDatFile3 = dir.resolve("test3.dat.bgzip");
         final Path bgzipIdxFile3 = dir.resolve("test4.idx");
+        final Path zstdFile = dir.resolve("test.zst");
+        final Path zstdDatFile = dir.resolve("test5.dat.zst");
+        final Path zstdIdxFile = dir.resolve("test5.idx");
 
         Files.createDirectories(dir);
 
@@ -113,6 +116,8 @@ class BenchmarkIO {
         doTest(bgzipDatFile1b, bgzipIdxFile1b, data, StreamType.BGZIP_SEG_COMPRESS);
         doTest(bgzipDatFile2, bgzipIdxFile2, data, StreamType.RAW_SEG_TEXT);
         doTest(bgzipDatFile3, bgzipIdxFile3, data, StreamType.RAW_SEG_XML);
+        doTest(zstdFile, null, data, StreamType.ZSTD);
+        doTest(zstdDatFile, zstdIdxFile, data, StreamType.ZSTD_SEG);
 
         Files.delete(rawFile);
         Files.delete(gzipFile);
@@ -125,6 +130,9 @@ class BenchmarkIO {
         Files.delete(bgzipIdxFile2);
         Files.delete(bgzipDatFile3);
         Files.delete(bgzipIdxFile3);
+        Files.delete(zstdFile);
+        Files.delete(zstdDatFile);
+        Files.delete(zstdIdxFile);
     }
 
     @SuppressWarnings("checkstyle:VariableDeclarationUsageDistance")
@@ -152,6 +160,13 @@ class BenchmarkIO {
                 os = new RASegmentOutputStream(new BlockGZIPOutputFile(file1), () ->
                         new BlockGZIPOutputFile(file2));
                 break;
+            case ZSTD:
+                os = new BlockZstdOutputFile(file1);
+                break;
+            case ZSTD_SEG:
+                os = new RASegmentOutputStream(new BlockZstdOutputFile(file1),
+                        () -> new LockingFileOutputStream(file2, false));
+                break;
             default:
                 throw new IllegalArgumentException("Unexpected stream type: " + streamType);
         }
@@ -225,6 +240,13 @@ class BenchmarkIO {
                 is = new RASegmentInputStream(
                         new BlockGZIPInputFile(file1), new BlockGZIPInputFile(file2));
                 break;
+            case ZSTD:
+                is = new BlockZstdInputFile(file1);
+                break;
+            case ZSTD_SEG:
+                is = new RASegmentInputStream(
+                        new BlockZstdInputFile(file1), new UncompressedInputStream(file2, false));
+                break;
             case RAW_SEG_TEXT:
                 is = new RASegmentInputStream(
                         new BlockGZIPInputFile(file1), new UncompressedInputStream(file2, false));
@@ -301,6 +323,8 @@ class BenchmarkIO {
         BGZIP_SEG,
         BGZIP_SEG_COMPRESS,
         RAW_SEG_TEXT,
-        RAW_SEG_XML
+        RAW_SEG_XML,
+        ZSTD,
+        ZSTD_SEG
     }
 }
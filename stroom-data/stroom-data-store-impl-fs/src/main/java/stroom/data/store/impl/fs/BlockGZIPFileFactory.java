@@ -0,0 +1,136 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Creates {@link BlockGZIPOutputFile} and {@link BlockGZIPInputFile} instances that compress and
+ * decompress blocks on a shared thread pool, as configured by {@link FsVolumeConfig}.
+ * The pool is shared by every stream being read or written so no more than one block per core is
+ * compressed or decompressed at once, however many streams are open.
+ */
+@Singleton
+class BlockGZIPFileFactory {
+
+    private static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Block GZIP");
+
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
+    private final Executor executor;
+
+    @Inject
+    BlockGZIPFileFactory(final Provider<FsVolumeConfig> fsVolumeConfigProvider,
+                         final ExecutorProvider executorProvider) {
+        this(fsVolumeConfigProvider, new BoundedExecutor(
+                executorProvider.get(THREAD_POOL),
+                Runtime.getRuntime().availableProcessors()));
+    }
+
+    BlockGZIPFileFactory(final Provider<FsVolumeConfig> fsVolumeConfigProvider,
+                         final Executor executor) {
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
+        this.executor = executor;
+    }
+
+    /**
+     * @return A factory that compresses and decompresses all blocks on the calling thread.
+     */
+    static BlockGZIPFileFactory sequential() {
+        return new BlockGZIPFileFactory(FsVolumeConfig::new, (Executor) null);
+    }
+
+    BlockGZIPOutputFile createOutputFile(final Path file) throws IOException {
+        return new BlockGZIPOutputFile(
+                file,
+                BlockGZIPConstants.DEFAULT_BLOCK_SIZE,
+                executor,
+                fsVolumeConfigProvider.get().getBlockGzipMaxBlocksInFlight());
+    }
+
+    BlockGZIPInputFile createInputFile(final Path file) throws IOException {
+        return new BlockGZIPInputFile(
+                file,
+                executor,
+                fsVolumeConfigProvider.get().getBlockGzipReadAheadBlocks());
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Runs at most {@code maxConcurrency} tasks at once on the delegate executor, queueing the rest.
+     */
+    static class BoundedExecutor implements Executor {
+
+        private final Executor delegate;
+        private final int maxConcurrency;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicInteger running = new AtomicInteger();
+
+        BoundedExecutor(final Executor delegate, final int maxConcurrency) {
+            this.delegate = delegate;
+            this.maxConcurrency = Math.max(1, maxConcurrency);
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            queue.add(command);
+            startWorkerIfRequired();
+        }
+
+        private void startWorkerIfRequired() {
+            while (!queue.isEmpty()) {
+                final int current = running.get();
+                if (current >= maxConcurrency) {
+                    // A running worker will pick the task up when it checks the queue before stopping.
+                    return;
+                }
+                if (running.compareAndSet(current, current + 1)) {
+                    delegate.execute(this::runQueued);
+                    return;
+                }
+            }
+        }
+
+        private void runQueued() {
+            try {
+                Runnable task;
+                while ((task = queue.poll()) != null) {
+                    task.run();
+                }
+            } finally {
+                running.decrementAndGet();
+                // Tasks may have been queued after our last poll while we still counted as running.
+                startWorkerIfRequired();
+            }
+        }
+    }
+}
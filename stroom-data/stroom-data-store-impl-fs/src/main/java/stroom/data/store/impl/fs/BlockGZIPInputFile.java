@@ -18,15 +18,31 @@ package stroom.data.store.impl.fs;
 
 import stroom.util.io.FileUtil;
 
+import jakarta.validation.constraints.NotNull;
+import org.apache.commons.compress.compressors.gzip.GzipCompressorInputStream;
+
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
 import java.nio.channels.Channels;
 import java.nio.channels.FileChannel;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
+ * If an {@link Executor} is supplied then the blocks are located using the index and decompressed
+ * on the executor ahead of the reader, so sequential reads only wait for a block if the reader is
+ * faster than the decompression.
+ *
  * @see BlockGZIPConstants
  */
 class BlockGZIPInputFile extends BlockGZIPInput {
@@ -37,16 +53,35 @@ class BlockGZIPInputFile extends BlockGZIPInput {
     // File pointer
     private final Path file;
 
+    // Decompresses blocks ahead of the reader, null if reading on the calling thread
+    private final ReadAhead readAhead;
+
     /**
      * Constructor to open a Block GZIP File.
      */
     BlockGZIPInputFile(final Path bgz) throws IOException {
+        this(bgz, null, 0);
+    }
+
+    /**
+     * Constructor to open a Block GZIP File that decompresses blocks ahead of the reader.
+     *
+     * @param executor        The executor to decompress blocks on. If null, or readAheadBlocks is
+     *                        less than 1, blocks are decompressed on the calling thread as they are read.
+     * @param readAheadBlocks The number of blocks after the current one to decompress ahead of time.
+     */
+    BlockGZIPInputFile(final Path bgz, final Executor executor, final int readAheadBlocks) throws IOException {
         this.raFile = FileChannel.open(bgz, StandardOpenOption.READ);
         try {
             this.file = bgz;
             raFile.position(0);
             init();
 
+            if (executor != null && readAheadBlocks > 0) {
+                readAhead = new ReadAhead(executor, readAheadBlocks, readIndex());
+            } else {
+                readAhead = null;
+            }
         } catch (final IOException e) {
             raFile.close();
             throw e;
@@ -64,6 +99,7 @@ class BlockGZIPInputFile extends BlockGZIPInput {
 
             raFile.position(0);
             init();
+            readAhead = null;
 
         } catch (final IOException e) {
             raFile.close();
@@ -71,6 +107,70 @@ class BlockGZIPInputFile extends BlockGZIPInput {
         }
     }
 
+    /**
+     * Read the start position of each block from the index.
+     */
+    private long[] readIndex() throws IOException {
+        final int markerLength = BlockGZIPConstants.MAGIC_MARKER.length;
+        final long indexLength = eof - idxStart - markerLength;
+        if (indexLength < 0 || indexLength % BlockGZIPConstants.LONG_BYTES != 0) {
+            invalid("Invalid index length " + indexLength);
+        }
+        final ByteBuffer indexBuffer = ByteBuffer.allocate(markerLength + (int) indexLength);
+        readFully(indexBuffer, idxStart);
+        if (!Arrays.equals(BlockGZIPConstants.MAGIC_MARKER, 0, markerLength,
+                indexBuffer.array(), 0, markerLength)) {
+            invalid("Failed to find index sync point");
+        }
+        final long[] index = new long[(int) (indexLength / BlockGZIPConstants.LONG_BYTES)];
+        indexBuffer.position(markerLength);
+        indexBuffer.asLongBuffer().get(index);
+        return index;
+    }
+
+    /**
+     * Fill the buffer from the file starting at the supplied file position. This doesn't change
+     * the position of the file so is safe to call from multiple threads.
+     */
+    private void readFully(final ByteBuffer buffer, final long filePosition) throws IOException {
+        long pos = filePosition;
+        while (buffer.hasRemaining()) {
+            final int len = raFile.read(buffer, pos);
+            if (len == -1) {
+                invalid("Unexpected EOF at " + pos);
+            }
+            pos += len;
+        }
+    }
+
+    /**
+     * Read and decompress a whole block.
+     */
+    private byte[] decompressBlock(final long blockStart, final long blockNo) throws IOException {
+        final int markerLength = BlockGZIPConstants.MAGIC_MARKER.length;
+        final ByteBuffer headerBuffer = ByteBuffer.allocate(markerLength + BlockGZIPConstants.LONG_BYTES);
+        readFully(headerBuffer, blockStart);
+        if (!Arrays.equals(BlockGZIPConstants.MAGIC_MARKER, 0, markerLength,
+                headerBuffer.array(), 0, markerLength)) {
+            invalid("Failed to find block sync point " + blockNo);
+        }
+        final long rawBlockSize = headerBuffer.getLong(markerLength);
+        final ByteBuffer rawBuffer = ByteBuffer.allocate((int) rawBlockSize);
+        readFully(rawBuffer, blockStart + headerBuffer.capacity());
+
+        // The last block may be short
+        final int uncompressedSize = (int) Math.min(blockSize, dataLength - (blockNo * blockSize));
+        final byte[] bytes = new byte[uncompressedSize];
+        try (final GzipCompressorInputStream gzipStream = new GzipCompressorInputStream(
+                new ByteArrayInputStream(rawBuffer.array()))) {
+            final int len = gzipStream.readNBytes(bytes, 0, uncompressedSize);
+            if (len != uncompressedSize || gzipStream.read() != -1) {
+                invalid("Unexpected uncompressed size for block " + blockNo);
+            }
+        }
+        return bytes;
+    }
+
     static void main(final String[] args) throws IOException {
         final BlockGZIPInputFile is = new BlockGZIPInputFile(Paths.get(args[0]));
 
@@ -84,11 +184,55 @@ class BlockGZIPInputFile extends BlockGZIPInput {
         System.out.flush();
     }
 
+    @Override
+    public int read() throws IOException {
+        if (readAhead == null) {
+            return super.read();
+        }
+        if (position >= dataLength) {
+            return -1;
+        }
+        final byte[] block = readAhead.getBlock(position / blockSize);
+        final int rtn = block[(int) (position % blockSize)] & 0xFF;
+        position++;
+        return rtn;
+    }
+
+    @Override
+    public int read(@NotNull final byte[] bytes, final int off, final int tryLen) throws IOException {
+        if (readAhead == null) {
+            return super.read(bytes, off, tryLen);
+        }
+        if (position >= dataLength) {
+            return -1;
+        }
+        // Only ever read from one block (make the caller do another read())
+        final byte[] block = readAhead.getBlock(position / blockSize);
+        final int blockOffset = (int) (position % blockSize);
+        final int len = Math.min(tryLen, block.length - blockOffset);
+        System.arraycopy(block, blockOffset, bytes, off, len);
+        position += len;
+        return len;
+    }
+
     /**
      * Here we provide random access into a stream.
      */
     @Override
     public long skip(final long n) throws IOException {
+        if (readAhead != null) {
+            // We read whole blocks by position so just need to move the position
+            final long newPosition = position + n;
+            if (newPosition > dataLength) {
+                throw new IOException("Seek past EOF");
+            }
+            if (newPosition < 0) {
+                throw new IOException("Seek past begining of file");
+            }
+            position = newPosition;
+            return n;
+        }
+
         // The first seek we do we check the index
         if (!checkedIndex) {
             // Record the current position in case we don't switch blocks
@@ -166,6 +310,9 @@ class BlockGZIPInputFile extends BlockGZIPInput {
     @Override
     public void close() throws IOException {
         try {
+            if (readAhead != null) {
+                readAhead.close();
+            }
             raFile.close();
         } finally {
             super.close();
@@ -191,6 +338,10 @@ class BlockGZIPInputFile extends BlockGZIPInput {
     @Override
     public void seek(final long pos) throws IOException {
         final long newPosition = Math.min(pos, dataLength);
+        if (readAhead != null) {
+            position = Math.max(0, newPosition);
+            return;
+        }
         final long offset = newPosition - position;
         // If +ve then we can skip.
         if (offset > 0) {
@@ -234,4 +385,82 @@ class BlockGZIPInputFile extends BlockGZIPInput {
     void invalid(final String message) throws IOException {
         throw new IOException(message + " \"" + FileUtil.getCanonicalPath(file) + "\"");
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Holds the decompressed current block and the futures for the blocks after it.
+     * Only accessed by the reading thread.
+     */
+    private class ReadAhead {
+
+        private final Executor executor;
+        private final int readAheadBlocks;
+        private final long[] index;
+        private final TreeMap<Long, CompletableFuture<byte[]>> futures = new TreeMap<>();
+
+        private long currentBlockNo = -1;
+        private byte[] currentBlock;
+
+        private ReadAhead(final Executor executor, final int readAheadBlocks, final long[] index) {
+            this.executor = executor;
+            this.readAheadBlocks = readAheadBlocks;
+            this.index = index;
+        }
+
+        byte[] getBlock(final long blockNo) throws IOException {
+            if (blockNo != currentBlockNo) {
+                if (blockNo < 0 || blockNo >= index.length) {
+                    invalid("Block " + blockNo + " is not in the index");
+                }
+
+                // Forget any blocks outside our window, e.g. after a seek.
+                final long lastBlockNo = Math.min(blockNo + readAheadBlocks, index.length - 1);
+                cancel(futures.headMap(blockNo, false));
+                cancel(futures.tailMap(lastBlockNo, false));
+
+                // Make sure the window is being decompressed.
+                for (long i = blockNo; i <= lastBlockNo; i++) {
+                    futures.computeIfAbsent(i, this::submit);
+                }
+
+                currentBlock = join(futures.remove(blockNo));
+                currentBlockNo = blockNo;
+            }
+            return currentBlock;
+        }
+
+        private CompletableFuture<byte[]> submit(final long blockNo) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return decompressBlock(index[(int) blockNo], blockNo);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }, executor);
+        }
+
+        private byte[] join(final CompletableFuture<byte[]> future) throws IOException {
+            try {
+                return future.join();
+            } catch (final CompletionException e) {
+                if (e.getCause() instanceof final UncheckedIOException uncheckedIOException) {
+                    throw uncheckedIOException.getCause();
+                }
+                throw new IOException("Error decompressing block in " + file, e.getCause());
+            }
+        }
+
+        private void cancel(final Map<Long, CompletableFuture<byte[]>> map) {
+            map.values().forEach(future -> future.cancel(false));
+            map.clear();
+        }
+
+        void close() {
+            cancel(futures);
+            currentBlock = null;
+        }
+    }
 }
@@ -27,13 +27,23 @@ import org.apache.commons.compress.compressors.gzip.GzipCompressorOutputStream;
 import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 
 /**
+ * If an {@link Executor} is supplied then each block is buffered uncompressed and compressed on
+ * the executor while the next block is being written. Compressed blocks are written to the file in
+ * order so the file is identical in format to one compressed on the writing thread.
+ *
  * @see BlockGZIPConstants
  */
 class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
@@ -54,8 +64,16 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
     // Use to help track non-closed streams
     private final StreamCloser streamCloser = new BasicStreamCloser();
     // The stream - we hold a buffer onto it as well
-    private BufferedOutputStream currentStreamBuffer;
+    private OutputStream currentStreamBuffer;
     private GzipCompressorOutputStream currentStreamGzip;
+    // The executor to compress blocks on or null to compress on the calling thread
+    private final Executor executor;
+    // The max number of blocks that can be compressing at once before we wait for the oldest
+    private final int maxBlocksInFlight;
+    // The uncompressed data for the current block when compressing on the executor
+    private BlockByteArrayOutputStream currentRawBlock;
+    // Blocks being compressed in the order they need to be written
+    private final Deque<CompletableFuture<BlockByteArrayOutputStream>> pendingBlocks = new ArrayDeque<>();
     // The block size we are using
     private final int blockSize;
     // The current 'logical' uncompressed data item we have written
@@ -77,7 +95,24 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
      * @see BlockGZIPConstants
      */
     BlockGZIPOutputFile(final Path file, final int blockSize) throws IOException {
+        this(file, blockSize, null, 1);
+    }
+
+    /**
+     * @param executor          The executor to compress blocks on. If null, or maxBlocksInFlight is
+     *                          less than 2, blocks are compressed on the calling thread.
+     * @param maxBlocksInFlight The max number of blocks to hold in memory while they are compressed.
+     * @see BlockGZIPConstants
+     */
+    BlockGZIPOutputFile(final Path file,
+                        final int blockSize,
+                        final Executor executor,
+                        final int maxBlocksInFlight) throws IOException {
         this.blockSize = blockSize;
+        this.executor = maxBlocksInFlight > 1
+                ? executor
+                : null;
+        this.maxBlocksInFlight = maxBlocksInFlight;
         this.mainBuffer = new BlockByteArrayOutputStream();
         this.indexBuffer = new BlockByteArrayOutputStream();
 
@@ -147,6 +182,11 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
     private void endGzipBlock() throws IOException {
         blockCount++;
 
+        if (executor != null) {
+            submitBlock();
+            return;
+        }
+
         currentStreamBuffer.flush();
         currentStreamGzip.flush();
         currentStreamGzip.finish();
@@ -166,6 +206,15 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
         // At what point to we start a new block
         currentBlockEndPos = (blockCount + 1) * blockSize;
 
+        if (executor != null) {
+            // Just buffer the uncompressed block, it will be compressed when it is complete.
+            // Start small as a lot of streams (e.g. the indexes) are much smaller than a block.
+            currentRawBlock = new BlockByteArrayOutputStream(
+                    Math.min(blockSize, FileSystemUtil.STREAM_BUFFER_SIZE));
+            currentStreamBuffer = currentRawBlock;
+            return;
+        }
+
         // Record the start Pos
         final long currentRawBlockStartPos = raFile.position();
 
@@ -183,6 +232,65 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
         currentStreamBuffer = new BufferedOutputStream(currentStreamGzip, FileSystemUtil.STREAM_BUFFER_SIZE);
     }
 
+    /**
+     * Hand the completed block to the executor to compress, then write any blocks that have finished
+     * compressing. Waits for the oldest block if there are too many in flight.
+     */
+    private void submitBlock() throws IOException {
+        final BlockByteArrayOutputStream rawBlock = currentRawBlock;
+        currentRawBlock = null;
+        currentStreamBuffer = null;
+
+        pendingBlocks.add(CompletableFuture.supplyAsync(() -> compressBlock(rawBlock), executor));
+
+        while (!pendingBlocks.isEmpty()
+               && (pendingBlocks.size() > maxBlocksInFlight || pendingBlocks.peek().isDone())) {
+            writePendingBlock();
+        }
+    }
+
+    /**
+     * Compress a block into the same [Magic Marker] [Block Size] [Block Data] form as
+     * {@link #startGzipBlock()} and {@link #endGzipBlock()} would.
+     */
+    private static BlockByteArrayOutputStream compressBlock(final BlockByteArrayOutputStream rawBlock) {
+        try {
+            final BlockByteArrayOutputStream blockBuffer = new BlockByteArrayOutputStream(
+                    Math.max(1024, rawBlock.size() / 4));
+            blockBuffer.write(BlockGZIPConstants.MAGIC_MARKER);
+            blockBuffer.writeLong(0);
+            try (final GzipCompressorOutputStream gzip = new GzipCompressorOutputStream(blockBuffer)) {
+                gzip.write(rawBlock.getRawBuffer(), 0, rawBlock.size());
+                gzip.finish();
+            }
+            final long rawBlockSize = blockBuffer.size()
+                                      - BlockGZIPConstants.LONG_BYTES
+                                      - BlockGZIPConstants.LONG_BYTES;
+            blockBuffer.overwriteLongAtOffset(BlockGZIPConstants.LONG_BYTES, rawBlockSize);
+            return blockBuffer;
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Wait for the oldest block to be compressed then index it and write it to the file.
+     */
+    private void writePendingBlock() throws IOException {
+        final BlockByteArrayOutputStream blockBuffer;
+        try {
+            blockBuffer = pendingBlocks.remove().join();
+        } catch (final CompletionException e) {
+            if (e.getCause() instanceof final UncheckedIOException uncheckedIOException) {
+                throw uncheckedIOException.getCause();
+            }
+            throw new IOException("Error compressing block in " + lockFile, e.getCause());
+        }
+        // Record the index
+        indexBuffer.writeLong(raFile.position());
+        raFile.write(ByteBuffer.wrap(blockBuffer.getRawBuffer(), 0, blockBuffer.size()));
+    }
+
     @Override
     public void write(final int b) throws IOException {
         if (currentStreamBuffer == null) {
@@ -243,6 +351,10 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
                     // End the data stream
                     endGzipBlock();
                 }
+                // Write any blocks still being compressed
+                while (!pendingBlocks.isEmpty()) {
+                    writePendingBlock();
+                }
 
                 // Record where we are going to start writing the index
                 final long idxStart = raFile.position();
@@ -277,6 +389,9 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
                 }
             }
         } finally {
+            // If we failed then don't wait for any outstanding blocks
+            pendingBlocks.forEach(future -> future.cancel(false));
+            pendingBlocks.clear();
             try {
                 streamCloser.close();
             } finally {
@@ -291,7 +406,7 @@ class BlockGZIPOutputFile extends OutputStream implements SeekableOutputStream {
         // performance reasons.
 
         // We only flush to our buffer (not all the way to the file)
-        if (currentStreamBuffer != null) {
+        if (currentStreamBuffer != null && executor == null) {
             currentStreamBuffer.flush();
         }
     }
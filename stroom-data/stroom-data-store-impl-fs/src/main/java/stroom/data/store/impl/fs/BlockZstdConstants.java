@@ -0,0 +1,62 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.StreamUtil;
+
+/**
+ * Block Zstd has the same layout as Block GZIP (see {@link BlockGZIPConstants}) but each block is a
+ * single Zstandard frame and the header also holds the ID of the dictionary used to compress the
+ * blocks (0 if no dictionary was used):
+ * <p>
+ * [Block Zstd Version Marker 'BZS1'] [Un-Compressed Block Size] [Un-Compressed
+ * Data Length] [Index Position] [EOF Position] [Dictionary ID] [Magic Marker] [Block Size]
+ * [Block Data] [Magic Marker] [Block Size] [Block Data] ... [Magic Marker] <-
+ * (Index Position) [Un-Compressed Index Data] [EOF] <- (EOF)
+ */
+final class BlockZstdConstants {
+
+    /**
+     * Default Block we write.
+     */
+    static final int DEFAULT_BLOCK_SIZE = BlockGZIPConstants.DEFAULT_BLOCK_SIZE;
+    /**
+     * Written at the start to identify .
+     */
+    static final byte[] BLOCK_ZSTD_V1_IDENTIFIER = "BZS1".getBytes(StreamUtil.DEFAULT_CHARSET);
+    /**
+     * The number of longs in the header after the identifier.
+     */
+    static final int HEADER_LONG_COUNT = 5;
+    /**
+     * The total length of the header.
+     */
+    static final int HEADER_LENGTH = BLOCK_ZSTD_V1_IDENTIFIER.length
+                                     + (HEADER_LONG_COUNT * BlockGZIPConstants.LONG_BYTES);
+    /**
+     * The dictionary ID we write if no dictionary was used.
+     */
+    static final long NO_DICTIONARY_ID = 0;
+    /**
+     * Extension of trained dictionary files.
+     */
+    static final String DICTIONARY_EXTENSION = ".zdict";
+
+    private BlockZstdConstants() {
+        // NA
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Creates {@link BlockZstdOutputFile} and {@link BlockZstdInputFile} instances using the compression
+ * level from {@link FsVolumeConfig} and the dictionaries in {@link ZstdDictionaryStore}.
+ */
+@Singleton
+class BlockZstdFileFactory {
+
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
+    private final ZstdDictionaryStore zstdDictionaryStore;
+    private final StreamTypeExtensions streamTypeExtensions;
+
+    @Inject
+    BlockZstdFileFactory(final Provider<FsVolumeConfig> fsVolumeConfigProvider,
+                         final ZstdDictionaryStore zstdDictionaryStore,
+                         final StreamTypeExtensions streamTypeExtensions) {
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
+        this.zstdDictionaryStore = zstdDictionaryStore;
+        this.streamTypeExtensions = streamTypeExtensions;
+    }
+
+    /**
+     * @return A factory using the default config and no dictionaries.
+     */
+    static BlockZstdFileFactory withoutDictionaries() {
+        return new BlockZstdFileFactory(
+                FsVolumeConfig::new,
+                new ZstdDictionaryStore(FsVolumeConfig::new, null),
+                new StreamTypeExtensions(FsVolumeConfig::new));
+    }
+
+    /**
+     * Create a file to write a stream of the supplied type, compressed with the dictionary for that
+     * type if there is one.
+     */
+    BlockZstdOutputFile createOutputFile(final Path file, final String streamTypeName) throws IOException {
+        final ZstdDictionary dictionary = zstdDictionaryStore
+                .getWriteDictionary(streamTypeExtensions.getExtension(streamTypeName))
+                .orElse(null);
+        return new BlockZstdOutputFile(
+                file,
+                BlockZstdConstants.DEFAULT_BLOCK_SIZE,
+                fsVolumeConfigProvider.get().getZstdCompressionLevel(),
+                dictionary);
+    }
+
+    BlockZstdInputFile createInputFile(final Path file) throws IOException {
+        return new BlockZstdInputFile(file, zstdDictionaryStore::getDictionary);
+    }
+}
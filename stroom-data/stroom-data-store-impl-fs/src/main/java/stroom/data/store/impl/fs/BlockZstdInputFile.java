@@ -0,0 +1,306 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.FileUtil;
+import stroom.util.io.SeekableInputStream;
+
+import com.github.luben.zstd.ZstdDecompressCtx;
+import com.github.luben.zstd.ZstdException;
+import jakarta.validation.constraints.NotNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads a Block Zstd file. The index is read when the file is opened so any position can be read
+ * by decompressing just the block that holds it.
+ *
+ * @see BlockZstdConstants
+ */
+class BlockZstdInputFile extends InputStream implements SeekableInputStream {
+
+    private static final DictionaryLookup NO_DICTIONARIES = id -> {
+        throw new IOException("No Zstandard dictionaries available to find dictionary " + id);
+    };
+
+    // File pointer
+    private final Path file;
+    // Use a file channel so we can read blocks at any position
+    private final FileChannel raFile;
+    private final ZstdDecompressCtx decompressCtx;
+
+    /**
+     * Header info
+     */
+    private final int blockSize;
+    private final long dataLength;
+    private final long[] index;
+
+    // Reused to read the compressed data of each block
+    private byte[] compressedBlock;
+    // The decompressed data of the current block
+    private byte[] currentBlock;
+    private int currentBlockLength;
+    private long currentBlockNo = -1;
+
+    private long position = 0;
+    private long lastMarkPosition = 0;
+
+    /**
+     * Constructor to open a Block Zstd File that was written without a dictionary.
+     */
+    BlockZstdInputFile(final Path file) throws IOException {
+        this(file, NO_DICTIONARIES);
+    }
+
+    /**
+     * Constructor to open a Block Zstd File.
+     *
+     * @param dictionaryLookup Used to find the dictionary if the file was written with one.
+     */
+    BlockZstdInputFile(final Path file, final DictionaryLookup dictionaryLookup) throws IOException {
+        this.file = file;
+        this.raFile = FileChannel.open(file, StandardOpenOption.READ);
+        this.decompressCtx = new ZstdDecompressCtx();
+        try {
+            final ByteBuffer header = ByteBuffer.allocate(BlockZstdConstants.HEADER_LENGTH);
+            readFully(header, 0);
+            final int identifierLength = BlockZstdConstants.BLOCK_ZSTD_V1_IDENTIFIER.length;
+            if (!Arrays.equals(BlockZstdConstants.BLOCK_ZSTD_V1_IDENTIFIER, 0, identifierLength,
+                    header.array(), 0, identifierLength)) {
+                invalid("Does not look like a Block Zstd V1 Stream");
+            }
+            header.position(identifierLength);
+            blockSize = (int) header.getLong();
+            dataLength = header.getLong();
+            final long idxStart = header.getLong();
+            final long eof = header.getLong();
+            final long dictionaryId = header.getLong();
+
+            index = readIndex(idxStart, eof);
+
+            if (dictionaryId != BlockZstdConstants.NO_DICTIONARY_ID) {
+                decompressCtx.loadDict(dictionaryLookup.getDictionary(dictionaryId).getDecompressDictionary());
+            }
+        } catch (final IOException | RuntimeException e) {
+            decompressCtx.close();
+            raFile.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Read the start position of each block from the index.
+     */
+    private long[] readIndex(final long idxStart, final long eof) throws IOException {
+        final int markerLength = BlockGZIPConstants.MAGIC_MARKER.length;
+        final long indexLength = eof - idxStart - markerLength;
+        if (indexLength < 0 || indexLength % BlockGZIPConstants.LONG_BYTES != 0) {
+            invalid("Invalid index length " + indexLength);
+        }
+        final ByteBuffer indexBuffer = ByteBuffer.allocate(markerLength + (int) indexLength);
+        readFully(indexBuffer, idxStart);
+        if (!Arrays.equals(BlockGZIPConstants.MAGIC_MARKER, 0, markerLength,
+                indexBuffer.array(), 0, markerLength)) {
+            invalid("Failed to find index sync point");
+        }
+        final long[] index = new long[(int) (indexLength / BlockGZIPConstants.LONG_BYTES)];
+        indexBuffer.position(markerLength);
+        indexBuffer.asLongBuffer().get(index);
+        return index;
+    }
+
+    /**
+     * Fill the buffer from the file starting at the supplied file position.
+     */
+    private void readFully(final ByteBuffer buffer, final long filePosition) throws IOException {
+        long pos = filePosition;
+        while (buffer.hasRemaining()) {
+            final int len = raFile.read(buffer, pos);
+            if (len == -1) {
+                invalid("Unexpected EOF at " + pos);
+            }
+            pos += len;
+        }
+    }
+
+    /**
+     * Make the block holding the current position the current block.
+     */
+    private void loadBlock(final long blockNo) throws IOException {
+        if (blockNo == currentBlockNo) {
+            return;
+        }
+        if (blockNo < 0 || blockNo >= index.length) {
+            invalid("Block " + blockNo + " is not in the index");
+        }
+
+        final long blockStart = index[(int) blockNo];
+        final int markerLength = BlockGZIPConstants.MAGIC_MARKER.length;
+        final ByteBuffer headerBuffer = ByteBuffer.allocate(markerLength + BlockGZIPConstants.LONG_BYTES);
+        readFully(headerBuffer, blockStart);
+        if (!Arrays.equals(BlockGZIPConstants.MAGIC_MARKER, 0, markerLength,
+                headerBuffer.array(), 0, markerLength)) {
+            invalid("Failed to find block sync point " + blockNo);
+        }
+        final int compressedLength = (int) headerBuffer.getLong(markerLength);
+        if (compressedBlock == null || compressedBlock.length < compressedLength) {
+            compressedBlock = new byte[compressedLength];
+        }
+        readFully(ByteBuffer.wrap(compressedBlock, 0, compressedLength), blockStart + headerBuffer.capacity());
+
+        // The last block may be short
+        final int expectedLength = (int) Math.min(blockSize, dataLength - (blockNo * blockSize));
+        if (currentBlock == null) {
+            currentBlock = new byte[(int) Math.min(blockSize, dataLength)];
+        }
+        final int len;
+        try {
+            len = decompressCtx.decompressByteArray(
+                    currentBlock, 0, expectedLength, compressedBlock, 0, compressedLength);
+        } catch (final ZstdException e) {
+            throw new IOException("Error decompressing block " + blockNo + " \""
+                                  + FileUtil.getCanonicalPath(file) + "\"", e);
+        }
+        if (len != expectedLength) {
+            invalid("Unexpected uncompressed size for block " + blockNo);
+        }
+        currentBlockLength = len;
+        currentBlockNo = blockNo;
+    }
+
+    @Override
+    public int read() throws IOException {
+        // Hit the logical EOF?
+        if (position >= dataLength) {
+            return -1;
+        }
+        loadBlock(position / blockSize);
+        final int rtn = currentBlock[(int) (position % blockSize)] & 0xFF;
+        position++;
+        return rtn;
+    }
+
+    @Override
+    public int read(@NotNull final byte[] bytes) throws IOException {
+        return read(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public int read(@NotNull final byte[] bytes, final int off, final int tryLen) throws IOException {
+        if (tryLen == 0) {
+            return 0;
+        }
+        if (position >= dataLength) {
+            return -1;
+        }
+        // Only ever read from one block (make the caller do another read())
+        loadBlock(position / blockSize);
+        final int blockOffset = (int) (position % blockSize);
+        final int len = Math.min(tryLen, currentBlockLength - blockOffset);
+        System.arraycopy(currentBlock, blockOffset, bytes, off, len);
+        position += len;
+        return len;
+    }
+
+    /**
+     * Here we provide random access into a stream. As blocks are only decompressed when read we
+     * just need to move the position.
+     */
+    @Override
+    public long skip(final long n) throws IOException {
+        final long skipped = Math.max(0, Math.min(n, dataLength - position));
+        position += skipped;
+        return skipped;
+    }
+
+    /**
+     * Mark this stream so we can go back to this position.
+     */
+    @Override
+    public void mark(final int readlimit) {
+        lastMarkPosition = position;
+    }
+
+    /**
+     * Move back to last mark position.
+     */
+    @Override
+    public void reset() throws IOException {
+        seek(lastMarkPosition);
+    }
+
+    @Override
+    public void seek(final long pos) throws IOException {
+        position = Math.max(0, Math.min(pos, dataLength));
+    }
+
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    /**
+     * @return the full size of this stream
+     */
+    @Override
+    public long getSize() {
+        return dataLength;
+    }
+
+    int getBlockCount() {
+        return index.length;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            decompressCtx.close();
+            raFile.close();
+        } finally {
+            super.close();
+        }
+    }
+
+    private void invalid(final String message) throws IOException {
+        throw new IOException(message + " \"" + FileUtil.getCanonicalPath(file) + "\"");
+    }
+
+    @Override
+    public String toString() {
+        return "BZSTD@" + file + "@" + position;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Finds the dictionary that a file was written with.
+     */
+    @FunctionalInterface
+    interface DictionaryLookup {
+
+        ZstdDictionary getDictionary(long id) throws IOException;
+    }
+}
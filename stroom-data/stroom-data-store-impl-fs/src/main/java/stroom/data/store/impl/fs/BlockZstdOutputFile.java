@@ -0,0 +1,323 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.BasicStreamCloser;
+import stroom.util.io.FileUtil;
+import stroom.util.io.SeekableOutputStream;
+import stroom.util.io.StreamCloser;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdCompressCtx;
+import com.github.luben.zstd.ZstdException;
+import jakarta.validation.constraints.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes a Block Zstd file. Each block is buffered uncompressed and then compressed as a single
+ * Zstandard frame when it is full, so any block can be decompressed on its own using the index.
+ *
+ * @see BlockZstdConstants
+ */
+class BlockZstdOutputFile extends OutputStream implements SeekableOutputStream {
+
+    // We have in built locking while open
+    private final Path finalFile;
+    private final Path lockFile;
+
+    // The file we write to
+    private final FileChannel raFile;
+
+    // Holds the header and the marker and size that precede each block.
+    private final BlockByteArrayOutputStream mainBuffer;
+    // Our index buffer we append on at the end.
+    private final BlockByteArrayOutputStream indexBuffer;
+    // Use to help track non-closed streams
+    private final StreamCloser streamCloser = new BasicStreamCloser();
+    // Holds the compression settings and dictionary, reused for each block
+    private final ZstdCompressCtx compressCtx;
+    // The block size we are using
+    private final int blockSize;
+    // The uncompressed data for the current block, grows up to the block size
+    private byte[] rawBlock;
+    private int rawBlockLength;
+    // Reused for the compressed output of each block
+    private byte[] compressedBlock;
+    // The current 'logical' uncompressed data item we have written
+    private long position = 0;
+    // The current block number we are on
+    private long blockCount = 0;
+    private boolean closed;
+
+    /**
+     * @see BlockZstdConstants
+     */
+    BlockZstdOutputFile(final Path file) throws IOException {
+        this(file, BlockZstdConstants.DEFAULT_BLOCK_SIZE, Zstd.defaultCompressionLevel(), null);
+    }
+
+    /**
+     * @param compressionLevel The Zstandard compression level.
+     * @param dictionary       The dictionary to compress each block with or null to not use one.
+     * @see BlockZstdConstants
+     */
+    BlockZstdOutputFile(final Path file,
+                        final int blockSize,
+                        final int compressionLevel,
+                        final ZstdDictionary dictionary) throws IOException {
+        this.blockSize = blockSize;
+        this.rawBlock = new byte[Math.min(blockSize, FileSystemUtil.STREAM_BUFFER_SIZE)];
+        this.mainBuffer = new BlockByteArrayOutputStream();
+        this.indexBuffer = new BlockByteArrayOutputStream();
+
+        // Mark the start of the index with a magic marker
+        indexBuffer.write(BlockGZIPConstants.MAGIC_MARKER);
+
+        this.finalFile = file;
+        this.lockFile = file.getParent().resolve(file.getFileName().toString() + BlockGZIPConstants.LOCK_EXTENSION);
+
+        FileUtil.deleteFile(finalFile);
+        FileUtil.deleteFile(lockFile);
+
+        this.compressCtx = new ZstdCompressCtx();
+        try {
+            compressCtx.setChecksum(true);
+            if (dictionary != null) {
+                // The level is held by the compression dictionary
+                compressCtx.loadDict(dictionary.getCompressDictionary(compressionLevel));
+            } else {
+                compressCtx.setLevel(compressionLevel);
+            }
+        } catch (final RuntimeException e) {
+            compressCtx.close();
+            throw e;
+        }
+
+        this.raFile = FileChannel.open(
+                lockFile,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            // Write a marker
+            mainBuffer.write(BlockZstdConstants.BLOCK_ZSTD_V1_IDENTIFIER);
+            // Block size
+            mainBuffer.writeLong(blockSize);
+            // Uncompressed Data Length
+            mainBuffer.writeLong(0);
+            // Index POS
+            mainBuffer.writeLong(0);
+            // End POS
+            mainBuffer.writeLong(0);
+            // Dictionary ID
+            mainBuffer.writeLong(dictionary != null
+                    ? dictionary.getId()
+                    : BlockZstdConstants.NO_DICTIONARY_ID);
+
+            flushMainBuffer();
+
+            // Make sure the streams are closed.
+            streamCloser.add(mainBuffer).add(indexBuffer).add(raFile).add(compressCtx::close);
+
+        } catch (final IOException e) {
+            streamCloser.close();
+            raFile.close();
+            compressCtx.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Write the buffer to the file and reset it.
+     */
+    private void flushMainBuffer() throws IOException {
+        raFile.write(ByteBuffer.wrap(mainBuffer.getRawBuffer(), 0, mainBuffer.size()));
+        mainBuffer.reset();
+    }
+
+    /**
+     * @return Our current position (in uncompressed bytes)
+     */
+    @Override
+    public long getPosition() {
+        return position;
+    }
+
+    long getBlockCount() {
+        return blockCount;
+    }
+
+    /**
+     * Make sure the raw block buffer can take the supplied number of extra bytes. The buffer never
+     * grows beyond the block size so small streams don't allocate a whole block.
+     */
+    private void ensureRawBlockCapacity(final int length) {
+        final int required = rawBlockLength + length;
+        if (required > rawBlock.length) {
+            final int newLength = (int) Math.min(blockSize, Math.max(required, rawBlock.length * 2L));
+            final byte[] newRawBlock = new byte[newLength];
+            System.arraycopy(rawBlock, 0, newRawBlock, 0, rawBlockLength);
+            rawBlock = newRawBlock;
+        }
+    }
+
+    /**
+     * Compress the current block and write it with its marker and size to the file.
+     */
+    private void writeBlock() throws IOException {
+        final int bound = (int) Zstd.compressBound(rawBlockLength);
+        if (compressedBlock == null || compressedBlock.length < bound) {
+            compressedBlock = new byte[bound];
+        }
+        final int compressedLength;
+        try {
+            compressedLength = compressCtx.compressByteArray(
+                    compressedBlock, 0, compressedBlock.length, rawBlock, 0, rawBlockLength);
+        } catch (final ZstdException e) {
+            throw new IOException("Error compressing block " + blockCount + " in " + lockFile, e);
+        }
+
+        // Record the index
+        indexBuffer.writeLong(raFile.position());
+
+        // Marker and compressed block size
+        mainBuffer.write(BlockGZIPConstants.MAGIC_MARKER);
+        mainBuffer.writeLong(compressedLength);
+        flushMainBuffer();
+
+        raFile.write(ByteBuffer.wrap(compressedBlock, 0, compressedLength));
+
+        blockCount++;
+        rawBlockLength = 0;
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        ensureRawBlockCapacity(1);
+        rawBlock[rawBlockLength++] = (byte) b;
+        position++;
+
+        // Have we filled the block?
+        if (rawBlockLength == blockSize) {
+            writeBlock();
+        }
+    }
+
+    @Override
+    public void write(@NotNull final byte[] b) throws IOException {
+        // Delegate
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(@NotNull final byte[] bytes, final int offset, final int length) throws IOException {
+        int off = offset;
+        int remaining = length;
+        while (remaining > 0) {
+            // Only write as much as will fit in this block
+            final int len = Math.min(remaining, blockSize - rawBlockLength);
+            ensureRawBlockCapacity(len);
+            System.arraycopy(bytes, off, rawBlock, rawBlockLength, len);
+            rawBlockLength += len;
+            position += len;
+            off += len;
+            remaining -= len;
+
+            if (rawBlockLength == blockSize) {
+                writeBlock();
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (!closed) {
+                closed = true;
+
+                if (rawBlockLength > 0) {
+                    // Write the last partial block
+                    writeBlock();
+                }
+
+                // Record where we are going to start writing the index
+                final long idxStart = raFile.position();
+
+                // Append the Index
+                raFile.write(ByteBuffer.wrap(indexBuffer.getRawBuffer(), 0, indexBuffer.size()));
+
+                // Now Record the EOF
+                final long eof = raFile.size();
+
+                // Seek back to the start to write the above stats.
+                raFile.position(BlockZstdConstants.BLOCK_ZSTD_V1_IDENTIFIER.length + BlockGZIPConstants.LONG_BYTES);
+
+                mainBuffer.reset();
+                // Size of Uncompressed Data
+                mainBuffer.writeLong(position);
+                // And the Index Start POS
+                mainBuffer.writeLong(idxStart);
+                // And the End File Pos
+                mainBuffer.writeLong(eof);
+
+                flushMainBuffer();
+
+                raFile.close();
+
+                try {
+                    Files.move(lockFile, finalFile);
+                } catch (final IOException e) {
+                    throw new IOException("Failed to rename lock file " + lockFile, e);
+                }
+            }
+        } finally {
+            try {
+                streamCloser.close();
+            } finally {
+                super.close();
+            }
+        }
+    }
+
+    @Override
+    public void flush() {
+        // We ignore flush to the file as the stream store does not allow it for
+        // performance reasons. The current block is only written when it is full.
+    }
+
+    @Override
+    public long getSize() {
+        return getPosition();
+    }
+
+    @Override
+    public void seek(final long pos) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String toString() {
+        return "BZSTD@" + finalFile + "@" + position;
+    }
+}
@@ -65,7 +65,10 @@ public class FsFileFinder {
             if (Files.isRegularFile(rootFile)) {
                 return Optional.of(rootFile);
             } else {
-                return Optional.empty();
+                return fileSystemStreamPathHelper.findAlternativeRootPath(
+                        volumePath,
+                        meta,
+                        meta.getTypeName());
             }
         } else {
             return Optional.empty();
@@ -196,7 +196,12 @@ class FsOrphanMetaFinder {
                                     });
                         });
 
-                        if (!rootFilePaths.contains(rootFile)) {
+                        // The stream may have been written in any of the compressed formats
+                        final boolean found = rootFilePaths.contains(rootFile) ||
+                                              fsPathHelper.getAllRootPaths(volumePath, meta, streamTypeName)
+                                                      .stream()
+                                                      .anyMatch(rootFilePaths::contains);
+                        if (!found) {
                             // Can't find the root file for this meta, so record it
                             LOGGER.trace("rootFilePath '{}' not found in parent '{}'", rootFile, parent);
                             progress.foundOrphan();
@@ -27,6 +27,7 @@ import stroom.util.logging.LogUtil;
 import stroom.util.shared.NullSafe;
 
 import com.google.inject.Inject;
+import jakarta.inject.Provider;
 
 import java.io.File;
 import java.io.IOException;
@@ -45,6 +46,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -71,14 +73,23 @@ class FsPathHelper {
     private final FsFeedPathDao fileSystemFeedPaths;
     private final FsTypePathDao fileSystemTypePaths;
     private final StreamTypeExtensions streamTypeExtensions;
+    private final BlockGZIPFileFactory blockGZIPFileFactory;
+    private final BlockZstdFileFactory blockZstdFileFactory;
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
 
     @Inject
     FsPathHelper(final FsFeedPathDao fileSystemFeedPaths,
                  final FsTypePathDao fileSystemTypePaths,
-                 final StreamTypeExtensions streamTypeExtensions) {
+                 final StreamTypeExtensions streamTypeExtensions,
+                 final BlockGZIPFileFactory blockGZIPFileFactory,
+                 final BlockZstdFileFactory blockZstdFileFactory,
+                 final Provider<FsVolumeConfig> fsVolumeConfigProvider) {
         this.fileSystemFeedPaths = fileSystemFeedPaths;
         this.fileSystemTypePaths = fileSystemTypePaths;
         this.streamTypeExtensions = streamTypeExtensions;
+        this.blockGZIPFileFactory = blockGZIPFileFactory;
+        this.blockZstdFileFactory = blockZstdFileFactory;
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
     }
 
     static boolean isStreamFile(final Path path) {
@@ -115,10 +126,11 @@ class FsPathHelper {
         if (streamTypeName == null) {
             throw new IllegalArgumentException("Must Have a non-null stream type");
         }
-        if (FileStoreType.bgz.equals(getFileStoreType(streamTypeName))) {
-            return new BlockGZIPInputFile(file);
-        }
-        return new UncompressedInputStream(file, isStreamTypeLazy(streamTypeName));
+        return switch (getFileStoreType(streamTypeName, file)) {
+            case bgz -> blockGZIPFileFactory.createInputFile(file);
+            case zst -> blockZstdFileFactory.createInputFile(file);
+            case dat -> new UncompressedInputStream(file, isStreamTypeLazy(streamTypeName));
+        };
     }
 
     /**
@@ -147,9 +159,16 @@ class FsPathHelper {
         }
         IOException ioEx = null;
         OutputStream outputStream = null;
-        if (FileStoreType.bgz.equals(getFileStoreType(streamTypeName))) {
+        final FileStoreType fileStoreType = getFileStoreType(streamTypeName, file);
+        if (FileStoreType.bgz.equals(fileStoreType)) {
+            try {
+                outputStream = blockGZIPFileFactory.createOutputFile(file);
+            } catch (final IOException e) {
+                ioEx = e;
+            }
+        } else if (FileStoreType.zst.equals(fileStoreType)) {
             try {
-                outputStream = new BlockGZIPOutputFile(file);
+                outputStream = blockZstdFileFactory.createOutputFile(file, streamTypeName);
             } catch (final IOException e) {
                 ioEx = e;
             }
@@ -201,22 +220,71 @@ class FsPathHelper {
     }
 
     /**
-     * Return a File IO object.
+     * Return the root file of a stream in the format we currently write new streams in. This does not touch
+     * the file system so readers that find the file missing should try {@link #findAlternativeRootPath}
+     * as the stream may have been written before the compression type was changed.
      */
     Path getRootPath(final Path volumePath,
                      final SimpleMeta meta,
                      final String streamTypeName) {
+        return getRootPath(volumePath, meta, streamTypeName, getFileStoreType(streamTypeName));
+    }
+
+    /**
+     * Find the root file of an existing stream that was written with a different compression type to the
+     * one returned by {@link #getRootPath}. This checks the file system for each other compressed type so
+     * should only be called once the file returned by {@link #getRootPath} has been found not to exist.
+     */
+    Optional<Path> findAlternativeRootPath(final Path volumePath,
+                                           final SimpleMeta meta,
+                                           final String streamTypeName) {
+        final FileStoreType fileStoreType = getFileStoreType(streamTypeName);
+        if (fileStoreType.isCompressed()) {
+            for (final FileStoreType otherType : FileStoreType.values()) {
+                if (otherType != fileStoreType && otherType.isCompressed()) {
+                    final Path otherPath = getRootPath(volumePath, meta, streamTypeName, otherType);
+                    if (Files.exists(otherPath)) {
+                        LOGGER.debug(() -> LogUtil.message("Found {} stream in alternative format {}",
+                                meta.getId(), otherPath));
+                        return Optional.of(otherPath);
+                    }
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @return The root file of a stream in each format it could have been written in, without touching the
+     * file system.
+     */
+    List<Path> getAllRootPaths(final Path volumePath,
+                               final SimpleMeta meta,
+                               final String streamTypeName) {
+        final FileStoreType fileStoreType = getFileStoreType(streamTypeName);
+        if (!fileStoreType.isCompressed()) {
+            return List.of(getRootPath(volumePath, meta, streamTypeName, fileStoreType));
+        }
+        return Stream.of(FileStoreType.values())
+                .filter(FileStoreType::isCompressed)
+                .map(type -> getRootPath(volumePath, meta, streamTypeName, type))
+                .toList();
+    }
+
+    private Path getRootPath(final Path volumePath,
+                             final SimpleMeta meta,
+                             final String streamTypeName,
+                             final FileStoreType fileStoreType) {
         final String utcDate = DateUtil.createNormalDateTimeString(meta.getCreateMs());
         final String typePath = fileSystemTypePaths.getOrCreatePath(streamTypeName);
         final String feedPath = fileSystemFeedPaths.getOrCreatePath(meta.getFeedName());
         final String paddedId = FsPrefixUtil.padId(meta.getId());
 
-        final String fileName = "" +
+        final String baseName = "" +
                                 feedPath +
                                 FILE_SEPARATOR_CHAR +
                                 paddedId +
-                                "." +
-                                buildRootExtension(streamTypeName);
+                                ".";
 
         Path result = volumePath;
         result = result
@@ -228,26 +296,32 @@ class FsPathHelper {
 
         result = FsPrefixUtil.appendIdPath(result, paddedId);
 
-        return result.resolve(fileName);
+        return result.resolve(baseName + buildRootExtension(streamTypeName, fileStoreType));
     }
 
-    private String buildRootExtension(final String streamTypeName) {
+    private String buildRootExtension(final String streamTypeName, final FileStoreType fileStoreType) {
         return streamTypeExtensions.getExtension(streamTypeName) +
                "." +
-               getFileStoreType(streamTypeName);
+               fileStoreType;
     }
 
     Set<Path> findRootStreamFiles(final String streamTypeName, final Path parentPath) {
         if (parentPath == null) {
             return Collections.emptySet();
         } else {
-            final String rootExtension = buildRootExtension(streamTypeName);
+            // Streams may have been written with any of the compressed types.
+            final List<String> rootExtensions = Stream.of(FileStoreType.values())
+                    .filter(FileStoreType::isCompressed)
+                    .map(fileStoreType -> buildRootExtension(streamTypeName, fileStoreType))
+                    .toList();
             try (final Stream<Path> stream = Files.list(parentPath)) {
 
                 // Get all the files
                 final Set<Path> rootFilePaths = stream
-                        .filter(childPath ->
-                                childPath.toString().endsWith(rootExtension))
+                        .filter(childPath -> {
+                            final String childPathStr = childPath.toString();
+                            return rootExtensions.stream().anyMatch(childPathStr::endsWith);
+                        })
                         .collect(Collectors.toSet());
                 LOGGER.trace(() -> LogUtil.message("found {} rootFilePaths for {}",
                         rootFilePaths.size(), parentPath));
@@ -260,16 +334,25 @@ class FsPathHelper {
     }
 
     /**
-     * Create a child file for a parent.
+     * Create a child file for a parent. Compressed child streams are always in the same compressed
+     * format as their parent.
      */
     Path getChildPath(final Path parent, final String streamTypeName) {
+        FileStoreType fileStoreType = getFileStoreType(streamTypeName);
+        if (fileStoreType.isCompressed()) {
+            final FileStoreType parentFileStoreType = FileStoreType.fromPath(parent);
+            if (parentFileStoreType != null && parentFileStoreType.isCompressed()) {
+                fileStoreType = parentFileStoreType;
+            }
+        }
+
         final StringBuilder builder = new StringBuilder(FileUtil.getCanonicalPath(parent));
-        // Drop ".dat" or ".bgz"
+        // Drop ".dat", ".bgz" or ".zst"
         builder.setLength(builder.lastIndexOf("."));
         builder.append(".");
         builder.append(streamTypeExtensions.getExtension(streamTypeName));
         builder.append(".");
-        builder.append(getFileStoreType(streamTypeName));
+        builder.append(fileStoreType);
         return Paths.get(builder.toString());
     }
 
@@ -327,12 +410,33 @@ class FsPathHelper {
         return result;
     }
 
+    /**
+     * @return The type of file we would write for the supplied stream type.
+     */
     private FileStoreType getFileStoreType(final String streamTypeName) {
         return switch (streamTypeName) {
             case InternalStreamTypeNames.SEGMENT_INDEX,
                     InternalStreamTypeNames.BOUNDARY_INDEX,
                     InternalStreamTypeNames.MANIFEST -> FileStoreType.dat;
-            default -> FileStoreType.bgz;
+            default -> switch (fsVolumeConfigProvider.get().getCompressionType()) {
+                case BGZIP -> FileStoreType.bgz;
+                case ZSTD -> FileStoreType.zst;
+            };
+        };
+    }
+
+    /**
+     * @return The type of an existing or new file for the supplied stream type, using the file
+     * extension to tell which compressed format it is in.
+     */
+    private FileStoreType getFileStoreType(final String streamTypeName, final Path file) {
+        return switch (streamTypeName) {
+            case InternalStreamTypeNames.SEGMENT_INDEX,
+                    InternalStreamTypeNames.BOUNDARY_INDEX,
+                    InternalStreamTypeNames.MANIFEST -> FileStoreType.dat;
+            default -> FileStoreType.zst.equals(FileStoreType.fromPath(file))
+                    ? FileStoreType.zst
+                    : FileStoreType.bgz;
         };
     }
 
@@ -350,7 +454,25 @@ class FsPathHelper {
      */
     private enum FileStoreType {
         dat, // The cached uncompressed file.
-        bgz // Block GZIP Compressed File.
+        bgz, // Block GZIP Compressed File.
+        zst; // Block Zstandard Compressed File.
+
+        boolean isCompressed() {
+            return this != dat;
+        }
+
+        /**
+         * @return The type from the extension of the path or null if it is not one of ours.
+         */
+        static FileStoreType fromPath(final Path path) {
+            final String fileName = path.getFileName().toString();
+            for (final FileStoreType fileStoreType : values()) {
+                if (fileName.endsWith("." + fileStoreType)) {
+                    return fileStoreType;
+                }
+            }
+            return null;
+        }
     }
 
 
@@ -32,11 +32,13 @@ import java.io.InputStream;
 import java.io.UncheckedIOException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -56,6 +58,7 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
     private AttributeMap attributeMap;
     private InputStream inputStream;
     private Path file;
+    private boolean checkedAlternativeRootFile;
 
     private final Meta meta;
     private boolean closed;
@@ -123,8 +126,12 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
     }
 
     private void readManifest(final AttributeMap attributeMap) {
-        final Path file = getFile();
-        final Path manifestFile = fileSystemStreamPathHelper.getChildPath(file, InternalStreamTypeNames.MANIFEST);
+        Path file = getFile();
+        Path manifestFile = fileSystemStreamPathHelper.getChildPath(file, InternalStreamTypeNames.MANIFEST);
+        if (!Files.isRegularFile(manifestFile) && useAlternativeRootFile()) {
+            file = getFile();
+            manifestFile = fileSystemStreamPathHelper.getChildPath(file, InternalStreamTypeNames.MANIFEST);
+        }
         if (Files.isRegularFile(manifestFile)) {
             try (final InputStream inputStream = Files.newInputStream(manifestFile)) {
                 AttributeMapUtil.read(inputStream, attributeMap);
@@ -155,6 +162,30 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
         return file;
     }
 
+    /**
+     * The root file is first assumed to be in the format we currently write new streams in. If it is
+     * missing then the stream may have been written before the compression type was changed, so look for
+     * it in the other formats. This is only done once per source.
+     *
+     * @return True if the root file was found in a different format.
+     */
+    private boolean useAlternativeRootFile() {
+        if (parent != null || checkedAlternativeRootFile) {
+            return false;
+        }
+        checkedAlternativeRootFile = true;
+        final Optional<Path> alternativeRootFile = fileSystemStreamPathHelper.findAlternativeRootPath(
+                volumePath,
+                meta,
+                streamType);
+        alternativeRootFile.ifPresent(path -> {
+            file = path;
+            // Any children were resolved against the missing root file.
+            childMap.clear();
+        });
+        return alternativeRootFile.isPresent();
+    }
+
     @Override
     public void close() {
         if (closed) {
@@ -231,8 +262,11 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
         // We want to ignore the internal .bdy., .seg. and .mf. ones
         // and boil it down to (in this case) Raw Events, Meta & Context
 
-        final List<Path> allDescendantStreamFileList = fileSystemStreamPathHelper.findAllDescendantStreamFileList(
+        List<Path> allDescendantStreamFileList = fileSystemStreamPathHelper.findAllDescendantStreamFileList(
                 getFile());
+        if (allDescendantStreamFileList.isEmpty() && useAlternativeRootFile()) {
+            allDescendantStreamFileList = fileSystemStreamPathHelper.findAllDescendantStreamFileList(getFile());
+        }
         return allDescendantStreamFileList.stream()
                 .map(fileSystemStreamPathHelper::decodeChildStreamType)
                 .collect(Collectors.toSet());
@@ -247,13 +281,25 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
             return this;
         }
 
-        return childMap.computeIfAbsent(streamTypeName, this::child);
+        // Not computeIfAbsent as resolving the child may find the root in another format and clear the map.
+        FsSource child = childMap.get(streamTypeName);
+        if (child == null) {
+            child = child(streamTypeName);
+            if (child != null) {
+                childMap.put(streamTypeName, child);
+            }
+        }
+        return child;
     }
 
     private FsSource child(final String streamTypeName) {
-        final Path childFile = fileSystemStreamPathHelper.getChildPath(getFile(), streamTypeName);
+        Path childFile = fileSystemStreamPathHelper.getChildPath(getFile(), streamTypeName);
         final boolean lazy = fileSystemStreamPathHelper.isStreamTypeLazy(streamTypeName);
-        final boolean isFile = Files.isRegularFile(childFile);
+        boolean isFile = Files.isRegularFile(childFile);
+        if (!isFile && useAlternativeRootFile()) {
+            childFile = fileSystemStreamPathHelper.getChildPath(getFile(), streamTypeName);
+            isFile = Files.isRegularFile(childFile);
+        }
         if (lazy || isFile) {
             return new FsSource(fileSystemStreamPathHelper, this, streamTypeName, childFile);
         } else {
@@ -274,7 +320,14 @@ final class FsSource implements InternalSource, SegmentInputStreamProviderFactor
         // First Call?
         if (inputStream == null) {
             try {
-                inputStream = fileSystemStreamPathHelper.getInputStream(streamType, getFile());
+                try {
+                    inputStream = fileSystemStreamPathHelper.getInputStream(streamType, getFile());
+                } catch (final NoSuchFileException e) {
+                    if (!useAlternativeRootFile()) {
+                        throw e;
+                    }
+                    inputStream = fileSystemStreamPathHelper.getInputStream(streamType, getFile());
+                }
             } catch (final ClosedByInterruptException ioEx) {
                 // Sometimes we deliberately interrupt reading so don't log the error here.
                 throw new UncheckedIOException(ioEx);
@@ -19,6 +19,7 @@ package stroom.data.store.impl.fs;
 import stroom.data.shared.StreamTypeNames;
 import stroom.util.cache.CacheConfig;
 import stroom.util.config.annotations.RequiresRestart;
+import stroom.util.io.ByteSize;
 import stroom.util.io.capacity.HasCapacitySelectorFactory;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
@@ -29,6 +30,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
 
 import java.util.List;
@@ -45,6 +49,11 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
     private static final double DEFAULT_DEFAULT_STREAM_VOLUME_FILESYSTEM_UTILISATION = 0.9;
     private static final boolean DEFAULT_CREATE_DEFAULT_STREAM_VOLUMES_ON_START = true;
     private static final int DEFAULT_FIND_ORPHANED_META_BATCH_SIZE = 7_000;
+    private static final int DEFAULT_BLOCK_GZIP_MAX_BLOCKS_IN_FLIGHT = 4;
+    private static final int DEFAULT_BLOCK_GZIP_READ_AHEAD_BLOCKS = 0;
+    private static final CompressionType DEFAULT_COMPRESSION_TYPE = CompressionType.BGZIP;
+    private static final int DEFAULT_ZSTD_COMPRESSION_LEVEL = 3;
+    private static final ByteSize DEFAULT_S3_CACHE_MAX_SIZE = ByteSize.ofGibibytes(10);
 
     // TreeMap for consistent ordering in the yaml
     private static final Map<String, String> DEFAULT_META_TYPE_EXTENSIONS = new TreeMap<>(Map.of(
@@ -75,6 +84,12 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
     //    private final Map<String, String> metaTypeExtensionsReverseMap;
     private final StroomDuration maxVolumeStateAge;
     private final CacheConfig volumeCache;
+    private final int blockGzipMaxBlocksInFlight;
+    private final int blockGzipReadAheadBlocks;
+    private final CompressionType compressionType;
+    private final int zstdCompressionLevel;
+    private final String zstdDictionaryPath;
+    private final ByteSize s3CacheMaxSize;
 
     public FsVolumeConfig() {
         volumeSelector = "RoundRobin";
@@ -101,6 +116,12 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(1000L)
                 .expireAfterWrite(StroomDuration.ofMinutes(10))
                 .build();
+        blockGzipMaxBlocksInFlight = DEFAULT_BLOCK_GZIP_MAX_BLOCKS_IN_FLIGHT;
+        blockGzipReadAheadBlocks = DEFAULT_BLOCK_GZIP_READ_AHEAD_BLOCKS;
+        compressionType = DEFAULT_COMPRESSION_TYPE;
+        zstdCompressionLevel = DEFAULT_ZSTD_COMPRESSION_LEVEL;
+        zstdDictionaryPath = null;
+        s3CacheMaxSize = DEFAULT_S3_CACHE_MAX_SIZE;
     }
 
     @JsonCreator
@@ -116,7 +137,13 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
             @JsonProperty("metaTypeExtensions") final Map<String, String> metaTypeExtensions,
             @JsonProperty("findOrphanedMetaBatchSize") final Integer findOrphanedMetaBatchSize,
             @JsonProperty("maxVolumeStateAge") final StroomDuration maxVolumeStateAge,
-            @JsonProperty("volumeCache") final CacheConfig volumeCache) {
+            @JsonProperty("volumeCache") final CacheConfig volumeCache,
+            @JsonProperty("blockGzipMaxBlocksInFlight") final Integer blockGzipMaxBlocksInFlight,
+            @JsonProperty("blockGzipReadAheadBlocks") final Integer blockGzipReadAheadBlocks,
+            @JsonProperty("compressionType") final CompressionType compressionType,
+            @JsonProperty("zstdCompressionLevel") final Integer zstdCompressionLevel,
+            @JsonProperty("zstdDictionaryPath") final String zstdDictionaryPath,
+            @JsonProperty("s3CacheMaxSize") final ByteSize s3CacheMaxSize) {
 
         this.volumeSelector = volumeSelector;
         this.defaultStreamVolumePaths = defaultStreamVolumePaths;
@@ -129,6 +156,16 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
         this.findOrphanedMetaBatchSize = Objects.requireNonNullElse(findOrphanedMetaBatchSize, DEFAULT_FIND_ORPHANED_META_BATCH_SIZE);
         this.maxVolumeStateAge = maxVolumeStateAge;
         this.volumeCache = volumeCache;
+        this.blockGzipMaxBlocksInFlight = Objects.requireNonNullElse(
+                blockGzipMaxBlocksInFlight,
+                DEFAULT_BLOCK_GZIP_MAX_BLOCKS_IN_FLIGHT);
+        this.blockGzipReadAheadBlocks = Objects.requireNonNullElse(
+                blockGzipReadAheadBlocks,
+                DEFAULT_BLOCK_GZIP_READ_AHEAD_BLOCKS);
+        this.compressionType = Objects.requireNonNullElse(compressionType, DEFAULT_COMPRESSION_TYPE);
+        this.zstdCompressionLevel = Objects.requireNonNullElse(zstdCompressionLevel, DEFAULT_ZSTD_COMPRESSION_LEVEL);
+        this.zstdDictionaryPath = zstdDictionaryPath;
+        this.s3CacheMaxSize = Objects.requireNonNullElse(s3CacheMaxSize, DEFAULT_S3_CACHE_MAX_SIZE);
     }
 
     @JsonPropertyDescription(
@@ -202,7 +239,13 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 metaTypeExtensions,
                 findOrphanedMetaBatchSize,
                 maxVolumeStateAge,
-                volumeCache);
+                volumeCache,
+                blockGzipMaxBlocksInFlight,
+                blockGzipReadAheadBlocks,
+                compressionType,
+                zstdCompressionLevel,
+                zstdDictionaryPath,
+                s3CacheMaxSize);
     }
 
     public FsVolumeConfig withVolumeSelector(final String volumeSelector) {
@@ -217,7 +260,13 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                 metaTypeExtensions,
                 findOrphanedMetaBatchSize,
                 maxVolumeStateAge,
-                volumeCache);
+                volumeCache,
+                blockGzipMaxBlocksInFlight,
+                blockGzipReadAheadBlocks,
+                compressionType,
+                zstdCompressionLevel,
+                zstdDictionaryPath,
+                s3CacheMaxSize);
     }
 
     @JsonPropertyDescription(
@@ -254,6 +303,61 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
         return volumeCache;
     }
 
+    @Min(0)
+    @JsonPropertyDescription("The max number of 1MB blocks of a compressed (bgz) stream file that can be " +
+                             "compressed in parallel while the stream is being written. Each block in flight " +
+                             "is held in memory. A value of 0 or 1 means blocks are compressed one at a time " +
+                             "on the writing thread.")
+    public int getBlockGzipMaxBlocksInFlight() {
+        return blockGzipMaxBlocksInFlight;
+    }
+
+    @Min(0)
+    @JsonPropertyDescription("The number of 1MB blocks of a compressed (bgz) stream file to decompress in " +
+                             "parallel ahead of the block being read. Each block read ahead is held in memory. " +
+                             "A value of 0 means blocks are decompressed on the reading thread as they are read. " +
+                             "Read ahead only helps long sequential reads, e.g. whole stream export or " +
+                             "processing, and wastes work when records are read at random, so it is off by " +
+                             "default.")
+    public int getBlockGzipReadAheadBlocks() {
+        return blockGzipReadAheadBlocks;
+    }
+
+    @NotNull
+    @JsonPropertyDescription("The compression used when writing new stream files. BGZIP writes block GZIP " +
+                             "(.bgz) files. ZSTD writes block Zstandard (.zst) files, which are faster to write " +
+                             "and read and are smaller. Existing files are always read in the format they were " +
+                             "written in, so this can be changed at any time.")
+    public CompressionType getCompressionType() {
+        return compressionType;
+    }
+
+    @Min(1)
+    @Max(22)
+    @JsonPropertyDescription("The Zstandard compression level used when compressionType is ZSTD. Higher levels " +
+                             "give smaller files but are slower to write. Reading speed is not affected.")
+    public int getZstdCompressionLevel() {
+        return zstdCompressionLevel;
+    }
+
+    @JsonPropertyDescription("The path to a directory of trained Zstandard dictionaries. A dictionary named " +
+                             "'<meta type extension>.zdict', e.g. 'revt.zdict', is used when writing streams " +
+                             "(or child streams) with that extension and compressionType is ZSTD. Any '.zdict' " +
+                             "file in the directory can be used to read streams written with it, so when a " +
+                             "dictionary is replaced the old file must be renamed, not deleted. " +
+                             "If a path is a relative path then it will be treated as being relative to " +
+                             "stroom.path.home. If not set, dictionaries are not used.")
+    public String getZstdDictionaryPath() {
+        return zstdDictionaryPath;
+    }
+
+    @JsonPropertyDescription("The maximum total size of the local copies of S3 volume data that are kept on " +
+                             "disk so that repeated reads of the same stream don't need to download it again. " +
+                             "The least recently used copies that are not in use are deleted when this is exceeded.")
+    public ByteSize getS3CacheMaxSize() {
+        return s3CacheMaxSize;
+    }
+
     @Override
     public String toString() {
         return "FsVolumeConfig{" +
@@ -268,6 +372,27 @@ public class FsVolumeConfig extends AbstractConfig implements IsStroomConfig {
                ", metaTypeExtensions=" + metaTypeExtensions +
                ", maxVolumeStateAge=" + maxVolumeStateAge +
                ", volumeCache=" + volumeCache +
+               ", blockGzipMaxBlocksInFlight=" + blockGzipMaxBlocksInFlight +
+               ", blockGzipReadAheadBlocks=" + blockGzipReadAheadBlocks +
+               ", compressionType=" + compressionType +
+               ", zstdCompressionLevel=" + zstdCompressionLevel +
+               ", zstdDictionaryPath='" + zstdDictionaryPath + '\'' +
+               ", s3CacheMaxSize=" + s3CacheMaxSize +
                '}';
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    public enum CompressionType {
+        /**
+         * Block GZIP (.bgz) files.
+         */
+        BGZIP,
+        /**
+         * Block Zstandard (.zst) files.
+         */
+        ZSTD
+    }
 }
@@ -153,11 +153,7 @@ final class S3Source implements Source {
             partMap.clear();
 
             if (streamCloseException != null) {
-                try {
-                    FileUtil.deleteDir(tempDir);
-                } catch (final RuntimeException e) {
-                    LOGGER.debug(e::getMessage, e);
-                }
+                s3Store.discard(meta, tempDir);
 
                 LOGGER.error("closeStreamSource() - Error on closing stream {}", this, streamCloseException);
                 throw new UncheckedIOException(streamCloseException);
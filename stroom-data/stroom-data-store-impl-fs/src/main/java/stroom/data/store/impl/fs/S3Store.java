@@ -18,7 +18,9 @@ package stroom.data.store.impl.fs;
 
 import stroom.aws.s3.impl.S3FileExtensions;
 import stroom.aws.s3.impl.S3Manager;
+import stroom.aws.s3.shared.S3ClientConfig;
 import stroom.data.store.impl.fs.DataVolumeDao.DataVolume;
+import stroom.data.store.impl.fs.shared.FsVolume;
 import stroom.meta.api.AttributeMap;
 import stroom.meta.api.MetaService;
 import stroom.meta.shared.Meta;
@@ -30,6 +32,7 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.zip.ZipUtil;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import java.io.IOException;
@@ -37,36 +40,48 @@ import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Instant;
-import java.util.ArrayList;
 import java.util.Comparator;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Objects;
-import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
-
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/**
+ * Keeps local copies of S3 volume data so that repeated reads of the same stream don't need to
+ * download it again. Copies that are not in use are deleted, least recently used first, when their
+ * total size exceeds {@link FsVolumeConfig#getS3CacheMaxSize()}.
+ */
 @Singleton
 class S3Store {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(S3Store.class);
 
-    private static final int MAX_CACHED_ITEMS = 10;
-
     private final PathCreator pathCreator;
     private final Map<Long, TrackedSource> cache = new ConcurrentHashMap<>();
-    private final Set<TrackedSource> evictable = new HashSet<>();
+    // S3 clients are expensive to create so share them between all operations on the same volume.
+    private final Map<Integer, SharedS3Manager> s3Managers = new ConcurrentHashMap<>();
+    private final AtomicInteger retiredS3ManagerCount = new AtomicInteger();
+    private final AtomicLong cachedBytes = new AtomicLong();
     private final MetaService metaService;
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
     private final Path tempDir;
 
     @Inject
     S3Store(final TempDirProvider tempDirProvider,
             final PathCreator pathCreator,
-            final MetaService metaService) {
+            final MetaService metaService,
+            final Provider<FsVolumeConfig> fsVolumeConfigProvider) {
         this.pathCreator = pathCreator;
         this.metaService = metaService;
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
 
         try {
             tempDir = tempDirProvider.get().resolve("s3_cache");
@@ -78,72 +93,106 @@ class S3Store {
     }
 
     public S3Source getSource(final DataVolume dataVolume, final Meta meta) {
+        return useS3Manager(dataVolume, s3Manager -> getSource(s3Manager, meta));
+    }
+
+    private S3Source getSource(final S3Manager s3Manager, final Meta meta) {
+        // Only hold the map lock long enough to register our use of the source. The download happens
+        // outside the lock so other readers are not held up while it happens. Readers of the same
+        // stream will wait for the first reader to finish the download.
         final TrackedSource trackedSource = cache.compute(meta.getId(), (k, v) -> {
-            if (v == null) {
-                final Path tempPath = createTempPath(meta.getId());
-                try {
-                    // Create zip.
-                    Path zipFile = null;
-                    try {
-                        zipFile = tempPath.resolve(S3FileExtensions.ZIP_FILE_NAME);
-                        // Download the zip from S3.
-                        final S3Manager s3Manager =
-                                new S3Manager(pathCreator, dataVolume.getVolume().getS3ClientConfig());
-                        s3Manager.download(meta, zipFile);
-
-                        ZipUtil.unzip(zipFile, tempPath);
-                    } catch (final IOException e) {
-                        LOGGER.error(e::getMessage, e);
-                        throw new UncheckedIOException(e);
-                    } finally {
-                        deleteFile("Deleting source zip: ", zipFile);
-                    }
-                } catch (final RuntimeException e) {
-                    LOGGER.debug(e::getMessage, e);
-                    deleteDir("Deleting source dir: ", tempPath);
+            final TrackedSource source = v != null
+                    ? v
+                    : new TrackedSource(k, createTempPath(k));
+            source.acquire();
+            return source;
+        });
 
-                    throw e;
-                }
+        try {
+            trackedSource.load(() -> download(s3Manager, meta, trackedSource.getPath()));
+        } catch (final RuntimeException e) {
+            LOGGER.debug(e::getMessage, e);
+            discard(meta, trackedSource.getPath());
+            throw e;
+        }
+
+        return new S3Source(this, trackedSource.getPath(), getS3Path(s3Manager, meta), meta);
+    }
 
-                return new TrackedSource(meta.getId(), tempPath, Instant.now(), new AtomicInteger(1));
+    public S3Target getTarget(final DataVolume dataVolume, final Meta meta) {
+        final Path tempDir = createTempPath(meta.getId());
+        return new S3Target(metaService, this, tempDir, dataVolume, meta);
+    }
 
-            } else {
-                synchronized (S3Store.this) {
-                    evictable.remove(v);
+    /**
+     * Run the supplied function with the shared S3 manager for the volume. If the S3 client config
+     * of the volume has changed then a new manager is created and the old one is closed once
+     * nothing is using it.
+     */
+    <R> R useS3Manager(final DataVolume dataVolume, final Function<S3Manager, R> function) {
+        final FsVolume volume = dataVolume.getVolume();
+        final S3ClientConfig s3ClientConfig = volume.getS3ClientConfig();
+        final SharedS3Manager sharedS3Manager = s3Managers.compute(volume.getId(), (k, v) -> {
+            SharedS3Manager current = v;
+            if (current == null || !current.getS3ClientConfig().equals(s3ClientConfig)) {
+                if (current != null) {
+                    LOGGER.debug(() -> "S3 client config changed for volume " + k);
+                    current.retire();
                 }
-                v.getUseCount().incrementAndGet();
-                return v;
+                current = new SharedS3Manager(new S3Manager(pathCreator, s3ClientConfig, true));
             }
+            // Acquire within compute so a manager can't be retired and closed before we use it.
+            current.acquire();
+            return current;
         });
 
-        return new S3Source(this, trackedSource.getPath(), getS3Path(dataVolume, meta), meta);
+        try {
+            return function.apply(sharedS3Manager.getS3Manager());
+        } finally {
+            sharedS3Manager.release();
+        }
     }
 
-    public S3Target getTarget(final DataVolume dataVolume, final Meta meta) {
-        final Path tempDir = createTempPath(meta.getId());
-        return new S3Target(metaService, this, tempDir, dataVolume, meta);
+    int getRetiredS3ManagerCount() {
+        return retiredS3ManagerCount.get();
     }
 
-    private String getS3Path(final DataVolume dataVolume, final Meta meta) {
-        final S3Manager s3Manager = new S3Manager(pathCreator, dataVolume.getVolume().getS3ClientConfig());
+    private String getS3Path(final S3Manager s3Manager, final Meta meta) {
         return "S3 > " +
                 s3Manager.createBucketName(s3Manager.getBucketNamePattern(), meta) +
                 " > " +
                 s3Manager.createKey(s3Manager.getKeyNamePattern(), meta);
     }
 
+    private long download(final S3Manager s3Manager, final Meta meta, final Path path) {
+        // Create zip.
+        Path zipFile = null;
+        try {
+            zipFile = path.resolve(S3FileExtensions.ZIP_FILE_NAME);
+            // Download the zip from S3.
+            s3Manager.download(meta, zipFile);
+
+            ZipUtil.unzip(zipFile, path);
+        } catch (final IOException e) {
+            LOGGER.error(e::getMessage, e);
+            throw new UncheckedIOException(e);
+        } finally {
+            deleteFile("Deleting source zip: ", zipFile);
+        }
+
+        final long size = getSize(path);
+        cachedBytes.addAndGet(size);
+        return size;
+    }
+
     public void release(final Meta meta, final Path path) {
         cache.compute(meta.getId(), (k, v) -> {
-            if (v == null) {
+            if (v == null || !v.getPath().equals(path)) {
+                // The source has been discarded so nobody else can be using this copy.
                 deleteDir("Release deleting: ", path);
             } else {
-                final int count = v.getUseCount().decrementAndGet();
+                final int count = v.release();
                 assert count >= 0;
-                if (count == 0) {
-                    synchronized (S3Store.this) {
-                        evictable.add(v);
-                    }
-                }
             }
             return v;
         });
@@ -151,44 +200,79 @@ class S3Store {
         evict();
     }
 
-    private void evict() {
-        if (cache.size() > MAX_CACHED_ITEMS) {
-            final List<TrackedSource> list;
-            synchronized (S3Store.this) {
-                list = new ArrayList<>(evictable);
+    /**
+     * Remove a local copy that can't be trusted from the cache so that the next reader downloads
+     * the data again.
+     */
+    void discard(final Meta meta, final Path path) {
+        cache.computeIfPresent(meta.getId(), (k, v) -> {
+            if (v.getPath().equals(path)) {
+                cachedBytes.addAndGet(-v.getSize());
+                return null;
             }
-            list.sort(Comparator.comparing(TrackedSource::getCreateTime));
+            return v;
+        });
+        deleteDir("Discard deleting: ", path);
+    }
+
+    /**
+     * Keep the local copy of data that has just been uploaded as it is likely to be read again
+     * soon, e.g. by processing.
+     *
+     * @return True if the cache has taken ownership of the supplied path.
+     */
+    boolean addUploaded(final Meta meta, final Path path) {
+        final long size = getSize(path);
+        final TrackedSource trackedSource = new TrackedSource(meta.getId(), path, size);
+        if (cache.putIfAbsent(meta.getId(), trackedSource) != null) {
+            return false;
+        }
+
+        cachedBytes.addAndGet(size);
+        evict();
+        return true;
+    }
+
+    private void evict() {
+        final long maxBytes = fsVolumeConfigProvider.get().getS3CacheMaxSize().getBytes();
+        if (cachedBytes.get() > maxBytes) {
+            final List<TrackedSource> list = cache.values()
+                    .stream()
+                    .filter(TrackedSource::isEvictable)
+                    .sorted(Comparator.comparing(TrackedSource::getLastAccessTime))
+                    .toList();
 
             for (final TrackedSource trackedSource : list) {
-                if (cache.size() > MAX_CACHED_ITEMS) {
-                    cache.compute(trackedSource.metaId, (k, v) -> {
-                        if (v == null || v.getUseCount().get() == 0) {
-                            deleteDir("Evict delete dir: ", trackedSource.getPath());
-                            synchronized (S3Store.this) {
-                                evictable.remove(trackedSource);
-                            }
-                            return null;
-                        }
-                        return v;
-                    });
+                if (cachedBytes.get() <= maxBytes) {
+                    break;
                 }
+                cache.computeIfPresent(trackedSource.getMetaId(), (k, v) -> {
+                    if (v == trackedSource && v.isEvictable()) {
+                        deleteDir("Evict delete dir: ", v.getPath());
+                        cachedBytes.addAndGet(-v.getSize());
+                        return null;
+                    }
+                    return v;
+                });
             }
         }
     }
 
+    long getCachedBytes() {
+        return cachedBytes.get();
+    }
+
     public void upload(final Path tempDir,
                        final DataVolume dataVolume,
                        final Meta meta,
                        final AttributeMap attributeMap) {
         // Create zip.
-        Path zipFile = null;
+        final Path zipFile = tempDir.resolve(S3FileExtensions.ZIP_FILE_NAME);
         try {
-            zipFile = tempDir.resolve(S3FileExtensions.ZIP_FILE_NAME);
             ZipUtil.zip(zipFile, tempDir);
 
             // Upload the zip to S3.
-            final S3Manager s3Manager = new S3Manager(pathCreator, dataVolume.getVolume().getS3ClientConfig());
-            s3Manager.upload(meta, attributeMap, zipFile, null);
+            useS3Manager(dataVolume, s3Manager -> s3Manager.upload(meta, attributeMap, zipFile, null));
 
         } catch (final IOException e) {
             LOGGER.error(e::getMessage, e);
@@ -208,6 +292,23 @@ class S3Store {
         }
     }
 
+    private long getSize(final Path dir) {
+        try (final Stream<Path> stream = Files.walk(dir)) {
+            return stream
+                    .filter(Files::isRegularFile)
+                    .mapToLong(file -> {
+                        try {
+                            return Files.size(file);
+                        } catch (final IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    })
+                    .sum();
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     private void deleteDir(final String message, final Path dir) {
         if (dir != null) {
             try {
@@ -230,51 +331,147 @@ class S3Store {
         }
     }
 
+
+    // --------------------------------------------------------------------------------
+
+
     private static class TrackedSource {
 
         private final Long metaId;
-
         private final Path path;
-        private final Instant createTime;
-        private final AtomicInteger useCount;
+        private final AtomicInteger useCount = new AtomicInteger();
+        private final AtomicBoolean loadStarted = new AtomicBoolean();
+        private final CompletableFuture<Long> size = new CompletableFuture<>();
+        private volatile Instant lastAccessTime = Instant.now();
 
-        public TrackedSource(final Long metaId,
-                             final Path path,
-                             final Instant createTime,
-                             final AtomicInteger useCount) {
+        TrackedSource(final Long metaId,
+                      final Path path) {
             this.metaId = metaId;
             this.path = path;
-            this.createTime = createTime;
-            this.useCount = useCount;
         }
 
-        public Path getPath() {
+        TrackedSource(final Long metaId,
+                      final Path path,
+                      final long size) {
+            this(metaId, path);
+            loadStarted.set(true);
+            this.size.complete(size);
+        }
+
+        /**
+         * Load the data if nobody else has, or wait for the data to be loaded by whoever is
+         * loading it.
+         */
+        void load(final LongSupplier loader) {
+            if (loadStarted.compareAndSet(false, true)) {
+                try {
+                    size.complete(loader.getAsLong());
+                } catch (final RuntimeException e) {
+                    size.completeExceptionally(e);
+                    throw e;
+                }
+            } else {
+                try {
+                    size.join();
+                } catch (final CompletionException e) {
+                    if (e.getCause() instanceof final RuntimeException runtimeException) {
+                        throw runtimeException;
+                    }
+                    throw e;
+                }
+            }
+        }
+
+        void acquire() {
+            useCount.incrementAndGet();
+            lastAccessTime = Instant.now();
+        }
+
+        int release() {
+            lastAccessTime = Instant.now();
+            return useCount.decrementAndGet();
+        }
+
+        boolean isEvictable() {
+            return useCount.get() == 0 && isLoaded();
+        }
+
+        private boolean isLoaded() {
+            return size.isDone() && !size.isCompletedExceptionally();
+        }
+
+        long getSize() {
+            return isLoaded()
+                    ? size.join()
+                    : 0;
+        }
+
+        Long getMetaId() {
+            return metaId;
+        }
+
+        Path getPath() {
             return path;
         }
 
-        public Instant getCreateTime() {
-            return createTime;
+        Instant getLastAccessTime() {
+            return lastAccessTime;
         }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
 
-        public AtomicInteger getUseCount() {
-            return useCount;
+    /**
+     * An S3 manager shared by all operations on a volume. Once retired, because the volume config
+     * has changed, the manager is closed as soon as the last operation using it has finished.
+     */
+    private class SharedS3Manager {
+
+        private final S3Manager s3Manager;
+        private int useCount;
+        private boolean retired;
+
+        SharedS3Manager(final S3Manager s3Manager) {
+            this.s3Manager = s3Manager;
+        }
+
+        synchronized void acquire() {
+            useCount++;
         }
 
-        @Override
-        public boolean equals(final Object o) {
-            if (this == o) {
-                return true;
+        synchronized void release() {
+            useCount--;
+            if (retired && useCount == 0) {
+                close();
+                retiredS3ManagerCount.decrementAndGet();
             }
-            if (o == null || getClass() != o.getClass()) {
-                return false;
+        }
+
+        synchronized void retire() {
+            retired = true;
+            if (useCount == 0) {
+                close();
+            } else {
+                retiredS3ManagerCount.incrementAndGet();
             }
-            final TrackedSource that = (TrackedSource) o;
-            return Objects.equals(metaId, that.metaId) && Objects.equals(path, that.path);
         }
 
-        @Override
-        public int hashCode() {
-            return Objects.hash(metaId, path);
+        private void close() {
+            try {
+                s3Manager.close();
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        }
+
+        S3Manager getS3Manager() {
+            return s3Manager;
+        }
+
+        S3ClientConfig getS3ClientConfig() {
+            return s3Manager.getS3ClientConfig();
         }
     }
 }
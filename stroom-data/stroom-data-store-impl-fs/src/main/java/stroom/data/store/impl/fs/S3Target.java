@@ -64,6 +64,7 @@ final class S3Target implements Target {
     private Meta meta;
     private boolean closed;
     private boolean deleted;
+    private boolean cached;
     private long partNo;
 
     public S3Target(final MetaService metaService,
@@ -166,6 +167,9 @@ final class S3Target implements Target {
                         // target so the client has the up to date copy
                         unlock(getMeta(), attributeMap);
 
+                        // Keep the local copy as the data is likely to be read again soon.
+                        cached = s3Store.addUploaded(meta, tempDir);
+
                     } catch (final RuntimeException e) {
                         LOGGER.error(e::getMessage, e);
                         throw e;
@@ -177,10 +181,12 @@ final class S3Target implements Target {
         } finally {
             closed = true;
 
-            try {
-                FileUtil.deleteDir(tempDir);
-            } catch (final RuntimeException e) {
-                LOGGER.debug(e::getMessage, e);
+            if (!cached) {
+                try {
+                    FileUtil.deleteDir(tempDir);
+                } catch (final RuntimeException e) {
+                    LOGGER.debug(e::getMessage, e);
+                }
             }
         }
     }
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdDictCompress;
+import com.github.luben.zstd.ZstdDictDecompress;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A trained Zstandard dictionary. The digested forms of the dictionary are created on first use
+ * and can be shared by any number of threads.
+ */
+final class ZstdDictionary {
+
+    private final long id;
+    private final byte[] bytes;
+    private final Map<Integer, ZstdDictCompress> compressDictionaries = new ConcurrentHashMap<>();
+    private volatile ZstdDictDecompress decompressDictionary;
+
+    ZstdDictionary(final byte[] bytes) {
+        this.id = Zstd.getDictIdFromDict(bytes);
+        if (id == BlockZstdConstants.NO_DICTIONARY_ID) {
+            throw new IllegalArgumentException("Not a Zstandard dictionary");
+        }
+        this.bytes = bytes;
+    }
+
+    /**
+     * @return The ID that Zstandard holds in the dictionary and in each frame compressed with it.
+     */
+    long getId() {
+        return id;
+    }
+
+    byte[] getBytes() {
+        return bytes;
+    }
+
+    ZstdDictCompress getCompressDictionary(final int compressionLevel) {
+        return compressDictionaries.computeIfAbsent(compressionLevel, level ->
+                new ZstdDictCompress(bytes, level));
+    }
+
+    ZstdDictDecompress getDecompressDictionary() {
+        ZstdDictDecompress dictionary = decompressDictionary;
+        if (dictionary == null) {
+            synchronized (this) {
+                dictionary = decompressDictionary;
+                if (dictionary == null) {
+                    dictionary = new ZstdDictDecompress(bytes);
+                    decompressDictionary = dictionary;
+                }
+            }
+        }
+        return dictionary;
+    }
+
+    @Override
+    public String toString() {
+        return "ZstdDictionary{" +
+               "id=" + id +
+               ", size=" + bytes.length +
+               '}';
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.PathCreator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.NullSafe;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Holds the trained Zstandard dictionaries found in the directory set by
+ * {@link FsVolumeConfig#getZstdDictionaryPath()}.
+ * <p>
+ * A dictionary file named {@code <stream type extension>.zdict}, e.g. {@code revt.zdict}, is used
+ * when writing streams of that type. Every {@code .zdict} file in the directory can be used for
+ * reading, found by the dictionary ID held in the stream file, so when a dictionary is retrained
+ * the old file must be renamed (e.g. to {@code revt.1.zdict}) rather than deleted.
+ * <p>
+ * The directory is re-read whenever its modified time changes, i.e. when a file is added, removed
+ * or renamed.
+ */
+@Singleton
+class ZstdDictionaryStore {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ZstdDictionaryStore.class);
+
+    private final Provider<FsVolumeConfig> fsVolumeConfigProvider;
+    private final PathCreator pathCreator;
+
+    private volatile Dictionaries dictionaries = Dictionaries.EMPTY;
+
+    @Inject
+    ZstdDictionaryStore(final Provider<FsVolumeConfig> fsVolumeConfigProvider,
+                        final PathCreator pathCreator) {
+        this.fsVolumeConfigProvider = fsVolumeConfigProvider;
+        this.pathCreator = pathCreator;
+    }
+
+    /**
+     * @return The dictionary to use when writing streams with the supplied extension, if there is one.
+     */
+    Optional<ZstdDictionary> getWriteDictionary(final String streamTypeExtension) {
+        return Optional.ofNullable(getDictionaries().byName.get(streamTypeExtension));
+    }
+
+    /**
+     * @return The dictionary with the supplied ID.
+     * @throws IOException If the dictionary can't be found.
+     */
+    ZstdDictionary getDictionary(final long id) throws IOException {
+        final Dictionaries current = getDictionaries();
+        final ZstdDictionary dictionary = current.byId.get(id);
+        if (dictionary == null) {
+            throw new IOException(LogUtil.message(
+                    "Zstandard dictionary with ID {} not found in '{}'", id, current.dir));
+        }
+        return dictionary;
+    }
+
+    private Dictionaries getDictionaries() {
+        final String dictionaryPath = fsVolumeConfigProvider.get().getZstdDictionaryPath();
+        if (NullSafe.isBlankString(dictionaryPath)) {
+            return Dictionaries.EMPTY;
+        }
+
+        final Path dir = pathCreator.toAppPath(dictionaryPath);
+        final FileTime lastModified;
+        try {
+            if (!Files.isDirectory(dir)) {
+                return Dictionaries.EMPTY;
+            }
+            lastModified = Files.getLastModifiedTime(dir);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        Dictionaries current = dictionaries;
+        if (!current.isCurrent(dir, lastModified)) {
+            synchronized (this) {
+                current = dictionaries;
+                if (!current.isCurrent(dir, lastModified)) {
+                    current = load(dir, lastModified);
+                    dictionaries = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private Dictionaries load(final Path dir, final FileTime lastModified) {
+        final Map<String, ZstdDictionary> byName = new HashMap<>();
+        final Map<Long, ZstdDictionary> byId = new HashMap<>();
+        try (final Stream<Path> stream = Files.list(dir)) {
+            stream
+                    .filter(path -> path.getFileName().toString().endsWith(BlockZstdConstants.DICTIONARY_EXTENSION))
+                    .filter(Files::isRegularFile)
+                    .forEach(path -> {
+                        final String fileName = path.getFileName().toString();
+                        try {
+                            final ZstdDictionary dictionary = new ZstdDictionary(Files.readAllBytes(path));
+                            final ZstdDictionary existing = byId.putIfAbsent(dictionary.getId(), dictionary);
+                            if (existing != null) {
+                                LOGGER.warn("Ignoring Zstandard dictionary '{}' as another has the same ID {}",
+                                        path, dictionary.getId());
+                            } else {
+                                byName.put(fileName.substring(
+                                        0,
+                                        fileName.length() - BlockZstdConstants.DICTIONARY_EXTENSION.length()),
+                                        dictionary);
+                            }
+                        } catch (final IOException | RuntimeException e) {
+                            LOGGER.error("Unable to load Zstandard dictionary '{}': {}",
+                                    path, LogUtil.exceptionMessage(e), e);
+                        }
+                    });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.info("Loaded {} Zstandard dictionaries from '{}'", byId.size(), dir);
+        return new Dictionaries(dir, lastModified, byName, byId);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Dictionaries(Path dir,
+                                FileTime lastModified,
+                                Map<String, ZstdDictionary> byName,
+                                Map<Long, ZstdDictionary> byId) {
+
+        private static final Dictionaries EMPTY = new Dictionaries(
+                null, null, Collections.emptyMap(), Collections.emptyMap());
+
+        boolean isCurrent(final Path dir, final FileTime lastModified) {
+            return Objects.equals(this.dir, dir)
+                   && Objects.equals(this.lastModified, lastModified);
+        }
+    }
+}
@@ -29,6 +29,12 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -251,4 +257,117 @@ class TestBlockGZIPFiles {
 
     }
 
+    @Test
+    void testParallel() throws IOException {
+        final ExecutorService executorService = Executors.newFixedThreadPool(4);
+        try {
+            for (final int fileSize : new int[]{0, 1, 9, 10, 11, 999, 10000}) {
+                final Path sequentialFile = tempDir.resolve("sequential_" + fileSize + ".bgz");
+                final Path parallelFile = tempDir.resolve("parallel_" + fileSize + ".bgz");
+
+                try (final OutputStream outStream = new BlockGZIPOutputFile(sequentialFile, 10)) {
+                    for (int i = 0; i < fileSize; i++) {
+                        outStream.write((byte) i);
+                    }
+                }
+                try (final OutputStream outStream = new BufferedOutputStream(
+                        new BlockGZIPOutputFile(parallelFile, 10, executorService, 3), 7)) {
+                    for (int i = 0; i < fileSize; i++) {
+                        outStream.write((byte) i);
+                    }
+                }
+
+                // Compressing in parallel must not change the file format.
+                assertThat(Files.readAllBytes(parallelFile))
+                        .isEqualTo(Files.readAllBytes(sequentialFile));
+
+                try (final InputStream inStream = new BufferedInputStream(
+                        new BlockGZIPInputFile(parallelFile, executorService, 2), 7)) {
+                    byte expected = 0;
+                    int actual;
+                    while ((actual = inStream.read()) != -1) {
+                        assertThat((byte) actual).isEqualTo(expected);
+                        expected++;
+                    }
+                    assertThat((byte) fileSize).withFailMessage("Expected to load records").isEqualTo(expected);
+                }
+            }
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testSeekingWithReadAhead() throws IOException {
+        final Path file = tempDir.resolve("test.bgz");
+        try (final OutputStream outStream = new BlockGZIPOutputFile(file, 10)) {
+            for (byte i = 0; i < 105; i++) {
+                outStream.write(i);
+            }
+        }
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(2);
+        try (final BlockGZIPInputFile inStream = new BlockGZIPInputFile(file, executorService, 3)) {
+            inStream.mark(0);
+            assertThat(inStream.skip(50)).isEqualTo(50);
+            assertThat(inStream.read()).isEqualTo(50);
+            inStream.reset();
+            assertThat(inStream.read()).isEqualTo(0);
+
+            final byte[] testRead = new byte[50];
+            inStream.seek(0);
+            StreamUtil.fillBuffer(inStream, testRead);
+            assertThat(inStream.getPosition()).isEqualTo(50);
+            assertThat(testRead[49]).isEqualTo((byte) 49);
+
+            // Go back
+            for (byte i = 94; i >= 0; i--) {
+                inStream.seek(i);
+                assertThat(inStream.read()).isEqualTo(i);
+                inStream.skip(9);
+                assertThat(inStream.read()).isEqualTo(i + 10);
+            }
+
+            // Go forward
+            for (byte i = 3; i < 100; i += 8) {
+                inStream.seek(i);
+                assertThat(inStream.read()).isEqualTo(i);
+            }
+
+            inStream.seek(105);
+            assertThat(inStream.read()).isEqualTo(-1);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    @Test
+    void testBoundedExecutor() throws InterruptedException {
+        final ExecutorService executorService = Executors.newCachedThreadPool();
+        try {
+            final Executor executor = new BlockGZIPFileFactory.BoundedExecutor(executorService, 2);
+            final AtomicInteger running = new AtomicInteger();
+            final AtomicInteger maxRunning = new AtomicInteger();
+            final CountDownLatch countDownLatch = new CountDownLatch(100);
+            for (int i = 0; i < 100; i++) {
+                executor.execute(() -> {
+                    maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                    try {
+                        Thread.sleep(1);
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    running.decrementAndGet();
+                    countDownLatch.countDown();
+                });
+            }
+
+            assertThat(countDownLatch.await(10, TimeUnit.SECONDS))
+                    .isTrue();
+            assertThat(maxRunning.get())
+                    .isBetween(1, 2);
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,231 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.util.io.FileUtil;
+import stroom.util.io.SimplePathCreator;
+import stroom.util.io.StreamUtil;
+
+import com.github.luben.zstd.ZstdDictTrainer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TestBlockZstdFiles {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testSimpleSmallDataInBigBlock() throws IOException {
+        testWriteAndRead(10000, 99);
+    }
+
+    @Test
+    void testSimpleDataInLotsOfSmallBlocks() throws IOException {
+        testWriteAndRead(100, 999);
+    }
+
+    @Test
+    void testSimpleBounds() throws IOException {
+        testWriteAndRead(10, 0);
+        testWriteAndRead(10, 1);
+        testWriteAndRead(10, 9);
+        testWriteAndRead(10, 10);
+        testWriteAndRead(10, 11);
+        testWriteAndRead(10, 19);
+        testWriteAndRead(10, 20);
+        testWriteAndRead(10, 21);
+    }
+
+    @Test
+    void testBuffered() throws IOException {
+        for (int inBuf = 2; inBuf < 5; inBuf++) {
+            for (int outBuf = 2; outBuf < 5; outBuf++) {
+                testWriteAndReadBuffered(9, 100, inBuf, outBuf);
+                testWriteAndReadBuffered(10, 100, inBuf, outBuf);
+                testWriteAndReadBuffered(11, 100, inBuf, outBuf);
+            }
+        }
+        testWriteAndReadBuffered(1000, 1000000, 100, 100);
+    }
+
+    @Test
+    void testSeeking() throws IOException {
+        final Path file = tempDir.resolve("test.zst");
+        try (final OutputStream outStream = new BlockZstdOutputFile(file, 10, 3, null)) {
+            for (byte i = 0; i < 105; i++) {
+                outStream.write(i);
+            }
+        }
+
+        try (final BlockZstdInputFile inStream = new BlockZstdInputFile(file)) {
+            assertThat(inStream.getBlockCount()).isEqualTo(11);
+            assertThat(inStream.getSize()).isEqualTo(105);
+
+            inStream.mark(0);
+            assertThat(inStream.skip(50)).isEqualTo(50);
+            assertThat(inStream.read()).isEqualTo(50);
+            inStream.reset();
+            assertThat(inStream.read()).isEqualTo(0);
+
+            final byte[] testRead = new byte[50];
+            inStream.seek(0);
+            StreamUtil.fillBuffer(inStream, testRead);
+            assertThat(inStream.getPosition()).isEqualTo(50);
+            assertThat(testRead[49]).isEqualTo((byte) 49);
+
+            // Go back
+            for (byte i = 94; i >= 0; i--) {
+                inStream.seek(i);
+                assertThat(inStream.read()).isEqualTo(i);
+                inStream.skip(9);
+                assertThat(inStream.read()).isEqualTo(i + 10);
+            }
+
+            // Go forward
+            for (byte i = 3; i < 100; i += 8) {
+                inStream.seek(i);
+                assertThat(inStream.read()).isEqualTo(i);
+            }
+
+            // Can't skip past the end
+            inStream.seek(100);
+            assertThat(inStream.skip(10)).isEqualTo(5);
+            assertThat(inStream.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void testDictionary() throws IOException {
+        final ZstdDictionary dictionary = trainDictionary();
+        final Path dictionaryDir = FileUtil.ensureDirExists(tempDir.resolve("dictionaries"));
+        Files.write(dictionaryDir.resolve("evt" + BlockZstdConstants.DICTIONARY_EXTENSION), dictionary.getBytes());
+
+        final FsVolumeConfig fsVolumeConfig = new FsVolumeConfig() {
+            @Override
+            public String getZstdDictionaryPath() {
+                return dictionaryDir.toString();
+            }
+        };
+        final ZstdDictionaryStore zstdDictionaryStore = new ZstdDictionaryStore(
+                () -> fsVolumeConfig,
+                new SimplePathCreator(() -> tempDir, () -> tempDir));
+        assertThat(zstdDictionaryStore.getWriteDictionary("evt"))
+                .hasValueSatisfying(dict -> assertThat(dict.getId()).isEqualTo(dictionary.getId()));
+        assertThat(zstdDictionaryStore.getWriteDictionary("revt"))
+                .isEmpty();
+
+        final Path file = tempDir.resolve("test.zst");
+        final byte[] data = createRecords(1000);
+        try (final OutputStream outStream = new BlockZstdOutputFile(
+                file, 1000, 3, zstdDictionaryStore.getWriteDictionary("evt").orElseThrow())) {
+            outStream.write(data);
+        }
+
+        // We must have the dictionary to read it
+        assertThatThrownBy(() -> new BlockZstdInputFile(file).close())
+                .isInstanceOf(IOException.class);
+
+        try (final InputStream inStream = new BlockZstdInputFile(file, zstdDictionaryStore::getDictionary)) {
+            assertThat(inStream.readAllBytes())
+                    .isEqualTo(data);
+        }
+    }
+
+    private void testWriteAndRead(final int blockSize, final int fileSize) throws IOException {
+        final Path file = Files.createTempFile(tempDir, "test", ".zst");
+        FileUtil.deleteFile(file);
+
+        final BlockZstdOutputFile outStream = new BlockZstdOutputFile(file, blockSize, 3, null);
+        for (int i = 0; i < fileSize; i++) {
+            outStream.write((byte) i);
+        }
+        outStream.close();
+
+        final BlockZstdInputFile inStream = new BlockZstdInputFile(file);
+        byte expected = 0;
+        int actual;
+        while ((actual = inStream.read()) != -1) {
+            assertThat((byte) actual).isEqualTo(expected);
+            expected++;
+        }
+        inStream.close();
+
+        assertThat((byte) fileSize).withFailMessage("Expected to load records").isEqualTo(expected);
+        assertThat(FileUtil.delete(file))
+                .withFailMessage("Should not have any locks on file")
+                .isTrue();
+    }
+
+    private void testWriteAndReadBuffered(final int blockSize, final int fileSize, final int inBuff, final int outBuf)
+            throws IOException {
+        final Path file = Files.createTempFile(tempDir, "test", ".zst");
+        FileUtil.deleteFile(file);
+
+        final OutputStream outStream = new BufferedOutputStream(
+                new BlockZstdOutputFile(file, blockSize, 3, null), outBuf);
+        for (int i = 0; i < fileSize; i++) {
+            outStream.write((byte) i);
+        }
+        outStream.close();
+
+        final InputStream inStream = new BufferedInputStream(new BlockZstdInputFile(file), inBuff);
+        byte expected = 0;
+        int actual;
+        while ((actual = inStream.read()) != -1) {
+            assertThat((byte) actual).isEqualTo(expected);
+            expected++;
+        }
+        inStream.close();
+
+        assertThat((byte) fileSize).withFailMessage("Expected to load records").isEqualTo(expected);
+    }
+
+    private ZstdDictionary trainDictionary() {
+        final ZstdDictTrainer trainer = new ZstdDictTrainer(1024 * 1024, 4096);
+        for (int i = 0; i < 2000; i++) {
+            trainer.addSample(createRecords(i % 10 + 1));
+        }
+        return new ZstdDictionary(trainer.trainSamples());
+    }
+
+    private byte[] createRecords(final int recordCount) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<records>\n");
+        for (int i = 0; i < recordCount; i++) {
+            sb.append("<record><data name=\"Date\" value=\"01/01/2010\"/><data name=\"User\" value=\"user");
+            sb.append(i);
+            sb.append("\"/><data name=\"Message\" value=\"Some message ");
+            sb.append(i);
+            sb.append("\"/></record>\n");
+        }
+        sb.append("</records>");
+        return sb.toString().getBytes(StreamUtil.DEFAULT_CHARSET);
+    }
+}
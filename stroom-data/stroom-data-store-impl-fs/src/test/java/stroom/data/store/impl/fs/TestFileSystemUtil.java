@@ -17,6 +17,7 @@
 package stroom.data.store.impl.fs;
 
 import stroom.data.shared.StreamTypeNames;
+import stroom.data.store.impl.fs.FsVolumeConfig.CompressionType;
 import stroom.data.store.impl.fs.shared.FsVolume;
 import stroom.meta.shared.Meta;
 import stroom.test.common.util.test.FileSystemTestUtil;
@@ -27,6 +28,9 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -98,7 +102,10 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                FsVolumeConfig::new);
 
         final Path volumePath = Paths.get(buildTestVolume().getPath());
         final Path rootFile = fileSystemStreamPathHelper.getRootPath(volumePath, meta, StreamTypeNames.EVENTS);
@@ -122,7 +129,10 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                FsVolumeConfig::new);
 
         final Path volumePath = Paths.get(buildTestVolume().getPath());
         final Path rootFile = fileSystemStreamPathHelper.getRootPath(volumePath, meta,
@@ -151,6 +161,93 @@ class TestFileSystemUtil {
         FileUtil.deleteFile(rootFile);
     }
 
+    @Test
+    void testCreateZstdStreamFiles() throws IOException {
+        final Meta meta = mock(Meta.class);
+        when(meta.getId()).thenReturn(1001001L);
+        when(meta.getTypeName()).thenReturn(StreamTypeNames.RAW_EVENTS);
+        when(meta.getFeedName()).thenReturn("TEST_FEED");
+        when(meta.getCreateMs())
+                .thenReturn(DateUtil.parseNormalDateTimeString("2010-01-01T12:00:00.000Z"));
+        final Meta oldMeta = mock(Meta.class);
+        when(oldMeta.getId()).thenReturn(1001002L);
+        when(oldMeta.getTypeName()).thenReturn(StreamTypeNames.RAW_EVENTS);
+        when(oldMeta.getFeedName()).thenReturn("TEST_FEED");
+        when(oldMeta.getCreateMs())
+                .thenReturn(DateUtil.parseNormalDateTimeString("2010-01-01T12:00:00.000Z"));
+
+        final FsFeedPathDao fileSystemFeedPaths = mock(FsFeedPathDao.class);
+        when(fileSystemFeedPaths.getOrCreatePath(any())).thenReturn("1");
+
+        final FsVolumeConfig zstdConfig = new FsVolumeConfig() {
+            @Override
+            public CompressionType getCompressionType() {
+                return CompressionType.ZSTD;
+            }
+        };
+        final FsPathHelper bgzPathHelper = new FsPathHelper(
+                fileSystemFeedPaths,
+                new MockFsTypePaths(),
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                FsVolumeConfig::new);
+        final FsPathHelper zstdPathHelper = new FsPathHelper(
+                fileSystemFeedPaths,
+                new MockFsTypePaths(),
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                () -> zstdConfig);
+
+        final Path volumePath = Paths.get(buildTestVolume().getPath());
+
+        // A stream written before we switched to zstd.
+        final Path oldRootFile = bgzPathHelper.getRootPath(volumePath, oldMeta, StreamTypeNames.RAW_EVENTS);
+        touch(oldRootFile);
+
+        final Path rootFile = zstdPathHelper.getRootPath(volumePath, meta, StreamTypeNames.RAW_EVENTS);
+        touch(rootFile);
+        assertPathEndsWith(rootFile, "EVENTS/2010/01/01/001/001/1=001001001.revt.zst");
+
+        final Path child1 = zstdPathHelper.getChildPath(rootFile, StreamTypeNames.CONTEXT);
+        assertPathEndsWith(child1, "EVENTS/2010/01/01/001/001/1=001001001.revt.ctx.zst");
+        final Path child2 = zstdPathHelper.getChildPath(rootFile, InternalStreamTypeNames.SEGMENT_INDEX);
+        assertPathEndsWith(child2, "EVENTS/2010/01/01/001/001/1=001001001.revt.seg.dat");
+
+        // The old stream is still found once its root file is missing in the current format and its
+        // children are in the same format.
+        assertThat(zstdPathHelper.getRootPath(volumePath, oldMeta, StreamTypeNames.RAW_EVENTS))
+                .isNotEqualTo(oldRootFile);
+        assertThat(zstdPathHelper.findAlternativeRootPath(volumePath, oldMeta, StreamTypeNames.RAW_EVENTS))
+                .contains(oldRootFile);
+        assertThat(zstdPathHelper.findAlternativeRootPath(volumePath, meta, StreamTypeNames.RAW_EVENTS))
+                .isEmpty();
+        assertThat(zstdPathHelper.getAllRootPaths(volumePath, oldMeta, StreamTypeNames.RAW_EVENTS))
+                .contains(oldRootFile);
+        assertPathEndsWith(zstdPathHelper.getChildPath(oldRootFile, StreamTypeNames.CONTEXT),
+                "EVENTS/2010/01/01/001/001/1=001001002.revt.ctx.bgz");
+
+        assertThat(zstdPathHelper.findRootStreamFiles(StreamTypeNames.RAW_EVENTS, rootFile.getParent()))
+                .containsExactlyInAnyOrder(rootFile, oldRootFile);
+
+        // Data written in either format can be read back.
+        for (final Path file : List.of(rootFile, child1, oldRootFile)) {
+            Files.deleteIfExists(file);
+            try (final OutputStream outputStream = zstdPathHelper.getOutputStream(StreamTypeNames.RAW_EVENTS, file)) {
+                outputStream.write(file.getFileName().toString().getBytes(StandardCharsets.UTF_8));
+            }
+            try (final InputStream inputStream = zstdPathHelper.getInputStream(StreamTypeNames.RAW_EVENTS, file)) {
+                assertThat(new String(inputStream.readAllBytes(), StandardCharsets.UTF_8))
+                        .isEqualTo(file.getFileName().toString());
+            }
+        }
+        assertThat(zstdPathHelper.getInputStream(StreamTypeNames.RAW_EVENTS, rootFile))
+                .isInstanceOf(BlockZstdInputFile.class);
+        assertThat(zstdPathHelper.getInputStream(StreamTypeNames.RAW_EVENTS, oldRootFile))
+                .isInstanceOf(BlockGZIPInputFile.class);
+    }
+
     private void touch(final Path path) throws IOException {
         FileUtil.mkdirs(path.getParent());
         FileUtil.touch(path);
@@ -280,7 +377,10 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                FsVolumeConfig::new);
 
         final Path path = Paths.get("");
         assertThat(fileSystemStreamPathHelper.getRootPath(path, meta, StreamTypeNames.EVENTS))
@@ -302,7 +402,10 @@ class TestFileSystemUtil {
         final FsPathHelper fileSystemStreamPathHelper = new FsPathHelper(
                 fileSystemFeedPaths,
                 new MockFsTypePaths(),
-                new StreamTypeExtensions(FsVolumeConfig::new));
+                new StreamTypeExtensions(FsVolumeConfig::new),
+                BlockGZIPFileFactory.sequential(),
+                BlockZstdFileFactory.withoutDictionaries(),
+                FsVolumeConfig::new);
 
         final Path path = Paths.get("");
         assertThat(fileSystemStreamPathHelper.getRootPath(path, meta, StreamTypeNames.EVENTS))
@@ -25,6 +25,7 @@ import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.NullSafe;
 
+import jakarta.inject.Provider;
 import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
@@ -55,6 +56,8 @@ class TestFsPathHelper {
     private FsTypePathDao mockFsTypePathDao;
     @Mock
     private StreamTypeExtensions mockStreamTypeExtensions;
+    @Mock
+    private Provider<FsVolumeConfig> mockFsVolumeConfigProvider;
     @InjectMocks
     private FsPathHelper fsPathHelper;
 
@@ -180,6 +183,8 @@ class TestFsPathHelper {
                 .thenReturn(streamTypeAsPath);
         Mockito.when(mockStreamTypeExtensions.getExtension(Mockito.anyString()))
                 .thenReturn(metaTypeExt);
+        Mockito.when(mockFsVolumeConfigProvider.get())
+                .thenReturn(fsVolumeConfig);
 
         final Path rootPath = fsPathHelper.getRootPath(volPath, simpleMeta);
 
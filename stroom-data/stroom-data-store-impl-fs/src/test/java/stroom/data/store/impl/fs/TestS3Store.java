@@ -0,0 +1,147 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import stroom.aws.s3.shared.S3ClientConfig;
+import stroom.data.shared.StreamTypeNames;
+import stroom.data.store.impl.fs.DataVolumeDao.DataVolume;
+import stroom.data.store.impl.fs.shared.FsVolume;
+import stroom.meta.api.MetaService;
+import stroom.meta.shared.Meta;
+import stroom.util.io.ByteSize;
+import stroom.util.io.SimplePathCreator;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TestS3Store {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testEvictsUnusedSourcesWhenFull() throws IOException {
+        final S3Store s3Store = createStore(ByteSize.ofBytes(25));
+        final DataVolume dataVolume = createDataVolume();
+
+        final Path dir1 = createData(1);
+        final Path dir2 = createData(2);
+        assertThat(s3Store.addUploaded(createMeta(1), dir1)).isTrue();
+        assertThat(s3Store.addUploaded(createMeta(2), dir2)).isTrue();
+        assertThat(s3Store.getCachedBytes()).isEqualTo(20);
+
+        // Reading uploaded data doesn't need a download and keeps it in use.
+        try (final S3Source source = s3Store.getSource(dataVolume, createMeta(1))) {
+            assertThat(source.count()).isOne();
+
+            // Going over the limit evicts the copy that isn't in use.
+            final Path dir3 = createData(3);
+            assertThat(s3Store.addUploaded(createMeta(3), dir3)).isTrue();
+
+            assertThat(dir1).exists();
+            assertThat(dir2).doesNotExist();
+            assertThat(dir3).exists();
+            assertThat(s3Store.getCachedBytes()).isEqualTo(20);
+        }
+
+        // The released copy is still cached.
+        assertThat(dir1).exists();
+    }
+
+    @Test
+    void testAddUploadedWhenAlreadyCached() throws IOException {
+        final S3Store s3Store = createStore(ByteSize.ofMebibytes(1));
+
+        assertThat(s3Store.addUploaded(createMeta(1), createData(1))).isTrue();
+        assertThat(s3Store.addUploaded(createMeta(1), createData(1))).isFalse();
+        assertThat(s3Store.getCachedBytes()).isEqualTo(10);
+    }
+
+    @Test
+    void testReplacedS3ManagerClosedWhenUnused() {
+        final S3Store s3Store = createStore(ByteSize.ofMebibytes(1));
+        final DataVolume dataVolume = createDataVolume();
+        final DataVolume changedDataVolume = createDataVolume(S3ClientConfig.builder()
+                .region("eu-west-2")
+                .build());
+
+        s3Store.useS3Manager(dataVolume, s3Manager1 -> {
+            // The same config shares the same manager.
+            s3Store.useS3Manager(dataVolume, s3Manager2 ->
+                    assertThat(s3Manager2).isSameAs(s3Manager1));
+
+            // A changed config gets a new manager and the old one is kept open while in use.
+            s3Store.useS3Manager(changedDataVolume, s3Manager2 ->
+                    assertThat(s3Manager2).isNotSameAs(s3Manager1));
+            assertThat(s3Store.getRetiredS3ManagerCount()).isOne();
+            return null;
+        });
+
+        assertThat(s3Store.getRetiredS3ManagerCount()).isZero();
+    }
+
+    private S3Store createStore(final ByteSize maxSize) {
+        final FsVolumeConfig fsVolumeConfig = new FsVolumeConfig() {
+            @Override
+            public ByteSize getS3CacheMaxSize() {
+                return maxSize;
+            }
+        };
+        return new S3Store(
+                () -> tempDir,
+                new SimplePathCreator(() -> tempDir, () -> tempDir),
+                mock(MetaService.class),
+                () -> fsVolumeConfig);
+    }
+
+    private DataVolume createDataVolume() {
+        return createDataVolume(S3ClientConfig.builder().build());
+    }
+
+    private DataVolume createDataVolume(final S3ClientConfig s3ClientConfig) {
+        final FsVolume volume = FsVolume.builder()
+                .id(1)
+                .s3ClientConfig(s3ClientConfig)
+                .build();
+        final DataVolume dataVolume = mock(DataVolume.class);
+        when(dataVolume.getVolume()).thenReturn(volume);
+        return dataVolume;
+    }
+
+    private Meta createMeta(final long id) {
+        return Meta.builder()
+                .id(id)
+                .createMs(0)
+                .feedName("TEST")
+                .typeName(StreamTypeNames.RAW_EVENTS)
+                .build();
+    }
+
+    private Path createData(final long id) throws IOException {
+        final Path dir = Files.createTempDirectory(tempDir, id + "__");
+        Files.writeString(dir.resolve("001.dat"), "0123456789");
+        return dir;
+    }
+}
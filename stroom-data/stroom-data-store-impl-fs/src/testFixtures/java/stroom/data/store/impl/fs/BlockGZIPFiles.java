@@ -0,0 +1,53 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.data.store.impl.fs;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Path;
+import java.util.concurrent.Executor;
+
+/**
+ * Opens the package private block GZIP files for code outside this package, e.g. benchmarks.
+ */
+public final class BlockGZIPFiles {
+
+    private BlockGZIPFiles() {
+        // NA
+    }
+
+    /**
+     * @param executor          The executor to compress blocks on or null to compress on the calling thread.
+     * @param maxBlocksInFlight The max number of blocks to compress at once.
+     */
+    public static OutputStream createOutputFile(final Path file,
+                                                final Executor executor,
+                                                final int maxBlocksInFlight) throws IOException {
+        return new BlockGZIPOutputFile(file, BlockGZIPConstants.DEFAULT_BLOCK_SIZE, executor, maxBlocksInFlight);
+    }
+
+    /**
+     * @param executor        The executor to decompress blocks on or null to decompress on the calling thread.
+     * @param readAheadBlocks The number of blocks to decompress ahead of the reader.
+     */
+    public static InputStream createInputFile(final Path file,
+                                              final Executor executor,
+                                              final int readAheadBlocks) throws IOException {
+        return new BlockGZIPInputFile(file, executor, readAheadBlocks);
+    }
+}
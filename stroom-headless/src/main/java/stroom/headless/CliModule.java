@@ -36,7 +36,9 @@ import stroom.pipeline.factory.DataStorePipelineElementModule;
 import stroom.processor.impl.MockProcessorModule;
 import stroom.security.mock.MockSecurityContextModule;
 import stroom.statistics.api.InternalStatisticsReceiver;
+import stroom.task.api.ExecutorProvider;
 import stroom.task.impl.TaskContextModule;
+import stroom.task.shared.ThreadPool;
 import stroom.util.entityevent.EntityEventBus;
 import stroom.util.guice.GuiceUtil;
 import stroom.util.http.BasicHttpClientFactory;
@@ -164,6 +166,21 @@ public class CliModule extends AbstractModule {
         return Executors.newCachedThreadPool();
     }
 
+    @Provides
+    public ExecutorProvider getExecutorProvider(final Executor executor) {
+        return new ExecutorProvider() {
+            @Override
+            public Executor get() {
+                return executor;
+            }
+
+            @Override
+            public Executor get(final ThreadPool threadPool) {
+                return executor;
+            }
+        };
+    }
+
     @Provides
     public NodeInfo nodeInfo() {
         return () -> null;
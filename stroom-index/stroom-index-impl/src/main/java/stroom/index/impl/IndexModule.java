@@ -63,6 +63,9 @@ public class IndexModule extends AbstractModule {
                 .addBinding(IndexVolumeGroupServiceImpl.class)
                 .addBinding(IndexFieldCacheImpl.class);
 
+        // Other modules can add listeners to be told when shards are closed or deleted.
+        GuiceUtil.buildMultiBinder(binder(), IndexShardListener.class);
+
         GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
                 .addBinding(IndexConfigCacheEntityEventHandler.class);
 
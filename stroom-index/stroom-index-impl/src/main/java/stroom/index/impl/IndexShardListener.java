@@ -0,0 +1,36 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.impl;
+
+/**
+ * Notified when an index shard on this node is closed or deleted so that anything holding
+ * resources open on the shard, e.g. cached searchers, can release them.
+ */
+public interface IndexShardListener {
+
+    /**
+     * Called once the writer for the shard has been closed.
+     */
+    default void onClose(final long indexShardId) {
+    }
+
+    /**
+     * Called when the shard has been marked for deletion or is about to be removed from disk.
+     */
+    default void onDelete(final long indexShardId) {
+    }
+}
@@ -51,6 +51,7 @@ import java.time.ZonedDateTime;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
@@ -78,6 +79,7 @@ public class IndexShardManager {
     private final PathCreator pathCreator;
     private final AtomicBoolean deletingShards = new AtomicBoolean();
     private final Provider<Executor> executorProvider;
+    private final Provider<Set<IndexShardListener>> indexShardListenersProvider;
 
     @Inject
     IndexShardManager(final IndexStore indexStore,
@@ -88,7 +90,8 @@ public class IndexShardManager {
                       final TaskContextFactory taskContextFactory,
                       final SecurityContext securityContext,
                       final PathCreator pathCreator,
-                      final Provider<Executor> executorProvider) {
+                      final Provider<Executor> executorProvider,
+                      final Provider<Set<IndexShardListener>> indexShardListenersProvider) {
         this.indexStore = indexStore;
         this.indexShardDao = indexShardDao;
         this.indexShardWriterCache = indexShardWriterCache;
@@ -98,6 +101,7 @@ public class IndexShardManager {
         this.securityContext = securityContext;
         this.pathCreator = pathCreator;
         this.executorProvider = executorProvider;
+        this.indexShardListenersProvider = indexShardListenersProvider;
     }
 
     /**
@@ -178,6 +182,9 @@ public class IndexShardManager {
             LOGGER.debug(() -> LogUtil.message("deleteFromDisk() - shard ID: {}, dir: '{}'",
                     shard.getId(), LogUtil.path(dir)));
 
+            // Make sure nothing still has the shard open before we delete the files.
+            indexShardListenersProvider.get().forEach(listener -> listener.onDelete(shard.getId()));
+
             // See if there are any files in the directory.
             if (!Files.isDirectory(dir) || FileUtil.deleteDir(dir)) {
                 // The directory either doesn't exist or we have
@@ -17,6 +17,7 @@
 package stroom.index.impl;
 
 import stroom.util.cache.CacheConfig;
+import stroom.util.io.ByteSize;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
 import stroom.util.time.StroomDuration;
@@ -33,27 +34,59 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
 
     private static final int DEFAULT_MAX_DOC_ID_QUEUE_SIZE = 1_000_000;
     private static final int DEFAULT_MAX_THREADS_PER_TASK = 5;
+    private static final StroomDuration DEFAULT_REMOTE_SEARCH_STREAM_FRAME_INTERVAL = StroomDuration.ofMillis(100);
+    private static final ByteSize DEFAULT_REMOTE_SEARCH_STREAM_MAX_FRAME_SIZE = ByteSize.ofGibibytes(1);
 
+    private final CacheConfig indexShardSearcherCache;
     private final int maxDocIdQueueSize;
     private final int maxThreadsPerTask;
     private final CacheConfig remoteSearchResultCache;
+    private final boolean remoteSearchStreamingEnabled;
+    private final StroomDuration remoteSearchStreamFrameInterval;
+    private final ByteSize remoteSearchStreamMaxFrameSize;
 
     public IndexShardSearchConfig() {
+        indexShardSearcherCache = CacheConfig.builder()
+                .maximumSize(1000L)
+                .expireAfterAccess(StroomDuration.ofMinutes(10))
+                .build();
         maxDocIdQueueSize = DEFAULT_MAX_DOC_ID_QUEUE_SIZE;
         maxThreadsPerTask = DEFAULT_MAX_THREADS_PER_TASK;
         remoteSearchResultCache = CacheConfig.builder()
                 .maximumSize(100L)
                 .expireAfterAccess(StroomDuration.ofMinutes(10))
                 .build();
+        remoteSearchStreamingEnabled = false;
+        remoteSearchStreamFrameInterval = DEFAULT_REMOTE_SEARCH_STREAM_FRAME_INTERVAL;
+        remoteSearchStreamMaxFrameSize = DEFAULT_REMOTE_SEARCH_STREAM_MAX_FRAME_SIZE;
     }
 
     @JsonCreator
-    public IndexShardSearchConfig(@JsonProperty("maxDocIdQueueSize") final Integer maxDocIdQueueSize,
+    public IndexShardSearchConfig(@JsonProperty("indexShardSearcherCache") final CacheConfig indexShardSearcherCache,
+                                  @JsonProperty("maxDocIdQueueSize") final Integer maxDocIdQueueSize,
                                   @JsonProperty("maxThreadsPerTask") final Integer maxThreadsPerTask,
-                                  @JsonProperty("remoteSearchResultCache") final CacheConfig remoteSearchResultCache) {
+                                  @JsonProperty("remoteSearchResultCache") final CacheConfig remoteSearchResultCache,
+                                  @JsonProperty("remoteSearchStreamingEnabled") final Boolean
+                                          remoteSearchStreamingEnabled,
+                                  @JsonProperty("remoteSearchStreamFrameInterval") final StroomDuration
+                                          remoteSearchStreamFrameInterval,
+                                  @JsonProperty("remoteSearchStreamMaxFrameSize") final ByteSize
+                                          remoteSearchStreamMaxFrameSize) {
+        this.indexShardSearcherCache = indexShardSearcherCache;
         this.maxDocIdQueueSize = Objects.requireNonNullElse(maxDocIdQueueSize, DEFAULT_MAX_DOC_ID_QUEUE_SIZE);
         this.maxThreadsPerTask = Objects.requireNonNullElse(maxThreadsPerTask, DEFAULT_MAX_THREADS_PER_TASK);
         this.remoteSearchResultCache = remoteSearchResultCache;
+        this.remoteSearchStreamingEnabled = Objects.requireNonNullElse(remoteSearchStreamingEnabled, false);
+        this.remoteSearchStreamFrameInterval = Objects.requireNonNullElse(
+                remoteSearchStreamFrameInterval, DEFAULT_REMOTE_SEARCH_STREAM_FRAME_INTERVAL);
+        this.remoteSearchStreamMaxFrameSize = Objects.requireNonNullElse(
+                remoteSearchStreamMaxFrameSize, DEFAULT_REMOTE_SEARCH_STREAM_MAX_FRAME_SIZE);
+    }
+
+    @JsonPropertyDescription("The cache of open index shard searchers shared by all searches on this node. " +
+                             "Searchers that have not been used for the expireAfterAccess duration are closed.")
+    public CacheConfig getIndexShardSearcherCache() {
+        return indexShardSearcherCache;
     }
 
     @JsonPropertyDescription("The maximum number of doc ids that will be queued ready for stored data to be " +
@@ -71,13 +104,41 @@ public class IndexShardSearchConfig extends AbstractConfig implements IsStroomCo
         return remoteSearchResultCache;
     }
 
+    @JsonPropertyDescription("If true the node coordinating a search will open a single streaming request to " +
+                             "each remote node and the remote node will push result payloads as they are " +
+                             "produced. If false the coordinating node will repeatedly poll each remote node " +
+                             "for results.")
+    public boolean isRemoteSearchStreamingEnabled() {
+        return remoteSearchStreamingEnabled;
+    }
+
+    @JsonPropertyDescription("When remote search streaming is enabled, how often a remote node checks whether " +
+                             "its results have changed and pushes a new frame of results to the coordinating " +
+                             "node if they have.")
+    public StroomDuration getRemoteSearchStreamFrameInterval() {
+        return remoteSearchStreamFrameInterval;
+    }
+
+    @JsonPropertyDescription("When remote search streaming is enabled, the largest frame of results the " +
+                             "coordinating node will accept from a remote node. A larger frame fails the search " +
+                             "on that node. Frames are sent and read in small chunks so this limit does not " +
+                             "determine how much memory a frame uses, it stops a broken node sending an " +
+                             "endless frame.")
+    public ByteSize getRemoteSearchStreamMaxFrameSize() {
+        return remoteSearchStreamMaxFrameSize;
+    }
+
 
     @Override
     public String toString() {
         return "IndexShardSearchConfig{" +
-               "maxDocIdQueueSize=" + maxDocIdQueueSize +
+               "indexShardSearcherCache=" + indexShardSearcherCache +
+               ", maxDocIdQueueSize=" + maxDocIdQueueSize +
                ", maxThreadsPerTask=" + maxThreadsPerTask +
                ", remoteSearchResultCache=" + remoteSearchResultCache +
+               ", remoteSearchStreamingEnabled=" + remoteSearchStreamingEnabled +
+               ", remoteSearchStreamFrameInterval=" + remoteSearchStreamFrameInterval +
+               ", remoteSearchStreamMaxFrameSize=" + remoteSearchStreamMaxFrameSize +
                '}';
     }
 }
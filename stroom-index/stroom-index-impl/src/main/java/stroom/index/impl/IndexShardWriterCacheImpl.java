@@ -59,6 +59,7 @@ import java.util.concurrent.Executor;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Singleton
 public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
@@ -77,6 +78,7 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
     private final SecurityContext securityContext;
     private final PathCreator pathCreator;
     private final Provider<LuceneProviderFactory> luceneProviderFactoryProvider;
+    private final Provider<Set<IndexShardListener>> indexShardListenersProvider;
 
     @Inject
     public IndexShardWriterCacheImpl(final NodeInfo nodeInfo,
@@ -88,6 +90,7 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
                                      final SecurityContext securityContext,
                                      final PathCreator pathCreator,
                                      final Provider<LuceneProviderFactory> luceneProviderFactoryProvider,
+                                     final Provider<Set<IndexShardListener>> indexShardListenersProvider,
                                      final CacheManager cacheManager) {
         this.nodeInfo = nodeInfo;
         this.luceneIndexDocCache = luceneIndexDocCache;
@@ -97,6 +100,7 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
         this.securityContext = securityContext;
         this.pathCreator = pathCreator;
         this.luceneProviderFactoryProvider = luceneProviderFactoryProvider;
+        this.indexShardListenersProvider = indexShardListenersProvider;
 
         cache = cacheManager.create(
                 "Index Shard Writer Cache",
@@ -211,6 +215,7 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
                 } finally {
                     // Update the shard status.
                     indexShardDao.reset(indexShardId);
+                    notifyListeners(listener -> listener.onClose(indexShardId));
                 }
             } catch (final RuntimeException e) {
                 LOGGER.error(e::getMessage, e);
@@ -218,6 +223,16 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
         });
     }
 
+    private void notifyListeners(final Consumer<IndexShardListener> consumer) {
+        for (final IndexShardListener listener : indexShardListenersProvider.get()) {
+            try {
+                consumer.accept(listener);
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        }
+    }
+
     @Override
     public void flush(final long indexShardId) {
         final Optional<IndexShardWriter> optional = cache.getIfPresent(indexShardId);
@@ -280,6 +295,7 @@ public class IndexShardWriterCacheImpl implements IndexShardWriterCache {
         LOGGER.debug(() -> "Deleted " + indexShardId);
         cache.invalidate(indexShardId);
         cache.evictExpiredElements();
+        notifyListeners(listener -> listener.onDelete(indexShardId));
     }
 
     private CompletableFuture<Void> flush(final long indexShardId,
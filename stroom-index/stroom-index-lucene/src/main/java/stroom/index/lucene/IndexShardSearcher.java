@@ -28,6 +28,7 @@ import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.SearcherFactory;
 import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.NIOFSDirectory;
 import org.slf4j.Logger;
@@ -50,6 +51,13 @@ class IndexShardSearcher {
     private final IndexWriter indexWriter;
     private final SearcherManager searcherManager;
 
+    /**
+     * The number of searches using this searcher when it is shared via {@link IndexShardSearcherCache}.
+     */
+    private int refCount;
+    private boolean retired;
+    private boolean destroyed;
+
     IndexShardSearcher(final IndexShard indexShard, final PathCreator pathCreator) {
         this(indexShard, null, pathCreator);
     }
@@ -153,7 +161,61 @@ class IndexShardSearcher {
         return searcherManager;
     }
 
+    /**
+     * Refresh the searcher so it sees any changes made by the writer, or committed to the shard
+     * directory, since it was opened or last refreshed. If another thread is already refreshing then
+     * this will not wait.
+     */
+    void maybeRefresh() {
+        try {
+            searcherManager.maybeRefresh();
+        } catch (final AlreadyClosedException e) {
+            // The writer has been closed under us so carry on with what we have.
+            LOGGER.debug("Unable to refresh searcher for index shard {} as the writer is closed",
+                    indexShard.getId());
+        } catch (final IOException e) {
+            LOGGER.debug("Unable to refresh searcher for index shard {}: {}", indexShard.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * @return False if the searcher has been retired so can't be used.
+     */
+    synchronized boolean tryAcquire() {
+        if (retired) {
+            return false;
+        }
+        refCount++;
+        return true;
+    }
+
+    synchronized void release() {
+        refCount--;
+        if (retired && refCount == 0) {
+            destroy();
+        }
+    }
+
+    /**
+     * Stop any new searches using this searcher. It will be destroyed once the last search using
+     * it has released it.
+     */
+    synchronized void retire() {
+        retired = true;
+        if (refCount == 0) {
+            destroy();
+        }
+    }
+
+    synchronized boolean isRetired() {
+        return retired;
+    }
+
     synchronized void destroy() {
+        if (destroyed) {
+            return;
+        }
+        destroyed = true;
         try {
             try {
                 searcherManager.close();
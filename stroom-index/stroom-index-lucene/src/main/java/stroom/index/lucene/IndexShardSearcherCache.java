@@ -0,0 +1,199 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.index.impl.IndexShardListener;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.impl.IndexShardWriter;
+import stroom.index.impl.IndexShardWriterCache;
+import stroom.index.shared.IndexShard;
+import stroom.util.io.PathCreator;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.metrics.Metrics;
+
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.search.SearcherManager;
+
+import java.util.Optional;
+
+/**
+ * Holds open {@link IndexShardSearcher} instances so that repeated searches of the same shard on
+ * this node re-use a warm reader rather than opening the shard directory each time.
+ * <p>
+ * Searchers are reference counted so a searcher that is evicted, because it has been idle or the
+ * cache is full, is only destroyed once all the searches using it have finished.
+ * <p>
+ * If the shard has a writer open in {@link IndexShardWriterCache} then the searcher is opened on
+ * the writer, so searches see documents that are not yet committed, and each acquisition refreshes
+ * it. If the writer is opened or closed then the cached searcher is replaced.
+ * <p>
+ * Searchers are evicted as soon as their shard is closed or deleted so that idle searchers don't
+ * keep the shard's files open.
+ */
+@Singleton
+class IndexShardSearcherCache implements IndexShardListener {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(IndexShardSearcherCache.class);
+
+    private static final String CACHE_NAME = "Index Shard Searcher Cache";
+
+    private final IndexShardWriterCache indexShardWriterCache;
+    private final PathCreator pathCreator;
+    private final StroomCache<Long, IndexShardSearcher> cache;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private final Timer openTimer;
+
+    @Inject
+    IndexShardSearcherCache(final CacheManager cacheManager,
+                            final Provider<IndexShardSearchConfig> indexShardSearchConfigProvider,
+                            final IndexShardWriterCache indexShardWriterCache,
+                            final PathCreator pathCreator,
+                            final Metrics metrics) {
+        this.indexShardWriterCache = indexShardWriterCache;
+        this.pathCreator = pathCreator;
+        this.cache = cacheManager.create(
+                CACHE_NAME,
+                () -> indexShardSearchConfigProvider.get().getIndexShardSearcherCache(),
+                (indexShardId, indexShardSearcher) -> indexShardSearcher.retire());
+
+        hitMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("hit")
+                .meter()
+                .createAndRegister();
+        missMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("miss")
+                .meter()
+                .createAndRegister();
+        openTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("open")
+                .addNamePart("time")
+                .timer()
+                .createAndRegister();
+    }
+
+    /**
+     * Get a searcher for the shard, opening one if there isn't a suitable one in the cache.
+     * The returned {@link Lease} must be closed once the search has finished with it.
+     */
+    Lease acquire(final IndexShard indexShard) {
+        final long indexShardId = indexShard.getId();
+        while (true) {
+            final IndexWriter indexWriter = getWriter(indexShardId);
+            IndexShardSearcher indexShardSearcher = cache.getIfPresent(indexShardId)
+                    .filter(searcher -> isUsable(searcher, indexWriter))
+                    .orElse(null);
+            if (indexShardSearcher != null) {
+                hitMeter.mark();
+            } else {
+                indexShardSearcher = cache.compute(indexShardId, (k, existing) -> {
+                    if (existing != null) {
+                        if (isUsable(existing, indexWriter)) {
+                            // Another thread has just opened one.
+                            return existing;
+                        }
+                        existing.retire();
+                    }
+                    missMeter.mark();
+                    return openTimer.timeSupplier(() ->
+                            new IndexShardSearcher(indexShard, indexWriter, pathCreator));
+                });
+            }
+
+            // The searcher may have been evicted since we got it, in which case go round again.
+            if (indexShardSearcher.tryAcquire()) {
+                indexShardSearcher.maybeRefresh();
+                return new Lease(indexShardSearcher);
+            }
+            LOGGER.debug("Searcher for index shard {} retired before use", indexShardId);
+        }
+    }
+
+    @Override
+    public void onClose(final long indexShardId) {
+        LOGGER.debug("Evicting searcher for closed index shard {}", indexShardId);
+        evict(indexShardId);
+    }
+
+    @Override
+    public void onDelete(final long indexShardId) {
+        LOGGER.debug("Evicting searcher for deleted index shard {}", indexShardId);
+        evict(indexShardId);
+    }
+
+    private void evict(final long indexShardId) {
+        // Retire it here rather than leaving it to the removal listener, which runs asynchronously,
+        // so an idle searcher has released the shard's files by the time we return.
+        cache.compute(indexShardId, (k, existing) -> {
+            if (existing != null) {
+                existing.retire();
+            }
+            return null;
+        });
+    }
+
+    private boolean isUsable(final IndexShardSearcher indexShardSearcher, final IndexWriter indexWriter) {
+        // If the shard's writer has been opened or closed since the searcher was opened then we
+        // need a new searcher.
+        return !indexShardSearcher.isRetired() && indexShardSearcher.getWriter() == indexWriter;
+    }
+
+    private IndexWriter getWriter(final long indexShardId) {
+        final Optional<IndexShardWriter> optional = indexShardWriterCache.getIfPresent(indexShardId);
+        if (optional.isPresent() && optional.get() instanceof final LuceneIndexShardWriter writer) {
+            return writer.getWriter();
+        }
+        return null;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A searcher that is in use by a search. Closing it releases the searcher back to the cache.
+     */
+    static final class Lease implements AutoCloseable {
+
+        private final IndexShardSearcher indexShardSearcher;
+        private boolean closed;
+
+        private Lease(final IndexShardSearcher indexShardSearcher) {
+            this.indexShardSearcher = indexShardSearcher;
+        }
+
+        SearcherManager getSearcherManager() {
+            return indexShardSearcher.getSearcherManager();
+        }
+
+        @Override
+        public void close() {
+            if (!closed) {
+                closed = true;
+                indexShardSearcher.release();
+            }
+        }
+    }
+}
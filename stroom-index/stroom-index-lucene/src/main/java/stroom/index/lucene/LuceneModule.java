@@ -16,6 +16,7 @@
 
 package stroom.index.lucene;
 
+import stroom.index.impl.IndexShardListener;
 import stroom.index.impl.LuceneProvider;
 import stroom.query.common.v2.RerankScoringFilterFactory;
 import stroom.search.extraction.MemoryIndex;
@@ -34,6 +35,9 @@ public class LuceneModule extends AbstractModule {
         // Bind this provider.
         GuiceUtil.buildMultiBinder(binder(), LuceneProvider.class).addBinding(Lucene980Provider.class);
         GuiceUtil.buildMultiBinder(binder(), LuceneProvider.class).addBinding(Lucene1031Provider.class);
+
+        GuiceUtil.buildMultiBinder(binder(), IndexShardListener.class)
+                .addBinding(IndexShardSearcherCache.class);
     }
 
     @Provides
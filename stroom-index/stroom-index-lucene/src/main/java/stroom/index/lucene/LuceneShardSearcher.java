@@ -20,8 +20,6 @@ import stroom.ai.api.AiService;
 import stroom.dictionary.api.WordListProvider;
 import stroom.docref.DocRef;
 import stroom.index.impl.IndexShardSearchConfig;
-import stroom.index.impl.IndexShardWriter;
-import stroom.index.impl.IndexShardWriterCache;
 import stroom.index.lucene.SearchExpressionQueryBuilder.SearchExpressionQuery;
 import stroom.index.shared.IndexShard;
 import stroom.query.api.DateTimeSettings;
@@ -43,12 +41,10 @@ import stroom.task.api.TerminateHandlerFactory;
 import stroom.task.api.ThreadPoolImpl;
 import stroom.task.shared.ThreadPool;
 import stroom.util.concurrent.UncheckedInterruptedException;
-import stroom.util.io.PathCreator;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
 import org.apache.lucene.document.Document;
-import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexableField;
 import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.KnnFloatVectorQuery;
@@ -58,7 +54,6 @@ import org.apache.lucene.search.ScoreMode;
 import org.apache.lucene.search.SearcherManager;
 
 import java.io.IOException;
-import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
@@ -71,21 +66,19 @@ class LuceneShardSearcher implements stroom.index.impl.LuceneShardSearcher {
 
     public static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Search Index Shard");
 
-    private final IndexShardWriterCache indexShardWriterCache;
+    private final IndexShardSearcherCache indexShardSearcherCache;
     private final IndexShardSearchConfig shardConfig;
     private final Executor executor;
     private final TaskContextFactory taskContextFactory;
-    private final PathCreator pathCreator;
     private final FieldFactory fieldFactory;
 
     private final QueryKey queryKey;
     private final Query query;
 
-    LuceneShardSearcher(final IndexShardWriterCache indexShardWriterCache,
+    LuceneShardSearcher(final IndexShardSearcherCache indexShardSearcherCache,
                         final IndexShardSearchConfig shardConfig,
                         final ExecutorProvider executorProvider,
                         final TaskContextFactory taskContextFactory,
-                        final PathCreator pathCreator,
                         final DocRef indexDocRef,
                         final IndexFieldCache indexFieldCache,
                         final ExpressionOperator expression,
@@ -95,11 +88,10 @@ class LuceneShardSearcher implements stroom.index.impl.LuceneShardSearcher {
                         final AiService aiService,
                         final FieldFactory fieldFactory) {
         this.queryKey = queryKey;
-        this.indexShardWriterCache = indexShardWriterCache;
+        this.indexShardSearcherCache = indexShardSearcherCache;
         this.shardConfig = shardConfig;
         this.executor = executorProvider.get(THREAD_POOL);
         this.taskContextFactory = taskContextFactory;
-        this.pathCreator = pathCreator;
         this.fieldFactory = fieldFactory;
 
         final SearchExpressionQueryBuilder searchExpressionQueryBuilder = new SearchExpressionQueryBuilder(
@@ -129,7 +121,6 @@ class LuceneShardSearcher implements stroom.index.impl.LuceneShardSearcher {
                             final int shardTotal,
                             final ValuesConsumer valuesConsumer,
                             final ErrorConsumer errorConsumer) {
-        IndexShardSearcher indexShardSearcher = null;
         try {
             if (!taskContext.isTerminated()) {
                 taskContext.reset();
@@ -137,63 +128,43 @@ class LuceneShardSearcher implements stroom.index.impl.LuceneShardSearcher {
                         "Searching shard " + shardNumber + " of " + shardTotal +
                         " (id=" + indexShard.getId() + ")", LOGGER);
 
-                final IndexWriter indexWriter = getWriter(indexShard.getId());
-
-                indexShardSearcher = new IndexShardSearcher(indexShard, indexWriter, pathCreator);
-
-                // Start searching.
-                searchShard(
-                        taskContext,
-                        storedFields,
-                        fieldsToLoad,
-                        hitCount,
-                        indexShardSearcher,
-                        valuesConsumer,
-                        errorConsumer);
+                // Use a shared searcher for the shard, which will see any uncommitted documents if
+                // the shard has an open writer.
+                try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+                    // Start searching.
+                    searchShard(
+                            taskContext,
+                            storedFields,
+                            fieldsToLoad,
+                            hitCount,
+                            indexShard,
+                            lease.getSearcherManager(),
+                            valuesConsumer,
+                            errorConsumer);
+                }
             }
         } catch (final RuntimeException e) {
             LOGGER.debug(e::getMessage, e);
             error(errorConsumer, e);
-
-        } finally {
-            if (indexShardSearcher != null) {
-                taskContext.info(() -> "Closing searcher for index shard " + indexShard.getId(), LOGGER);
-                indexShardSearcher.destroy();
-            }
         }
     }
 
-    private IndexWriter getWriter(final Long indexShardId) {
-        IndexWriter indexWriter = null;
-
-        // Load the current index shard.
-        final Optional<IndexShardWriter> optional = indexShardWriterCache.getIfPresent(indexShardId);
-        if (optional.isPresent() && optional.get() instanceof final LuceneIndexShardWriter writer) {
-            indexWriter = writer.getWriter();
-        }
-
-        return indexWriter;
-    }
-
     private void searchShard(final TaskContext parentContext,
                              final IndexField[] storedFields,
                              final Set<String> fieldsToLoad,
                              final LongAdder hitCount,
-                             final IndexShardSearcher indexShardSearcher,
+                             final IndexShard indexShard,
+                             final SearcherManager searcherManager,
                              final ValuesConsumer valuesConsumer,
                              final ErrorConsumer errorConsumer) {
         SearchProgressLog.increment(queryKey, SearchPhase.INDEX_SHARD_SEARCH_TASK_HANDLER_SEARCH_SHARD);
 
-        // Get the index shard that this searcher uses.
-        final IndexShard indexShard = indexShardSearcher.getIndexShard();
-
         // If there is an error building the query then it will be null here.
         if (query != null) {
             final int maxDocIdQueueSize = shardConfig.getMaxDocIdQueueSize();
             LOGGER.debug(() -> "Creating docIdStore with size " + maxDocIdQueueSize);
             final DocIdQueue docIdQueue = new DocIdQueue(maxDocIdQueueSize);
             try {
-                final SearcherManager searcherManager = indexShardSearcher.getSearcherManager();
                 final IndexSearcher searcher = searcherManager.acquire();
                 try {
                     final Runnable runnable = taskContextFactory.childContext(
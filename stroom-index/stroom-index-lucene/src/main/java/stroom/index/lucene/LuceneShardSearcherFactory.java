@@ -20,7 +20,6 @@ import stroom.ai.api.AiService;
 import stroom.dictionary.api.WordListProvider;
 import stroom.docref.DocRef;
 import stroom.index.impl.IndexShardSearchConfig;
-import stroom.index.impl.IndexShardWriterCache;
 import stroom.query.api.DateTimeSettings;
 import stroom.query.api.ExpressionOperator;
 import stroom.query.api.QueryKey;
@@ -28,7 +27,6 @@ import stroom.query.common.v2.IndexFieldCache;
 import stroom.search.impl.SearchConfig;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.TaskContextFactory;
-import stroom.util.io.PathCreator;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
@@ -36,31 +34,28 @@ import org.apache.lucene.search.IndexSearcher;
 
 class LuceneShardSearcherFactory {
 
-    private final IndexShardWriterCache indexShardWriterCache;
+    private final IndexShardSearcherCache indexShardSearcherCache;
     private final Provider<IndexShardSearchConfig> shardSearchConfigProvider;
     private final ExecutorProvider executorProvider;
     private final TaskContextFactory taskContextFactory;
-    private final PathCreator pathCreator;
     private final WordListProvider dictionaryStore;
     private final Provider<SearchConfig> searchConfigProvider;
     private final Provider<AiService> aiServiceProvider;
     private final Provider<FieldFactory> fieldFactoryProvider;
 
     @Inject
-    LuceneShardSearcherFactory(final IndexShardWriterCache indexShardWriterCache,
+    LuceneShardSearcherFactory(final IndexShardSearcherCache indexShardSearcherCache,
                                final Provider<IndexShardSearchConfig> shardSearchConfigProvider,
                                final ExecutorProvider executorProvider,
                                final TaskContextFactory taskContextFactory,
-                               final PathCreator pathCreator,
                                final WordListProvider dictionaryStore,
                                final Provider<SearchConfig> searchConfigProvider,
                                final Provider<AiService> aiServiceProvider,
                                final Provider<FieldFactory> fieldFactoryProvider) {
-        this.indexShardWriterCache = indexShardWriterCache;
+        this.indexShardSearcherCache = indexShardSearcherCache;
         this.shardSearchConfigProvider = shardSearchConfigProvider;
         this.executorProvider = executorProvider;
         this.taskContextFactory = taskContextFactory;
-        this.pathCreator = pathCreator;
         this.dictionaryStore = dictionaryStore;
         this.searchConfigProvider = searchConfigProvider;
         this.aiServiceProvider = aiServiceProvider;
@@ -74,11 +69,10 @@ class LuceneShardSearcherFactory {
                                                         final QueryKey queryKey) {
         IndexSearcher.setMaxClauseCount(searchConfigProvider.get().getMaxBooleanClauseCount());
         return new LuceneShardSearcher(
-                indexShardWriterCache,
+                indexShardSearcherCache,
                 shardSearchConfigProvider.get(),
                 executorProvider,
                 taskContextFactory,
-                pathCreator,
                 indexDocRef,
                 indexFieldCache,
                 expression,
@@ -0,0 +1,230 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.index.lucene;
+
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.index.impl.IndexConfig;
+import stroom.index.impl.IndexDocument;
+import stroom.index.impl.IndexShardSearchConfig;
+import stroom.index.impl.IndexShardWriter;
+import stroom.index.impl.IndexShardWriterCache;
+import stroom.index.shared.IndexShard;
+import stroom.index.shared.IndexVolume;
+import stroom.index.shared.LuceneIndexField;
+import stroom.index.shared.LuceneVersionUtil;
+import stroom.query.language.functions.ValInteger;
+import stroom.search.extraction.FieldValue;
+import stroom.test.common.MockMetrics;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MockitoExtension.class)
+class TestIndexShardSearcherCache {
+
+    private static final int MAX_DOCS = 1_000_000;
+
+    @Mock
+    private IndexShardWriterCache mockIndexShardWriterCache;
+
+    private final FieldFactory fieldFactory = new FieldFactory();
+    private PathCreator pathCreator;
+    private IndexShard indexShard;
+    private IndexShardSearcherCache indexShardSearcherCache;
+
+    @BeforeEach
+    void setUp(@TempDir final Path tempDir) throws IOException {
+        pathCreator = new SimplePathCreator(
+                () -> tempDir.resolve("home"),
+                () -> tempDir);
+        indexShard = IndexShard
+                .builder()
+                .id(1L)
+                .indexUuid(UUID.randomUUID().toString())
+                .partition("all")
+                .volume(IndexVolume.builder()
+                        .path(FileUtil.getCanonicalPath(Files.createDirectories(tempDir.resolve("volume"))))
+                        .build())
+                .indexVersion(LuceneVersionUtil.getCurrentVersion())
+                .build();
+        indexShardSearcherCache = new IndexShardSearcherCache(
+                new CacheManagerImpl(),
+                IndexShardSearchConfig::new,
+                mockIndexShardWriterCache,
+                pathCreator,
+                MockMetrics.getInstance());
+    }
+
+    @Test
+    void testSearcherReused() throws IOException {
+        final IndexShardWriter writer = createWriter();
+        writer.addDocument(buildDocument(1));
+        writer.close();
+
+        final SearcherManager searcherManager;
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            searcherManager = lease.getSearcherManager();
+            assertThat(getDocCount(searcherManager)).isEqualTo(1);
+        }
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            assertThat(lease.getSearcherManager())
+                    .isSameAs(searcherManager);
+            assertThat(getDocCount(lease.getSearcherManager())).isEqualTo(1);
+        }
+    }
+
+    @Test
+    void testSeesUncommittedDocs() throws IOException {
+        final LuceneIndexShardWriter writer = createWriter();
+        Mockito.when(mockIndexShardWriterCache.getIfPresent(indexShard.getId()))
+                .thenReturn(Optional.of(writer));
+
+        writer.addDocument(buildDocument(1));
+        final SearcherManager searcherManager;
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            searcherManager = lease.getSearcherManager();
+            assertThat(getDocCount(searcherManager)).isEqualTo(1);
+        }
+
+        // Same searcher but refreshed
+        writer.addDocument(buildDocument(2));
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            assertThat(lease.getSearcherManager())
+                    .isSameAs(searcherManager);
+            assertThat(getDocCount(lease.getSearcherManager())).isEqualTo(2);
+        }
+
+        // Writer closed so we need a new searcher on the shard dir
+        writer.close();
+        Mockito.when(mockIndexShardWriterCache.getIfPresent(indexShard.getId()))
+                .thenReturn(Optional.empty());
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            assertThat(lease.getSearcherManager())
+                    .isNotSameAs(searcherManager);
+            assertThat(getDocCount(lease.getSearcherManager())).isEqualTo(2);
+        }
+        assertThatThrownBy(searcherManager::acquire)
+                .isInstanceOf(AlreadyClosedException.class);
+    }
+
+    @Test
+    void testReplacedSearcherClosedOnRelease() throws IOException {
+        final LuceneIndexShardWriter writer = createWriter();
+        writer.addDocument(buildDocument(1));
+        writer.close();
+
+        final IndexShardSearcherCache.Lease lease1 = indexShardSearcherCache.acquire(indexShard);
+        final SearcherManager searcherManager1 = lease1.getSearcherManager();
+
+        // A writer is opened for the shard so the cached searcher is replaced while in use
+        final LuceneIndexShardWriter writer2 = createWriter();
+        Mockito.when(mockIndexShardWriterCache.getIfPresent(indexShard.getId()))
+                .thenReturn(Optional.of(writer2));
+        try (final IndexShardSearcherCache.Lease lease2 = indexShardSearcherCache.acquire(indexShard)) {
+            assertThat(lease2.getSearcherManager())
+                    .isNotSameAs(searcherManager1);
+        }
+
+        // Still usable until released
+        assertThat(getDocCount(searcherManager1)).isEqualTo(1);
+        lease1.close();
+        assertThatThrownBy(searcherManager1::acquire)
+                .isInstanceOf(AlreadyClosedException.class);
+        writer2.close();
+    }
+
+    @Test
+    void testSearcherEvictedOnShardDelete() throws IOException {
+        final LuceneIndexShardWriter writer = createWriter();
+        writer.addDocument(buildDocument(1));
+        writer.close();
+
+        final IndexShardSearcherCache.Lease lease1 = indexShardSearcherCache.acquire(indexShard);
+        final SearcherManager searcherManager1 = lease1.getSearcherManager();
+
+        indexShardSearcherCache.onDelete(indexShard.getId());
+
+        // Still usable by the search that holds it, closed once released
+        assertThat(getDocCount(searcherManager1)).isEqualTo(1);
+        lease1.close();
+        assertThatThrownBy(searcherManager1::acquire)
+                .isInstanceOf(AlreadyClosedException.class);
+    }
+
+    @Test
+    void testIdleSearcherClosedOnShardClose() throws IOException {
+        final LuceneIndexShardWriter writer = createWriter();
+        writer.addDocument(buildDocument(1));
+        writer.close();
+
+        final SearcherManager searcherManager1;
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            searcherManager1 = lease.getSearcherManager();
+        }
+
+        indexShardSearcherCache.onClose(indexShard.getId());
+        assertThatThrownBy(searcherManager1::acquire)
+                .isInstanceOf(AlreadyClosedException.class);
+
+        // The next search opens a new searcher
+        try (final IndexShardSearcherCache.Lease lease = indexShardSearcherCache.acquire(indexShard)) {
+            assertThat(lease.getSearcherManager())
+                    .isNotSameAs(searcherManager1);
+            assertThat(getDocCount(lease.getSearcherManager())).isEqualTo(1);
+        }
+    }
+
+    private LuceneIndexShardWriter createWriter() {
+        return new LuceneIndexShardWriter(
+                null, new IndexConfig(), indexShard, pathCreator, MAX_DOCS, fieldFactory);
+    }
+
+    private int getDocCount(final SearcherManager searcherManager) throws IOException {
+        final IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return searcher.getIndexReader().numDocs();
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private IndexDocument buildDocument(final int id) {
+        final IndexDocument document = new IndexDocument();
+        document.add(new FieldValue(LuceneIndexField.createIdField("Id"), ValInteger.create(id)));
+        return document;
+    }
+}
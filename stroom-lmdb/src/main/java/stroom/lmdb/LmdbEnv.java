@@ -83,6 +83,8 @@ public class LmdbEnv implements AutoCloseable {
     private final Function<Function<Txn<ByteBuffer>, ?>, ?> readTxnGetMethod;
     private final ReadWriteLock readWriteLock;
     private final Semaphore activeReadTransactionsSemaphore;
+    // Null unless read txns are to be re-used
+    private final ReusableReadTxns reusableReadTxns;
 
     /**
      * @param localDir                The directory where the LMDB env will be persisted or read from if it
@@ -96,13 +98,18 @@ public class LmdbEnv implements AutoCloseable {
      *                                When {@link LmdbEnv#delete()} is called, if isDedicatedDir is true,
      *                                localDir will be deleted, else it will just delete the LMDB .mdb files and
      *                                leave localDir present.
+     * @param readTxnReuseMaxAge      If non-null each thread will re-use its read txn, see
+     *                                {@link ReusableReadTxns}. If isReaderBlockedByWriter is true
+     *                                the txn is reset after each read so the max age is ignored.
+     *                                Requires {@link EnvFlags#MDB_NOTLS}.
      */
     LmdbEnv(final Path localDir,
             final String name,
             final Env<ByteBuffer> env,
             final Set<EnvFlags> envFlags,
             final boolean isReaderBlockedByWriter,
-            final boolean isDedicatedDir) {
+            final boolean isDedicatedDir,
+            final Duration readTxnReuseMaxAge) {
         this.localDir = localDir;
         this.isDedicatedDir = isDedicatedDir;
         this.name = name;
@@ -113,6 +120,23 @@ public class LmdbEnv implements AutoCloseable {
         final int maxReaders = env.info().maxReaders;
         activeReadTransactionsSemaphore = new Semaphore(maxReaders);
 
+        if (readTxnReuseMaxAge != null) {
+            if (!envFlags.contains(EnvFlags.MDB_NOTLS)) {
+                throw new IllegalArgumentException("Re-using read txns requires " + EnvFlags.MDB_NOTLS);
+            }
+            // If writers block readers then the readers must not hold on to a snapshot between reads
+            // Only let half the readers hold on to a txn so there are always permits for the rest
+            reusableReadTxns = new ReusableReadTxns(
+                    env,
+                    activeReadTransactionsSemaphore,
+                    maxReaders / 2,
+                    isReaderBlockedByWriter
+                            ? Duration.ZERO
+                            : readTxnReuseMaxAge);
+        } else {
+            reusableReadTxns = null;
+        }
+
         if (isReaderBlockedByWriter) {
             // Read/write lock enforces writes block reads and the semaphore ensures we don't have
             // too many readers.
@@ -134,7 +158,7 @@ public class LmdbEnv implements AutoCloseable {
                     maxReaders,
                     isReaderBlockedByWriter);
 
-            readTxnGetMethod = this::getWithReadTxnUnderMaxReaderSemaphore;
+            readTxnGetMethod = this::getWithNewOrReusedReadTxn;
         }
     }
 
@@ -151,6 +175,15 @@ public class LmdbEnv implements AutoCloseable {
         return activeReadTransactionsSemaphore.availablePermits();
     }
 
+    /**
+     * @return The number of re-usable read txns that are holding a snapshot open.
+     */
+    int getOpenReusableReadTxnSnapshotCount() {
+        return reusableReadTxns != null
+                ? reusableReadTxns.getOpenSnapshotCount()
+                : 0;
+    }
+
     public Path getLocalDir() {
         return localDir;
     }
@@ -243,6 +276,7 @@ public class LmdbEnv implements AutoCloseable {
                 final T result = work.apply(writeTxn);
                 LOGGER.trace("Committing the txn");
                 writeTxn.commit();
+                onCommit();
                 return result;
             } catch (final RuntimeException e) {
                 throw new RuntimeException(LogUtil.message(
@@ -272,7 +306,7 @@ public class LmdbEnv implements AutoCloseable {
             }
 
             LOGGER.trace("Opening new write txn");
-            return new WriteTxn(writeTxnLock, env.txnWrite());
+            return new WriteTxn(writeTxnLock, env.txnWrite(), this::onCommit);
         } catch (final InterruptedException e) {
             throw UncheckedInterruptedException.create("Thread interrupted while waiting for write lock on "
                                                        + localDir.toAbsolutePath().normalize(), e);
@@ -299,7 +333,7 @@ public class LmdbEnv implements AutoCloseable {
                 postAcquireAction.run();
             }
 
-            return new BatchingWriteTxn(writeTxnLock, env::txnWrite, batchSize);
+            return new BatchingWriteTxn(writeTxnLock, env::txnWrite, batchSize, this::onCommit);
         } catch (final InterruptedException e) {
             throw UncheckedInterruptedException.create("Thread interrupted while waiting for write lock on "
                                                        + localDir.toAbsolutePath().normalize(), e);
@@ -317,6 +351,30 @@ public class LmdbEnv implements AutoCloseable {
         });
     }
 
+    private <T> T getWithNewOrReusedReadTxn(final Function<Txn<ByteBuffer>, T> work) {
+        if (reusableReadTxns != null) {
+            return reusableReadTxns.getWithReadTxn(
+                    txn -> {
+                        try {
+                            return work.apply(txn);
+                        } catch (final RuntimeException e) {
+                            throw new RuntimeException(LogUtil.message(
+                                    "Error performing work in read transaction: {}",
+                                    e.getMessage()), e);
+                        }
+                    },
+                    () -> getWithReadTxnUnderMaxReaderSemaphore(work));
+        } else {
+            return getWithReadTxnUnderMaxReaderSemaphore(work);
+        }
+    }
+
+    private void onCommit() {
+        if (reusableReadTxns != null) {
+            reusableReadTxns.onCommit();
+        }
+    }
+
     private <T> T getWithReadTxnUnderMaxReaderSemaphore(final Function<Txn<ByteBuffer>, T> work) {
         try {
             acquireReadTxnPermit();
@@ -392,7 +450,7 @@ public class LmdbEnv implements AutoCloseable {
         }
 
         try {
-            return getWithReadTxnUnderMaxReaderSemaphore(work);
+            return getWithNewOrReusedReadTxn(work);
         } finally {
             LOGGER.trace("Releasing readLock");
             readLock.unlock();
@@ -402,6 +460,9 @@ public class LmdbEnv implements AutoCloseable {
     @Override
     public void close() {
         LOGGER.debug(() -> "Closing LMDB environment at " + localDir.toAbsolutePath().normalize());
+        if (reusableReadTxns != null) {
+            reusableReadTxns.close();
+        }
         env.close();
     }
 
@@ -595,15 +656,18 @@ public class LmdbEnv implements AutoCloseable {
     public static class WriteTxn implements AutoCloseable {
 
         private final Lock writeLock;
+        private final Runnable onCommit;
         private Txn<ByteBuffer> writeTxn;
 
         /**
          * @param writeLock Should already be held by this thread.
          */
         private WriteTxn(final Lock writeLock,
-                         final Txn<ByteBuffer> writeTxn) {
+                         final Txn<ByteBuffer> writeTxn,
+                         final Runnable onCommit) {
             this.writeLock = writeLock;
             this.writeTxn = writeTxn;
+            this.onCommit = onCommit;
         }
 
         /**
@@ -627,6 +691,7 @@ public class LmdbEnv implements AutoCloseable {
          */
         public void commit() {
             writeTxn.commit();
+            onCommit.run();
         }
 
         /**
@@ -664,16 +729,20 @@ public class LmdbEnv implements AutoCloseable {
         private final int maxBatchSize;
         private int batchCounter = 0;
         private final BooleanSupplier commitFunc;
+        private final Runnable onCommit;
 
         /**
          * @param writeLock    Should already be held by this thread.
          * @param maxBatchSize
+         * @param onCommit     Called after each successful commit.
          */
         private BatchingWriteTxn(final Lock writeLock,
                                  final Supplier<Txn<ByteBuffer>> writeTxnSupplier,
-                                 final int maxBatchSize) {
+                                 final int maxBatchSize,
+                                 final Runnable onCommit) {
             this.writeLock = writeLock;
             this.writeTxnSupplier = writeTxnSupplier;
+            this.onCommit = onCommit;
             this.maxBatchSize = maxBatchSize == 0
                     ? Integer.MAX_VALUE
                     : maxBatchSize;
@@ -735,6 +804,7 @@ public class LmdbEnv implements AutoCloseable {
                 LOGGER.trace("Committing txn with batchCounter: {}", batchCounter);
                 try {
                     writeTxn.commit();
+                    onCommit.run();
                 } finally {
                     try {
                         writeTxn.close();
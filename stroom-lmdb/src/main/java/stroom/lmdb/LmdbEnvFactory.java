@@ -32,6 +32,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.EnumSet;
@@ -88,6 +89,7 @@ public class LmdbEnvFactory {
         protected boolean isReaderBlockedByWriter = LmdbConfig.DEFAULT_IS_READER_BLOCKED_BY_WRITER;
         protected String subDir = null;
         protected String name = null;
+        protected Duration readTxnReuseMaxAge = null;
 
         private AbstractEnvBuilder(final PathCreator pathCreator,
                                    final LmdbConfig lmdbConfig) {
@@ -133,6 +135,18 @@ public class LmdbEnvFactory {
             return this;
         }
 
+        /**
+         * Make each thread re-use its read txn rather than opening a new one for each read.
+         * The env must also have {@link EnvFlags#MDB_NOTLS}. See {@link ReusableReadTxns}.
+         *
+         * @param readTxnReuseMaxAge The max age of the snapshot a thread's read txn can see, or
+         *                           null to not re-use read txns.
+         */
+        public AbstractEnvBuilder withReadTxnReuse(final Duration readTxnReuseMaxAge) {
+            this.readTxnReuseMaxAge = readTxnReuseMaxAge;
+            return this;
+        }
+
         private static Path getLocalDirAsPath(final PathCreator pathCreator,
                                               final LmdbConfig lmdbConfig) {
 
@@ -206,14 +220,16 @@ public class LmdbEnvFactory {
                 }
 
                 LOGGER.debug("Creating LMDB environment in dir {}, maxSize: {}, maxDbs {}, maxReaders {}, "
-                                + "isReadAheadEnabled {}, isReaderBlockedByWriter {}, envFlags {}",
+                                + "isReadAheadEnabled {}, isReaderBlockedByWriter {}, envFlags {}, "
+                                + "readTxnReuseMaxAge {}",
                         envDir.toAbsolutePath().normalize(),
                         maxStoreSize,
                         maxDbs,
                         maxReaders,
                         isReadAheadEnabled,
                         isReaderBlockedByWriter,
-                        envFlags);
+                        envFlags,
+                        readTxnReuseMaxAge);
 
                 final EnvFlags[] envFlagsArr = envFlags.toArray(new EnvFlags[0]);
                 env = builder.open(envDir.toFile(), envFlagsArr);
@@ -222,7 +238,8 @@ public class LmdbEnvFactory {
                         "Error creating LMDB env at {}: {}",
                         envDir.toAbsolutePath().normalize(), e.getMessage()), e);
             }
-            return new LmdbEnv(envDir, name, env, envFlags, isReaderBlockedByWriter, isDedicatedDir);
+            return new LmdbEnv(
+                    envDir, name, env, envFlags, isReaderBlockedByWriter, isDedicatedDir, readTxnReuseMaxAge);
         }
     }
 
@@ -267,6 +284,12 @@ public class LmdbEnvFactory {
             return this;
         }
 
+        @Override
+        public CustomEnvBuilder withReadTxnReuse(final Duration readTxnReuseMaxAge) {
+            super.withReadTxnReuse(readTxnReuseMaxAge);
+            return this;
+        }
+
         @Override
         public CustomEnvBuilder addEnvFlag(final EnvFlags envFlag) {
             super.addEnvFlag(envFlag);
@@ -345,5 +368,11 @@ public class LmdbEnvFactory {
             super.withName(name);
             return this;
         }
+
+        @Override
+        public SimpleEnvBuilder withReadTxnReuse(final Duration readTxnReuseMaxAge) {
+            super.withReadTxnReuse(readTxnReuseMaxAge);
+            return this;
+        }
     }
 }
@@ -0,0 +1,327 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.lmdb;
+
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+
+import org.lmdbjava.Env;
+import org.lmdbjava.Txn;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Holds a read txn per thread that is re-used for all reads on that thread rather than
+ * opening a new txn for each read. Between reads the txn is either left open, so the next
+ * read on the thread can use the same snapshot, or reset so that it does not hold on to
+ * the snapshot. A txn is reset and renewed before a read if it is older than maxAge or if
+ * {@link #onCommit()} has been called since it was last renewed, so reads always see writes
+ * committed before the read began and never see a snapshot older than maxAge.
+ * If maxAge is zero the txn is reset after every read.
+ * <p>
+ * An open snapshot stops LMDB re-using the pages freed by later commits, so {@link #onCommit()}
+ * resets the txns of threads that are not currently reading, and a read that finishes after a
+ * commit resets its txn. A thread that stops reading therefore doesn't hold a snapshot beyond the
+ * next commit.
+ * <p>
+ * The env must have been opened with {@link org.lmdbjava.EnvFlags#MDB_NOTLS}.
+ * Each thread's txn takes one of the readerPermits for as long as it is open. At most maxThreadTxns
+ * threads can hold a txn, so that there are always permits left for threads doing reads via the
+ * fallback. If a thread can't get a txn, it is already using its txn (i.e. a nested read) or this
+ * has been closed then the fallback is used to perform the read.
+ * </p>
+ */
+public class ReusableReadTxns implements AutoCloseable {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ReusableReadTxns.class);
+
+    private final Env<ByteBuffer> env;
+    private final Semaphore readerPermits;
+    private final Semaphore threadTxnPermits;
+    private final long maxAgeNanos;
+    private final ThreadLocal<ThreadTxn> threadTxns = new ThreadLocal<>();
+    private final Set<ThreadTxn> openThreadTxns = ConcurrentHashMap.newKeySet();
+    // Incremented on each write commit so threads know their snapshot is out of date
+    private final AtomicLong commitCount = new AtomicLong();
+    private volatile boolean closed = false;
+
+    /**
+     * @param env           The env to create read txns in.
+     * @param readerPermits The permits limiting the number of concurrent read txns on env.
+     * @param maxThreadTxns The maximum number of threads that can hold a txn. Should be less
+     *                      than the number of readerPermits.
+     * @param maxAge        The maximum time a thread's txn can use the same snapshot for.
+     */
+    public ReusableReadTxns(final Env<ByteBuffer> env,
+                            final Semaphore readerPermits,
+                            final int maxThreadTxns,
+                            final Duration maxAge) {
+        this.env = Objects.requireNonNull(env);
+        this.readerPermits = Objects.requireNonNull(readerPermits);
+        this.threadTxnPermits = new Semaphore(maxThreadTxns);
+        this.maxAgeNanos = Objects.requireNonNull(maxAge).toNanos();
+    }
+
+    /**
+     * Perform work using this thread's read txn, or call fallback if this thread can't have one.
+     * The txn must not be closed, reset or used outside of work.
+     */
+    public <T> T getWithReadTxn(final Function<Txn<ByteBuffer>, T> work,
+                                final Supplier<T> fallback) {
+        final ThreadTxn threadTxn = getOrCreateThreadTxn();
+        if (threadTxn == null) {
+            return fallback.get();
+        }
+        threadTxn.lock.lock();
+        try {
+            if (threadTxn.inUse || threadTxn.txn == null) {
+                // Nested read on this thread or we have been closed
+                return fallback.get();
+            }
+            threadTxn.inUse = true;
+            try {
+                final Txn<ByteBuffer> txn;
+                try {
+                    txn = threadTxn.prepare(commitCount.get());
+                } catch (final RuntimeException e) {
+                    // Don't want to re-use a txn in an unknown state
+                    threadTxn.close();
+                    threadTxns.remove();
+                    throw e;
+                }
+                LOGGER.trace("Performing work with re-used read txn");
+                return work.apply(txn);
+            } finally {
+                threadTxn.inUse = false;
+                if (maxAgeNanos == 0) {
+                    threadTxn.reset();
+                }
+            }
+        } finally {
+            threadTxn.lock.unlock();
+            // If there has been a commit while we held the lock then onCommit couldn't reset our
+            // txn, so do it now rather than holding the old snapshot until our next read.
+            if (threadTxn.renewCommitCount != commitCount.get()) {
+                threadTxn.resetIfIdle();
+            }
+        }
+    }
+
+    /**
+     * Must be called after each commit of a write txn on the env so subsequent reads see the
+     * committed data. Resets the txns of any threads that are not reading so they don't stop
+     * the pages freed by the commit from being re-used.
+     */
+    public void onCommit() {
+        commitCount.incrementAndGet();
+        for (final ThreadTxn threadTxn : openThreadTxns) {
+            threadTxn.resetIfIdle();
+        }
+    }
+
+    /**
+     * Closes all the thread txns. Must be called before the env is closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LOGGER.debug(() -> LogUtil.message("Closing {} re-usable read txns", openThreadTxns.size()));
+        for (final ThreadTxn threadTxn : openThreadTxns) {
+            threadTxn.close();
+        }
+    }
+
+    /**
+     * @return The number of thread txns that are currently holding a snapshot open.
+     */
+    int getOpenSnapshotCount() {
+        int count = 0;
+        for (final ThreadTxn threadTxn : openThreadTxns) {
+            threadTxn.lock.lock();
+            try {
+                if (threadTxn.txn != null && !threadTxn.isReset) {
+                    count++;
+                }
+            } finally {
+                threadTxn.lock.unlock();
+            }
+        }
+        return count;
+    }
+
+    private ThreadTxn getOrCreateThreadTxn() {
+        if (closed) {
+            return null;
+        }
+        final ThreadTxn existing = threadTxns.get();
+        if (existing != null) {
+            return existing;
+        }
+
+        if (!threadTxnPermits.tryAcquire()) {
+            // Txns held by threads that have since died will never be released by their thread
+            closeDeadThreadTxns();
+            if (!threadTxnPermits.tryAcquire()) {
+                return null;
+            }
+        }
+        if (!readerPermits.tryAcquire()) {
+            threadTxnPermits.release();
+            return null;
+        }
+        // Read before opening the txn so a commit during the open means it is seen as stale
+        final long currentCommitCount = commitCount.get();
+        final Txn<ByteBuffer> txn;
+        try {
+            txn = env.txnRead();
+        } catch (final RuntimeException e) {
+            readerPermits.release();
+            threadTxnPermits.release();
+            throw e;
+        }
+        final ThreadTxn threadTxn = new ThreadTxn(Thread.currentThread(), txn, currentCommitCount);
+        openThreadTxns.add(threadTxn);
+        if (closed) {
+            // close() may have run before we were added so it is up to us
+            threadTxn.close();
+            return null;
+        }
+        threadTxns.set(threadTxn);
+        return threadTxn;
+    }
+
+    private void closeDeadThreadTxns() {
+        for (final ThreadTxn threadTxn : openThreadTxns) {
+            if (!threadTxn.owner.isAlive()) {
+                LOGGER.debug("Closing read txn of dead thread {}", threadTxn.owner.getName());
+                threadTxn.close();
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private class ThreadTxn {
+
+        private final Thread owner;
+        // Guards all use of txn, which may be reset or closed by threads other than owner
+        private final ReentrantLock lock = new ReentrantLock();
+        private Txn<ByteBuffer> txn;
+        private boolean isReset = false;
+        private boolean inUse = false;
+        private long renewTimeNanos;
+        private long renewCommitCount;
+
+        private ThreadTxn(final Thread owner,
+                          final Txn<ByteBuffer> txn,
+                          final long commitCount) {
+            this.owner = owner;
+            this.txn = txn;
+            this.renewTimeNanos = System.nanoTime();
+            this.renewCommitCount = commitCount;
+        }
+
+        /**
+         * @param currentCommitCount Must be read before the txn is renewed, so if a commit
+         *                           happens during the renew the next read will renew again.
+         */
+        private Txn<ByteBuffer> prepare(final long currentCommitCount) {
+            final long nowNanos = System.nanoTime();
+            if (!isReset
+                && (renewCommitCount != currentCommitCount || nowNanos - renewTimeNanos > maxAgeNanos)) {
+                LOGGER.trace("Resetting stale read txn");
+                reset();
+            }
+            if (isReset) {
+                txn.renew();
+                isReset = false;
+                renewTimeNanos = nowNanos;
+                renewCommitCount = currentCommitCount;
+            }
+            return txn;
+        }
+
+        private void reset() {
+            if (txn != null && !isReset) {
+                txn.reset();
+                isReset = true;
+            }
+        }
+
+        /**
+         * Reset the txn unless the owner is using it. Doesn't wait for the owner to finish a
+         * read, as it will reset the txn itself if it is stale when the read finishes.
+         */
+        private void resetIfIdle() {
+            if (lock.tryLock()) {
+                try {
+                    if (!inUse) {
+                        LOGGER.trace("Resetting idle read txn of thread {}", owner.getName());
+                        reset();
+                    }
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Error resetting read txn for thread {}: {}",
+                            owner.getName(), LogUtil.exceptionMessage(e), e);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        private void close() {
+            lock.lock();
+            try {
+                doClose();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void doClose() {
+            if (txn != null) {
+                try {
+                    // Txn#close only aborts a txn that is not reset so renew it to ensure
+                    // the txn is freed
+                    if (isReset) {
+                        txn.renew();
+                    }
+                    txn.close();
+                } catch (final RuntimeException e) {
+                    LOGGER.error("Error closing read txn for thread {}: {}",
+                            owner.getName(), LogUtil.exceptionMessage(e), e);
+                } finally {
+                    txn = null;
+                    openThreadTxns.remove(this);
+                    readerPermits.release();
+                    threadTxnPermits.release();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.lmdb.stream;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Merges the entries from several {@link LmdbIterable} iterators, each of which is in ascending key order, into a
+ * single iterator of entries in ascending key order, e.g. to read a key range across several partitioned DBs.
+ * <p>
+ * Like the iterators it wraps, {@link #hasNext()} moves the underlying cursors, so an entry returned by
+ * {@link #next()} is only valid until the following call to {@link #hasNext()}.
+ * </p>
+ */
+public class LmdbMergedIterator implements Iterator<LmdbEntry> {
+
+    private static final UnsignedByteBufferComparator BUFFER_COMPARATOR = new UnsignedByteBufferComparator();
+
+    private final Iterator<LmdbEntry>[] iterators;
+    private final LmdbEntry[] heads;
+    private boolean started;
+    private int lastIndex = -1;
+    private int nextIndex = -1;
+
+    @SuppressWarnings("unchecked")
+    public LmdbMergedIterator(final List<Iterator<LmdbEntry>> iterators) {
+        this.iterators = iterators.toArray(new Iterator[0]);
+        this.heads = new LmdbEntry[this.iterators.length];
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (!started) {
+            for (int i = 0; i < iterators.length; i++) {
+                advance(i);
+            }
+            started = true;
+        } else if (lastIndex != -1) {
+            // Only move the cursor that supplied the last entry as the other heads are still unconsumed.
+            advance(lastIndex);
+            lastIndex = -1;
+        }
+
+        nextIndex = -1;
+        ByteBuffer minKey = null;
+        for (int i = 0; i < heads.length; i++) {
+            final LmdbEntry head = heads[i];
+            if (head != null && (minKey == null || BUFFER_COMPARATOR.compare(head.getKey(), minKey) < 0)) {
+                minKey = head.getKey();
+                nextIndex = i;
+            }
+        }
+        return nextIndex != -1;
+    }
+
+    @Override
+    public LmdbEntry next() {
+        if (nextIndex == -1) {
+            throw new NoSuchElementException();
+        }
+        lastIndex = nextIndex;
+        nextIndex = -1;
+        return heads[lastIndex];
+    }
+
+    private void advance(final int index) {
+        final Iterator<LmdbEntry> iterator = iterators[index];
+        heads[index] = iterator.hasNext()
+                ? iterator.next()
+                : null;
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.lmdb;
+
+import stroom.util.io.ByteSize;
+import stroom.util.io.FileUtil;
+import stroom.util.io.PathCreator;
+import stroom.util.io.SimplePathCreator;
+import stroom.util.io.TempDirProvider;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.EnvFlags;
+import org.lmdbjava.Txn;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestReusableReadTxns {
+
+    private static final int MAX_READERS = 10;
+    private static final String KEY = "key";
+
+    private Path dbDir;
+    private LmdbEnv lmdbEnv;
+    private Dbi<ByteBuffer> dbi;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dbDir = Files.createTempDirectory("stroom");
+        final PathCreator pathCreator = new SimplePathCreator(() -> dbDir, () -> dbDir);
+        final TempDirProvider tempDirProvider = () -> dbDir;
+        lmdbEnv = new LmdbEnvFactory(pathCreator, new LmdbLibrary(pathCreator, tempDirProvider, LmdbLibraryConfig::new))
+                .builder(dbDir)
+                .withMapSize(ByteSize.ofMebibytes(10))
+                .withMaxReaderCount(MAX_READERS)
+                .addEnvFlag(EnvFlags.MDB_NOTLS)
+                .setIsReaderBlockedByWriter(false)
+                .withReadTxnReuse(Duration.ofHours(1))
+                .build();
+        dbi = lmdbEnv.openDbi("test");
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (lmdbEnv != null && !lmdbEnv.isClosed()) {
+            lmdbEnv.close();
+        }
+        FileUtil.deleteDir(dbDir);
+    }
+
+    @Test
+    void testTxnIsReused() {
+        final Txn<ByteBuffer> txn1 = lmdbEnv.getWithReadTxn(txn -> txn);
+        final Txn<ByteBuffer> txn2 = lmdbEnv.getWithReadTxn(txn -> txn);
+
+        assertThat(txn2)
+                .isSameAs(txn1);
+        // The thread's txn keeps hold of a permit
+        assertThat(lmdbEnv.getAvailableReadPermitCount())
+                .isEqualTo(MAX_READERS - 1);
+    }
+
+    @Test
+    void testReadsSeeCommittedWrites() {
+        put("value1");
+        assertThat(get())
+                .isEqualTo("value1");
+
+        // Despite the max age of an hour the commit should mean the txn is renewed
+        put("value2");
+        assertThat(get())
+                .isEqualTo("value2");
+
+        try (final LmdbEnv.BatchingWriteTxn batchingWriteTxn = lmdbEnv.openBatchingWriteTxn(0)) {
+            dbi.put(batchingWriteTxn.getTxn(), toBuffer(KEY), toBuffer("value3"));
+            batchingWriteTxn.commit();
+        }
+        assertThat(get())
+                .isEqualTo("value3");
+    }
+
+    @Test
+    void testIdleTxnResetOnCommit() {
+        put("value1");
+        assertThat(get())
+                .isEqualTo("value1");
+        CompletableFuture.runAsync(() ->
+                        assertThat(get()).isEqualTo("value1"))
+                .join();
+        // Both threads keep their snapshot between reads
+        assertThat(lmdbEnv.getOpenReusableReadTxnSnapshotCount())
+                .isEqualTo(2);
+
+        // Neither thread is reading so the commit resets both txns
+        put("value2");
+        assertThat(lmdbEnv.getOpenReusableReadTxnSnapshotCount())
+                .isZero();
+        // Still holding the permits so the txns can be renewed
+        assertThat(lmdbEnv.getAvailableReadPermitCount())
+                .isEqualTo(MAX_READERS - 2);
+
+        assertThat(get())
+                .isEqualTo("value2");
+        assertThat(lmdbEnv.getOpenReusableReadTxnSnapshotCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void testTxnResetAfterReadIfCommitDuringRead() {
+        put("value1");
+        final String value = lmdbEnv.getWithReadTxn(txn -> {
+            // The commit can't reset our txn while we are using it
+            CompletableFuture.runAsync(() -> put("value2"))
+                    .join();
+            final ByteBuffer valueBuffer = dbi.get(txn, toBuffer(KEY));
+            return StandardCharsets.UTF_8.decode(valueBuffer).toString();
+        });
+        assertThat(value)
+                .isEqualTo("value1");
+
+        // Reset once the read finished
+        assertThat(lmdbEnv.getOpenReusableReadTxnSnapshotCount())
+                .isZero();
+        assertThat(get())
+                .isEqualTo("value2");
+    }
+
+    @Test
+    void testNestedRead() {
+        final Txn<ByteBuffer> outerTxn = lmdbEnv.getWithReadTxn(txn -> txn);
+
+        final AtomicReference<Txn<ByteBuffer>> innerTxnRef = new AtomicReference<>();
+        lmdbEnv.doWithReadTxn(txn ->
+                lmdbEnv.doWithReadTxn(innerTxnRef::set));
+
+        // The inner read can't use the thread's txn as it is in use
+        assertThat(innerTxnRef.get())
+                .isNotNull()
+                .isNotSameAs(outerTxn);
+        assertThat(lmdbEnv.getAvailableReadPermitCount())
+                .isEqualTo(MAX_READERS - 1);
+    }
+
+    @Test
+    void testEachThreadHasItsOwnTxn() {
+        final Txn<ByteBuffer> txn1 = lmdbEnv.getWithReadTxn(txn -> txn);
+        final Txn<ByteBuffer> txn2 = CompletableFuture.supplyAsync(() ->
+                        lmdbEnv.getWithReadTxn(txn -> txn))
+                .join();
+
+        assertThat(txn2)
+                .isNotSameAs(txn1);
+    }
+
+    @Test
+    void testClose() {
+        put("value1");
+        assertThat(get())
+                .isEqualTo("value1");
+        CompletableFuture.runAsync(() ->
+                        assertThat(get()).isEqualTo("value1"))
+                .join();
+        assertThat(lmdbEnv.getAvailableReadPermitCount())
+                .isEqualTo(MAX_READERS - 2);
+
+        lmdbEnv.close();
+
+        assertThat(lmdbEnv.getAvailableReadPermitCount())
+                .isEqualTo(MAX_READERS);
+    }
+
+    private void put(final String value) {
+        lmdbEnv.doWithWriteTxn(writeTxn ->
+                dbi.put(writeTxn, toBuffer(KEY), toBuffer(value)));
+    }
+
+    private String get() {
+        return lmdbEnv.getWithReadTxn(txn -> {
+            final ByteBuffer valueBuffer = dbi.get(txn, toBuffer(KEY));
+            return valueBuffer != null
+                    ? StandardCharsets.UTF_8.decode(valueBuffer).toString()
+                    : null;
+        });
+    }
+
+    private static ByteBuffer toBuffer(final String str) {
+        final byte[] bytes = str.getBytes(StandardCharsets.UTF_8);
+        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(bytes.length);
+        byteBuffer.put(bytes);
+        return byteBuffer.flip();
+    }
+}
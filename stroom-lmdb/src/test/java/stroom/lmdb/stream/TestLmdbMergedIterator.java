@@ -0,0 +1,133 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.lmdb.stream;
+
+import stroom.util.io.ByteSize;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.lmdbjava.Dbi;
+import org.lmdbjava.DbiFlags;
+import org.lmdbjava.Env;
+import org.lmdbjava.Txn;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestLmdbMergedIterator {
+
+    private static final int DB_COUNT = 3;
+    private static final int KEY_COUNT = 300;
+
+    @Test
+    void testMerge(@TempDir final Path tempDir) {
+        final List<Integer> keys = merge(tempDir, LmdbKeyRange.all());
+
+        // Keys that have the top bit set must come last as LMDB compares keys as unsigned bytes.
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < KEY_COUNT; i++) {
+            expected.add(createKey(i));
+        }
+        expected.sort(Integer::compareUnsigned);
+        assertThat(keys)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testMergeRange(@TempDir final Path tempDir) {
+        final ByteBuffer start = createKeyBuffer(createKey(10));
+        final ByteBuffer stop = createKeyBuffer(createKey(20));
+        final List<Integer> keys = merge(tempDir, LmdbKeyRange.builder()
+                .start(start)
+                .stop(stop, false)
+                .build());
+
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 10; i < 20; i++) {
+            expected.add(createKey(i));
+        }
+        assertThat(keys)
+                .containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    void testMergeEmpty(@TempDir final Path tempDir) {
+        final ByteBuffer start = createKeyBuffer(createKey(KEY_COUNT));
+        final List<Integer> keys = merge(tempDir, LmdbKeyRange.builder()
+                .start(start)
+                .build());
+        assertThat(keys)
+                .isEmpty();
+    }
+
+    private List<Integer> merge(final Path dir, final LmdbKeyRange keyRange) {
+        final List<Integer> keys = new ArrayList<>();
+        try (final Env<ByteBuffer> env = Env.create()
+                .setMapSize(ByteSize.ofMebibytes(1).getBytes())
+                .setMaxDbs(DB_COUNT)
+                .open(dir.toFile())) {
+            final List<Dbi<ByteBuffer>> dbis = new ArrayList<>();
+            for (int i = 0; i < DB_COUNT; i++) {
+                dbis.add(env.openDbi("db" + i, DbiFlags.MDB_CREATE));
+            }
+
+            // Spread the keys across the DBs.
+            try (final Txn<ByteBuffer> txn = env.txnWrite()) {
+                for (int i = 0; i < KEY_COUNT; i++) {
+                    dbis.get(i % DB_COUNT).put(txn, createKeyBuffer(createKey(i)), createKeyBuffer(i));
+                }
+                txn.commit();
+            }
+
+            try (final Txn<ByteBuffer> txn = env.txnRead()) {
+                final List<LmdbIterable> iterables = new ArrayList<>();
+                try {
+                    final List<Iterator<LmdbEntry>> iterators = new ArrayList<>();
+                    for (final Dbi<ByteBuffer> dbi : dbis) {
+                        final LmdbIterable iterable = LmdbIterable.create(txn, dbi, keyRange);
+                        iterables.add(iterable);
+                        iterators.add(iterable.iterator());
+                    }
+
+                    final LmdbMergedIterator iterator = new LmdbMergedIterator(iterators);
+                    while (iterator.hasNext()) {
+                        keys.add(iterator.next().getKey().getInt(0));
+                    }
+                } finally {
+                    iterables.forEach(LmdbIterable::close);
+                }
+            }
+        }
+        return keys;
+    }
+
+    private int createKey(final int i) {
+        // Spread the keys over the whole int range so some have the top bit set.
+        return i * 14_000_000;
+    }
+
+    private ByteBuffer createKeyBuffer(final int key) {
+        final ByteBuffer byteBuffer = ByteBuffer.allocateDirect(Integer.BYTES);
+        byteBuffer.putInt(key);
+        return byteBuffer.flip();
+    }
+}
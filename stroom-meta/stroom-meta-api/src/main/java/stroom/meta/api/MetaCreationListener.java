@@ -0,0 +1,29 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.meta.api;
+
+import stroom.meta.shared.Meta;
+
+/**
+ * Notified whenever new meta data is created by {@link MetaService#create(MetaProperties)}.
+ * Implementations are called on the thread creating the meta data so should hand off any
+ * expensive work.
+ */
+public interface MetaCreationListener {
+
+    void onCreate(Meta meta);
+}
@@ -18,6 +18,7 @@ package stroom.meta.impl;
 
 import stroom.event.logging.api.ObjectInfoProviderBinder;
 import stroom.job.api.ScheduledJobsBinder;
+import stroom.meta.api.MetaCreationListener;
 import stroom.meta.api.MetaSecurityFilter;
 import stroom.meta.api.MetaService;
 import stroom.meta.api.PhysicalDelete;
@@ -42,6 +43,7 @@ public class MetaModule extends AbstractModule {
         bind(PhysicalDelete.class).to(PhysicalDeleteImpl.class);
 
         OptionalBinder.newOptionalBinder(binder(), MetaSecurityFilter.class);
+        GuiceUtil.buildMultiBinder(binder(), MetaCreationListener.class);
 
         // Provide object info to the logging service.
         ObjectInfoProviderBinder.create(binder())
@@ -27,6 +27,7 @@ import stroom.entity.shared.ExpressionCriteria;
 import stroom.meta.api.AttributeMap;
 import stroom.meta.api.EffectiveMetaDataCriteria;
 import stroom.meta.api.EffectiveMetaSet;
+import stroom.meta.api.MetaCreationListener;
 import stroom.meta.api.MetaProperties;
 import stroom.meta.api.MetaSecurityFilter;
 import stroom.meta.api.MetaService;
@@ -59,6 +60,7 @@ import stroom.task.api.TaskContextFactory;
 import stroom.task.api.TaskManager;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
 import stroom.util.shared.CriteriaFieldSort;
 import stroom.util.shared.NullSafe;
 import stroom.util.shared.PageRequest;
@@ -109,6 +111,7 @@ public class MetaServiceImpl implements MetaService, StreamFeedProvider, Searcha
     private final TaskManager taskManager;
     private final FieldInfoResultPageFactory fieldInfoResultPageFactory;
     private final Provider<Executor> executorProvider;
+    private final Set<MetaCreationListener> metaCreationListeners;
 
     @Inject
     MetaServiceImpl(final MetaDao metaDao,
@@ -124,7 +127,8 @@ public class MetaServiceImpl implements MetaService, StreamFeedProvider, Searcha
                     final UserQueryRegistry userQueryRegistry,
                     final TaskManager taskManager,
                     final FieldInfoResultPageFactory fieldInfoResultPageFactory,
-                    final Provider<Executor> executorProvider) {
+                    final Provider<Executor> executorProvider,
+                    final Set<MetaCreationListener> metaCreationListeners) {
         this.metaDao = metaDao;
         this.metaFeedDao = metaFeedDao;
         this.metaValueDao = metaValueDao;
@@ -139,6 +143,7 @@ public class MetaServiceImpl implements MetaService, StreamFeedProvider, Searcha
         this.taskManager = taskManager;
         this.fieldInfoResultPageFactory = fieldInfoResultPageFactory;
         this.executorProvider = executorProvider;
+        this.metaCreationListeners = metaCreationListeners;
     }
 
     @Override
@@ -153,7 +158,17 @@ public class MetaServiceImpl implements MetaService, StreamFeedProvider, Searcha
 
     @Override
     public Meta create(final MetaProperties metaProperties) {
-        return metaDao.create(metaProperties);
+        final Meta meta = metaDao.create(metaProperties);
+        for (final MetaCreationListener listener : metaCreationListeners) {
+            try {
+                listener.onCreate(meta);
+            } catch (final RuntimeException e) {
+                // Listeners must not stop the data being written.
+                LOGGER.error(() -> LogUtil.message("Error notifying {} of new meta {} - {}",
+                        listener.getClass().getSimpleName(), meta.getId(), e.getMessage()), e);
+            }
+        }
+        return meta;
     }
 
     @Override
@@ -28,8 +28,11 @@ import stroom.util.xml.ParserConfig;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
+import java.util.Objects;
+
 
 @JsonPropertyOrder(alphabetic = true)
 public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
@@ -42,6 +45,7 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
     private final CacheConfig httpClientCache;
     private final CacheConfig pipelineDataCache;
     private final CacheConfig documentPermissionCache;
+    private final boolean warmUpPools;
 
     public PipelineConfig() {
         appenderConfig = new AppenderConfig();
@@ -64,6 +68,7 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
                 .maximumSize(1000L)
                 .expireAfterWrite(StroomDuration.ofSeconds(30))
                 .build();
+        warmUpPools = true;
     }
 
     @SuppressWarnings("unused")
@@ -75,7 +80,8 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
                           @JsonProperty("xslt") final XsltConfig xsltConfig,
                           @JsonProperty("httpClientCache") final CacheConfig httpClientCache,
                           @JsonProperty("pipelineDataCache") final CacheConfig pipelineDataCache,
-                          @JsonProperty("documentPermissionCache") final CacheConfig documentPermissionCache) {
+                          @JsonProperty("documentPermissionCache") final CacheConfig documentPermissionCache,
+                          @JsonProperty("warmUpPools") final Boolean warmUpPools) {
         this.appenderConfig = appenderConfig;
         this.parserConfig = parserConfig;
         this.referenceDataConfig = referenceDataConfig;
@@ -84,6 +90,7 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
         this.httpClientCache = httpClientCache;
         this.pipelineDataCache = pipelineDataCache;
         this.documentPermissionCache = documentPermissionCache;
+        this.warmUpPools = Objects.requireNonNullElse(warmUpPools, true);
     }
 
     @JsonProperty("appender")
@@ -122,4 +129,12 @@ public class PipelineConfig extends AbstractConfig implements IsStroomConfig {
     public CacheConfig getDocumentPermissionCache() {
         return documentPermissionCache;
     }
+
+    @JsonPropertyDescription("If true, the XSLT, parser factory and pipeline structure caches will be populated " +
+            "in the background for the pipelines of all enabled processor filters at startup and when the " +
+            "documents they use change.")
+    @JsonProperty("warmUpPools")
+    public boolean isWarmUpPools() {
+        return warmUpPools;
+    }
 }
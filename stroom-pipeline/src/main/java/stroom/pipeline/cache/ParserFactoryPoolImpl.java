@@ -53,19 +53,30 @@ class ParserFactoryPoolImpl
     private static final ElementId ELEMENT_ID = new ElementId(ParserFactoryPool.class.getSimpleName());
 
     private final DSChooser dsChooser;
+    private final Provider<PipelineWarmUp> pipelineWarmUpProvider;
 
     @Inject
     ParserFactoryPoolImpl(final CacheManager cacheManager,
                           final Provider<ParserConfig> parserConfigProvider,
                           final DocumentPermissionCache documentPermissionCache,
                           final SecurityContext securityContext,
-                          final DSChooser dsChooser) {
+                          final DSChooser dsChooser,
+                          final Provider<PipelineWarmUp> pipelineWarmUpProvider) {
         super(cacheManager,
                 "Parser Factory Pool",
                 () -> parserConfigProvider.get().getCacheConfig(),
                 documentPermissionCache,
                 securityContext);
         this.dsChooser = dsChooser;
+        this.pipelineWarmUpProvider = pipelineWarmUpProvider;
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        // super deals with invalidating the affected doc
+        super.onChange(event);
+        // Only rebuild once the old entries are gone, so they can't be invalidated after the rebuild
+        pipelineWarmUpProvider.get().onDocChange(event);
     }
 
     @Override
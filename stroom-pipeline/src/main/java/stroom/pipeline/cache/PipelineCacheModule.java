@@ -16,12 +16,15 @@
 
 package stroom.pipeline.cache;
 
+import stroom.lifecycle.api.LifecycleBinder;
+import stroom.util.RunnableWrapper;
 import stroom.util.entityevent.EntityEvent;
 import stroom.util.guice.GuiceUtil;
 import stroom.util.guice.HasSystemInfoBinder;
 import stroom.util.shared.Clearable;
 
 import com.google.inject.AbstractModule;
+import jakarta.inject.Inject;
 
 public class PipelineCacheModule extends AbstractModule {
 
@@ -42,11 +45,24 @@ public class PipelineCacheModule extends AbstractModule {
         HasSystemInfoBinder.create(binder())
                 .bind(SchemaPoolImpl.class)
                 .bind(ParserFactoryPoolImpl.class)
-                .bind(XsltPoolImpl.class);
+                .bind(XsltPoolImpl.class)
+                .bind(PipelineWarmUp.class);
 
         GuiceUtil.buildMultiBinder(binder(), EntityEvent.Handler.class)
                 .addBinding(ParserFactoryPoolImpl.class)
                 .addBinding(SchemaPoolImpl.class)
-                .addBinding(XsltPoolImpl.class);
+                .addBinding(XsltPoolImpl.class)
+                .addBinding(PipelineWarmUp.class);
+
+        LifecycleBinder.create(binder())
+                .bindStartupTaskTo(PipelineWarmUpStartup.class);
+    }
+
+    private static class PipelineWarmUpStartup extends RunnableWrapper {
+
+        @Inject
+        PipelineWarmUpStartup(final PipelineWarmUp pipelineWarmUp) {
+            super(pipelineWarmUp::warmUpAll);
+        }
     }
 }
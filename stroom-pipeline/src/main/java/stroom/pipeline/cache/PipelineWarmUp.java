@@ -0,0 +1,487 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.cache;
+
+import stroom.docref.DocRef;
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.pipeline.PipelineConfig;
+import stroom.pipeline.PipelineStore;
+import stroom.pipeline.factory.PipelineDataCache;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.TextConverterDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.pipeline.shared.data.PipelineData;
+import stroom.pipeline.shared.data.PipelineProperty;
+import stroom.pipeline.shared.data.PipelinePropertyValue;
+import stroom.pipeline.textconverter.TextConverterStore;
+import stroom.pipeline.xslt.XsltStore;
+import stroom.processor.api.ProcessorFilterService;
+import stroom.processor.shared.Processor;
+import stroom.processor.shared.ProcessorFields;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorFilterFields;
+import stroom.processor.shared.ProcessorType;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.security.api.SecurityContext;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.TaskContext;
+import stroom.task.api.TaskContextFactory;
+import stroom.util.date.DateUtil;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.pipeline.scope.PipelineScopeRunnable;
+import stroom.util.shared.NullSafe;
+import stroom.util.sysinfo.HasSystemInfo;
+import stroom.util.sysinfo.SystemInfoResult;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pre-builds the pooled artefacts (pipeline structure, compiled XSLT and parser factories) for
+ * the pipelines behind enabled processor filters so that the first tasks to run after a restart
+ * or a content change don't all pay the cost of building them.
+ * <p>
+ * A full pass is made at startup and when the caches are cleared. When a pipeline, XSLT or text
+ * converter changes only the pipelines that used it in the last pass, either directly or by
+ * inheriting from a changed pipeline, are rebuilt. These changes are handed over by
+ * {@link XsltPoolImpl}, {@link ParserFactoryPoolImpl} and the pipeline structure cache once they
+ * have invalidated their own entries, so a warm up can't be undone by an invalidation that runs
+ * after it. Schema pool keys depend
+ * on the namespaces found in the data so can't be derived from the pipeline, instead
+ * {@link SchemaPoolImpl} hands over the keys it held when a schema change cleared it.
+ * When a processor filter is created or changed, e.g. enabled or imported, its pipeline is
+ * warmed up if it wasn't already.
+ * <p>
+ * All work is done by a single background task, requests made while it is running are
+ * coalesced and picked up before it finishes.
+ */
+@Singleton
+@EntityEventHandler(
+        type = ProcessorFilter.ENTITY_TYPE,
+        action = {EntityAction.CREATE, EntityAction.UPDATE})
+public class PipelineWarmUp implements EntityEvent.Handler, HasSystemInfo {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(PipelineWarmUp.class);
+
+    private static final String TASK_NAME = "Pipeline Warm Up";
+    private static final String USE_POOL_PROPERTY = "usePool";
+
+    private final Provider<PipelineConfig> pipelineConfigProvider;
+    private final ProcessorFilterService processorFilterService;
+    private final PipelineStore pipelineStore;
+    private final PipelineDataCache pipelineDataCache;
+    private final XsltStore xsltStore;
+    private final TextConverterStore textConverterStore;
+    private final XsltPool xsltPool;
+    private final ParserFactoryPool parserFactoryPool;
+    private final SchemaPool schemaPool;
+    private final SecurityContext securityContext;
+    private final PipelineScopeRunnable pipelineScopeRunnable;
+    private final TaskContextFactory taskContextFactory;
+    private final ExecutorProvider executorProvider;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicBoolean fullPassPending = new AtomicBoolean();
+    private final Set<String> pendingPipelineUuids = ConcurrentHashMap.newKeySet();
+    private final Set<String> pendingFilterUuids = ConcurrentHashMap.newKeySet();
+    private final Set<SchemaKey> pendingSchemaKeys = ConcurrentHashMap.newKeySet();
+    // Pipeline UUID => UUIDs of the parent pipelines, XSLT and text converter docs it used in the last pass.
+    private final Map<String, Set<String>> pipelineDocUuids = new ConcurrentHashMap<>();
+
+    private final AtomicInteger pipelinesTotal = new AtomicInteger();
+    private final AtomicInteger pipelinesDone = new AtomicInteger();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final AtomicInteger xsltCount = new AtomicInteger();
+    private final AtomicInteger textConverterCount = new AtomicInteger();
+    private final AtomicInteger schemaCount = new AtomicInteger();
+    private final AtomicLong lastStartMs = new AtomicLong();
+    private final AtomicLong lastEndMs = new AtomicLong();
+
+    @Inject
+    public PipelineWarmUp(final Provider<PipelineConfig> pipelineConfigProvider,
+                          final ProcessorFilterService processorFilterService,
+                          final PipelineStore pipelineStore,
+                          final PipelineDataCache pipelineDataCache,
+                          final XsltStore xsltStore,
+                          final TextConverterStore textConverterStore,
+                          final XsltPool xsltPool,
+                          final ParserFactoryPool parserFactoryPool,
+                          final SchemaPool schemaPool,
+                          final SecurityContext securityContext,
+                          final PipelineScopeRunnable pipelineScopeRunnable,
+                          final TaskContextFactory taskContextFactory,
+                          final ExecutorProvider executorProvider) {
+        this.pipelineConfigProvider = pipelineConfigProvider;
+        this.processorFilterService = processorFilterService;
+        this.pipelineStore = pipelineStore;
+        this.pipelineDataCache = pipelineDataCache;
+        this.xsltStore = xsltStore;
+        this.textConverterStore = textConverterStore;
+        this.xsltPool = xsltPool;
+        this.parserFactoryPool = parserFactoryPool;
+        this.schemaPool = schemaPool;
+        this.securityContext = securityContext;
+        this.pipelineScopeRunnable = pipelineScopeRunnable;
+        this.taskContextFactory = taskContextFactory;
+        this.executorProvider = executorProvider;
+    }
+
+    /**
+     * Request a warm up of all pipelines used by enabled processor filters.
+     */
+    public void warmUpAll() {
+        if (isEnabled()) {
+            fullPassPending.set(true);
+            submit();
+        }
+    }
+
+    /**
+     * Request that the supplied schema pool keys are rebuilt.
+     */
+    void warmUpSchemas(final Collection<SchemaKey> schemaKeys) {
+        if (isEnabled() && NullSafe.hasItems(schemaKeys)) {
+            pendingSchemaKeys.addAll(schemaKeys);
+            submit();
+        }
+    }
+
+    /**
+     * Handles processor filter changes.
+     */
+    @Override
+    public void onChange(final EntityEvent event) {
+        LOGGER.debug("onChange() called for {}", event);
+        final String filterUuid = NullSafe.get(event.getDocRef(), DocRef::getUuid);
+        if (isEnabled() && filterUuid != null) {
+            // Look the filter up in the background rather than on the event thread.
+            pendingFilterUuids.add(filterUuid);
+            submit();
+        }
+    }
+
+    /**
+     * Request a warm up of the pipelines affected by a change to a pipeline, XSLT or text converter.
+     * Must only be called once the caches holding the changed doc have invalidated it.
+     */
+    public void onDocChange(final EntityEvent event) {
+        LOGGER.debug("onDocChange() called for {}", event);
+        final DocRef docRef = event.getDocRef();
+        if (EntityAction.CLEAR_CACHE.equals(event.getAction())) {
+            warmUpAll();
+        } else if (EntityAction.UPDATE.equals(event.getAction()) && isEnabled()) {
+            final Set<String> changedUuids = new HashSet<>();
+            NullSafe.consume(docRef, DocRef::getUuid, changedUuids::add);
+            NullSafe.consume(event.getOldDocRef(), DocRef::getUuid, changedUuids::add);
+
+            // Pipelines that weren't used by an enabled filter in the last pass have nothing in the
+            // pools to rebuild.
+            pipelineDocUuids.forEach((pipelineUuid, docUuids) -> {
+                if (changedUuids.contains(pipelineUuid)
+                    || docUuids.stream().anyMatch(changedUuids::contains)) {
+                    pendingPipelineUuids.add(pipelineUuid);
+                }
+            });
+            if (!pendingPipelineUuids.isEmpty()) {
+                submit();
+            }
+        }
+    }
+
+    private boolean isEnabled() {
+        return pipelineConfigProvider.get().isWarmUpPools();
+    }
+
+    private boolean hasPendingWork() {
+        return fullPassPending.get()
+               || !pendingPipelineUuids.isEmpty()
+               || !pendingFilterUuids.isEmpty()
+               || !pendingSchemaKeys.isEmpty();
+    }
+
+    private void submit() {
+        if (running.compareAndSet(false, true)) {
+            CompletableFuture
+                    .runAsync(taskContextFactory.context(TASK_NAME, this::warmUp), executorProvider.get())
+                    .whenComplete((result, throwable) -> {
+                        if (throwable != null) {
+                            LOGGER.error(() -> "Error warming up pipelines: " + throwable.getMessage(), throwable);
+                        }
+                        running.set(false);
+                        // Pick up anything that was requested after the last check in warmUp.
+                        if (hasPendingWork()) {
+                            submit();
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Process all pending warm up requests on the current thread.
+     */
+    void warmUp(final TaskContext taskContext) {
+        securityContext.asProcessingUser(() -> {
+            while (hasPendingWork() && !taskContext.isTerminated()) {
+                final Set<String> pipelineUuids = new LinkedHashSet<>();
+                if (fullPassPending.getAndSet(false)) {
+                    pipelineUuids.addAll(findActivePipelineUuids(taskContext));
+                    // Forget pipelines that are no longer in use.
+                    pipelineDocUuids.keySet().retainAll(pipelineUuids);
+                }
+                drain(pendingPipelineUuids, pipelineUuids);
+
+                final Set<String> filterUuids = new HashSet<>();
+                drain(pendingFilterUuids, filterUuids);
+                if (!filterUuids.isEmpty()) {
+                    pipelineUuids.addAll(findNewPipelineUuids(filterUuids));
+                }
+
+                final Set<SchemaKey> schemaKeys = new HashSet<>();
+                drain(pendingSchemaKeys, schemaKeys);
+
+                start(pipelineUuids.size());
+                for (final String pipelineUuid : pipelineUuids) {
+                    if (taskContext.isTerminated()) {
+                        break;
+                    }
+                    taskContext.info(() -> LogUtil.message("Warming up pipeline {} ({} of {})",
+                            pipelineUuid, pipelinesDone.get() + 1, pipelineUuids.size()));
+                    warmUpPipeline(pipelineUuid);
+                    pipelinesDone.incrementAndGet();
+                }
+
+                for (final SchemaKey schemaKey : schemaKeys) {
+                    if (taskContext.isTerminated()) {
+                        break;
+                    }
+                    taskContext.info(() -> "Warming up schema " + schemaKey.getFindXMLSchemaCriteria());
+                    warmUpSchema(schemaKey);
+                }
+                lastEndMs.set(System.currentTimeMillis());
+                LOGGER.info("Warmed up {} pipelines and {} schemas, {} failures",
+                        pipelinesDone.get(), schemaKeys.size(), failures.get());
+            }
+        });
+    }
+
+    private static <T> void drain(final Set<T> source, final Set<T> target) {
+        for (final T item : List.copyOf(source)) {
+            source.remove(item);
+            target.add(item);
+        }
+    }
+
+    private void start(final int pipelineCount) {
+        lastStartMs.set(System.currentTimeMillis());
+        pipelinesTotal.set(pipelineCount);
+        pipelinesDone.set(0);
+        failures.set(0);
+    }
+
+    private Set<String> findActivePipelineUuids(final TaskContext taskContext) {
+        taskContext.info(() -> "Finding pipelines for enabled processor filters");
+        final ExpressionOperator expression = ExpressionOperator.builder()
+                .addBooleanTerm(ProcessorFields.ENABLED, Condition.EQUALS, true)
+                .addBooleanTerm(ProcessorFields.DELETED, Condition.EQUALS, false)
+                .addBooleanTerm(ProcessorFilterFields.ENABLED, Condition.EQUALS, true)
+                .addBooleanTerm(ProcessorFilterFields.DELETED, Condition.EQUALS, false)
+                .build();
+        final List<ProcessorFilter> filters = processorFilterService
+                .find(new ExpressionCriteria(expression))
+                .getValues();
+
+        // Warm up the pipelines of the highest priority filters first as they will get tasks first.
+        final List<ProcessorFilter> sortedFilters = new ArrayList<>(filters);
+        sortedFilters.sort(Comparator.comparingInt(ProcessorFilter::getPriority).reversed());
+        final Set<String> pipelineUuids = new LinkedHashSet<>();
+        for (final ProcessorFilter filter : sortedFilters) {
+            if (ProcessorType.PIPELINE.equals(filter.getProcessorType())
+                && filter.getPipelineUuid() != null) {
+                pipelineUuids.add(filter.getPipelineUuid());
+            }
+        }
+        LOGGER.debug("Found {} pipelines for {} enabled filters", pipelineUuids.size(), filters.size());
+        return pipelineUuids;
+    }
+
+    /**
+     * @return The pipelines of any of the filters that are active and whose pipeline was not
+     * warmed up in the last pass.
+     */
+    private Set<String> findNewPipelineUuids(final Set<String> filterUuids) {
+        final Set<String> pipelineUuids = new LinkedHashSet<>();
+        for (final String filterUuid : filterUuids) {
+            try {
+                processorFilterService.fetchByUuid(filterUuid)
+                        .filter(PipelineWarmUp::isActivePipelineFilter)
+                        .map(ProcessorFilter::getPipelineUuid)
+                        .filter(pipelineUuid -> !pipelineDocUuids.containsKey(pipelineUuid))
+                        .ifPresent(pipelineUuids::add);
+            } catch (final RuntimeException e) {
+                LOGGER.debug(() -> LogUtil.message("Unable to fetch processor filter {} - {}",
+                        filterUuid, e.getMessage()), e);
+            }
+        }
+        LOGGER.debug("Found {} new pipelines for {} changed filters", pipelineUuids.size(), filterUuids.size());
+        return pipelineUuids;
+    }
+
+    private static boolean isActivePipelineFilter(final ProcessorFilter filter) {
+        final Processor processor = filter.getProcessor();
+        return filter.isEnabled()
+               && !filter.isDeleted()
+               && processor != null
+               && processor.isEnabled()
+               && !processor.isDeleted()
+               && ProcessorType.PIPELINE.equals(filter.getProcessorType())
+               && filter.getPipelineUuid() != null;
+    }
+
+    private void warmUpPipeline(final String pipelineUuid) {
+        try {
+            final PipelineDoc pipelineDoc = pipelineStore.readDocument(
+                    new DocRef(PipelineDoc.TYPE, pipelineUuid));
+            if (pipelineDoc == null) {
+                LOGGER.debug("Pipeline {} not found", pipelineUuid);
+                pipelineDocUuids.remove(pipelineUuid);
+                return;
+            }
+
+            // Some pool values use pipeline scoped objects when they are created.
+            pipelineScopeRunnable.scopeRunnable(() -> {
+                final PipelineData pipelineData = pipelineDataCache.get(pipelineDoc);
+                final Set<String> docUuids = new HashSet<>();
+                addParentPipelineUuids(pipelineDoc, docUuids);
+                if (pipelineData != null) {
+                    final Set<String> noPoolElements = getNoPoolElements(pipelineData);
+                    for (final PipelineProperty property : pipelineData.getAddedProperties()) {
+                        final DocRef docRef = NullSafe.get(property.getValue(), PipelinePropertyValue::getEntity);
+                        if (docRef != null && !noPoolElements.contains(property.getElement())) {
+                            warmUpDoc(docRef, docUuids);
+                        }
+                    }
+                }
+                pipelineDocUuids.put(pipelineUuid, docUuids);
+            });
+        } catch (final RuntimeException e) {
+            failures.incrementAndGet();
+            LOGGER.warn(() -> LogUtil.message("Unable to warm up pipeline {} - {}",
+                    pipelineUuid, e.getMessage()));
+            LOGGER.debug(e::getMessage, e);
+        }
+    }
+
+    private void addParentPipelineUuids(final PipelineDoc pipelineDoc, final Set<String> docUuids) {
+        DocRef parentRef = pipelineDoc.getParentPipeline();
+        // Guard against a loop in the inheritance.
+        while (parentRef != null && docUuids.add(parentRef.getUuid())) {
+            final PipelineDoc parentDoc = pipelineStore.readDocument(parentRef);
+            parentRef = NullSafe.get(parentDoc, PipelineDoc::getParentPipeline);
+        }
+    }
+
+    private Set<String> getNoPoolElements(final PipelineData pipelineData) {
+        final Set<String> elements = new HashSet<>();
+        for (final PipelineProperty property : pipelineData.getAddedProperties()) {
+            if (USE_POOL_PROPERTY.equals(property.getName())
+                && property.getValue() != null
+                && Boolean.FALSE.equals(property.getValue().getBoolean())) {
+                elements.add(property.getElement());
+            }
+        }
+        return elements;
+    }
+
+    private void warmUpDoc(final DocRef docRef, final Set<String> docUuids) {
+        if (XsltDoc.TYPE.equals(docRef.getType())) {
+            final XsltDoc xsltDoc = xsltStore.readDocument(docRef);
+            if (xsltDoc != null && !NullSafe.isBlankString(xsltDoc.getData())) {
+                docUuids.add(xsltDoc.getUuid());
+                final PoolItem<StoredXsltExecutable> poolItem = xsltPool.borrowObject(xsltDoc, true);
+                xsltPool.returnObject(poolItem, true);
+                xsltCount.incrementAndGet();
+            }
+        } else if (TextConverterDoc.TYPE.equals(docRef.getType())) {
+            final TextConverterDoc textConverterDoc = textConverterStore.readDocument(docRef);
+            if (textConverterDoc != null) {
+                docUuids.add(textConverterDoc.getUuid());
+                final PoolItem<StoredParserFactory> poolItem = parserFactoryPool.borrowObject(
+                        textConverterDoc, true);
+                parserFactoryPool.returnObject(poolItem, true);
+                textConverterCount.incrementAndGet();
+            }
+        }
+    }
+
+    private void warmUpSchema(final SchemaKey schemaKey) {
+        try {
+            final PoolItem<StoredSchema> poolItem = schemaPool.borrowObject(schemaKey, true);
+            schemaPool.returnObject(poolItem, true);
+            schemaCount.incrementAndGet();
+        } catch (final RuntimeException e) {
+            failures.incrementAndGet();
+            LOGGER.warn(() -> LogUtil.message("Unable to warm up schema {} - {}",
+                    schemaKey.getFindXMLSchemaCriteria(), e.getMessage()));
+            LOGGER.debug(e::getMessage, e);
+        }
+    }
+
+    @Override
+    public SystemInfoResult getSystemInfo() {
+        return SystemInfoResult.builder(this)
+                .description("Progress of the pipeline pool warm up")
+                .addDetail("enabled", isEnabled())
+                .addDetail("running", running.get())
+                .addDetail("pipelinesTotal", pipelinesTotal.get())
+                .addDetail("pipelinesDone", pipelinesDone.get())
+                .addDetail("failures", failures.get())
+                .addDetail("trackedPipelines", pipelineDocUuids.size())
+                .addDetail("xsltWarmUps", xsltCount.get())
+                .addDetail("textConverterWarmUps", textConverterCount.get())
+                .addDetail("schemaWarmUps", schemaCount.get())
+                .addDetail("lastStart", formatTime(lastStartMs.get()))
+                .addDetail("lastEnd", formatTime(lastEndMs.get()))
+                .build();
+    }
+
+    private static String formatTime(final long timeMs) {
+        return timeMs > 0
+                ? DateUtil.createNormalDateTimeString(timeMs)
+                : null;
+    }
+}
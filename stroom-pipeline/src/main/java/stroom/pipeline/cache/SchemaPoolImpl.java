@@ -35,6 +35,8 @@ import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
+import java.util.Set;
+
 @Singleton
 @EntityEventHandler(
         type = XmlSchemaDoc.TYPE,
@@ -46,16 +48,19 @@ class SchemaPoolImpl extends AbstractPoolCache<SchemaKey, StoredSchema>
 
     private final SchemaLoader schemaLoader;
     private final SecurityContext securityContext;
+    private final Provider<PipelineWarmUp> pipelineWarmUpProvider;
 
     @Inject
     SchemaPoolImpl(final CacheManager cacheManager,
                    final Provider<XmlSchemaConfig> xmlSchemaConfigProvider,
                    final SchemaLoader schemaLoader,
                    final XmlSchemaCache xmlSchemaCache,
-                   final SecurityContext securityContext) {
+                   final SecurityContext securityContext,
+                   final Provider<PipelineWarmUp> pipelineWarmUpProvider) {
         super(cacheManager, "Schema Pool", () -> xmlSchemaConfigProvider.get().getCacheConfig());
         this.schemaLoader = schemaLoader;
         this.securityContext = securityContext;
+        this.pipelineWarmUpProvider = pipelineWarmUpProvider;
         xmlSchemaCache.addClearHandler(this::clear);
     }
 
@@ -77,11 +82,14 @@ class SchemaPoolImpl extends AbstractPoolCache<SchemaKey, StoredSchema>
     }
 
     /**
-     * We will clear the schema pool if there are any changes to any schemas.
+     * We will clear the schema pool if there are any changes to any schemas. The keys that were
+     * in the pool are handed to {@link PipelineWarmUp} so they can be rebuilt in the background.
      */
     @Override
     public void onChange(final EntityEvent event) {
+        final Set<SchemaKey> keys = Set.copyOf(getKeys());
         clear();
+        pipelineWarmUpProvider.get().warmUpSchemas(keys);
     }
 
     @Override
@@ -62,6 +62,7 @@ class XsltPoolImpl extends AbstractDocPool<XsltDoc, StoredXsltExecutable> implem
 
     private final URIResolver uriResolver;
     private final Provider<StroomXsltFunctionLibrary> stroomXsltFunctionLibraryProvider;
+    private final Provider<PipelineWarmUp> pipelineWarmUpProvider;
 
     @Inject
     XsltPoolImpl(final CacheManager cacheManager,
@@ -69,7 +70,8 @@ class XsltPoolImpl extends AbstractDocPool<XsltDoc, StoredXsltExecutable> implem
                  final DocumentPermissionCache documentPermissionCache,
                  final SecurityContext securityContext,
                  final URIResolver uriResolver,
-                 final Provider<StroomXsltFunctionLibrary> stroomXsltFunctionLibraryProvider) {
+                 final Provider<StroomXsltFunctionLibrary> stroomXsltFunctionLibraryProvider,
+                 final Provider<PipelineWarmUp> pipelineWarmUpProvider) {
         super(
                 cacheManager,
                 "XSLT Pool",
@@ -78,6 +80,7 @@ class XsltPoolImpl extends AbstractDocPool<XsltDoc, StoredXsltExecutable> implem
                 securityContext);
         this.uriResolver = uriResolver;
         this.stroomXsltFunctionLibraryProvider = stroomXsltFunctionLibraryProvider;
+        this.pipelineWarmUpProvider = pipelineWarmUpProvider;
     }
 
     @Override
@@ -179,6 +182,9 @@ class XsltPoolImpl extends AbstractDocPool<XsltDoc, StoredXsltExecutable> implem
                 .peek(loggingPeekFunc)
                 .forEach(this::invalidate);
 
+        // Only rebuild once the old entries are gone, so they can't be invalidated after the rebuild
+        pipelineWarmUpProvider.get().onDocChange(event);
+
         LOGGER.debug("Completed event handler for {}", event);
     }
 }
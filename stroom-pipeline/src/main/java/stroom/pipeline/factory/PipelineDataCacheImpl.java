@@ -22,6 +22,7 @@ import stroom.docref.DocRef;
 import stroom.docstore.shared.DocRefUtil;
 import stroom.pipeline.PipelineConfig;
 import stroom.pipeline.cache.DocumentPermissionCache;
+import stroom.pipeline.cache.PipelineWarmUp;
 import stroom.pipeline.shared.PipelineDoc;
 import stroom.pipeline.shared.data.PipelineData;
 import stroom.security.api.SecurityContext;
@@ -45,15 +46,18 @@ public class PipelineDataCacheImpl implements PipelineDataCache, Clearable, Enti
     private final LoadingStroomCache<PipelineDoc, PipelineDataHolder> cache;
     private final SecurityContext securityContext;
     private final DocumentPermissionCache documentPermissionCache;
+    private final Provider<PipelineWarmUp> pipelineWarmUpProvider;
 
     @Inject
     public PipelineDataCacheImpl(final CacheManager cacheManager,
                                  final PipelineDataHolderFactory pipelineDataHolderFactory,
                                  final SecurityContext securityContext,
                                  final DocumentPermissionCache documentPermissionCache,
-                                 final Provider<PipelineConfig> pipelineConfigProvider) {
+                                 final Provider<PipelineConfig> pipelineConfigProvider,
+                                 final Provider<PipelineWarmUp> pipelineWarmUpProvider) {
         this.securityContext = securityContext;
         this.documentPermissionCache = documentPermissionCache;
+        this.pipelineWarmUpProvider = pipelineWarmUpProvider;
         cache = cacheManager.createLoadingCache(
                 CACHE_NAME,
                 () -> pipelineConfigProvider.get().getPipelineDataCache(),
@@ -94,5 +98,7 @@ public class PipelineDataCacheImpl implements PipelineDataCache, Clearable, Enti
                     || pipelineDataHolder.containsDocRef(docRef)
                     || pipelineDataHolder.containsDocRef(oldDocRef));
         }
+        // Only rebuild once the old entries are gone, so they can't be invalidated after the rebuild
+        pipelineWarmUpProvider.get().onDocChange(event);
     }
 }
@@ -20,6 +20,8 @@ import stroom.docref.DocRef;
 import stroom.pipeline.SupportsCodeInjection;
 import stroom.pipeline.destination.DestinationProvider;
 import stroom.pipeline.errorhandler.ErrorReceiverProxy;
+import stroom.pipeline.factory.PipelinePlan.ElementPlan;
+import stroom.pipeline.factory.PipelinePlan.Setter;
 import stroom.pipeline.filter.SAXEventRecorder;
 import stroom.pipeline.filter.SAXRecordDetector;
 import stroom.pipeline.filter.SplitFilter;
@@ -71,16 +73,19 @@ public class PipelineFactory {
     private final ElementFactory elementFactory;
     private final ProcessorFactory processorFactory;
     private final ErrorReceiverProxy errorReceiverProxy;
+    private final PipelinePlanCache pipelinePlanCache;
 
     @Inject
     public PipelineFactory(final ElementRegistryFactory pipelineElementRegistryFactory,
                            final ElementFactory elementFactory,
                            final ProcessorFactory processorFactory,
-                           final ErrorReceiverProxy errorReceiverProxy) {
+                           final ErrorReceiverProxy errorReceiverProxy,
+                           final PipelinePlanCache pipelinePlanCache) {
         this.pipelineElementRegistryFactory = pipelineElementRegistryFactory;
         this.elementFactory = elementFactory;
         this.processorFactory = processorFactory;
         this.errorReceiverProxy = errorReceiverProxy;
+        this.pipelinePlanCache = pipelinePlanCache;
 
         if (processorFactory == null) {
             throw new NullPointerException("processorFactory is null");
@@ -98,60 +103,43 @@ public class PipelineFactory {
     public Pipeline create(final PipelineData pipelineData,
                            final Terminator terminator,
                            final SteppingController controller) {
-        final ElementRegistry pipelineElementRegistry = pipelineElementRegistryFactory.get();
+        final PipelinePlan pipelinePlan = pipelinePlanCache.get(pipelineData, this::createPlan);
+        final long startNanos = System.nanoTime();
 
-        // If we are stepping then we don't want to use the cache.
         // Create an instance of each element.
         final Map<String, Element> elementInstances = new HashMap<>();
         final Map<Element, PipelineElementType> elementTypeMap = new HashMap<>();
-        final Map<String, Set<String>> linkSets = new HashMap<>();
-
-        for (final PipelineElement element : pipelineData.getAddedElements()) {
-            LOGGER.debug("create() - loading element {}", element);
-
-            final Class<Element> elementClass = pipelineElementRegistry.getElementClass(element.getType());
+        final Map<String, Set<String>> linkSets = pipelinePlan.getLinkSets();
 
-            if (elementClass == null) {
-                throw new PipelineFactoryException("Unable to load elementClass for type " + element.getType());
-            }
+        for (final ElementPlan elementPlan : pipelinePlan.getElementPlans()) {
+            LOGGER.debug("create() - loading element {}", elementPlan.getId());
 
-            final Element elementInstance = elementFactory.getElementInstance(elementClass);
+            final Element elementInstance = elementFactory.getElementInstance(elementPlan.getElementClass());
 
             if (elementInstance == null) {
-                throw new PipelineFactoryException("Unable to load elementInstance for class " + elementClass);
+                throw new PipelineFactoryException("Unable to load elementInstance for class " +
+                                                   elementPlan.getElementClass());
             }
 
             // Set the id on the pipeline element for use in tracing
             // errors, intercepting input/output etc.
-            elementInstance.setElementId(element.getElementId());
+            elementInstance.setElementId(elementPlan.getElementId());
 
             // Set an object to provide quick processing termination if needed.
             elementInstance.setTerminator(terminator);
 
-            // Set the properties on this instance.
-            setProperties(pipelineElementRegistry,
-                    element.getId(),
-                    element.getType(),
-                    elementInstance,
-                    pipelineData,
-                    controller);
+            // Set the properties and pipeline references on this instance.
+            elementPlan.configure(elementInstance);
 
-            // Set the pipeline references on this instance.
-            setPipelineReferences(pipelineElementRegistry, element.getId(), element.getType(), elementInstance,
-                    pipelineData);
+            // Modify properties of element instance if we are
+            // stepping and have code to insert.
+            if (controller != null && elementPlan.hasDocRefProperty()) {
+                injectCode(elementPlan.getId(), elementInstance, controller);
+            }
 
             // Store the instance.
-            elementInstances.put(element.getId(), elementInstance);
-            elementTypeMap.put(elementInstance, pipelineElementRegistry.getElementType(element.getType()));
-
-            // Record links.
-            final Set<String> linkSet = new HashSet<>();
-            linkSets.put(element.getId(), linkSet);
-            for (final PipelineLink link : pipelineData.getAddedLinks()) {
-                if (link.getFrom().equals(element.getId())) {
-                    linkSet.add(link.getTo());
-                }
-            }
+            elementInstances.put(elementPlan.getId(), elementInstance);
+            elementTypeMap.put(elementInstance, elementPlan.getElementType());
         }
 
         // Get the source element.
@@ -195,23 +183,98 @@ public class PipelineFactory {
             controller.getRecordDetector().setController(controller);
         }
 
+        pipelinePlanCache.recordCreate(System.nanoTime() - startNanos);
         return new PipelineImpl(processorFactory, elementInstances, root, controller != null);
     }
 
     /**
-     * Set the properties on the newly created element instance.
+     * Work out everything needed to create a pipeline from the supplied pipeline data that doesn't
+     * depend on the element instances, so it can be reused for every pipeline created from the
+     * same pipeline data.
      */
-    private void setProperties(final ElementRegistry pipelineElementRegistry,
-                               final String id,
-                               final String elementType,
-                               final Object elementInstance,
-                               final PipelineData pipelineData,
-                               final SteppingController controller) {
-        // Set the properties on this instance.
-        for (final PipelineProperty property : pipelineData.getAddedProperties()) {
-            if (property.getElement().equals(id)) {
-                setProperty(pipelineElementRegistry, id, elementType, elementInstance, property.getName(),
-                        property.getValue(), controller);
+    private PipelinePlan createPlan(final PipelineData pipelineData) {
+        final long startNanos = System.nanoTime();
+        final ElementRegistry pipelineElementRegistry = pipelineElementRegistryFactory.get();
+
+        final List<ElementPlan> elementPlans = new ArrayList<>();
+        final Map<String, Set<String>> linkSets = new HashMap<>();
+
+        for (final PipelineElement element : pipelineData.getAddedElements()) {
+            LOGGER.debug("createPlan() - planning element {}", element);
+
+            final Class<Element> elementClass = pipelineElementRegistry.getElementClass(element.getType());
+
+            if (elementClass == null) {
+                throw new PipelineFactoryException("Unable to load elementClass for type " + element.getType());
+            }
+
+            final List<Setter> setters = new ArrayList<>();
+            boolean hasDocRefProperty = false;
+
+            // Get the properties for this element.
+            for (final PipelineProperty property : pipelineData.getAddedProperties()) {
+                if (property.getElement().equals(element.getId())) {
+                    // Some methods might be removed so ignore them if they don't exist.
+                    final Method method = pipelineElementRegistry.getMethod(element.getType(), property.getName());
+                    if (method != null) {
+                        final Object value = getPropertyValue(method, property.getValue());
+                        if (value instanceof DocRef) {
+                            hasDocRefProperty = true;
+                        }
+                        setters.add(new Setter(method, value));
+                    }
+                }
+            }
+
+            // Get the pipeline references for this element.
+            for (final PipelineReference pipelineReference : pipelineData.getAddedPipelineReferences()) {
+                if (pipelineReference.getElement().equals(element.getId())) {
+                    final Method method = pipelineElementRegistry.getMethod(
+                            element.getType(),
+                            pipelineReference.getName());
+                    if (method != null) {
+                        setters.add(new Setter(method, pipelineReference));
+                    }
+                }
+            }
+
+            elementPlans.add(new ElementPlan(
+                    element.getId(),
+                    element.getElementId(),
+                    elementClass,
+                    pipelineElementRegistry.getElementType(element.getType()),
+                    List.copyOf(setters),
+                    hasDocRefProperty));
+
+            // Record links.
+            final Set<String> linkSet = new HashSet<>();
+            linkSets.put(element.getId(), linkSet);
+            for (final PipelineLink link : pipelineData.getAddedLinks()) {
+                if (link.getFrom().equals(element.getId())) {
+                    linkSet.add(link.getTo());
+                }
+            }
+        }
+
+        return new PipelinePlan(
+                List.copyOf(elementPlans),
+                Collections.unmodifiableMap(linkSets),
+                System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Inject any code from the stepping request into the element instance.
+     */
+    private static void injectCode(final String id,
+                                   final Object elementInstance,
+                                   final SteppingController controller) {
+        final PipelineStepRequest request = controller.getRequest();
+        if (request.getCode() != null && !request.getCode().isEmpty()) {
+            final String code = request.getCode().get(id);
+            if (code != null) {
+                if (elementInstance instanceof final SupportsCodeInjection supportsCodeInjection) {
+                    supportsCodeInjection.setInjectedCode(code);
+                }
             }
         }
     }
@@ -234,41 +297,12 @@ public class PipelineFactory {
                 // Allow this method to be invoked.
                 method.setAccessible(true);
 
-                Object obj = null;
-                if (value != null) {
-                    final Class<?> paramType = method.getParameterTypes()[0];
-                    if (boolean.class.isAssignableFrom(paramType) || Boolean.class.isAssignableFrom(paramType)) {
-                        obj = value.getBoolean();
-                    } else if (int.class.isAssignableFrom(paramType) || Integer.class.isAssignableFrom(paramType)) {
-                        obj = value.getInteger();
-                    } else if (long.class.isAssignableFrom(paramType) || Long.class.isAssignableFrom(paramType)) {
-                        obj = value.getLong();
-                    } else if (String.class.isAssignableFrom(paramType)) {
-                        obj = value.getString();
-                    } else if (DocRef.class.isAssignableFrom(paramType)) {
-                        // Load an entity by id.
-                        final DocRef docRef = value.getEntity();
-                        if (docRef != null) {
-                            obj = docRef;
-
-                            // Modify properties of element instance if we are
-                            // stepping and have code to insert.
-                            if (controller != null) {
-                                final PipelineStepRequest request = controller.getRequest();
-                                if (request.getCode() != null && !request.getCode().isEmpty()) {
-                                    final String code = request.getCode().get(id);
-                                    if (code != null) {
-                                        if (elementInstance instanceof
-                                                final SupportsCodeInjection supportsCodeInjection) {
-                                            supportsCodeInjection.setInjectedCode(code);
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    } else {
-                        throw new PipelineFactoryException("Unknown param type: " + paramType);
-                    }
+                final Object obj = getPropertyValue(method, value);
+
+                // Modify properties of element instance if we are
+                // stepping and have code to insert.
+                if (obj instanceof DocRef && controller != null) {
+                    injectCode(id, elementInstance, controller);
                 }
 
                 method.invoke(elementInstance, obj);
@@ -280,42 +314,29 @@ public class PipelineFactory {
     }
 
     /**
-     * Set the pipeline references on the newly created element instance.
-     */
-    private void setPipelineReferences(final ElementRegistry pipelineElementRegistry,
-                                       final String id,
-                                       final String elementType,
-                                       final Object elementInstance,
-                                       final PipelineData pipelineData) {
-        // Set the properties on this instance.
-        for (final PipelineReference pipelineReference : pipelineData.getAddedPipelineReferences()) {
-            if (pipelineReference.getElement().equals(id)) {
-                setPipelineReference(pipelineElementRegistry, elementType, elementInstance, pipelineReference.getName(),
-                        pipelineReference);
-            }
-        }
-    }
-
-    /**
-     * Code for pipeline references.
+     * Get the value to pass to a property setter method.
      */
-    private void setPipelineReference(final ElementRegistry pipelineElementRegistry,
-                                      final String elementType,
-                                      final Object elementInstance,
-                                      final String propertyName,
-                                      final PipelineReference pipelineReference) {
-        final Method method = pipelineElementRegistry.getMethod(elementType, propertyName);
-
-        if (method != null) {
-            try {
-                // Allow this method to be invoked.
-                method.setAccessible(true);
-                method.invoke(elementInstance, pipelineReference);
-
-            } catch (final InvocationTargetException | IllegalAccessException e) {
-                throw new PipelineFactoryException(e);
+    private static Object getPropertyValue(final Method method,
+                                           final PipelinePropertyValue value) {
+        Object obj = null;
+        if (value != null) {
+            final Class<?> paramType = method.getParameterTypes()[0];
+            if (boolean.class.isAssignableFrom(paramType) || Boolean.class.isAssignableFrom(paramType)) {
+                obj = value.getBoolean();
+            } else if (int.class.isAssignableFrom(paramType) || Integer.class.isAssignableFrom(paramType)) {
+                obj = value.getInteger();
+            } else if (long.class.isAssignableFrom(paramType) || Long.class.isAssignableFrom(paramType)) {
+                obj = value.getLong();
+            } else if (String.class.isAssignableFrom(paramType)) {
+                obj = value.getString();
+            } else if (DocRef.class.isAssignableFrom(paramType)) {
+                // Load an entity by id.
+                obj = value.getEntity();
+            } else {
+                throw new PipelineFactoryException("Unknown param type: " + paramType);
             }
         }
+        return obj;
     }
 
     /**
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.factory;
+
+import stroom.pipeline.shared.data.PipelineElementType;
+import stroom.util.shared.ElementId;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The parts of building a pipeline that only depend on the pipeline data, i.e. the element classes
+ * to create, the property and pipeline reference setters to call on each new element instance and
+ * the links between elements.
+ */
+class PipelinePlan {
+
+    private final List<ElementPlan> elementPlans;
+    private final Map<String, Set<String>> linkSets;
+    private final long buildNanos;
+
+    PipelinePlan(final List<ElementPlan> elementPlans,
+                 final Map<String, Set<String>> linkSets,
+                 final long buildNanos) {
+        this.elementPlans = elementPlans;
+        this.linkSets = linkSets;
+        this.buildNanos = buildNanos;
+    }
+
+    List<ElementPlan> getElementPlans() {
+        return elementPlans;
+    }
+
+    /**
+     * @return A map of element ids to the set of element ids that each links to.
+     */
+    Map<String, Set<String>> getLinkSets() {
+        return linkSets;
+    }
+
+    /**
+     * @return The time it took to build this plan.
+     */
+    long getBuildNanos() {
+        return buildNanos;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    static class ElementPlan {
+
+        private final String id;
+        private final ElementId elementId;
+        private final Class<Element> elementClass;
+        private final PipelineElementType elementType;
+        private final List<Setter> setters;
+        private final boolean hasDocRefProperty;
+
+        ElementPlan(final String id,
+                    final ElementId elementId,
+                    final Class<Element> elementClass,
+                    final PipelineElementType elementType,
+                    final List<Setter> setters,
+                    final boolean hasDocRefProperty) {
+            this.id = id;
+            this.elementId = elementId;
+            this.elementClass = elementClass;
+            this.elementType = elementType;
+            this.setters = setters;
+            this.hasDocRefProperty = hasDocRefProperty;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        ElementId getElementId() {
+            return elementId;
+        }
+
+        Class<Element> getElementClass() {
+            return elementClass;
+        }
+
+        PipelineElementType getElementType() {
+            return elementType;
+        }
+
+        /**
+         * @return True if a doc ref property is set on this element so it may need code injecting
+         * when stepping.
+         */
+        boolean hasDocRefProperty() {
+            return hasDocRefProperty;
+        }
+
+        /**
+         * Call the property and pipeline reference setters on a new instance of this element.
+         */
+        void configure(final Element elementInstance) {
+            for (final Setter setter : setters) {
+                setter.set(elementInstance);
+            }
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A property or pipeline reference setter method along with the value to call it with.
+     */
+    static class Setter {
+
+        private final Method method;
+        private final Object value;
+
+        Setter(final Method method, final Object value) {
+            this.method = method;
+            this.value = value;
+            // Allow this method to be invoked.
+            method.setAccessible(true);
+        }
+
+        void set(final Object elementInstance) {
+            try {
+                method.invoke(elementInstance, value);
+            } catch (final InvocationTargetException | IllegalAccessException e) {
+                throw new PipelineFactoryException(e);
+            }
+        }
+    }
+}
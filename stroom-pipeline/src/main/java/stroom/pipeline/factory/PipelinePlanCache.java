@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.factory;
+
+import stroom.pipeline.shared.data.PipelineData;
+import stroom.util.metrics.Metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.collect.MapMaker;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Holds a {@link PipelinePlan} for each {@link PipelineData} that pipelines are created from so
+ * that {@link PipelineFactory} only has to create and wire up new element instances for each task.
+ * <p>
+ * Plans are held against the identity of the pipeline data using weak keys. The merged pipeline
+ * data from {@link PipelineDataCache} is the same instance until the pipeline, or one of the
+ * pipelines it inherits from, changes so a change results in a new plan and the old one is
+ * dropped once nothing is using the old pipeline data.
+ * <p>
+ * The time saved by a held plan can be seen by comparing the {@code create} timer, which only
+ * covers creating the elements from a plan, with the {@code planBuild} timer.
+ */
+@Singleton
+public class PipelinePlanCache {
+
+    private final ConcurrentMap<PipelineData, PipelinePlan> plans = new MapMaker()
+            .weakKeys()
+            .makeMap();
+
+    private final Timer createTimer;
+    private final Timer planBuildTimer;
+    private final Counter planHitCounter;
+
+    @Inject
+    public PipelinePlanCache(final Metrics metrics) {
+        createTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("create")
+                .timer()
+                .createAndRegister();
+        planBuildTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("planBuild")
+                .timer()
+                .createAndRegister();
+        planHitCounter = metrics.registrationBuilder(getClass())
+                .addNamePart("planHits")
+                .counter()
+                .createAndRegister();
+    }
+
+    PipelinePlan get(final PipelineData pipelineData,
+                     final Function<PipelineData, PipelinePlan> planFunction) {
+        final PipelinePlan existing = plans.get(pipelineData);
+        if (existing != null) {
+            planHitCounter.inc();
+            return existing;
+        }
+
+        // Two tasks may build a plan for the same pipeline data at once, but the plans will be
+        // the same so it doesn't matter which one we keep.
+        final PipelinePlan plan = planFunction.apply(pipelineData);
+        planBuildTimer.update(plan.getBuildNanos(), TimeUnit.NANOSECONDS);
+        final PipelinePlan previous = plans.putIfAbsent(pipelineData, plan);
+        return previous != null
+                ? previous
+                : plan;
+    }
+
+    /**
+     * Record the time taken to create a pipeline from its plan, not including building the plan.
+     */
+    void recordCreate(final long nanos) {
+        createTimer.update(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @return The number of plans currently held.
+     */
+    int size() {
+        return plans.size();
+    }
+}
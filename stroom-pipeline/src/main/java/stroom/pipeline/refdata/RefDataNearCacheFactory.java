@@ -0,0 +1,61 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.refdata;
+
+import stroom.pipeline.refdata.store.RefDataNearCache;
+import stroom.util.metrics.Metrics;
+
+import com.codahale.metrics.Meter;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+/**
+ * Creates the pipeline scoped {@link RefDataNearCache} instances, all of which share the
+ * same hit/miss meters so we can see the overall hit ratio.
+ */
+@Singleton
+class RefDataNearCacheFactory {
+
+    private final Provider<ReferenceDataConfig> referenceDataConfigProvider;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+
+    @Inject
+    RefDataNearCacheFactory(final Provider<ReferenceDataConfig> referenceDataConfigProvider,
+                            final Metrics metrics) {
+        this.referenceDataConfigProvider = referenceDataConfigProvider;
+        hitMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("hit")
+                .meter()
+                .createAndRegister();
+        missMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("miss")
+                .meter()
+                .createAndRegister();
+    }
+
+    /**
+     * @return A new near cache or null if the near cache is disabled.
+     */
+    RefDataNearCache create() {
+        final int maxEntries = referenceDataConfigProvider.get().getLookupNearCacheMaxEntries();
+        return maxEntries > 0
+                ? new RefDataNearCache(maxEntries, hitMeter, missMeter)
+                : null;
+    }
+}
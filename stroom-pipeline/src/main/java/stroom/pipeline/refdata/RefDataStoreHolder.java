@@ -18,6 +18,7 @@ package stroom.pipeline.refdata;
 
 import stroom.docref.DocRef;
 import stroom.pipeline.refdata.store.ProcessingState;
+import stroom.pipeline.refdata.store.RefDataNearCache;
 import stroom.pipeline.refdata.store.RefDataStore;
 import stroom.pipeline.refdata.store.RefDataStoreFactory;
 import stroom.pipeline.refdata.store.RefStreamDefinition;
@@ -42,6 +43,7 @@ class RefDataStoreHolder {
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RefDataStoreHolder.class);
 
     private final RefDataStoreFactory refDataStoreFactory;
+    private final RefDataNearCacheFactory refDataNearCacheFactory;
 //    private final RefDataStore offHeapRefDataStore;
 
     // Hold the maps that are known to be in each stream, built up as we load each stream.
@@ -49,10 +51,14 @@ class RefDataStoreHolder {
     private final Map<RefStreamDefinition, Set<String>> refStreamDefToMapNamesMap = new HashMap<>();
 
     private RefDataStore onHeapRefDataStore = null;
+    private RefDataNearCache nearCache = null;
+    private boolean nearCacheCreated = false;
 
     @Inject
-    RefDataStoreHolder(final RefDataStoreFactory refDataStoreFactory) {
+    RefDataStoreHolder(final RefDataStoreFactory refDataStoreFactory,
+                       final RefDataNearCacheFactory refDataNearCacheFactory) {
         this.refDataStoreFactory = refDataStoreFactory;
+        this.refDataNearCacheFactory = refDataNearCacheFactory;
 //        this.offHeapRefDataStore = refDataStoreFactory.getOffHeapStore();
     }
 
@@ -76,6 +82,20 @@ class RefDataStoreHolder {
         return onHeapRefDataStore;
     }
 
+    /**
+     * Gets a pipeline scoped cache of lookup results for use in front of the off heap store.
+     *
+     * @return The near cache or null if it is disabled.
+     */
+    RefDataNearCache getNearCache() {
+        // on demand creation of the near cache for this pipeline scope
+        if (!nearCacheCreated) {
+            nearCache = refDataNearCacheFactory.create();
+            nearCacheCreated = true;
+        }
+        return nearCache;
+    }
+
     /**
      * Check if the map exists in this {@link RefStreamDefinition} to determine if we need to bother
      * doing a lookup. If we haven't loaded refStreamDefinition yet then return UNKNOWN.
@@ -28,10 +28,13 @@ import stroom.pipeline.errorhandler.StoredErrorReceiver;
 import stroom.pipeline.refdata.RefDataStoreHolder.MapAvailability;
 import stroom.pipeline.refdata.store.MapDefinition;
 import stroom.pipeline.refdata.store.ProcessingState;
+import stroom.pipeline.refdata.store.RefDataNearCache;
 import stroom.pipeline.refdata.store.RefDataStore;
+import stroom.pipeline.refdata.store.RefDataStore.StorageType;
 import stroom.pipeline.refdata.store.RefDataValue;
 import stroom.pipeline.refdata.store.RefDataValueProxy;
 import stroom.pipeline.refdata.store.RefStreamDefinition;
+import stroom.pipeline.refdata.store.SingleRefDataValueProxy;
 import stroom.pipeline.refdata.store.StringValue;
 import stroom.pipeline.shared.data.PipelineReference;
 import stroom.pipeline.state.FeedHolder;
@@ -412,7 +415,17 @@ public class ReferenceData {
 
         // Define a proxy object to allow callers to get the required value from the store
         // now that we know that the stream that may contain it is in there.
-        final RefDataValueProxy refDataValueProxy = refDataStore.getValueProxy(mapDefinition, keyName);
+        RefDataValueProxy refDataValueProxy = refDataStore.getValueProxy(mapDefinition, keyName);
+
+        // Put a near cache in front of the off heap store so repeated lookups of the same key in this
+        // pipeline process don't need to go to LMDB.
+        if (refDataValueProxy instanceof final SingleRefDataValueProxy singleRefDataValueProxy
+            && StorageType.OFF_HEAP.equals(refDataStore.getStorageType())) {
+            final RefDataNearCache nearCache = refDataStoreHolder.getNearCache();
+            if (nearCache != null) {
+                refDataValueProxy = singleRefDataValueProxy.withNearCache(nearCache);
+            }
+        }
         LOGGER.trace("Adding refDataValueProxy {} for map {}, refStreamDefinition {}",
                 refDataValueProxy, mapName, refStreamDefinition);
         result.addRefDataValueProxy(refDataValueProxy);
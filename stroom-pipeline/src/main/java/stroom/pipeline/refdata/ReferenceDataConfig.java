@@ -38,6 +38,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
     private static final int DEFAULT_MAX_PUTS_BEFORE_COMMIT = 200_000;
     private static final int DEFAULT_MAX_PURGE_DELETES_BEFORE_COMMIT = 200_000;
     private static final int DEFAULT_LOADING_LOCK_STRIPES = 2048;
+    private static final int DEFAULT_LOOKUP_NEAR_CACHE_MAX_ENTRIES = 1_000;
 
     private final int maxPutsBeforeCommit;
     private final int maxPurgeDeletesBeforeCommit;
@@ -47,6 +48,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
     private final ReferenceDataStagingLmdbConfig stagingLmdbConfig;
     private final CacheConfig effectiveStreamCache;
     private final CacheConfig metaIdToRefStoreCache;
+    private final int lookupNearCacheMaxEntries;
 
     public ReferenceDataConfig() {
         maxPutsBeforeCommit = DEFAULT_MAX_PUTS_BEFORE_COMMIT;
@@ -66,6 +68,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 .maximumSize(1_000L)
                 .expireAfterAccess(StroomDuration.ofHours(1))
                 .build();
+        lookupNearCacheMaxEntries = DEFAULT_LOOKUP_NEAR_CACHE_MAX_ENTRIES;
     }
 
     @JsonCreator
@@ -76,7 +79,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                                @JsonProperty("lmdb") final ReferenceDataLmdbConfig lmdbConfig,
                                @JsonProperty("stagingLmdb") final ReferenceDataStagingLmdbConfig stagingLmdbConfig,
                                @JsonProperty("effectiveStreamCache") final CacheConfig effectiveStreamCache,
-                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache) {
+                               @JsonProperty("metaIdToRefStoreCache") final CacheConfig metaIdToRefStoreCache,
+                               @JsonProperty("lookupNearCacheMaxEntries") final Integer lookupNearCacheMaxEntries) {
         this.maxPutsBeforeCommit = Objects.requireNonNullElse(maxPutsBeforeCommit, DEFAULT_MAX_PUTS_BEFORE_COMMIT);
         this.maxPurgeDeletesBeforeCommit =
                 Objects.requireNonNullElse(maxPurgeDeletesBeforeCommit, DEFAULT_MAX_PURGE_DELETES_BEFORE_COMMIT);
@@ -87,6 +91,8 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         this.stagingLmdbConfig = stagingLmdbConfig;
         this.effectiveStreamCache = effectiveStreamCache;
         this.metaIdToRefStoreCache = metaIdToRefStoreCache;
+        this.lookupNearCacheMaxEntries =
+                Objects.requireNonNullElse(lookupNearCacheMaxEntries, DEFAULT_LOOKUP_NEAR_CACHE_MAX_ENTRIES);
     }
 
     @Min(0)
@@ -142,6 +148,15 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
         return metaIdToRefStoreCache;
     }
 
+    @Min(0)
+    @JsonPropertyDescription("The maximum number of lookup results to hold on heap for each pipeline process. " +
+            "Repeated lookups of the same key within a pipeline process are served from this cache rather " +
+            "than the off heap store. Each cache is also limited to 16MiB and values over 64KiB are not " +
+            "cached. Set to 0 to disable.")
+    public int getLookupNearCacheMaxEntries() {
+        return lookupNearCacheMaxEntries;
+    }
+
     public ReferenceDataConfig withLmdbConfig(final ReferenceDataLmdbConfig lmdbConfig) {
         return new ReferenceDataConfig(
                 maxPutsBeforeCommit,
@@ -150,7 +165,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, lookupNearCacheMaxEntries);
     }
 
     public ReferenceDataConfig withPurgeAge(final StroomDuration purgeAge) {
@@ -161,7 +176,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, lookupNearCacheMaxEntries);
     }
 
     public ReferenceDataConfig withMaxPutsBeforeCommit(final int maxPutsBeforeCommit) {
@@ -172,7 +187,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, lookupNearCacheMaxEntries);
     }
 
     public ReferenceDataConfig withMaxPurgeDeletesBeforeCommit(final int maxPurgeDeletesBeforeCommit) {
@@ -183,7 +198,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, lookupNearCacheMaxEntries);
     }
 
     public ReferenceDataConfig withEffectiveStreamCache(final CacheConfig effectiveStreamCache) {
@@ -194,7 +209,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 loadingLockStripes,
                 lmdbConfig,
                 stagingLmdbConfig,
-                effectiveStreamCache, metaIdToRefStoreCache);
+                effectiveStreamCache, metaIdToRefStoreCache, lookupNearCacheMaxEntries);
     }
 
     @Override
@@ -207,6 +222,7 @@ public class ReferenceDataConfig extends AbstractConfig implements IsStroomConfi
                 ", lmdbConfig=" + lmdbConfig +
                 ", stagingLmdbConfig=" + stagingLmdbConfig +
                 ", effectiveStreamCache=" + effectiveStreamCache +
+                ", lookupNearCacheMaxEntries=" + lookupNearCacheMaxEntries +
                 '}';
     }
 }
@@ -21,6 +21,7 @@ import stroom.util.config.annotations.RequiresRestart;
 import stroom.util.io.ByteSize;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -46,6 +47,7 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
     private final ByteSize maxStoreSize;
     private final boolean isReadAheadEnabled;
     private final boolean isReaderBlockedByWriter;
+    private final StroomDuration readTxnReuseMaxAge;
 
     public ReferenceDataLmdbConfig() {
         localDir = DEFAULT_LOCAL_DIR;
@@ -53,6 +55,7 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
         maxStoreSize = DEFAULT_MAX_STORE_SIZE;
         isReadAheadEnabled = DEFAULT_IS_READ_AHEAD_ENABLED;
         isReaderBlockedByWriter = DEFAULT_IS_READER_BLOCKED_BY_WRITER;
+        readTxnReuseMaxAge = null;
     }
 
     @SuppressWarnings("unused")
@@ -61,7 +64,8 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
                                    @JsonProperty("maxReaders") final Integer maxReaders,
                                    @JsonProperty("maxStoreSize") final ByteSize maxStoreSize,
                                    @JsonProperty("readAheadEnabled") final Boolean isReadAheadEnabled,
-                                   @JsonProperty("readerBlockedByWriter") final Boolean isReaderBlockedByWriter) {
+                                   @JsonProperty("readerBlockedByWriter") final Boolean isReaderBlockedByWriter,
+                                   @JsonProperty("readTxnReuseMaxAge") final StroomDuration readTxnReuseMaxAge) {
         this.localDir = localDir;
         this.maxReaders = Objects.requireNonNullElse(maxReaders, DEFAULT_MAX_READERS);
         this.maxStoreSize = maxStoreSize;
@@ -69,6 +73,7 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
                 Objects.requireNonNullElse(isReadAheadEnabled, DEFAULT_IS_READ_AHEAD_ENABLED);
         this.isReaderBlockedByWriter =
                 Objects.requireNonNullElse(isReaderBlockedByWriter, DEFAULT_IS_READER_BLOCKED_BY_WRITER);
+        this.readTxnReuseMaxAge = readTxnReuseMaxAge;
     }
 
     @Override
@@ -129,24 +134,68 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
         return isReaderBlockedByWriter;
     }
 
+    @RequiresRestart(RequiresRestart.RestartScope.SYSTEM)
+    @JsonPropertyDescription("If set, each thread doing lookups will keep hold of its own read transaction " +
+            "and re-use it for subsequent lookups rather than opening a new transaction for each lookup. " +
+            "A thread's transaction will be renewed before a lookup if a write has happened since it was " +
+            "last renewed or if it is older than this duration. Holding on to a transaction stops LMDB " +
+            "from reclaiming space freed by writes, so the transactions of threads that are not doing a " +
+            "lookup are reset whenever a write is committed. If readerBlockedByWriter is true, the " +
+            "transaction will be reset after each lookup and this duration is ignored. If not set, a new " +
+            "transaction is used for each lookup. " +
+            "In ISO-8601 duration format, e.g. 'PT1S'.")
+    public StroomDuration getReadTxnReuseMaxAge() {
+        return readTxnReuseMaxAge;
+    }
+
     public ReferenceDataLmdbConfig withLocalDir(final String localDir) {
         return new ReferenceDataLmdbConfig(
-                localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter);
+                localDir,
+                maxReaders,
+                maxStoreSize,
+                isReadAheadEnabled,
+                isReaderBlockedByWriter,
+                readTxnReuseMaxAge);
     }
 
     public ReferenceDataLmdbConfig withMaxStoreSize(final ByteSize maxStoreSize) {
         return new ReferenceDataLmdbConfig(
-                localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter);
+                localDir,
+                maxReaders,
+                maxStoreSize,
+                isReadAheadEnabled,
+                isReaderBlockedByWriter,
+                readTxnReuseMaxAge);
     }
 
     public ReferenceDataLmdbConfig withReadAheadEnabled(final boolean isReadAheadEnabled) {
         return new ReferenceDataLmdbConfig(
-                localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter);
+                localDir,
+                maxReaders,
+                maxStoreSize,
+                isReadAheadEnabled,
+                isReaderBlockedByWriter,
+                readTxnReuseMaxAge);
     }
 
     public ReferenceDataLmdbConfig withReaderBlockedByWriter(final boolean isReaderBlockedByWriter) {
         return new ReferenceDataLmdbConfig(
-                localDir, maxReaders, maxStoreSize, isReadAheadEnabled, isReaderBlockedByWriter);
+                localDir,
+                maxReaders,
+                maxStoreSize,
+                isReadAheadEnabled,
+                isReaderBlockedByWriter,
+                readTxnReuseMaxAge);
+    }
+
+    public ReferenceDataLmdbConfig withReadTxnReuseMaxAge(final StroomDuration readTxnReuseMaxAge) {
+        return new ReferenceDataLmdbConfig(
+                localDir,
+                maxReaders,
+                maxStoreSize,
+                isReadAheadEnabled,
+                isReaderBlockedByWriter,
+                readTxnReuseMaxAge);
     }
 
     @Override
@@ -157,6 +206,7 @@ public class ReferenceDataLmdbConfig extends AbstractConfig implements LmdbConfi
                 ", maxStoreSize=" + maxStoreSize +
                 ", isReadAheadEnabled=" + isReadAheadEnabled +
                 ", isReaderBlockedByWriter=" + isReaderBlockedByWriter +
+                ", readTxnReuseMaxAge=" + readTxnReuseMaxAge +
                 '}';
     }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.refdata.store;
+
+import stroom.bytebuffer.ByteBufferUtils;
+import stroom.pipeline.refdata.store.offheapstore.TypedByteBuffer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import com.codahale.metrics.Meter;
+
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * A small LRU cache of lookup results that sits in front of the off heap ref store for the life of
+ * a single pipeline process. Event pipelines tend to look up the same few keys over and over so this
+ * saves opening an LMDB read txn for each of them.
+ * <p>
+ * Entries are keyed on the {@link MapDefinition} and key so the effective stream has already been
+ * resolved by the time we get here. A loaded ref stream is immutable so both values and negative
+ * results can be held for the life of the pipeline process.
+ * <p>
+ * The cache is bounded both by entry count and by the approximate number of bytes held, so a map
+ * of large values can't use up the heap. Values bigger than {@link #MAX_CACHED_VALUE_BYTES} are
+ * never cached.
+ * <p>
+ * Not thread safe, it is only intended to be used by the single thread running a pipeline.
+ */
+public class RefDataNearCache {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RefDataNearCache.class);
+
+    // Don't hold on to copies of big values, e.g. large fast infoset blobs.
+    static final int MAX_CACHED_VALUE_BYTES = 64 * 1024;
+    // The most we will hold across all entries.
+    static final long MAX_CACHED_BYTES = 16L * 1024 * 1024;
+    // Rough allowance for the key, entry and map node objects.
+    private static final int ENTRY_OVERHEAD_BYTES = 128;
+
+    private final int maxEntries;
+    private final long maxBytes;
+    // Access ordered so iteration starts with the least recently used.
+    private final Map<Key, Entry> map = new LinkedHashMap<>(16, 0.75F, true);
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private long totalBytes;
+
+    public RefDataNearCache(final int maxEntries,
+                            final Meter hitMeter,
+                            final Meter missMeter) {
+        this(maxEntries, MAX_CACHED_BYTES, hitMeter, missMeter);
+    }
+
+    RefDataNearCache(final int maxEntries,
+                     final long maxBytes,
+                     final Meter hitMeter,
+                     final Meter missMeter) {
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+        this.hitMeter = hitMeter;
+        this.missMeter = missMeter;
+    }
+
+    /**
+     * Get the value for mapDefinition/key from the cache, or from valueSupplier if not held.
+     */
+    Optional<RefDataValue> getValue(final MapDefinition mapDefinition,
+                                    final String key,
+                                    final Supplier<Optional<RefDataValue>> valueSupplier) {
+        final Key cacheKey = new Key(mapDefinition, key);
+        final Entry entry = map.get(cacheKey);
+        if (entry != null && (!entry.found || entry.value != null)) {
+            hitMeter.mark();
+            return Optional.ofNullable(entry.value);
+        }
+
+        missMeter.mark();
+        final Optional<RefDataValue> optValue = valueSupplier.get();
+        final RefDataValue value = optValue.orElse(null);
+        if (value != null && estimateBytes(value) > MAX_CACHED_VALUE_BYTES) {
+            LOGGER.trace("Value too big to cache for key: {}, {}", key, mapDefinition);
+        } else {
+            final Entry newEntry = Objects.requireNonNullElseGet(entry, Entry::new);
+            newEntry.found = value != null;
+            newEntry.value = value;
+            put(cacheKey, newEntry);
+        }
+        return optValue;
+    }
+
+    /**
+     * Pass the value bytes for mapDefinition/key to consumer, using the cached copy of the bytes
+     * if we have one, else using bytesConsumerFunction to get them from the store.
+     *
+     * @return True if a value was found and passed to consumer.
+     */
+    boolean consumeBytes(final MapDefinition mapDefinition,
+                         final String key,
+                         final Consumer<TypedByteBuffer> consumer,
+                         final Function<Consumer<TypedByteBuffer>, Boolean> bytesConsumerFunction) {
+        final Key cacheKey = new Key(mapDefinition, key);
+        final Entry entry = map.get(cacheKey);
+        if (entry != null && (!entry.found || entry.valueBytes != null)) {
+            hitMeter.mark();
+            if (entry.found) {
+                // Duplicate so the consumer can't move the position of the cached buffer
+                consumer.accept(new TypedByteBuffer(entry.typeId, entry.valueBytes.duplicate()));
+            }
+            return entry.found;
+        }
+
+        missMeter.mark();
+        final Entry newEntry = Objects.requireNonNullElseGet(entry, Entry::new);
+        final boolean found = bytesConsumerFunction.apply(typedByteBuffer -> {
+            final ByteBuffer byteBuffer = typedByteBuffer.getByteBuffer();
+            if (byteBuffer.remaining() <= MAX_CACHED_VALUE_BYTES) {
+                // Take a copy before the consumer gets the buffer as it may change its position
+                // and the buffer is only valid inside the txn.
+                newEntry.typeId = typedByteBuffer.getTypeId();
+                newEntry.valueBytes = ByteBufferUtils.copyToHeapBuffer(byteBuffer.duplicate());
+            }
+            consumer.accept(typedByteBuffer);
+        });
+
+        newEntry.found = found;
+        if (!found || newEntry.valueBytes != null) {
+            put(cacheKey, newEntry);
+        } else {
+            LOGGER.trace("Value too big to cache for key: {}, {}", key, mapDefinition);
+        }
+        return found;
+    }
+
+    int size() {
+        return map.size();
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private void put(final Key cacheKey, final Entry entry) {
+        // The entry may already be in the map with a different weight if we are adding the other
+        // form of the value to it.
+        final Entry existing = map.put(cacheKey, entry);
+        if (existing != null) {
+            totalBytes -= existing.weight;
+        }
+        entry.weight = weigh(cacheKey, entry);
+        totalBytes += entry.weight;
+
+        // Evict the least recently used until we are back within our limits.
+        final Iterator<Entry> iterator = map.values().iterator();
+        while ((map.size() > maxEntries || totalBytes > maxBytes) && iterator.hasNext()) {
+            final Entry eldest = iterator.next();
+            iterator.remove();
+            totalBytes -= eldest.weight;
+        }
+    }
+
+    private static int weigh(final Key cacheKey, final Entry entry) {
+        int weight = ENTRY_OVERHEAD_BYTES;
+        if (cacheKey.key() != null) {
+            weight += cacheKey.key().length() * 2;
+        }
+        if (entry.value != null) {
+            weight += estimateBytes(entry.value);
+        }
+        if (entry.valueBytes != null) {
+            weight += entry.valueBytes.capacity();
+        }
+        return weight;
+    }
+
+    /**
+     * @return The approximate number of heap bytes used by the wrapped value.
+     */
+    static int estimateBytes(final RefDataValue refDataValue) {
+        if (refDataValue instanceof final StringValue stringValue) {
+            return stringValue.getValue() == null
+                    ? 0
+                    : stringValue.getValue().length() * 2;
+        } else if (refDataValue instanceof final FastInfosetValue fastInfosetValue) {
+            return fastInfosetValue.size();
+        } else if (refDataValue instanceof final UnknownRefDataValue unknownRefDataValue) {
+            return unknownRefDataValue.getValue().remaining();
+        }
+        return 0;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Key(MapDefinition mapDefinition, String key) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class Entry {
+
+        private boolean found;
+        private RefDataValue value;
+        private byte typeId;
+        private ByteBuffer valueBytes;
+        private int weight;
+    }
+}
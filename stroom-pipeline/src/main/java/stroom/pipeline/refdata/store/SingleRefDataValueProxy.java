@@ -41,14 +41,31 @@ public class SingleRefDataValueProxy implements RefDataValueProxy {
     // This will be set with mapDefinition if we have a successful lookup with it, else stays null
     private MapDefinition successfulMapDefinition = null;
     private final String key;
+    // Optional pipeline scoped cache of lookup results
+    private final RefDataNearCache nearCache;
 
     public SingleRefDataValueProxy(final RefDataStore refDataStore,
                                    final MapDefinition mapDefinition,
                                    final String key) {
+        this(refDataStore, mapDefinition, key, null);
+    }
+
+    private SingleRefDataValueProxy(final RefDataStore refDataStore,
+                                    final MapDefinition mapDefinition,
+                                    final String key,
+                                    final RefDataNearCache nearCache) {
 
         this.refDataStore = Objects.requireNonNull(refDataStore);
         this.mapDefinition = Objects.requireNonNull(mapDefinition);
         this.key = Objects.requireNonNull(key);
+        this.nearCache = nearCache;
+    }
+
+    /**
+     * @return A copy of this proxy that will use nearCache to avoid hitting the store for repeated lookups.
+     */
+    public SingleRefDataValueProxy withNearCache(final RefDataNearCache nearCache) {
+        return new SingleRefDataValueProxy(refDataStore, mapDefinition, key, nearCache);
     }
 
     @Override
@@ -82,7 +99,9 @@ public class SingleRefDataValueProxy implements RefDataValueProxy {
     public Optional<RefDataValue> supplyValue() {
         LOGGER.trace("supplyValue()");
         try {
-            final Optional<RefDataValue> value = refDataStore.getValue(mapDefinition, key);
+            final Optional<RefDataValue> value = nearCache != null
+                    ? nearCache.getValue(mapDefinition, key, () -> refDataStore.getValue(mapDefinition, key))
+                    : refDataStore.getValue(mapDefinition, key);
             if (value.isPresent()) {
                 successfulMapDefinition = mapDefinition;
             }
@@ -105,7 +124,10 @@ public class SingleRefDataValueProxy implements RefDataValueProxy {
     public boolean consumeBytes(final Consumer<TypedByteBuffer> typedByteBufferConsumer) {
         LOGGER.trace("consumeBytes(...)");
         try {
-            final boolean wasFound = refDataStore.consumeValueBytes(mapDefinition, key, typedByteBufferConsumer);
+            final boolean wasFound = nearCache != null
+                    ? nearCache.consumeBytes(mapDefinition, key, typedByteBufferConsumer, consumer ->
+                    refDataStore.consumeValueBytes(mapDefinition, key, consumer))
+                    : refDataStore.consumeValueBytes(mapDefinition, key, typedByteBufferConsumer);
             if (wasFound) {
                 successfulMapDefinition = mapDefinition;
             }
@@ -99,6 +99,7 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
     private final SecurityContext securityContext;
     private final PathCreator pathCreator;
     private final DocFinder docFinder;
+    private final RefDataLoadTracker refDataLoadTracker;
 
     // feed => refDataOffHeapStore, shouldn't be that many ref feeds
     // Feeds are immutable things too so no TTL needed
@@ -124,8 +125,10 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
                                          final MetaService metaService,
                                          final SecurityContext securityContext,
                                          final PathCreator pathCreator,
-                                         final DocFinder docFinder) {
+                                         final DocFinder docFinder,
+                                         final RefDataLoadTracker refDataLoadTracker) {
         this.referenceDataConfigProvider = referenceDataConfigProvider;
+        this.refDataLoadTracker = refDataLoadTracker;
         this.refDataLmdbEnvFactory = refDataLmdbEnvFactory;
         this.refDataOffHeapStoreFactory = refDataOffHeapStoreFactory;
         this.metaService = metaService;
@@ -515,7 +518,10 @@ public class DelegatingRefDataOffHeapStore implements RefDataStore, HasSystemInf
                             TimeUtils.durationToThreshold(referenceDataConfig.getPurgeAge()).toString())
                     .addDetail("Max readers", referenceDataConfig.getLmdbConfig().getMaxReaders())
                     .addDetail("Read-ahead enabled", referenceDataConfig.getLmdbConfig().isReadAheadEnabled())
-                    .addDetail("Total reference entries", getCombinedEntryCount());
+                    .addDetail("Total reference entries", getCombinedEntryCount())
+                    .addDetail("Loads staging", refDataLoadTracker.getStagingCount())
+                    .addDetail("Loads awaiting transfer", refDataLoadTracker.getAwaitingTransferCount())
+                    .addDetail("Loads transferring", refDataLoadTracker.getTransferringCount());
 
             if (legacyRefDataStore != null) {
                 builder.addDetail("Legacy store", legacyRefDataStore.getSystemInfo());
@@ -95,6 +95,7 @@ public class OffHeapRefDataLoader implements RefDataLoader {
     private final RefStreamDefinition refStreamDefinition;
     private final RefDataOffHeapStore refDataOffHeapStore;
     private final TaskContext taskContext;
+    private final RefDataLoadTracker refDataLoadTracker;
     private final long effectiveTimeMs;
 
     private int newEntriesCount = 0;
@@ -123,6 +124,7 @@ public class OffHeapRefDataLoader implements RefDataLoader {
     private KeyPutOutcomeHandler keyPutOutcomeHandler = null;
     private RangePutOutcomeHandler rangePutOutcomeHandler = null;
     private OffHeapStagingStore offHeapStagingStore = null;
+    private boolean isStaging = false;
 
     @Inject
     OffHeapRefDataLoader(@Assisted final Striped<Lock> refStreamDefStripedReentrantLock,
@@ -136,7 +138,8 @@ public class OffHeapRefDataLoader implements RefDataLoader {
                          final MapDefinitionUIDStore mapDefinitionUIDStore,
                          final ProcessingInfoDb processingInfoDb,
                          final OffHeapStagingStoreFactory offHeapStagingStoreFactory,
-                         final TaskContextFactory taskContextFactory) {
+                         final TaskContextFactory taskContextFactory,
+                         final RefDataLoadTracker refDataLoadTracker) {
 
         this.keyValueStoreDb = keyValueStoreDb;
         this.rangeStoreDb = rangeStoreDb;
@@ -148,6 +151,7 @@ public class OffHeapRefDataLoader implements RefDataLoader {
         this.refStreamDefinition = refStreamDefinition;
         this.refDataOffHeapStore = refDataOffHeapStore;
         this.effectiveTimeMs = effectiveTimeMs;
+        this.refDataLoadTracker = refDataLoadTracker;
 
         // get three buffers to (re)use for the life of the loader
         this.keyValuePooledKeyBuffer = getAndRegisterPooledByteBuffer(keyValueStoreDb::getPooledKeyBuffer);
@@ -228,6 +232,8 @@ public class OffHeapRefDataLoader implements RefDataLoader {
         if (isRegularLoad()) {
             // Create the LMDB staging store
             offHeapStagingStore = offHeapStagingStoreFactory.create(refStreamDefinition, mapDefinitionUIDStore);
+            isStaging = true;
+            refDataLoadTracker.onStagingStarted();
         }
 
         currentLoaderState = LoaderState.INITIALISED;
@@ -242,6 +248,7 @@ public class OffHeapRefDataLoader implements RefDataLoader {
         checkCurrentState(LoaderState.INITIALISED);
         offHeapStagingStore.completeLoad();
         loadIntoStagingTimer.stop();
+        finishStaging();
 
         LOGGER.debug(() -> LogUtil.getDurationMessage(
                 LogUtil.message("Load of {} entries into staging store for pipe {}",
@@ -451,6 +458,13 @@ public class OffHeapRefDataLoader implements RefDataLoader {
         this.rangePutOutcomeHandler = rangePutOutcomeHandler;
     }
 
+    private void finishStaging() {
+        if (isStaging) {
+            isStaging = false;
+            refDataLoadTracker.onStagingFinished();
+        }
+    }
+
     private void transferStagedEntries() {
         checkCurrentState(LoaderState.STAGED);
 
@@ -458,18 +472,40 @@ public class OffHeapRefDataLoader implements RefDataLoader {
         LOGGER.debug("transferStagedEntries() - putsToStagingStoreCount: {}", putsToStagingStoreCount);
 
         if (putsToStagingStoreCount > 0) {
-            transferStagedEntriesTimer = DurationTimer.start();
-            try (final BatchingWriteTxn destBatchingWriteTxn = refStoreLmdbEnv.openBatchingWriteTxn(
-                    maxPutsBeforeCommit)) {
-                // We now hold the single write lock for the main ref store
-                updateTaskContextInfoSupplier("Loading staged entries");
-                transferStagedKeyValueEntries(destBatchingWriteTxn);
-                transferStagedRangeValueEntries(destBatchingWriteTxn);
-
-                // Final commit
-                destBatchingWriteTxn.commit();
+            // Staging happens concurrently, but transfers into the store take their turn on this
+            // fair lock rather than all queueing on the store's write lock. Thus, only one transfer at a
+            // time is waiting on the write lock so readers blocked by a writer wait for at most one transfer.
+            final Lock stagedTransferLock = refDataOffHeapStore.getStagedTransferLock();
+            updateTaskContextInfoSupplier("Waiting to load staged entries");
+            refDataLoadTracker.onAwaitingTransfer();
+            final long waitStartNanos = System.nanoTime();
+            try {
+                stagedTransferLock.lockInterruptibly();
+            } catch (final InterruptedException e) {
+                refDataLoadTracker.onTransferAbandoned();
+                throw ProcessException.wrap(UncheckedInterruptedException.create(LogUtil.message(
+                        "Waiting to load staged entries for {} aborted due to thread interruption",
+                        refStreamDefinition), e));
+            }
+            refDataLoadTracker.onTransferStarted(System.nanoTime() - waitStartNanos);
+
+            try {
+                transferStagedEntriesTimer = DurationTimer.start();
+                try (final BatchingWriteTxn destBatchingWriteTxn = refStoreLmdbEnv.openBatchingWriteTxn(
+                        maxPutsBeforeCommit)) {
+                    // We now hold the single write lock for the main ref store
+                    updateTaskContextInfoSupplier("Loading staged entries");
+                    transferStagedKeyValueEntries(destBatchingWriteTxn);
+                    transferStagedRangeValueEntries(destBatchingWriteTxn);
+
+                    // Final commit
+                    destBatchingWriteTxn.commit();
+                }
+                transferStagedEntriesTimer.stop();
+            } finally {
+                stagedTransferLock.unlock();
+                refDataLoadTracker.onTransferFinished();
             }
-            transferStagedEntriesTimer.stop();
 
             LOGGER.debug(() -> LogUtil.getDurationMessage(
                     LogUtil.message(
@@ -771,6 +807,9 @@ public class OffHeapRefDataLoader implements RefDataLoader {
                     refStreamDefinition, currentLoaderState);
         }
 
+        // In case the load failed before staging was complete
+        finishStaging();
+
         try {
             if (offHeapStagingStore != null) {
                 offHeapStagingStore.close();
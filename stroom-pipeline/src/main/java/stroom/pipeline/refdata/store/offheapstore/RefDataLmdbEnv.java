@@ -27,6 +27,8 @@ import stroom.pipeline.refdata.ReferenceDataLmdbConfig;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
+import stroom.util.shared.NullSafe;
+import stroom.util.time.StroomDuration;
 
 import com.google.inject.assistedinject.Assisted;
 import jakarta.annotation.Nullable;
@@ -229,7 +231,8 @@ public class RefDataLmdbEnv {
 
         final SimpleEnvBuilder builder = lmdbEnvFactory.builder(lmdbConfig)
                 .withMaxDbCount(7)
-                .addEnvFlag(EnvFlags.MDB_NOTLS);
+                .addEnvFlag(EnvFlags.MDB_NOTLS)
+                .withReadTxnReuse(NullSafe.get(lmdbConfig.getReadTxnReuseMaxAge(), StroomDuration::getDuration));
 
         if (subDirName != null) {
             builder.withSubDirectory(subDirName);
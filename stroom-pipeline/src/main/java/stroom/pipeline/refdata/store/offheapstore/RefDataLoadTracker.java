@@ -0,0 +1,108 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.refdata.store.offheapstore;
+
+import stroom.util.metrics.Metrics;
+
+import com.codahale.metrics.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks the number of reference stream loads in each phase of loading, across all the
+ * off heap stores, so we can see how many loads are queued waiting to transfer their
+ * staged entries into a store.
+ */
+@Singleton
+public class RefDataLoadTracker {
+
+    private final AtomicInteger stagingCount = new AtomicInteger();
+    private final AtomicInteger awaitingTransferCount = new AtomicInteger();
+    private final AtomicInteger transferringCount = new AtomicInteger();
+    private final Timer transferWaitTimer;
+
+    @Inject
+    public RefDataLoadTracker(final Metrics metrics) {
+        metrics.registrationBuilder(getClass())
+                .addNamePart("staging")
+                .gauge(stagingCount::get)
+                .register();
+        metrics.registrationBuilder(getClass())
+                .addNamePart("awaitingTransfer")
+                .gauge(awaitingTransferCount::get)
+                .register();
+        metrics.registrationBuilder(getClass())
+                .addNamePart("transferring")
+                .gauge(transferringCount::get)
+                .register();
+        transferWaitTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("transferWait")
+                .timer()
+                .createAndRegister();
+    }
+
+    /**
+     * @return The number of loads currently parsing and loading entries into a staging store.
+     */
+    public int getStagingCount() {
+        return stagingCount.get();
+    }
+
+    /**
+     * @return The number of loads that have finished staging and are waiting for their turn to
+     * transfer their staged entries into the main store.
+     */
+    public int getAwaitingTransferCount() {
+        return awaitingTransferCount.get();
+    }
+
+    /**
+     * @return The number of loads currently transferring staged entries into the main store.
+     */
+    public int getTransferringCount() {
+        return transferringCount.get();
+    }
+
+    void onStagingStarted() {
+        stagingCount.incrementAndGet();
+    }
+
+    void onStagingFinished() {
+        stagingCount.decrementAndGet();
+    }
+
+    void onAwaitingTransfer() {
+        awaitingTransferCount.incrementAndGet();
+    }
+
+    void onTransferStarted(final long waitNanos) {
+        awaitingTransferCount.decrementAndGet();
+        transferringCount.incrementAndGet();
+        transferWaitTimer.update(waitNanos, TimeUnit.NANOSECONDS);
+    }
+
+    void onTransferAbandoned() {
+        awaitingTransferCount.decrementAndGet();
+    }
+
+    void onTransferFinished() {
+        transferringCount.decrementAndGet();
+    }
+}
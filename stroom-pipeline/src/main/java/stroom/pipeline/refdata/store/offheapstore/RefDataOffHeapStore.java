@@ -79,6 +79,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
@@ -116,6 +117,8 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
 
     // For synchronising access to the data belonging to a MapDefinition
     private final Striped<Lock> refStreamDefStripedReentrantLock;
+    // Fair so loads transfer their staged entries into the store in the order they finished staging
+    private final Lock stagedTransferLock = new ReentrantLock(true);
 
     private final ByteBufferPool byteBufferPool;
     private final String storeName;
@@ -637,6 +640,13 @@ public class RefDataOffHeapStore extends AbstractRefDataStore implements RefData
         return refDataLoader;
     }
 
+    /**
+     * @return The lock that a loader must hold while transferring its staged entries into this store.
+     */
+    Lock getStagedTransferLock() {
+        return stagedTransferLock;
+    }
+
     @Override
     public long getKeyValueEntryCount() {
         return keyValueStoreDb.getEntryCount();
@@ -34,6 +34,15 @@ public class RecordCount {
         return writeCount::incrementAndGet;
     }
 
+    /**
+     * Add the counts of records that were read and written by another pipeline whose output has
+     * been used in place of running this one.
+     */
+    public void add(final long read, final long written) {
+        readCount.addAndGet(read);
+        writeCount.addAndGet(written);
+    }
+
     public long getRead() {
         return readCount.get();
     }
@@ -0,0 +1,381 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.cache;
+
+import stroom.docref.DocRef;
+import stroom.entity.shared.ExpressionCriteria;
+import stroom.pipeline.PipelineConfig;
+import stroom.pipeline.PipelineStore;
+import stroom.pipeline.factory.PipelineDataCache;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.TextConverterDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.pipeline.shared.data.PipelineData;
+import stroom.pipeline.shared.data.PipelineDataBuilder;
+import stroom.pipeline.shared.data.PipelineProperty;
+import stroom.pipeline.shared.data.PipelinePropertyValue;
+import stroom.pipeline.textconverter.TextConverterStore;
+import stroom.pipeline.xmlschema.FindXMLSchemaCriteria;
+import stroom.pipeline.xslt.XsltStore;
+import stroom.processor.api.ProcessorFilterService;
+import stroom.processor.shared.Processor;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorType;
+import stroom.security.mock.MockSecurityContext;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.pipeline.scope.PipelineScopeRunnable;
+import stroom.util.shared.ResultPage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MockitoExtension.class)
+class TestPipelineWarmUp {
+
+    private static final String XSLT_ELEMENT = "xsltFilter";
+    private static final String PARSER_ELEMENT = "dsParser";
+
+    @Mock
+    private ProcessorFilterService processorFilterService;
+    @Mock
+    private PipelineStore pipelineStore;
+    @Mock
+    private PipelineDataCache pipelineDataCache;
+    @Mock
+    private XsltStore xsltStore;
+    @Mock
+    private TextConverterStore textConverterStore;
+    @Mock
+    private XsltPool xsltPool;
+    @Mock
+    private ParserFactoryPool parserFactoryPool;
+    @Mock
+    private SchemaPool schemaPool;
+    @Mock
+    private PipelineScopeRunnable pipelineScopeRunnable;
+    @Mock
+    private ExecutorProvider executorProvider;
+
+    private final Map<String, PipelineDoc> pipelineDocs = new HashMap<>();
+    private final Map<PipelineDoc, PipelineData> pipelineDataMap = new HashMap<>();
+    private final Map<String, XsltDoc> xsltDocs = new HashMap<>();
+    private final Map<String, TextConverterDoc> textConverterDocs = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        // Run everything on the calling thread so we can verify once the call returns.
+        Mockito.lenient().when(executorProvider.get())
+                .thenReturn(Runnable::run);
+        Mockito.lenient().doAnswer(invocation -> {
+                    invocation.<Runnable>getArgument(0).run();
+                    return null;
+                })
+                .when(pipelineScopeRunnable).scopeRunnable(Mockito.any());
+        Mockito.lenient().when(pipelineStore.readDocument(Mockito.any()))
+                .thenAnswer(invocation -> pipelineDocs.get(invocation.<DocRef>getArgument(0).getUuid()));
+        Mockito.lenient().when(pipelineDataCache.get(Mockito.any()))
+                .thenAnswer(invocation -> pipelineDataMap.get(invocation.<PipelineDoc>getArgument(0)));
+        Mockito.lenient().when(xsltStore.readDocument(Mockito.any()))
+                .thenAnswer(invocation -> xsltDocs.get(invocation.<DocRef>getArgument(0).getUuid()));
+        Mockito.lenient().when(textConverterStore.readDocument(Mockito.any()))
+                .thenAnswer(invocation -> textConverterDocs.get(invocation.<DocRef>getArgument(0).getUuid()));
+    }
+
+    @Test
+    void testWarmUpAll() {
+        final XsltDoc xsltDoc = addXslt("xslt1");
+        final XsltDoc noPoolXsltDoc = addXslt("xslt2");
+        final TextConverterDoc textConverterDoc = addTextConverter("tc1");
+        addPipeline("pipe1", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc.asDocRef()))
+                .addProperty(docProperty(PARSER_ELEMENT, "textConverter", textConverterDoc.asDocRef()))
+                .addProperty(docProperty("noPoolXsltFilter", "xslt", noPoolXsltDoc.asDocRef()))
+                .addProperty(new PipelineProperty(
+                        "noPoolXsltFilter", "usePool", new PipelinePropertyValue(false)))
+                .build());
+        setFilters("pipe1");
+
+        createPipelineWarmUp(true).warmUpAll();
+
+        Mockito.verify(xsltPool).borrowObject(xsltDoc, true);
+        Mockito.verify(xsltPool, Mockito.never()).borrowObject(Mockito.eq(noPoolXsltDoc), Mockito.anyBoolean());
+        Mockito.verify(xsltPool).returnObject(Mockito.any(), Mockito.eq(true));
+        Mockito.verify(parserFactoryPool).borrowObject(textConverterDoc, true);
+        Mockito.verify(parserFactoryPool).returnObject(Mockito.any(), Mockito.eq(true));
+    }
+
+    @Test
+    void testWarmUpAll_disabled() {
+        createPipelineWarmUp(false).warmUpAll();
+
+        Mockito.verifyNoInteractions(processorFilterService, xsltPool, parserFactoryPool);
+    }
+
+    @Test
+    void testOnChange_onlyAffectedPipelines() {
+        final XsltDoc xsltDoc1 = addXslt("xslt1");
+        final XsltDoc xsltDoc2 = addXslt("xslt2");
+        addPipeline("pipe1", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc1.asDocRef()))
+                .build());
+        addPipeline("pipe2", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc2.asDocRef()))
+                .build());
+        setFilters("pipe1", "pipe2");
+
+        final PipelineWarmUp pipelineWarmUp = createPipelineWarmUp(true);
+        pipelineWarmUp.warmUpAll();
+        Mockito.verify(xsltPool).borrowObject(xsltDoc1, true);
+        Mockito.verify(xsltPool).borrowObject(xsltDoc2, true);
+        Mockito.clearInvocations(xsltPool, pipelineStore);
+
+        // A new version of xslt2 has been saved.
+        final XsltDoc newXsltDoc2 = xsltDoc2.copy().version("2").build();
+        xsltDocs.put(newXsltDoc2.getUuid(), newXsltDoc2);
+        pipelineWarmUp.onDocChange(new EntityEvent(newXsltDoc2.asDocRef(), EntityAction.UPDATE));
+
+        Mockito.verify(pipelineStore).readDocument(new DocRef(PipelineDoc.TYPE, "pipe2"));
+        Mockito.verifyNoMoreInteractions(pipelineStore);
+        Mockito.verify(xsltPool).borrowObject(newXsltDoc2, true);
+        Mockito.verify(xsltPool, Mockito.never()).borrowObject(Mockito.eq(xsltDoc1), Mockito.anyBoolean());
+
+        // A change to a doc no pipeline uses shouldn't do anything.
+        Mockito.clearInvocations(xsltPool, pipelineStore);
+        pipelineWarmUp.onDocChange(new EntityEvent(addXslt("xslt3").asDocRef(), EntityAction.UPDATE));
+        Mockito.verifyNoInteractions(xsltPool, pipelineStore);
+    }
+
+    @Test
+    void testOnChange_pipelineUpdate() {
+        final XsltDoc xsltDoc1 = addXslt("xslt1");
+        final XsltDoc xsltDoc2 = addXslt("xslt2");
+        final XsltDoc xsltDoc3 = addXslt("xslt3");
+        addPipeline("pipe1", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc1.asDocRef()))
+                .build());
+        addPipeline("pipe2", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc2.asDocRef()))
+                .build());
+        // pipe3 inherits from pipe2
+        addPipeline("pipe3", "pipe2", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc3.asDocRef()))
+                .build());
+        setFilters("pipe1", "pipe3");
+
+        final PipelineWarmUp pipelineWarmUp = createPipelineWarmUp(true);
+        pipelineWarmUp.warmUpAll();
+        Mockito.clearInvocations(xsltPool, pipelineStore, processorFilterService);
+
+        // Only pipe1 should be rebuilt, not all the pipelines.
+        pipelineWarmUp.onDocChange(new EntityEvent(
+                new DocRef(PipelineDoc.TYPE, "pipe1"), EntityAction.UPDATE));
+        Mockito.verify(pipelineStore).readDocument(new DocRef(PipelineDoc.TYPE, "pipe1"));
+        Mockito.verifyNoMoreInteractions(pipelineStore);
+        Mockito.verify(xsltPool).borrowObject(xsltDoc1, true);
+        Mockito.verify(xsltPool, Mockito.never()).borrowObject(Mockito.eq(xsltDoc3), Mockito.anyBoolean());
+        Mockito.verifyNoInteractions(processorFilterService);
+
+        // A change to a parent rebuilds the pipelines that inherit from it.
+        Mockito.clearInvocations(xsltPool, pipelineStore);
+        pipelineWarmUp.onDocChange(new EntityEvent(
+                new DocRef(PipelineDoc.TYPE, "pipe2"), EntityAction.UPDATE));
+        Mockito.verify(pipelineStore).readDocument(new DocRef(PipelineDoc.TYPE, "pipe3"));
+        Mockito.verify(xsltPool).borrowObject(xsltDoc3, true);
+        Mockito.verify(xsltPool, Mockito.never()).borrowObject(Mockito.eq(xsltDoc1), Mockito.anyBoolean());
+        Mockito.verifyNoInteractions(processorFilterService);
+    }
+
+    @Test
+    void testOnChange_processorFilter() {
+        final XsltDoc xsltDoc1 = addXslt("xslt1");
+        final XsltDoc xsltDoc2 = addXslt("xslt2");
+        addPipeline("pipe1", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc1.asDocRef()))
+                .build());
+        addPipeline("pipe2", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc2.asDocRef()))
+                .build());
+        setFilters("pipe1");
+
+        final PipelineWarmUp pipelineWarmUp = createPipelineWarmUp(true);
+        pipelineWarmUp.warmUpAll();
+        Mockito.clearInvocations(xsltPool, pipelineStore);
+
+        // A disabled filter for pipe2 shouldn't do anything.
+        final ProcessorFilter disabledFilter = createFilter("filter1", "pipe2", false);
+        pipelineWarmUp.onChange(new EntityEvent(disabledFilter.asDocRef(), EntityAction.CREATE));
+        Mockito.verifyNoInteractions(xsltPool, pipelineStore);
+
+        // Enabling it warms up pipe2.
+        final ProcessorFilter enabledFilter = createFilter("filter1", "pipe2", true);
+        pipelineWarmUp.onChange(new EntityEvent(enabledFilter.asDocRef(), EntityAction.UPDATE));
+        Mockito.verify(pipelineStore).readDocument(new DocRef(PipelineDoc.TYPE, "pipe2"));
+        Mockito.verify(xsltPool).borrowObject(xsltDoc2, true);
+        Mockito.verify(xsltPool, Mockito.never()).borrowObject(Mockito.eq(xsltDoc1), Mockito.anyBoolean());
+
+        // A filter for a pipeline that is already warm doesn't rebuild it.
+        Mockito.clearInvocations(xsltPool, pipelineStore);
+        final ProcessorFilter pipe1Filter = createFilter("filter2", "pipe1", true);
+        pipelineWarmUp.onChange(new EntityEvent(pipe1Filter.asDocRef(), EntityAction.CREATE));
+        Mockito.verifyNoInteractions(xsltPool, pipelineStore);
+    }
+
+    @Test
+    void testWarmUpSchemas() {
+        final FindXMLSchemaCriteria criteria = new FindXMLSchemaCriteria();
+        criteria.setSchemaGroup("EVENTS");
+        final SchemaKey schemaKey1 = new SchemaKey("lang", "data1", criteria);
+        final SchemaKey schemaKey2 = new SchemaKey("lang", "data2", criteria);
+
+        createPipelineWarmUp(true).warmUpSchemas(Set.of(schemaKey1, schemaKey2));
+
+        Mockito.verify(schemaPool).borrowObject(schemaKey1, true);
+        Mockito.verify(schemaPool).borrowObject(schemaKey2, true);
+        Mockito.verify(schemaPool, Mockito.times(2)).returnObject(Mockito.any(), Mockito.eq(true));
+        Mockito.verifyNoInteractions(processorFilterService);
+    }
+
+    @Test
+    void testGetSystemInfo() {
+        final XsltDoc xsltDoc = addXslt("xslt1");
+        addPipeline("pipe1", new PipelineDataBuilder()
+                .addProperty(docProperty(XSLT_ELEMENT, "xslt", xsltDoc.asDocRef()))
+                .build());
+        // pipe2 has no doc so will be skipped.
+        setFilters("pipe1", "pipe2");
+
+        final PipelineWarmUp pipelineWarmUp = createPipelineWarmUp(true);
+        pipelineWarmUp.warmUpAll();
+
+        final Map<String, Object> details = pipelineWarmUp.getSystemInfo().getDetails();
+        assertThat(details)
+                .containsEntry("running", false)
+                .containsEntry("pipelinesTotal", 2)
+                .containsEntry("pipelinesDone", 2)
+                .containsEntry("trackedPipelines", 1)
+                .containsEntry("xsltWarmUps", 1)
+                .containsEntry("failures", 0);
+    }
+
+    private PipelineWarmUp createPipelineWarmUp(final boolean enabled) {
+        final PipelineConfig pipelineConfig = new PipelineConfig(
+                null, null, null, null, null, null, null, null, enabled);
+        return new PipelineWarmUp(
+                () -> pipelineConfig,
+                processorFilterService,
+                pipelineStore,
+                pipelineDataCache,
+                xsltStore,
+                textConverterStore,
+                xsltPool,
+                parserFactoryPool,
+                schemaPool,
+                new MockSecurityContext(),
+                pipelineScopeRunnable,
+                new SimpleTaskContextFactory(),
+                executorProvider);
+    }
+
+    private void setFilters(final String... pipelineUuids) {
+        final List<ProcessorFilter> filters = Arrays.stream(pipelineUuids)
+                .map(pipelineUuid -> ProcessorFilter.builder()
+                        .processor(Processor.builder()
+                                .processorType(ProcessorType.PIPELINE)
+                                .pipelineUuid(pipelineUuid)
+                                .build())
+                        .build())
+                .toList();
+        Mockito.when(processorFilterService.find(Mockito.any(ExpressionCriteria.class)))
+                .thenReturn(new ResultPage<>(filters));
+    }
+
+    private ProcessorFilter createFilter(final String uuid,
+                                         final String pipelineUuid,
+                                         final boolean enabled) {
+        final ProcessorFilter filter = ProcessorFilter.builder()
+                .uuid(uuid)
+                .enabled(enabled)
+                .processor(Processor.builder()
+                        .processorType(ProcessorType.PIPELINE)
+                        .pipelineUuid(pipelineUuid)
+                        .enabled(true)
+                        .build())
+                .build();
+        Mockito.when(processorFilterService.fetchByUuid(uuid))
+                .thenReturn(Optional.of(filter));
+        return filter;
+    }
+
+    private void addPipeline(final String uuid, final PipelineData pipelineData) {
+        addPipeline(uuid, null, pipelineData);
+    }
+
+    private void addPipeline(final String uuid, final String parentUuid, final PipelineData pipelineData) {
+        final PipelineDoc pipelineDoc = PipelineDoc.builder()
+                .uuid(uuid)
+                .name(uuid)
+                .parentPipeline(parentUuid != null
+                        ? new DocRef(PipelineDoc.TYPE, parentUuid)
+                        : null)
+                .build();
+        pipelineDocs.put(uuid, pipelineDoc);
+        pipelineDataMap.put(pipelineDoc, pipelineData);
+    }
+
+    private XsltDoc addXslt(final String uuid) {
+        final XsltDoc xsltDoc = XsltDoc.builder()
+                .uuid(uuid)
+                .name(uuid)
+                .version("1")
+                .data("<xsl:stylesheet/>")
+                .build();
+        xsltDocs.put(uuid, xsltDoc);
+        return xsltDoc;
+    }
+
+    private TextConverterDoc addTextConverter(final String uuid) {
+        final TextConverterDoc textConverterDoc = TextConverterDoc.builder()
+                .uuid(uuid)
+                .name(uuid)
+                .data("<dataSplitter/>")
+                .build();
+        textConverterDocs.put(uuid, textConverterDoc);
+        return textConverterDoc;
+    }
+
+    private static PipelineProperty docProperty(final String element,
+                                                final String name,
+                                                final DocRef docRef) {
+        return new PipelineProperty(element, name, new PipelinePropertyValue(docRef));
+    }
+}
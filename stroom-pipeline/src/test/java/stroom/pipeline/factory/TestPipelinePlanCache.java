@@ -0,0 +1,68 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.factory;
+
+import stroom.pipeline.shared.data.PipelineData;
+import stroom.pipeline.shared.data.PipelineDataBuilder;
+import stroom.test.common.MockMetrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestPipelinePlanCache {
+
+    @Test
+    void testSamePipelineDataReusesPlan() {
+        final PipelinePlanCache pipelinePlanCache = new PipelinePlanCache(new MockMetrics());
+        final AtomicInteger buildCount = new AtomicInteger();
+        final PipelineData pipelineData = new PipelineDataBuilder().build();
+
+        final PipelinePlan plan1 = pipelinePlanCache.get(pipelineData, data -> createPlan(buildCount));
+        final PipelinePlan plan2 = pipelinePlanCache.get(pipelineData, data -> createPlan(buildCount));
+
+        assertThat(plan2).isSameAs(plan1);
+        assertThat(buildCount).hasValue(1);
+        assertThat(pipelinePlanCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void testNewPipelineDataGetsNewPlan() {
+        final PipelinePlanCache pipelinePlanCache = new PipelinePlanCache(new MockMetrics());
+        final AtomicInteger buildCount = new AtomicInteger();
+
+        // Equal pipeline data but a different instance, e.g. after the pipeline doc has changed.
+        final PipelinePlan plan1 = pipelinePlanCache.get(
+                new PipelineDataBuilder().build(),
+                data -> createPlan(buildCount));
+        final PipelinePlan plan2 = pipelinePlanCache.get(
+                new PipelineDataBuilder().build(),
+                data -> createPlan(buildCount));
+
+        assertThat(plan2).isNotSameAs(plan1);
+        assertThat(buildCount).hasValue(2);
+    }
+
+    private PipelinePlan createPlan(final AtomicInteger buildCount) {
+        buildCount.incrementAndGet();
+        return new PipelinePlan(List.of(), Collections.emptyMap(), 1_000L);
+    }
+}
@@ -52,6 +52,8 @@ class TestRefDataStoreHolder {
     private RefDataStoreFactory mockRefDataStoreFactory;
     @Mock
     private RefDataStore mockRefDataStore;
+    @Mock
+    private RefDataNearCacheFactory mockRefDataNearCacheFactory;
 
     private PipelineReference pipelineReference;
 
@@ -76,7 +78,8 @@ class TestRefDataStoreHolder {
                 .thenReturn(Optional.of(ProcessingState.COMPLETE));
 
 
-        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(mockRefDataStoreFactory);
+        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(
+                mockRefDataStoreFactory, mockRefDataNearCacheFactory);
         final RefStreamDefinition refStreamDefinition = new RefStreamDefinition(
                 "pipeUUID", "pipeVer", 1L);
 
@@ -110,7 +113,8 @@ class TestRefDataStoreHolder {
         Mockito.when(mockRefDataStore.getLoadState(Mockito.any()))
                 .thenReturn(Optional.of(ProcessingState.COMPLETE));
 
-        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(mockRefDataStoreFactory);
+        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(
+                mockRefDataStoreFactory, mockRefDataNearCacheFactory);
         final RefStreamDefinition refStreamDefinition = new RefStreamDefinition(
                 "pipeUUID", "pipeVer", 1L);
 
@@ -152,7 +156,8 @@ class TestRefDataStoreHolder {
         Mockito.when(mockRefDataStore.getLoadState(Mockito.any()))
                 .thenReturn(Optional.of(ProcessingState.COMPLETE));
 
-        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(mockRefDataStoreFactory);
+        final RefDataStoreHolder refDataStoreHolder = new RefDataStoreHolder(
+                mockRefDataStoreFactory, mockRefDataNearCacheFactory);
 
         final String mapName = "foo";
 
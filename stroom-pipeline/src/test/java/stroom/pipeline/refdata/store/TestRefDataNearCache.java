@@ -0,0 +1,180 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.pipeline.refdata.store;
+
+import stroom.pipeline.refdata.store.offheapstore.TypedByteBuffer;
+
+import com.codahale.metrics.Meter;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestRefDataNearCache {
+
+    private static final MapDefinition MAP_DEFINITION = new MapDefinition(
+            new RefStreamDefinition("pipe", "v1", 123L), "MY_MAP");
+
+    private final Meter hitMeter = new Meter();
+    private final Meter missMeter = new Meter();
+
+    @Test
+    void testGetValue() {
+        final RefDataNearCache nearCache = new RefDataNearCache(10, hitMeter, missMeter);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            final Optional<RefDataValue> optValue = nearCache.getValue(MAP_DEFINITION, "key1", () -> {
+                loadCount.incrementAndGet();
+                return Optional.of(StringValue.of("val1"));
+            });
+            assertThat(optValue)
+                    .hasValue(StringValue.of("val1"));
+        }
+
+        assertThat(loadCount).hasValue(1);
+        assertThat(hitMeter.getCount()).isEqualTo(2);
+        assertThat(missMeter.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void testGetValue_notFound() {
+        final RefDataNearCache nearCache = new RefDataNearCache(10, hitMeter, missMeter);
+        final AtomicInteger loadCount = new AtomicInteger();
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(nearCache.getValue(MAP_DEFINITION, "key1", () -> {
+                loadCount.incrementAndGet();
+                return Optional.empty();
+            })).isEmpty();
+        }
+
+        // Negative results are cached too
+        assertThat(loadCount).hasValue(1);
+    }
+
+    @Test
+    void testConsumeBytes() {
+        final RefDataNearCache nearCache = new RefDataNearCache(10, hitMeter, missMeter);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final List<String> values = new ArrayList<>();
+
+        for (int i = 0; i < 3; i++) {
+            final boolean found = nearCache.consumeBytes(
+                    MAP_DEFINITION,
+                    "key1",
+                    typedByteBuffer -> values.add(StandardCharsets.UTF_8.decode(typedByteBuffer.getByteBuffer())
+                            .toString()),
+                    consumer -> {
+                        loadCount.incrementAndGet();
+                        consumer.accept(new TypedByteBuffer((byte) 1, ByteBuffer.wrap(
+                                "val1".getBytes(StandardCharsets.UTF_8))));
+                        return true;
+                    });
+            assertThat(found).isTrue();
+        }
+
+        assertThat(loadCount).hasValue(1);
+        assertThat(values).containsExactly("val1", "val1", "val1");
+    }
+
+    @Test
+    void testConsumeBytes_tooBigToCache() {
+        final RefDataNearCache nearCache = new RefDataNearCache(10, hitMeter, missMeter);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final ByteBuffer bigValue = ByteBuffer.allocate(RefDataNearCache.MAX_CACHED_VALUE_BYTES + 1);
+
+        for (int i = 0; i < 2; i++) {
+            nearCache.consumeBytes(MAP_DEFINITION, "key1", typedByteBuffer -> {
+            }, consumer -> {
+                loadCount.incrementAndGet();
+                consumer.accept(new TypedByteBuffer((byte) 1, bigValue.duplicate()));
+                return true;
+            });
+        }
+
+        assertThat(loadCount).hasValue(2);
+        assertThat(nearCache.size()).isZero();
+    }
+
+    @Test
+    void testGetValue_tooBigToCache() {
+        final RefDataNearCache nearCache = new RefDataNearCache(10, hitMeter, missMeter);
+        final AtomicInteger loadCount = new AtomicInteger();
+        final FastInfosetValue bigValue = new FastInfosetValue(
+                ByteBuffer.allocate(RefDataNearCache.MAX_CACHED_VALUE_BYTES + 1));
+
+        for (int i = 0; i < 2; i++) {
+            assertThat(nearCache.getValue(MAP_DEFINITION, "key1", () -> {
+                loadCount.incrementAndGet();
+                return Optional.of(bigValue);
+            })).hasValue(bigValue);
+        }
+
+        assertThat(loadCount).hasValue(2);
+        assertThat(nearCache.size()).isZero();
+        assertThat(nearCache.getTotalBytes()).isZero();
+    }
+
+    @Test
+    void testEviction_byBytes() {
+        final int valueSize = 10 * 1024;
+        // Room for roughly three values
+        final RefDataNearCache nearCache = new RefDataNearCache(
+                100, (valueSize + 1024) * 3L, hitMeter, missMeter);
+
+        for (int i = 0; i < 10; i++) {
+            nearCache.consumeBytes(MAP_DEFINITION, "key" + i, typedByteBuffer -> {
+            }, consumer -> {
+                consumer.accept(new TypedByteBuffer((byte) 1, ByteBuffer.allocate(valueSize)));
+                return true;
+            });
+        }
+
+        assertThat(nearCache.size()).isEqualTo(3);
+        assertThat(nearCache.getTotalBytes()).isLessThanOrEqualTo((valueSize + 1024) * 3L);
+
+        // The most recent ones are kept
+        final AtomicInteger loadCount = new AtomicInteger();
+        nearCache.consumeBytes(MAP_DEFINITION, "key9", typedByteBuffer -> {
+        }, consumer -> {
+            loadCount.incrementAndGet();
+            return false;
+        });
+        assertThat(loadCount).hasValue(0);
+    }
+
+    @Test
+    void testEviction() {
+        final RefDataNearCache nearCache = new RefDataNearCache(2, hitMeter, missMeter);
+        final Consumer<TypedByteBuffer> noOp = typedByteBuffer -> {
+        };
+
+        for (int i = 0; i < 5; i++) {
+            nearCache.consumeBytes(MAP_DEFINITION, "key" + i, noOp, consumer -> false);
+        }
+
+        assertThat(nearCache.size()).isEqualTo(2);
+    }
+}
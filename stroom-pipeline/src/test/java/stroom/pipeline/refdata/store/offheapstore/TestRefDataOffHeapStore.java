@@ -29,6 +29,7 @@ import stroom.pipeline.refdata.store.offheapstore.databases.ProcessingInfoDb;
 import stroom.pipeline.refdata.test.RefTestUtil;
 import stroom.pipeline.refdata.test.RefTestUtil.KeyOutcomeMap;
 import stroom.pipeline.refdata.test.RefTestUtil.RangeOutcomeMap;
+import stroom.test.common.TestUtil;
 import stroom.util.concurrent.ThreadUtil;
 import stroom.util.logging.AsciiTable;
 import stroom.util.logging.DurationTimer;
@@ -892,6 +893,59 @@ class TestRefDataOffHeapStore extends AbstractRefDataOffHeapStoreTest {
         LOGGER.debug("Finished all");
     }
 
+    @Test
+    void testStagedTransferIsQueued() throws Exception {
+        final RefDataLoadTracker refDataLoadTracker = injector.getInstance(RefDataLoadTracker.class);
+        final RefStreamDefinition refStreamDefinition = buildUniqueRefStreamDefinition();
+        final MapDefinition mapDefinition = new MapDefinition(refStreamDefinition, "MyKeyMap");
+        final RefDataOffHeapStore effectiveStore = getEffectiveStore(refStreamDefinition);
+        final int recCount = 100;
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        final CompletableFuture<Void> future;
+        // Hold the transfer lock so the load has to queue once it has finished staging
+        effectiveStore.getStagedTransferLock().lock();
+        try {
+            future = CompletableFuture.runAsync(() -> {
+                refDataStore.doWithLoaderUnlessComplete(refStreamDefinition, System.currentTimeMillis(), loader -> {
+                    loader.initialise(false);
+                    for (int i = 0; i < recCount; i++) {
+                        doLoaderPut(loader, mapDefinition, "key" + i, StringValue.of("Value" + i));
+                    }
+                    loader.markPutsComplete();
+                    loader.completeProcessing();
+                });
+            }, executorService);
+
+            TestUtil.waitForIt(
+                    refDataLoadTracker::getAwaitingTransferCount,
+                    1,
+                    "Awaiting transfer count");
+
+            assertThat(refDataLoadTracker.getStagingCount())
+                    .isZero();
+            assertThat(refDataLoadTracker.getTransferringCount())
+                    .isZero();
+            // Nothing should have made it into the store yet
+            assertThat(refDataStore.getValue(mapDefinition, "key0"))
+                    .isEmpty();
+        } finally {
+            effectiveStore.getStagedTransferLock().unlock();
+        }
+
+        future.get();
+        executorService.shutdown();
+
+        assertThat(refDataStore.getValue(mapDefinition, "key0"))
+                .isPresent();
+        assertThat(refDataLoadTracker.getStagingCount())
+                .isZero();
+        assertThat(refDataLoadTracker.getAwaitingTransferCount())
+                .isZero();
+        assertThat(refDataLoadTracker.getTransferringCount())
+                .isZero();
+    }
+
 
     @Test
     void testDoWithRefStreamDefinitionLock() {
@@ -39,6 +39,7 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
     private final StroomDuration minTimeToKeepSnapshots;
     private final StroomDuration minTimeToKeepSnapshotEnv;
     private final StroomDuration snapshotRetryFetchInterval;
+    private final StroomDuration readTxnReuseMaxAge;
 
     public PlanBConfig() {
         this("planb");
@@ -54,7 +55,8 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                 path,
                 StroomDuration.ofMinutes(10),
                 StroomDuration.ofMinutes(20),
-                StroomDuration.ofMinutes(1));
+                StroomDuration.ofMinutes(1),
+                null);
     }
 
     @SuppressWarnings("unused")
@@ -64,13 +66,15 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                        @JsonProperty("path") final String path,
                        @JsonProperty("minTimeToKeepSnapshots") final StroomDuration minTimeToKeepSnapshots,
                        @JsonProperty("minTimeToKeepSnapshotEnv") final StroomDuration minTimeToKeepSnapshotEnv,
-                       @JsonProperty("snapshotRetryFetchInterval") final StroomDuration snapshotRetryFetchInterval) {
+                       @JsonProperty("snapshotRetryFetchInterval") final StroomDuration snapshotRetryFetchInterval,
+                       @JsonProperty("readTxnReuseMaxAge") final StroomDuration readTxnReuseMaxAge) {
         this.stateDocCache = stateDocCache;
         this.nodeList = nodeList;
         this.path = path;
         this.minTimeToKeepSnapshots = minTimeToKeepSnapshots;
         this.minTimeToKeepSnapshotEnv = minTimeToKeepSnapshotEnv;
         this.snapshotRetryFetchInterval = snapshotRetryFetchInterval;
+        this.readTxnReuseMaxAge = readTxnReuseMaxAge;
     }
 
     @JsonProperty
@@ -112,6 +116,18 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
         return snapshotRetryFetchInterval;
     }
 
+    @JsonProperty
+    @JsonPropertyDescription("If set, each thread reading from a shard or snapshot will keep hold of its own " +
+                             "read transaction and re-use it rather than opening a new transaction for each " +
+                             "read. A thread's transaction will be renewed if a write has happened since it " +
+                             "was last renewed or if it is older than this duration. The transactions of " +
+                             "threads that are not reading are reset whenever a write is committed. If not " +
+                             "set, a new transaction is used for each read. Only applies to shards opened " +
+                             "after it is set.")
+    public StroomDuration getReadTxnReuseMaxAge() {
+        return readTxnReuseMaxAge;
+    }
+
     @Override
     public String toString() {
         return "PlanBConfig{" +
@@ -121,6 +137,7 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                ", minTimeToKeepSnapshots=" + minTimeToKeepSnapshots +
                ", minTimeToKeepSnapshotEnv=" + minTimeToKeepSnapshotEnv +
                ", snapshotRetryFetchInterval=" + snapshotRetryFetchInterval +
+               ", readTxnReuseMaxAge=" + readTxnReuseMaxAge +
                '}';
     }
 
@@ -138,7 +155,8 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                Objects.equals(path, that.path) &&
                Objects.equals(minTimeToKeepSnapshots, that.minTimeToKeepSnapshots) &&
                Objects.equals(minTimeToKeepSnapshotEnv, that.minTimeToKeepSnapshotEnv) &&
-               Objects.equals(snapshotRetryFetchInterval, that.snapshotRetryFetchInterval);
+               Objects.equals(snapshotRetryFetchInterval, that.snapshotRetryFetchInterval) &&
+               Objects.equals(readTxnReuseMaxAge, that.readTxnReuseMaxAge);
     }
 
     @Override
@@ -149,7 +167,8 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                 path,
                 minTimeToKeepSnapshots,
                 minTimeToKeepSnapshotEnv,
-                snapshotRetryFetchInterval);
+                snapshotRetryFetchInterval,
+                readTxnReuseMaxAge);
     }
 
     public static Builder builder() {
@@ -168,6 +187,7 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
         private StroomDuration minTimeToKeepSnapshots;
         private StroomDuration minTimeToKeepSnapshotEnv;
         private StroomDuration snapshotRetryFetchInterval;
+        private StroomDuration readTxnReuseMaxAge;
 
         public Builder() {
             // Set defaults
@@ -190,6 +210,7 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
             this.minTimeToKeepSnapshots = config.minTimeToKeepSnapshots;
             this.minTimeToKeepSnapshotEnv = config.minTimeToKeepSnapshotEnv;
             this.snapshotRetryFetchInterval = config.snapshotRetryFetchInterval;
+            this.readTxnReuseMaxAge = config.readTxnReuseMaxAge;
         }
 
         public Builder stateDocCache(final CacheConfig stateDocCache) {
@@ -222,6 +243,11 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
             return this;
         }
 
+        public Builder readTxnReuseMaxAge(final StroomDuration readTxnReuseMaxAge) {
+            this.readTxnReuseMaxAge = readTxnReuseMaxAge;
+            return this;
+        }
+
         public PlanBConfig build() {
             return new PlanBConfig(
                     stateDocCache,
@@ -229,7 +255,8 @@ public class PlanBConfig extends AbstractConfig implements IsStroomConfig {
                     path,
                     minTimeToKeepSnapshots,
                     minTimeToKeepSnapshotEnv,
-                    snapshotRetryFetchInterval);
+                    snapshotRetryFetchInterval,
+                    readTxnReuseMaxAge);
         }
     }
 }
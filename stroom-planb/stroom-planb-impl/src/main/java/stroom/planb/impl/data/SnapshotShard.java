@@ -30,6 +30,7 @@ import stroom.util.io.FileUtil;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.NullSafe;
+import stroom.util.time.StroomDuration;
 
 import jakarta.inject.Provider;
 
@@ -352,6 +353,10 @@ class SnapshotShard implements Shard {
                 final String mapName = doc.getName();
                 LOGGER.debug("Opening local snapshot for '{}'", mapName);
                 db = dbFactory.open(doc, dbDir, byteBuffers, byteBufferFactory, true);
+                final StroomDuration readTxnReuseMaxAge = configProvider.get().getReadTxnReuseMaxAge();
+                if (readTxnReuseMaxAge != null) {
+                    db.enableReadTxnReuse(readTxnReuseMaxAge.getDuration());
+                }
 
             } catch (final Exception e) {
                 LOGGER.debug(e::getMessage, e);
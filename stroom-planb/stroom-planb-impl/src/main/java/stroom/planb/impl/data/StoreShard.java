@@ -440,6 +440,10 @@ class StoreShard implements Shard {
             if (Files.exists(shardDir)) {
                 LOGGER.info(() -> "Found local shard for '" + doc.asDocRef() + "'");
                 db = PlanBDb.open(doc, shardDir, byteBuffers, byteBufferFactory, false);
+                final StroomDuration readTxnReuseMaxAge = configProvider.get().getReadTxnReuseMaxAge();
+                if (readTxnReuseMaxAge != null) {
+                    db.enableReadTxnReuse(readTxnReuseMaxAge.getDuration());
+                }
 
             } else {
                 // If this node is supposed to be a node that stores shards, but it doesn't have it, then error.
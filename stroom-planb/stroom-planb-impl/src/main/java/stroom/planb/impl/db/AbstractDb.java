@@ -38,6 +38,7 @@ import org.lmdbjava.Txn;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -277,6 +278,11 @@ public abstract class AbstractDb<K, V> implements Db<K, V> {
         env.lock(runnable);
     }
 
+    @Override
+    public void enableReadTxnReuse(final Duration maxAge) {
+        env.enableReadTxnReuse(maxAge);
+    }
+
     @Override
     public void close() {
         env.close();
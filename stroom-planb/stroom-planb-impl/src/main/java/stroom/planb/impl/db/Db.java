@@ -24,6 +24,7 @@ import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.ValuesConsumer;
 
 import java.nio.file.Path;
+import java.time.Duration;
 import java.time.Instant;
 import java.util.function.Consumer;
 
@@ -57,6 +58,15 @@ public interface Db<K, V> extends AutoCloseable {
 
     void lock(Runnable runnable);
 
+    /**
+     * Make reads from this db re-use a read txn per thread. Must be called before the db is
+     * used by other threads.
+     *
+     * @param maxAge The max age of the snapshot a thread's read txn can see.
+     */
+    default void enableReadTxnReuse(final Duration maxAge) {
+    }
+
     void close();
 
     long count();
@@ -29,17 +29,20 @@ public class LmdbWriter implements AutoCloseable {
     private final ReentrantLock dbCommitLock;
     private final Consumer<Txn<ByteBuffer>> commitListener;
     private final ReentrantLock writeTxnLock;
+    private final Runnable afterCommit;
     private Txn<ByteBuffer> writeTxn;
     private int changeCount = 0;
 
     public LmdbWriter(final Env<ByteBuffer> env,
                       final ReentrantLock dbCommitLock,
                       final Consumer<Txn<ByteBuffer>> commitListener,
-                      final ReentrantLock writeTxnLock) {
+                      final ReentrantLock writeTxnLock,
+                      final Runnable afterCommit) {
         this.env = env;
         this.dbCommitLock = dbCommitLock;
         this.commitListener = commitListener;
         this.writeTxnLock = writeTxnLock;
+        this.afterCommit = afterCommit;
 
         // We are only allowed a single write txn and we can only write with a single thread so ensure this is the
         // case.
@@ -75,6 +78,7 @@ public class LmdbWriter implements AutoCloseable {
                 try {
                     commitListener.accept(writeTxn);
                     writeTxn.commit();
+                    afterCommit.run();
                 } finally {
                     try {
                         writeTxn.close();
@@ -17,6 +17,7 @@
 package stroom.planb.impl.db;
 
 import stroom.lmdb.LmdbConfig;
+import stroom.lmdb.ReusableReadTxns;
 import stroom.lmdb2.LmdbEnvDir;
 import stroom.util.concurrent.UncheckedInterruptedException;
 import stroom.util.logging.LambdaLogger;
@@ -35,6 +36,7 @@ import java.io.File;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.time.Duration;
 import java.util.List;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.locks.ReentrantLock;
@@ -53,6 +55,8 @@ public class PlanBEnv implements AutoCloseable {
     private final ReentrantLock dbCommitLock = new ReentrantLock();
     private final boolean readOnly;
     private final HashClashCommitRunnable commitRunnable;
+    // Null unless read txns are to be re-used. Volatile as it is set after construction.
+    private volatile ReusableReadTxns reusableReadTxns;
 
     public PlanBEnv(final Path path,
                     final Long mapSize,
@@ -88,12 +92,31 @@ public class PlanBEnv implements AutoCloseable {
         }
     }
 
+    /**
+     * Make each thread re-use its read txn for calls to {@link PlanBEnv#read(Function)} rather than
+     * opening a new txn for each read, see {@link ReusableReadTxns}.
+     * Must be called before the env is used by other threads.
+     *
+     * @param maxAge The max age of the snapshot a thread's read txn can see.
+     */
+    public synchronized void enableReadTxnReuse(final Duration maxAge) {
+        if (reusableReadTxns == null) {
+            LOGGER.debug(() -> "Enabling read txn re-use with maxAge: " + maxAge);
+            // Only let half the readers hold on to a txn so there are always permits for the rest
+            reusableReadTxns = new ReusableReadTxns(
+                    env,
+                    concurrentReaderSemaphore,
+                    CONCURRENT_READERS / 2,
+                    maxAge);
+        }
+    }
+
     public Dbi<ByteBuffer> openDbi(final String name, final DbiFlags... flags) {
         return env.openDbi(name.getBytes(StandardCharsets.UTF_8), flags);
     }
 
     public final LmdbWriter createWriter() {
-        return new LmdbWriter(env, dbCommitLock, commitRunnable, writeTxnLock);
+        return new LmdbWriter(env, dbCommitLock, commitRunnable, writeTxnLock, this::onCommit);
     }
 
     public final <T> T write(final Function<LmdbWriter, T> function) {
@@ -126,6 +149,15 @@ public class PlanBEnv implements AutoCloseable {
     }
 
     public final <R> R read(final Function<Txn<ByteBuffer>, R> function) {
+        final ReusableReadTxns reusableReadTxns = this.reusableReadTxns;
+        if (reusableReadTxns != null) {
+            return reusableReadTxns.getWithReadTxn(function, () -> readWithNewTxn(function));
+        } else {
+            return readWithNewTxn(function);
+        }
+    }
+
+    private <R> R readWithNewTxn(final Function<Txn<ByteBuffer>, R> function) {
         try {
             concurrentReaderSemaphore.acquire();
             try {
@@ -142,6 +174,13 @@ public class PlanBEnv implements AutoCloseable {
         }
     }
 
+    private void onCommit() {
+        final ReusableReadTxns reusableReadTxns = this.reusableReadTxns;
+        if (reusableReadTxns != null) {
+            reusableReadTxns.onCommit();
+        }
+    }
+
     public void copy(final File dest, final CopyFlags... flags) {
         env.copy(dest, flags);
     }
@@ -152,6 +191,10 @@ public class PlanBEnv implements AutoCloseable {
 
     @Override
     public final void close() {
+        final ReusableReadTxns reusableReadTxns = this.reusableReadTxns;
+        if (reusableReadTxns != null) {
+            reusableReadTxns.close();
+        }
         env.close();
     }
 
@@ -0,0 +1,225 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.processor.impl;
+
+import stroom.expression.matcher.ExpressionMatcher;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.meta.api.MetaCreationListener;
+import stroom.meta.shared.Meta;
+import stroom.meta.shared.MetaAttributeMapUtil;
+import stroom.meta.shared.MetaFields;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorFilterTracker;
+import stroom.processor.shared.ProcessorFilterTrackerStatus;
+import stroom.processor.shared.QueryData;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionUtil;
+import stroom.query.api.datasource.QueryField;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.NullSafe;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Matches newly created meta data in memory against the expressions of all enabled processor filters and
+ * creates tasks for any that match, so that processing can start without waiting for the next run of
+ * {@link ProcessorTaskCreatorImpl}. Anything that can't be matched in memory is left for
+ * {@link ProcessorTaskCreatorImpl} to find when it next queries the database.
+ */
+@Singleton
+public class MetaCreationTaskCreator implements MetaCreationListener {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(MetaCreationTaskCreator.class);
+
+    private static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Create Processor Tasks For New Meta", 3);
+
+    // The fields that MetaAttributeMapUtil can provide for newly created meta data. Filters using any other
+    // fields, e.g. record counts, can only be matched once the data has been written so are left to the poll.
+    private static final Map<String, QueryField> FIELD_MAP = Set.of(
+                    MetaFields.FEED,
+                    MetaFields.PIPELINE,
+                    MetaFields.TYPE,
+                    MetaFields.ID,
+                    MetaFields.PARENT_ID,
+                    MetaFields.CREATE_TIME,
+                    MetaFields.EFFECTIVE_TIME,
+                    MetaFields.STATUS_TIME)
+            .stream()
+            .collect(Collectors.toMap(QueryField::getFldName, field -> field));
+
+    private final Provider<ProcessorConfig> processorConfigProvider;
+    private final PrioritisedFilters prioritisedFilters;
+    private final ProcessorTaskDao processorTaskDao;
+    private final ExecutorProvider executorProvider;
+    private final ExpressionMatcher expressionMatcher;
+    private final Map<Integer, FilterExpression> filterExpressions = new ConcurrentHashMap<>();
+
+    @Inject
+    MetaCreationTaskCreator(final Provider<ProcessorConfig> processorConfigProvider,
+                            final PrioritisedFilters prioritisedFilters,
+                            final ProcessorTaskDao processorTaskDao,
+                            final ExecutorProvider executorProvider,
+                            final ExpressionMatcherFactory expressionMatcherFactory) {
+        this.processorConfigProvider = processorConfigProvider;
+        this.prioritisedFilters = prioritisedFilters;
+        this.processorTaskDao = processorTaskDao;
+        this.executorProvider = executorProvider;
+        this.expressionMatcher = expressionMatcherFactory.create(FIELD_MAP);
+    }
+
+    @Override
+    public void onCreate(final Meta meta) {
+        if (meta != null && processorConfigProvider.get().isCreateTasksOnMetaCreation()) {
+            CompletableFuture
+                    .runAsync(() -> createTasks(meta), executorProvider.get(THREAD_POOL))
+                    .exceptionally(e -> {
+                        LOGGER.error(() -> LogUtil.message("Error creating tasks for new meta {} - {}",
+                                meta.getId(), e.getMessage()), e);
+                        return null;
+                    });
+        }
+    }
+
+    /**
+     * Pkg private for testing
+     *
+     * @return The number of tasks created.
+     */
+    int createTasks(final Meta meta) {
+        final ProcessorConfig processorConfig = processorConfigProvider.get();
+        final List<ProcessorFilter> filters = prioritisedFilters.get();
+        final Map<String, Object> attributeMap = MetaAttributeMapUtil.createAttributeMap(meta);
+
+        int created = 0;
+        for (final ProcessorFilter filter : NullSafe.list(filters)) {
+            try {
+                if (isCandidate(filter, meta, processorConfig)) {
+                    final ExpressionOperator expression = getExpression(filter);
+                    if (expression != null
+                        && expressionMatcher.match(attributeMap, expression)
+                        && processorTaskDao.createTaskForNewMeta(filter, meta)) {
+                        LOGGER.debug(() -> LogUtil.message("createTasks() - Created task for meta {}, filter {}",
+                                meta.getId(), filter.getFilterInfo()));
+                        created++;
+                    }
+                }
+            } catch (final RuntimeException e) {
+                // Leave this filter to the poll.
+                LOGGER.debug(() -> LogUtil.message("createTasks() - Error matching meta {} against filter {} - {}",
+                        meta.getId(), filter.getFilterInfo(), e.getMessage()), e);
+            }
+        }
+        return created;
+    }
+
+    private boolean isCandidate(final ProcessorFilter filter,
+                                final Meta meta,
+                                final ProcessorConfig processorConfig) {
+        if (filter == null
+            || filter.isDeleted()
+            || !filter.isEnabled()
+            || filter.isReprocess()
+            || filter.getProcessor() == null
+            || !filter.getProcessor().isEnabled()
+            || filter.getProcessor().isDeleted()) {
+            return false;
+        }
+
+        // Only plain stream store filters without feed dependencies can be matched immediately.
+        final QueryData queryData = filter.getQueryData();
+        if (queryData == null
+            || queryData.getDataSource() == null
+            || !MetaFields.STREAM_STORE_TYPE.equals(queryData.getDataSource().getType())
+            || queryData.getFeedDependencies() != null) {
+            return false;
+        }
+
+        // Leave any filters with limits on the number of created tasks to the poll which will respect them.
+        if (!processorConfig.isCreateTasksBeyondProcessLimit()
+            && (filter.getProfileName() != null || filter.isProcessingTaskCountBounded())) {
+            return false;
+        }
+
+        final ProcessorFilterTracker tracker = filter.getProcessorFilterTracker();
+        if (tracker == null
+            || ProcessorFilterTrackerStatus.COMPLETE.equals(tracker.getStatus())
+            || ProcessorFilterTrackerStatus.ERROR.equals(tracker.getStatus())
+            || meta.getId() < tracker.getMinMetaId()) {
+            return false;
+        }
+
+        return (filter.getMinMetaCreateTimeMs() == null || meta.getCreateMs() >= filter.getMinMetaCreateTimeMs())
+               && (filter.getMaxMetaCreateTimeMs() == null || meta.getCreateMs() <= filter.getMaxMetaCreateTimeMs());
+    }
+
+    /**
+     * @return The sanitised filter expression or null if the filter can't be matched in memory.
+     */
+    private ExpressionOperator getExpression(final ProcessorFilter filter) {
+        final FilterExpression filterExpression = filterExpressions.compute(filter.getId(), (k, v) -> {
+            if (v != null && Objects.equals(v.version(), filter.getVersion())) {
+                return v;
+            }
+            return new FilterExpression(filter.getVersion(), createExpression(filter));
+        });
+        return filterExpression.expression();
+    }
+
+    private ExpressionOperator createExpression(final ProcessorFilter filter) {
+        final ExpressionOperator expression = filter.getQueryData().getExpression();
+        if (expression == null || ExpressionUtil.termCount(expression) == 0) {
+            // Unconstrained filters are rejected by the poll so don't create tasks for them here.
+            return null;
+        }
+        try {
+            final ExpressionOperator sanitised = ProcessorTaskCreatorImpl.sanitiseAndValidateExpression(expression);
+            if (!FIELD_MAP.keySet().containsAll(ExpressionUtil.fields(sanitised))) {
+                LOGGER.debug(() -> LogUtil.message(
+                        "createExpression() - Filter {} uses fields unknown at meta creation", filter.getId()));
+                return null;
+            }
+            return sanitised;
+        } catch (final RuntimeException e) {
+            LOGGER.debug(() -> LogUtil.message("createExpression() - Invalid expression for filter {} - {}",
+                    filter.getId(), e.getMessage()), e);
+            return null;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record FilterExpression(Integer version, ExpressionOperator expression) {
+
+    }
+}
@@ -38,6 +38,7 @@ import java.time.Instant;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 
 @Singleton
@@ -133,6 +134,29 @@ public class MockProcessorTaskDao implements ProcessorTaskDao, Clearable {
         return metaMap.size();
     }
 
+    @Override
+    public boolean createTaskForNewMeta(final ProcessorFilter filter,
+                                        final Meta meta) {
+        final boolean exists = dao.getMap().values().stream()
+                .anyMatch(task -> Objects.equals(task.getMetaId(), meta.getId())
+                                  && task.getProcessorFilter() != null
+                                  && Objects.equals(task.getProcessorFilter().getId(), filter.getId()));
+        if (exists) {
+            return false;
+        }
+
+        final long now = System.currentTimeMillis();
+        dao.create(ProcessorTask.builder()
+                .version(1)
+                .createTimeMs(now)
+                .status(TaskStatus.CREATED)
+                .startTimeMs(now)
+                .metaId(meta.getId())
+                .processorFilter(filter)
+                .build());
+        return true;
+    }
+
     @Override
     public int countTasksForFilter(final int filterId, final TaskStatus status) {
         return 0;
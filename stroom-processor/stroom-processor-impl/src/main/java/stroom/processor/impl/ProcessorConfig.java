@@ -40,6 +40,7 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
     private static final int DEFAULT_QUEUE_SIZE = 1000;
     private static final int DEFAULT_TASKS_TO_CREATE = 1000;
     private static final boolean DEFAULT_CREATE_TASKS_BEYOND_PROCESS_LIMIT = true;
+    private static final boolean DEFAULT_CREATE_TASKS_ON_META_CREATION = false;
     private static final int DEFAULT_TASK_CREATION_THREAD_COUNT = 5;
     private static final int DEFAULT_DATABASE_MULTI_INSERT_MAX_BATCH_SIZE = 500;
 
@@ -52,6 +53,7 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
 
     private final int tasksToCreate;
     private final boolean createTasksBeyondProcessLimit;
+    private final boolean createTasksOnMetaCreation;
     private final int taskCreationThreadCount;
     private final int databaseMultiInsertMaxBatchSize;
 
@@ -74,6 +76,7 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
         queueSize = DEFAULT_QUEUE_SIZE;
         tasksToCreate = DEFAULT_TASKS_TO_CREATE;
         createTasksBeyondProcessLimit = DEFAULT_CREATE_TASKS_BEYOND_PROCESS_LIMIT;
+        createTasksOnMetaCreation = DEFAULT_CREATE_TASKS_ON_META_CREATION;
         taskCreationThreadCount = DEFAULT_TASK_CREATION_THREAD_COUNT;
         databaseMultiInsertMaxBatchSize = DEFAULT_DATABASE_MULTI_INSERT_MAX_BATCH_SIZE;
 
@@ -113,6 +116,7 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
                            @JsonProperty("queueSize") final Integer queueSize,
                            @JsonProperty("tasksToCreate") final Integer tasksToCreate,
                            @JsonProperty("createTasksBeyondProcessLimit") final Boolean createTasksBeyondProcessLimit,
+                           @JsonProperty("createTasksOnMetaCreation") final Boolean createTasksOnMetaCreation,
                            @JsonProperty("taskCreationThreadCount") final Integer taskCreationThreadCount,
                            @JsonProperty("databaseMultiInsertMaxBatchSize")
                                final Integer databaseMultiInsertMaxBatchSize,
@@ -137,6 +141,8 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
                 Objects.requireNonNullElse(tasksToCreate, DEFAULT_TASKS_TO_CREATE);
         this.createTasksBeyondProcessLimit =
                 Objects.requireNonNullElse(createTasksBeyondProcessLimit, DEFAULT_CREATE_TASKS_BEYOND_PROCESS_LIMIT);
+        this.createTasksOnMetaCreation =
+                Objects.requireNonNullElse(createTasksOnMetaCreation, DEFAULT_CREATE_TASKS_ON_META_CREATION);
         this.taskCreationThreadCount =
                 Objects.requireNonNullElse(taskCreationThreadCount, DEFAULT_TASK_CREATION_THREAD_COUNT);
         this.databaseMultiInsertMaxBatchSize =
@@ -202,6 +208,15 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
         return createTasksBeyondProcessLimit;
     }
 
+    @JsonPropertyDescription("Should new streams be matched against the expressions of enabled processor filters " +
+                             "as they are created so that tasks can be created for them straight away? " +
+                             "The 'Processor Task Creator' job still queries the database to catch up on any " +
+                             "streams that could not be matched this way, e.g. streams created on other nodes " +
+                             "or filters that depend on stream attributes that are only known later.")
+    public boolean isCreateTasksOnMetaCreation() {
+        return createTasksOnMetaCreation;
+    }
+
     @Min(1)
     @JsonPropertyDescription("The number of concurrent threads to use for task creation.")
     public int getTaskCreationThreadCount() {
@@ -265,6 +280,8 @@ public class ProcessorConfig extends AbstractConfig implements IsStroomConfig, H
                ", fillTaskQueue=" + fillTaskQueue +
                ", queueSize=" + queueSize +
                ", tasksToCreate=" + tasksToCreate +
+               ", createTasksBeyondProcessLimit=" + createTasksBeyondProcessLimit +
+               ", createTasksOnMetaCreation=" + createTasksOnMetaCreation +
                ", taskCreationThreadCount=" + taskCreationThreadCount +
                ", databaseMultiInsertMaxBatchSize=" + databaseMultiInsertMaxBatchSize +
                ", processorCache=" + processorCache +
@@ -48,6 +48,9 @@ import stroom.security.shared.AppPermission;
 import stroom.security.shared.DocumentPermission;
 import stroom.security.shared.FindUserContext;
 import stroom.security.user.api.UserRefLookup;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventBus;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
@@ -61,6 +64,7 @@ import stroom.util.shared.UserDependency;
 import stroom.util.shared.UserRef;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import java.util.ArrayList;
@@ -86,6 +90,7 @@ class ProcessorFilterServiceImpl implements ProcessorFilterService, HasUserDepen
     private final SecurityContext securityContext;
     private final DocFinder docFinder;
     private final UserRefLookup userRefLookup;
+    private final Provider<EntityEventBus> entityEventBusProvider;
 
     @Inject
     ProcessorFilterServiceImpl(final ProcessorService processorService,
@@ -94,7 +99,8 @@ class ProcessorFilterServiceImpl implements ProcessorFilterService, HasUserDepen
                                final MetaService metaService,
                                final SecurityContext securityContext,
                                final DocFinder docFinder,
-                               final UserRefLookup userRefLookup) {
+                               final UserRefLookup userRefLookup,
+                               final Provider<EntityEventBus> entityEventBusProvider) {
         this.processorService = processorService;
         this.processorFilterDao = processorFilterDao;
         this.processorTaskDao = processorTaskDao;
@@ -102,6 +108,7 @@ class ProcessorFilterServiceImpl implements ProcessorFilterService, HasUserDepen
         this.securityContext = securityContext;
         this.docFinder = docFinder;
         this.userRefLookup = userRefLookup;
+        this.entityEventBusProvider = entityEventBusProvider;
     }
 
     @Override
@@ -243,6 +250,7 @@ class ProcessorFilterServiceImpl implements ProcessorFilterService, HasUserDepen
         final ProcessorFilter updated = ensureRunAs(processorFilter);
         final ProcessorFilter createdFilter = securityContext.secureResult(PERMISSION, () ->
                 processorFilterDao.create(ensureValid(updated)));
+        fireChange(createdFilter, EntityAction.CREATE);
         return createdFilter.copy().processor(updated.getProcessor()).build();
     }
 
@@ -279,10 +287,25 @@ class ProcessorFilterServiceImpl implements ProcessorFilterService, HasUserDepen
 
             updated = ensureRunAs(updated);
             updated = updated.copy().stampAudit(securityContext).build();
-            return processorFilterDao.update(updated);
+            final ProcessorFilter result = processorFilterDao.update(updated);
+            fireChange(result, EntityAction.UPDATE);
+            return result;
         });
     }
 
+    private void fireChange(final ProcessorFilter processorFilter, final EntityAction action) {
+        if (entityEventBusProvider != null && processorFilter != null && processorFilter.getUuid() != null) {
+            try {
+                final EntityEventBus entityEventBus = entityEventBusProvider.get();
+                if (entityEventBus != null) {
+                    entityEventBus.fire(new EntityEvent(processorFilter.asDocRef(), action));
+                }
+            } catch (final RuntimeException e) {
+                LOGGER.error(e::getMessage, e);
+            }
+        }
+    }
+
     @Override
     public boolean delete(final int id) {
         return securityContext.secureResult(PERMISSION, () -> {
@@ -22,6 +22,7 @@ import stroom.importexport.api.ImportExportActionHandler;
 import stroom.job.api.DistributedTaskFactory;
 import stroom.job.api.ScheduledJobsBinder;
 import stroom.lifecycle.api.LifecycleBinder;
+import stroom.meta.api.MetaCreationListener;
 import stroom.processor.api.ProcessorFilterService;
 import stroom.processor.api.ProcessorService;
 import stroom.processor.api.ProcessorTaskService;
@@ -76,6 +77,9 @@ public class ProcessorModule extends AbstractModule {
         GuiceUtil.buildMultiBinder(binder(), DataSourceProvider.class)
                 .addBinding(ProcessorTaskServiceImpl.class);
 
+        GuiceUtil.buildMultiBinder(binder(), MetaCreationListener.class)
+                .addBinding(MetaCreationTaskCreator.class);
+
         GuiceUtil.buildMapBinder(binder(), Searchable.class)
                 .addBinding(ProcessorTaskServiceImpl.class);
 
@@ -96,6 +96,19 @@ public interface ProcessorTaskDao {
                        Long maxMetaId,
                        boolean reachedLimit);
 
+    /**
+     * Create a task for newly created meta data that has already been matched against the filter expression.
+     * The filter tracker is not moved on so the regular task creation poll will still pass over this meta data,
+     * skipping it as it already has a task, and record progress in the tracker.
+     *
+     * @param filter The filter to create a task for.
+     * @param meta   The newly created meta data.
+     * @return True if a task was created, false if the tracker has already passed the meta data or a task
+     * already exists for it.
+     */
+    boolean createTaskForNewMeta(ProcessorFilter filter,
+                                 Meta meta);
+
     /**
      * Change the node ownership of the tasks in the id set and select them back to include in the queue.
      *
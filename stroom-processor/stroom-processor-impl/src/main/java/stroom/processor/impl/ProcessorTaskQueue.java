@@ -19,22 +19,38 @@ package stroom.processor.impl;
 import stroom.processor.shared.ProcessorTask;
 
 import java.util.Collection;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * A lock free queue of tasks for a single filter. Many nodes can be polling the queue for tasks at
+ * the same time as it is being refilled so the size is tracked separately as
+ * {@link ConcurrentLinkedQueue#size()} has to traverse the whole queue.
+ */
 public class ProcessorTaskQueue {
 
-    private final LinkedBlockingQueue<ProcessorTask> queue = new LinkedBlockingQueue<>();
+    private final ConcurrentLinkedQueue<ProcessorTask> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
 
     public ProcessorTask poll() {
-        return queue.poll();
+        final ProcessorTask processorTask = queue.poll();
+        if (processorTask != null) {
+            size.decrementAndGet();
+        }
+        return processorTask;
     }
 
     public boolean addAll(final Collection<? extends ProcessorTask> streamTasks) {
-        return queue.addAll(streamTasks);
+        final boolean changed = queue.addAll(streamTasks);
+        if (changed) {
+            size.addAndGet(streamTasks.size());
+        }
+        return changed;
     }
 
     public int size() {
-        return queue.size();
+        // The count may briefly go negative if a task is polled before the add has been counted.
+        return Math.max(0, size.get());
     }
 
     public boolean hasItems() {
@@ -44,11 +44,13 @@ import stroom.util.logging.DurationTimer;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.logging.LogUtil;
+import stroom.util.metrics.Metrics;
 import stroom.util.shared.NullSafe;
 import stroom.util.shared.PermissionException;
 import stroom.util.sysinfo.HasSystemInfo;
 import stroom.util.sysinfo.SystemInfoResult;
 
+import com.codahale.metrics.Timer;
 import jakarta.inject.Inject;
 import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
@@ -66,9 +68,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
@@ -102,8 +107,13 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
      * Our queue.
      */
     private final ConcurrentHashMap<ProcessorFilter, ProcessorTaskQueue> queueMap = new ConcurrentHashMap<>();
-    private final AtomicBoolean fillingQueue = new AtomicBoolean();
     private final AtomicBoolean needToFillQueue = new AtomicBoolean();
+    /**
+     * The most recently started queue fill. Assignments that find the queue empty wait for this
+     * rather than each filling the queue themselves. A new fill can only be started by swapping
+     * out a finished one so there is only ever one fill running.
+     */
+    private final AtomicReference<QueueFill> currentFill = new AtomicReference<>(QueueFill.finished());
     private volatile int lastQueueSizeForStats = -1;
 
     /**
@@ -115,6 +125,9 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
     private final Map<String, Instant> lastNodeContactTime = new ConcurrentHashMap<>();
     private Instant lastDisownedTasks = Instant.now();
 
+    private final Timer assignTasksTimer;
+    private final Timer fillWaitTimer;
+
     @Inject
     ProcessorTaskQueueManagerImpl(final ProcessorTaskDao processorTaskDao,
                                   final ExecutorProvider executorProvider,
@@ -126,7 +139,8 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                                   final SecurityContext securityContext,
                                   final TargetNodeSetFactory targetNodeSetFactory,
                                   final PrioritisedFilters prioritisedFilters,
-                                  final ProcessorProfileCache processorProfileCache) {
+                                  final ProcessorProfileCache processorProfileCache,
+                                  final Metrics metrics) {
         this.taskContextFactory = taskContextFactory;
         this.nodeInfo = nodeInfo;
         this.processorTaskDao = processorTaskDao;
@@ -139,6 +153,15 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
         this.processorProfileCache = processorProfileCache;
 
         executor = executorProvider.get(THREAD_POOL);
+
+        assignTasksTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("assignTasks")
+                .timer()
+                .createAndRegister();
+        fillWaitTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("fillWait")
+                .timer()
+                .createAndRegister();
     }
 
     @Override
@@ -196,7 +219,7 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                     }
                     return null;
                 });
-        return runnable.get();
+        return assignTasksTimer.timeSupplier(runnable);
     }
 
 
@@ -363,20 +386,24 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                              + " tasks (" + count + " requested) to node " + nodeName);
             }
 
-            // If we don't get any tasks then force synchronous queueing of tasks.
+            // If we don't get any tasks then wait for the queue to be filled.
             if (allowTaskQueueFill) {
                 if (assignedStreamTasks.isEmpty()) {
                     info(taskContext, () -> "Assigned " +
                                             assignedStreamTasks.size() +
-                                            " tasks, filling queue synchronously");
+                                            " tasks, waiting for queue fill");
                     // Only want to see an empty progress report on the first attempt
-                    fillTaskQueueSync(attempt.get() <= 1); // Has already been incremented
+                    final int added = awaitFill(fillTaskQueueAsync(attempt.get() <= 1)); // Already incremented
+                    if (added == 0) {
+                        // Nothing more to be had so don't keep trying.
+                        attempt.set(MAX_ASSIGNMENT_ATTEMPTS);
+                    }
                 } else {
                     // Kick off a queue fill.
                     info(taskContext, () -> "Assigned " +
                                             assignedStreamTasks.size() +
                                             " tasks, filling queue asynchronously");
-                    fillTaskQueueAsync();
+                    fillTaskQueueAsync(true);
                     attempt.set(MAX_ASSIGNMENT_ATTEMPTS);
                 }
             } else {
@@ -387,63 +414,97 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
         return new ProcessorTaskList(nodeName, assignedStreamTasks);
     }
 
-    private void fillTaskQueueSync(final boolean isEmptyReportRequired) {
-        if (allowTaskQueueFill) {
-            try {
-                LOGGER.debug("fillTaskQueueAsync() - Executing fillTaskQueue, isEmptyReportRequired: {}",
-                        isEmptyReportRequired);
-                securityContext.asProcessingUser(() ->
-                        taskContextFactory.context(
-                                "Fill task queue",
-                                taskContext -> queueNewTasks(taskContext, isEmptyReportRequired)).run());
-
-            } catch (final RuntimeException e) {
-                fillingQueue.set(false);
-                LOGGER.error(e::getMessage, e);
-            }
+    /**
+     * Wait for a queue fill to complete. The assigning threads for many nodes may be waiting on the
+     * same fill, but none of them hold a lock so nodes that find tasks are never held up.
+     *
+     * @return The number of tasks added by the fill.
+     */
+    private int awaitFill(final CompletableFuture<Integer> fill) {
+        final long startTime = System.nanoTime();
+        try {
+            return fill.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return 0;
+        } catch (final ExecutionException e) {
+            LOGGER.error(e::getMessage, e);
+            return 0;
+        } finally {
+            fillWaitTimer.update(System.nanoTime() - startTime, TimeUnit.NANOSECONDS);
         }
     }
 
-    private void fillTaskQueueAsync() {
-        if (allowTaskQueueFill) {
-            if (fillingQueue.compareAndSet(false, true)) {
-                try {
-                    needToFillQueue.set(false);
-
-                    LOGGER.debug("fillTaskQueueAsync() - Executing fillTaskQueue");
-                    securityContext.asProcessingUser(() ->
-                            CompletableFuture
-                                    .supplyAsync(taskContextFactory.contextResult(
-                                                    "Fill task queue",
-                                                    this::queueNewTasks),
-                                            executor)
-                                    .whenComplete((result, error) -> {
-                                        try {
-                                            if (error != null) {
-                                                LOGGER.error("Error filling task queue:" + error.getMessage(), error);
-                                            }
-
-                                            if (allowTaskQueueFill && (error != null || result == 0)) {
-                                                ThreadUtil.sleep(processorConfigProvider.get()
-                                                        .getWaitToQueueTasksDuration().toMillis());
-                                            }
-                                        } finally {
-                                            fillingQueue.set(false);
-                                        }
-
-                                        // See if we are required to fill again.
-                                        if (needToFillQueue.get()) {
-                                            fillTaskQueueAsync();
-                                        }
-                                    }));
-                } catch (final RuntimeException e) {
-                    fillingQueue.set(false);
-                    LOGGER.error(e::getMessage, e);
+    /**
+     * Start filling the task queue unless a fill is already running, in which case another fill will
+     * be started when the current one completes.
+     *
+     * @return A future for the number of tasks added by the fill that was started or is running.
+     */
+    private CompletableFuture<Integer> fillTaskQueueAsync(final boolean isEmptyReportRequired) {
+        while (allowTaskQueueFill) {
+            final QueueFill current = currentFill.get();
+            if (!current.isFinished()) {
+                needToFillQueue.set(true);
+                // If the fill finished before it could see our request then go round again.
+                if (!current.isFinished()) {
+                    return current.result();
                 }
             } else {
-                needToFillQueue.set(true);
+                final QueueFill fill = new QueueFill(new CompletableFuture<>(), new CompletableFuture<>());
+                // Publish the fill before starting it so anyone that sees it running can wait for it.
+                if (currentFill.compareAndSet(current, fill)) {
+                    startFill(fill, isEmptyReportRequired);
+                    return fill.result();
+                }
             }
         }
+        return CompletableFuture.completedFuture(0);
+    }
+
+    private void startFill(final QueueFill fill, final boolean isEmptyReportRequired) {
+        try {
+            needToFillQueue.set(false);
+
+            LOGGER.debug("fillTaskQueueAsync() - Executing fillTaskQueue, isEmptyReportRequired: {}",
+                    isEmptyReportRequired);
+            securityContext.asProcessingUser(() ->
+                    CompletableFuture
+                            .supplyAsync(taskContextFactory.contextResult(
+                                            "Fill task queue",
+                                            taskContext -> queueNewTasks(taskContext,
+                                                    isEmptyReportRequired)),
+                                    executor)
+                            .whenComplete((result, error) -> {
+                                try {
+                                    if (error != null) {
+                                        LOGGER.error("Error filling task queue:" + error.getMessage(), error);
+                                    }
+                                    final int added = error != null || result == null
+                                            ? 0
+                                            : result;
+
+                                    // Let anything waiting on this fill have the new tasks before we
+                                    // back off.
+                                    fill.result().complete(added);
+
+                                    if (allowTaskQueueFill && added == 0) {
+                                        ThreadUtil.sleep(processorConfigProvider.get()
+                                                .getWaitToQueueTasksDuration().toMillis());
+                                    }
+                                } finally {
+                                    fill.finish();
+                                }
+
+                                // See if we are required to fill again.
+                                if (needToFillQueue.get()) {
+                                    fillTaskQueueAsync(true);
+                                }
+                            }));
+        } catch (final RuntimeException e) {
+            fill.finish();
+            LOGGER.error(e::getMessage, e);
+        }
     }
 
     @Override
@@ -594,16 +655,20 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
         }
     }
 
-    public synchronized void releaseOldQueuedTasks() {
+    public void releaseOldQueuedTasks() {
         LOGGER.trace(() -> "releaseOldQueuedTasks()");
         if (!queueMap.isEmpty()) {
             try {
                 final String node = nodeInfo.getThisNodeName();
                 final String masterNode = targetNodeSetFactory.getMasterNode();
                 if (node != null && !node.equals(masterNode)) {
-                    // This is no longer the master node so release all tasks.
+                    // This is no longer the master node so release all tasks. Only lock once we know we
+                    // have to release as the lock stops a fill adding tasks while we release them.
                     final DurationTimer durationTimer = DurationTimer.start();
-                    final long count = releaseAll();
+                    final long count;
+                    synchronized (this) {
+                        count = releaseAll();
+                    }
                     if (count > 0) {
                         LOGGER.info(() ->
                                 "Released All Queued Tasks (count = " +
@@ -919,5 +984,33 @@ class ProcessorTaskQueueManagerImpl implements ProcessorTaskQueueManager, HasSys
                 .addDetail("overallQueueSize", getTaskQueueSize())
                 .build();
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param result   Completed with the number of tasks added as soon as the fill has queued them.
+     * @param finished Completed once the fill, including any back off, is over and another fill
+     *                 can start.
+     */
+    private record QueueFill(CompletableFuture<Integer> result,
+                             CompletableFuture<Void> finished) {
+
+        static QueueFill finished() {
+            return new QueueFill(
+                    CompletableFuture.completedFuture(0),
+                    CompletableFuture.completedFuture(null));
+        }
+
+        boolean isFinished() {
+            return finished.isDone();
+        }
+
+        void finish() {
+            result.complete(0);
+            finished.complete(null);
+        }
+    }
 }
 
@@ -435,26 +435,47 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
                 allBindValues[rowCount++] = bindValues;
             }
 
+            creationState.metaCount = rowCount;
+
             // Do everything within a single transaction.
             JooqUtil.transaction(processorDbConnProvider, context -> {
-                if (allBindValues.length > 0) {
+                Object[][] newBindValues = allBindValues;
+                if (processorConfig.isCreateTasksOnMetaCreation() && allBindValues.length > 0) {
+                    // Tasks may already have been created for some of this meta as it was created, so lock the
+                    // tracker to stop any more being created and skip those that already have a task.
+                    lockTracker(context, tracker.getId());
+                    final Set<Long> existingMetaIds = findExistingTaskMetaIds(
+                            context,
+                            filter.getId(),
+                            streams.keySet().stream().map(Meta::getId).toList());
+                    if (!existingMetaIds.isEmpty()) {
+                        LOGGER.debug(() -> LogUtil.message("createNewTasks() - {} tasks already exist for filter {}",
+                                existingMetaIds.size(), filter.getId()));
+                        newBindValues = Arrays.stream(allBindValues)
+                                .filter(bindValues -> !existingMetaIds.contains((Long) bindValues[5]))
+                                .toArray(Object[][]::new);
+                    }
+                }
+
+                if (newBindValues.length > 0) {
 
                     // Insert tasks.
                     final DurationTimer durationTimer = DurationTimer.start();
                     try {
-                        insertTasks(context, allBindValues);
-                        creationState.totalTasksCreated = allBindValues.length;
+                        insertTasks(context, newBindValues);
+                        creationState.totalTasksCreated = newBindValues.length;
                     } catch (final RuntimeException e) {
                         LOGGER.error(e::getMessage, e);
                         throw e;
                     }
-                    filterProgressMonitor.logPhase(Phase.INSERT_NEW_TASKS, durationTimer, allBindValues.length);
+                    filterProgressMonitor.logPhase(Phase.INSERT_NEW_TASKS, durationTimer, newBindValues.length);
                 }
 
                 // Update tracker.
                 final DurationTimer durationTimer = DurationTimer.start();
-                // Anything created?
-                if (creationState.totalTasksCreated > 0) {
+                // Anything created? Tasks that were created as the meta was created count towards this poll as
+                // the tracker has not yet passed them.
+                if (creationState.metaCount > 0) {
                     log(creationState, creationState.streamIdRange);
 
                     // If we have never created tasks before or the last poll gave
@@ -495,11 +516,11 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
                 }
 
                 if (tracker.getMetaCount() != null) {
-                    if (creationState.totalTasksCreated > 0) {
-                        tracker.setMetaCount(tracker.getMetaCount() + creationState.totalTasksCreated);
+                    if (creationState.metaCount > 0) {
+                        tracker.setMetaCount(tracker.getMetaCount() + creationState.metaCount);
                     }
                 } else {
-                    tracker.setMetaCount((long) creationState.totalTasksCreated);
+                    tracker.setMetaCount((long) creationState.metaCount);
                 }
                 if (creationState.eventCount > 0) {
                     if (tracker.getEventCount() != null) {
@@ -510,7 +531,7 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
                 }
 
                 tracker.setLastPollMs(statusTimeMs);
-                tracker.setLastPollTaskCount(creationState.totalTasksCreated);
+                tracker.setLastPollTaskCount(creationState.metaCount);
                 tracker.setStatus(ProcessorFilterTrackerStatus.CREATED);
 
                 // If the filter has a max meta creation time then let the tracker know.
@@ -688,6 +709,74 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
                 msgSupplier);
     }
 
+    @Override
+    public boolean createTaskForNewMeta(final ProcessorFilter filter,
+                                        final Meta meta) {
+        final long statusTimeMs = System.currentTimeMillis();
+        final Integer feedId = processorFeedCache.getOrCreate(meta.getFeedName());
+        final Integer trackerId = NullSafe.get(filter.getProcessorFilterTracker(), ProcessorFilterTracker::getId);
+        if (trackerId == null) {
+            return false;
+        }
+
+        return JooqUtil.transactionResult(processorDbConnProvider, context -> {
+            // Lock the tracker so that we can't race with the task creation poll for this filter.
+            final Record2<Long, Byte> trackerRecord = lockTracker(context, trackerId);
+            if (trackerRecord == null) {
+                return false;
+            }
+
+            // If the tracker has already passed this meta then the poll has dealt with it.
+            final long minMetaId = Objects.requireNonNullElse(trackerRecord.value1(), 0L);
+            final ProcessorFilterTrackerStatus status = ProcessorFilterTrackerStatus.PRIMITIVE_VALUE_CONVERTER
+                    .fromPrimitiveValue(trackerRecord.value2());
+            if (meta.getId() < minMetaId
+                || ProcessorFilterTrackerStatus.COMPLETE.equals(status)
+                || ProcessorFilterTrackerStatus.ERROR.equals(status)) {
+                return false;
+            }
+
+            if (!findExistingTaskMetaIds(context, filter.getId(), List.of(meta.getId())).isEmpty()) {
+                return false;
+            }
+
+            final Object[] bindValues = new Object[PROCESSOR_TASK_COLUMNS.length];
+            bindValues[0] = 1; //version
+            bindValues[1] = statusTimeMs; //create_ms
+            bindValues[2] = TaskStatus.CREATED.getPrimitiveValue(); //stat
+            bindValues[3] = statusTimeMs; //stat_ms
+            bindValues[4] = feedId;
+            bindValues[5] = meta.getId(); //fk_strm_id
+            bindValues[7] = filter.getId(); //fk_strm_proc_filt_id
+            insertTasks(context, new Object[][]{bindValues});
+
+            LOGGER.debug(() -> LogUtil.message("createTaskForNewMeta() - Created task for meta {} and filter {}",
+                    meta.getId(), filter.getId()));
+            return true;
+        });
+    }
+
+    private Record2<Long, Byte> lockTracker(final DSLContext context,
+                                            final int trackerId) {
+        return context
+                .select(PROCESSOR_FILTER_TRACKER.MIN_META_ID, PROCESSOR_FILTER_TRACKER.STATUS)
+                .from(PROCESSOR_FILTER_TRACKER)
+                .where(PROCESSOR_FILTER_TRACKER.ID.eq(trackerId))
+                .forUpdate()
+                .fetchOne();
+    }
+
+    private Set<Long> findExistingTaskMetaIds(final DSLContext context,
+                                              final int filterId,
+                                              final Collection<Long> metaIds) {
+        return context
+                .select(PROCESSOR_TASK.META_ID)
+                .from(PROCESSOR_TASK)
+                .where(PROCESSOR_TASK.FK_PROCESSOR_FILTER_ID.eq(filterId))
+                .and(PROCESSOR_TASK.META_ID.in(metaIds))
+                .fetchSet(PROCESSOR_TASK.META_ID);
+    }
+
     private void insertTasks(final DSLContext context,
                              final Object[][] allBindValues) {
         BatchBindStep batchBindStep = null;
@@ -1394,6 +1483,7 @@ class ProcessorTaskDaoImpl implements ProcessorTaskDao {
         InclusiveRange streamMsRange;
         InclusiveRange eventIdRange;
         int totalTasksCreated;
+        int metaCount;
         long eventCount;
     }
 }
@@ -0,0 +1,171 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.processor.impl;
+
+import stroom.expression.matcher.ExpressionMatcher;
+import stroom.expression.matcher.ExpressionMatcherFactory;
+import stroom.meta.shared.Meta;
+import stroom.meta.shared.MetaFields;
+import stroom.meta.shared.Status;
+import stroom.processor.shared.Processor;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorFilterTracker;
+import stroom.processor.shared.QueryData;
+import stroom.query.api.ExpressionOperator;
+import stroom.query.api.ExpressionTerm.Condition;
+import stroom.task.api.ExecutorProvider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestMetaCreationTaskCreator {
+
+    private static final String FEED_NAME = "TEST_FEED";
+
+    @Mock
+    private PrioritisedFilters prioritisedFilters;
+    @Mock
+    private ProcessorTaskDao processorTaskDao;
+    @Mock
+    private ExecutorProvider executorProvider;
+    @Mock
+    private ExpressionMatcherFactory expressionMatcherFactory;
+
+    private MetaCreationTaskCreator metaCreationTaskCreator;
+
+    @BeforeEach
+    void setUp() {
+        when(expressionMatcherFactory.create(anyMap()))
+                .thenAnswer(invocation -> new ExpressionMatcher(invocation.getArgument(0)));
+        final ProcessorConfig processorConfig = new ProcessorConfig();
+        metaCreationTaskCreator = new MetaCreationTaskCreator(
+                () -> processorConfig,
+                prioritisedFilters,
+                processorTaskDao,
+                executorProvider,
+                expressionMatcherFactory);
+    }
+
+    @Test
+    void testMatchingFilter() {
+        final ProcessorFilter filter = createFilter(1, ExpressionOperator.builder()
+                .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                .addTextTerm(MetaFields.STATUS, Condition.EQUALS, Status.UNLOCKED.getDisplayValue())
+                .build());
+        final Meta meta = createMeta(10L, FEED_NAME);
+        when(prioritisedFilters.get()).thenReturn(List.of(filter));
+        when(processorTaskDao.createTaskForNewMeta(filter, meta)).thenReturn(true);
+
+        assertThat(metaCreationTaskCreator.createTasks(meta)).isEqualTo(1);
+        verify(processorTaskDao).createTaskForNewMeta(filter, meta);
+    }
+
+    @Test
+    void testNonMatchingFilter() {
+        final ProcessorFilter filter = createFilter(1, ExpressionOperator.builder()
+                .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                .build());
+        when(prioritisedFilters.get()).thenReturn(List.of(filter));
+
+        assertThat(metaCreationTaskCreator.createTasks(createMeta(10L, "OTHER_FEED"))).isZero();
+        verify(processorTaskDao, never()).createTaskForNewMeta(any(), any());
+    }
+
+    @Test
+    void testFilterUsingExtendedFieldsLeftToPoll() {
+        final ProcessorFilter filter = createFilter(1, ExpressionOperator.builder()
+                .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                .addLongTerm(MetaFields.REC_READ, Condition.GREATER_THAN, 0L)
+                .build());
+        when(prioritisedFilters.get()).thenReturn(List.of(filter));
+
+        assertThat(metaCreationTaskCreator.createTasks(createMeta(10L, FEED_NAME))).isZero();
+        verify(processorTaskDao, never()).createTaskForNewMeta(any(), any());
+    }
+
+    @Test
+    void testTrackerAlreadyPassedMeta() {
+        final ProcessorFilter filter = createFilter(1, ExpressionOperator.builder()
+                .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                .build());
+        filter.getProcessorFilterTracker().setMinMetaId(11L);
+        when(prioritisedFilters.get()).thenReturn(List.of(filter));
+
+        assertThat(metaCreationTaskCreator.createTasks(createMeta(10L, FEED_NAME))).isZero();
+        verify(processorTaskDao, never()).createTaskForNewMeta(any(), any());
+    }
+
+    @Test
+    void testReprocessFilterLeftToPoll() {
+        final ProcessorFilter filter = createFilter(1, ExpressionOperator.builder()
+                .addTextTerm(MetaFields.FEED, Condition.EQUALS, FEED_NAME)
+                .build())
+                .copy()
+                .reprocess(true)
+                .build();
+        when(prioritisedFilters.get()).thenReturn(List.of(filter));
+
+        assertThat(metaCreationTaskCreator.createTasks(createMeta(10L, FEED_NAME))).isZero();
+        verify(processorTaskDao, never()).createTaskForNewMeta(eq(filter), any());
+    }
+
+    private ProcessorFilter createFilter(final int id, final ExpressionOperator expression) {
+        final ProcessorFilterTracker tracker = new ProcessorFilterTracker();
+        tracker.setId(id);
+        tracker.setMinMetaId(1L);
+        return ProcessorFilter.builder()
+                .id(id)
+                .version(1)
+                .queryData(QueryData.builder()
+                        .dataSource(MetaFields.STREAM_STORE_DOC_REF)
+                        .expression(expression)
+                        .build())
+                .processor(Processor.builder()
+                        .id(id)
+                        .enabled(true)
+                        .build())
+                .processorFilterTracker(tracker)
+                .enabled(true)
+                .build();
+    }
+
+    private Meta createMeta(final long id, final String feedName) {
+        final long now = System.currentTimeMillis();
+        return Meta.builder()
+                .id(id)
+                .feedName(feedName)
+                .typeName("Raw Events")
+                .status(Status.LOCKED)
+                .createMs(now)
+                .statusMs(now)
+                .build();
+    }
+}
@@ -0,0 +1,281 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.processor.impl;
+
+import stroom.cluster.task.api.TargetNodeSetFactory;
+import stroom.meta.api.MetaService;
+import stroom.node.api.NodeInfo;
+import stroom.processor.shared.Processor;
+import stroom.processor.shared.ProcessorFilter;
+import stroom.processor.shared.ProcessorTask;
+import stroom.processor.shared.ProcessorTaskList;
+import stroom.processor.shared.TaskStatus;
+import stroom.security.mock.MockSecurityContext;
+import stroom.statistics.api.InternalStatisticsReceiver;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.SimpleTaskContext;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.task.api.TaskContext;
+import stroom.task.api.TerminateHandlerFactory;
+import stroom.task.shared.TaskId;
+import stroom.task.shared.ThreadPool;
+import stroom.test.common.MockMetrics;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.time.StroomDuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestProcessorTaskQueueManagerImpl {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(TestProcessorTaskQueueManagerImpl.class);
+
+    private static final int FILTER_COUNT = 3;
+    private static final int TASKS_PER_FILTER = 5_000;
+    private static final int NODE_COUNT = 60;
+    private static final int TASKS_PER_REQUEST = 10;
+
+    @Mock
+    private ProcessorTaskDao mockProcessorTaskDao;
+    @Mock
+    private ExecutorProvider mockExecutorProvider;
+    @Mock
+    private NodeInfo mockNodeInfo;
+    @Mock
+    private InternalStatisticsReceiver mockInternalStatisticsReceiver;
+    @Mock
+    private MetaService mockMetaService;
+    @Mock
+    private TargetNodeSetFactory mockTargetNodeSetFactory;
+    @Mock
+    private PrioritisedFilters mockPrioritisedFilters;
+    @Mock
+    private ProcessorProfileCache mockProcessorProfileCache;
+
+    private ExecutorService fillExecutor;
+
+    /**
+     * Created tasks that haven't been queued yet, by filter id.
+     */
+    private final Map<Integer, NavigableMap<Long, ProcessorTask>> createdTasks = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        fillExecutor = Executors.newFixedThreadPool(3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fillExecutor.shutdownNow();
+    }
+
+    /**
+     * Checks that lots of nodes assigning tasks at once while the queues are being filled get every task
+     * exactly once. This is a correctness test only, the logged duration is not compared with anything so
+     * it doesn't show how much less contention there is than when assignment was synchronised with fills.
+     */
+    @Test
+    void testConcurrentAssignment() throws Exception {
+        final List<ProcessorFilter> filters = new ArrayList<>();
+        long taskId = 0;
+        for (int filterId = 1; filterId <= FILTER_COUNT; filterId++) {
+            final ProcessorFilter filter = ProcessorFilter.builder()
+                    .id(filterId)
+                    .priority(10)
+                    .enabled(true)
+                    .processor(Processor.builder()
+                            .enabled(true)
+                            .build())
+                    .build();
+            filters.add(filter);
+
+            final NavigableMap<Long, ProcessorTask> tasks = new ConcurrentSkipListMap<>();
+            for (int i = 0; i < TASKS_PER_FILTER; i++) {
+                taskId++;
+                tasks.put(taskId, ProcessorTask.builder()
+                        .id(taskId)
+                        .metaId(taskId)
+                        .processorFilter(filter)
+                        .build());
+            }
+            createdTasks.put(filterId, tasks);
+        }
+
+        when(mockPrioritisedFilters.get())
+                .thenReturn(filters);
+        when(mockNodeInfo.getThisNodeName())
+                .thenReturn("master");
+        when(mockExecutorProvider.get(any(ThreadPool.class)))
+                .thenReturn(fillExecutor);
+        when(mockProcessorTaskDao.findExistingCreatedTasks(anyLong(), anyInt(), anyInt()))
+                .thenAnswer(invocation -> {
+                    final long lastTaskId = invocation.getArgument(0);
+                    final int filterId = invocation.getArgument(1);
+                    final int limit = invocation.getArgument(2);
+                    return createdTasks.get(filterId)
+                            .tailMap(lastTaskId, false)
+                            .keySet()
+                            .stream()
+                            .limit(limit)
+                            .map(id -> new ExistingCreatedTask(id, id))
+                            .toList();
+                });
+        when(mockProcessorTaskDao.queueTasks(any(), anyString()))
+                .thenAnswer(invocation -> {
+                    final Set<Long> idSet = invocation.getArgument(0);
+                    final List<ProcessorTask> queued = new ArrayList<>();
+                    for (final NavigableMap<Long, ProcessorTask> tasks : createdTasks.values()) {
+                        for (final Long id : idSet) {
+                            final ProcessorTask task = tasks.remove(id);
+                            if (task != null) {
+                                queued.add(task.copy()
+                                        .status(TaskStatus.QUEUED)
+                                        .build());
+                            }
+                        }
+                    }
+                    return queued;
+                });
+
+        final ProcessorTaskQueueManagerImpl processorTaskQueueManager = createProcessorTaskQueueManager();
+        processorTaskQueueManager.startup();
+
+        final int totalTasks = FILTER_COUNT * TASKS_PER_FILTER;
+        final Map<Long, String> assignedTasks = new ConcurrentHashMap<>();
+        final AtomicInteger duplicateCount = new AtomicInteger();
+        final AtomicInteger requestCount = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        // Simulate lots of nodes polling for tasks at the same time.
+        final ExecutorService nodeExecutor = Executors.newFixedThreadPool(NODE_COUNT);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < NODE_COUNT; i++) {
+                final String nodeName = "node" + i;
+                futures.add(nodeExecutor.submit(() -> {
+                    startLatch.await();
+                    while (assignedTasks.size() < totalTasks && !Thread.currentThread().isInterrupted()) {
+                        requestCount.incrementAndGet();
+                        final ProcessorTaskList processorTaskList = processorTaskQueueManager.assignTasks(
+                                TaskId.createTestTaskId(),
+                                nodeName,
+                                TASKS_PER_REQUEST);
+                        for (final ProcessorTask processorTask : processorTaskList.getList()) {
+                            if (assignedTasks.putIfAbsent(processorTask.getId(), nodeName) != null) {
+                                duplicateCount.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            final DurationTimer durationTimer = DurationTimer.start();
+            startLatch.countDown();
+            for (final Future<?> future : futures) {
+                future.get(2, TimeUnit.MINUTES);
+            }
+            LOGGER.info("Assigned {} tasks to {} nodes with {} requests in {}",
+                    assignedTasks.size(), NODE_COUNT, requestCount.get(), durationTimer.get());
+        } finally {
+            nodeExecutor.shutdownNow();
+        }
+
+        assertThat(duplicateCount)
+                .hasValue(0);
+        assertThat(assignedTasks)
+                .hasSize(totalTasks);
+        assertThat(processorTaskQueueManager.getTaskQueueSize())
+                .isZero();
+    }
+
+    private ProcessorTaskQueueManagerImpl createProcessorTaskQueueManager() {
+        // Don't want to wait long between fills that add nothing.
+        final ProcessorConfig processorConfig = new ProcessorConfig(
+                null, null, null, null, null, null, null, null, null, null, null, null, null, null, null, null,
+                StroomDuration.ofMillis(10),
+                null);
+
+        return new ProcessorTaskQueueManagerImpl(
+                mockProcessorTaskDao,
+                mockExecutorProvider,
+                new TestTaskContextFactory(),
+                mockNodeInfo,
+                () -> processorConfig,
+                () -> mockInternalStatisticsReceiver,
+                mockMetaService,
+                new MockSecurityContext(),
+                mockTargetNodeSetFactory,
+                mockPrioritisedFilters,
+                mockProcessorProfileCache,
+                new MockMetrics());
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Assignment needs a task id to set the parent on.
+     */
+    private static class TestTaskContextFactory extends SimpleTaskContextFactory {
+
+        @Override
+        public <R> Supplier<R> contextResult(final String taskName,
+                                             final TerminateHandlerFactory terminateHandlerFactory,
+                                             final Function<TaskContext, R> function) {
+            return () -> function.apply(new SimpleTaskContext() {
+                private final TaskId taskId = TaskId.createTestTaskId();
+
+                @Override
+                public TaskId getTaskId() {
+                    return taskId;
+                }
+            });
+        }
+    }
+}
@@ -17,6 +17,7 @@
 package stroom.proxy.app;
 
 import stroom.proxy.app.event.EventStoreConfig;
+import stroom.proxy.app.handler.DirQueueConfig;
 import stroom.proxy.app.handler.FeedStatusConfig;
 import stroom.proxy.app.handler.ForwardFileConfig;
 import stroom.proxy.app.handler.ForwardHttpPostConfig;
@@ -69,6 +70,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
     public static final String PROP_NAME_EVENT_STORE = "eventStore";
     public static final String PROP_NAME_AGGREGATOR = "aggregator";
     public static final String PROP_NAME_DIR_SCANNER = "dirScanner";
+    public static final String PROP_NAME_DIR_QUEUES = "dirQueues";
     public static final String PROP_NAME_FORWARD_FILE_DESTINATIONS = "forwardFileDestinations";
     public static final String PROP_NAME_FORWARD_HTTP_DESTINATIONS = "forwardHttpDestinations";
     public static final String PROP_NAME_LOG_STREAM = "logStream";
@@ -91,6 +93,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
     private final EventStoreConfig eventStoreConfig;
     private final AggregatorConfig aggregatorConfig;
     private final DirScannerConfig dirScannerConfig;
+    private final DirQueueConfig dirQueueConfig;
     private final List<ForwardFileConfig> forwardFileDestinations;
     private final List<ForwardHttpPostConfig> forwardHttpDestinations;
     private final LogStreamConfig logStreamConfig;
@@ -110,6 +113,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
                 new EventStoreConfig(),
                 new AggregatorConfig(),
                 new DirScannerConfig(),
+                new DirQueueConfig(),
                 new ArrayList<>(),
                 new ArrayList<>(),
                 new LogStreamConfig(),
@@ -132,6 +136,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
             @JsonProperty(PROP_NAME_EVENT_STORE) final EventStoreConfig eventStoreConfig,
             @JsonProperty(PROP_NAME_AGGREGATOR) final AggregatorConfig aggregatorConfig,
             @JsonProperty(PROP_NAME_DIR_SCANNER) final DirScannerConfig dirScannerConfig,
+            @JsonProperty(PROP_NAME_DIR_QUEUES) final DirQueueConfig dirQueueConfig,
             @JsonProperty(PROP_NAME_FORWARD_FILE_DESTINATIONS) final List<ForwardFileConfig> forwardFileDestinations,
             @JsonProperty(PROP_NAME_FORWARD_HTTP_DESTINATIONS) final List<ForwardHttpPostConfig> forwardHttpDestinations,
             @JsonProperty(PROP_NAME_LOG_STREAM) final LogStreamConfig logStreamConfig,
@@ -151,6 +156,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
         this.eventStoreConfig = Objects.requireNonNullElseGet(eventStoreConfig, EventStoreConfig::new);
         this.aggregatorConfig = Objects.requireNonNullElseGet(aggregatorConfig, AggregatorConfig::new);
         this.dirScannerConfig = dirScannerConfig;
+        this.dirQueueConfig = Objects.requireNonNullElseGet(dirQueueConfig, DirQueueConfig::new);
         this.forwardFileDestinations = NullSafe.list(forwardFileDestinations);
         this.forwardHttpDestinations = NullSafe.list(forwardHttpDestinations);
         this.logStreamConfig = Objects.requireNonNullElseGet(logStreamConfig, LogStreamConfig::new);
@@ -224,6 +230,11 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
         return dirScannerConfig;
     }
 
+    @JsonProperty(PROP_NAME_DIR_QUEUES)
+    public DirQueueConfig getDirQueueConfig() {
+        return dirQueueConfig;
+    }
+
     @RequiresProxyRestart
     @JsonProperty(PROP_NAME_FORWARD_FILE_DESTINATIONS)
     public List<ForwardFileConfig> getForwardFileDestinations() {
@@ -407,6 +418,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
         private EventStoreConfig eventStoreConfig = new EventStoreConfig();
         private AggregatorConfig aggregatorConfig = new AggregatorConfig();
         private DirScannerConfig dirScannerConfig = new DirScannerConfig();
+        private DirQueueConfig dirQueueConfig = new DirQueueConfig();
         private final List<ForwardFileConfig> forwardFileDestinations = new ArrayList<>();
         private final List<ForwardHttpPostConfig> forwardHttpDestinations = new ArrayList<>();
         private LogStreamConfig logStreamConfig = new LogStreamConfig();
@@ -469,6 +481,11 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
             return this;
         }
 
+        public Builder dirQueueConfig(final DirQueueConfig dirQueueConfig) {
+            this.dirQueueConfig = dirQueueConfig;
+            return this;
+        }
+
         public Builder addForwardFileDestination(final ForwardFileConfig forwarderFileConfig) {
             this.forwardFileDestinations.add(forwarderFileConfig);
             return this;
@@ -532,6 +549,7 @@ public class ProxyConfig extends AbstractConfig implements IsProxyConfig {
                     eventStoreConfig,
                     aggregatorConfig,
                     dirScannerConfig,
+                    dirQueueConfig,
                     forwardFileDestinations,
                     forwardHttpDestinations,
                     logStreamConfig,
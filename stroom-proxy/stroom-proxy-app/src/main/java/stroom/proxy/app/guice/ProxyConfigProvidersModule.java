@@ -132,6 +132,15 @@ public class ProxyConfigProvidersModule extends AbstractModule {
                 stroom.proxy.app.event.EventStoreConfig.class);
     }
 
+    @Generated("stroom.proxy.app.guice.GenerateProxyConfigProvidersModule")
+    @Provides
+    @SuppressWarnings("unused")
+    stroom.proxy.app.handler.DirQueueConfig getDirQueueConfig(
+            final ProxyConfigProvider proxyConfigProvider) {
+        return proxyConfigProvider.getConfigObject(
+                stroom.proxy.app.handler.DirQueueConfig.class);
+    }
+
     @Generated("stroom.proxy.app.guice.GenerateProxyConfigProvidersModule")
     @Provides
     @SuppressWarnings("unused")
@@ -25,17 +25,32 @@ public class Dir implements AutoCloseable {
 
     private final DirQueue dirQueue;
     private final Path path;
+    private final long position;
 
     Dir(final DirQueue dirQueue,
         final Path path) {
+        this(dirQueue, path, -1);
+    }
+
+    Dir(final DirQueue dirQueue,
+        final Path path,
+        final long position) {
         this.dirQueue = Objects.requireNonNull(dirQueue);
         this.path = Objects.requireNonNull(path);
+        this.position = position;
     }
 
     public Path getPath() {
         return path;
     }
 
+    /**
+     * @return The position of this dir in the queue's journal or -1 if the queue doesn't have one.
+     */
+    long getPosition() {
+        return position;
+    }
+
     @Override
     public void close() {
         dirQueue.close(this);
@@ -67,6 +67,11 @@ public final class DirNames {
      */
     public static final String PRE_AGGREGATE_SPLIT_OUTPUT = "23_split_output";
 
+    /**
+     * Where we checkpoint the state of each pre-aggregate so it can be restored quickly on startup.
+     */
+    public static final String PRE_AGGREGATE_STATE = "24_pre_aggregate_state";
+
     /**
      * Where we queue data ready for aggregation.
      */
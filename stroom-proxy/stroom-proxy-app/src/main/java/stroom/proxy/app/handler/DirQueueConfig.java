@@ -0,0 +1,129 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.proxy.app.handler;
+
+import stroom.util.config.annotations.RequiresProxyRestart;
+import stroom.util.shared.AbstractConfig;
+import stroom.util.shared.IsProxyConfig;
+import stroom.util.shared.NullSafe;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyDescription;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Config to control which {@link DirQueue} implementation is used for each of the proxy's queues.
+ */
+@JsonPropertyOrder(alphabetic = true)
+public class DirQueueConfig extends AbstractConfig implements IsProxyConfig {
+
+    public static final DirQueueType DEFAULT_TYPE = DirQueueType.NUMBERED;
+
+    private final DirQueueType defaultType;
+    private final List<String> journalQueueNames;
+    private final List<String> numberedQueueNames;
+
+    public DirQueueConfig() {
+        defaultType = DEFAULT_TYPE;
+        journalQueueNames = Collections.emptyList();
+        numberedQueueNames = Collections.emptyList();
+    }
+
+    @JsonCreator
+    public DirQueueConfig(@JsonProperty("defaultType") final DirQueueType defaultType,
+                          @JsonProperty("journalQueueNames") final List<String> journalQueueNames,
+                          @JsonProperty("numberedQueueNames") final List<String> numberedQueueNames) {
+        this.defaultType = Objects.requireNonNullElse(defaultType, DEFAULT_TYPE);
+        this.journalQueueNames = NullSafe.list(journalQueueNames);
+        this.numberedQueueNames = NullSafe.list(numberedQueueNames);
+    }
+
+    @NotNull
+    @RequiresProxyRestart
+    @JsonProperty
+    @JsonPropertyDescription("The type of queue to use for any queue not named in journalQueueNames or " +
+                             "numberedQueueNames. NUMBERED finds the next item by looking for numbered " +
+                             "directories on the file system. JOURNAL keeps a memory mapped journal of the " +
+                             "queued directories so finding the next item needs no file system access and " +
+                             "multiple consumers can read concurrently.")
+    public DirQueueType getDefaultType() {
+        return defaultType;
+    }
+
+    @RequiresProxyRestart
+    @JsonProperty
+    @JsonPropertyDescription("The names of the queues that will use the JOURNAL queue type, " +
+                             "e.g. 'Forwarding Input Queue' or 'forward - <destination name>'.")
+    public List<String> getJournalQueueNames() {
+        return journalQueueNames;
+    }
+
+    @RequiresProxyRestart
+    @JsonProperty
+    @JsonPropertyDescription("The names of the queues that will use the NUMBERED queue type, " +
+                             "e.g. 'Forwarding Input Queue' or 'forward - <destination name>'.")
+    public List<String> getNumberedQueueNames() {
+        return numberedQueueNames;
+    }
+
+    /**
+     * @return The type of queue to use for the queue with the supplied name.
+     */
+    public DirQueueType getType(final String queueName) {
+        if (journalQueueNames.contains(queueName)) {
+            return DirQueueType.JOURNAL;
+        } else if (numberedQueueNames.contains(queueName)) {
+            return DirQueueType.NUMBERED;
+        } else {
+            return defaultType;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "DirQueueConfig{" +
+               "defaultType=" + defaultType +
+               ", journalQueueNames=" + journalQueueNames +
+               ", numberedQueueNames=" + numberedQueueNames +
+               '}';
+    }
+
+    @Override
+    public boolean equals(final Object object) {
+        if (this == object) {
+            return true;
+        }
+        if (object == null || getClass() != object.getClass()) {
+            return false;
+        }
+        final DirQueueConfig that = (DirQueueConfig) object;
+        return defaultType == that.defaultType
+               && Objects.equals(journalQueueNames, that.journalQueueNames)
+               && Objects.equals(numberedQueueNames, that.numberedQueueNames);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(defaultType, journalQueueNames, numberedQueueNames);
+    }
+}
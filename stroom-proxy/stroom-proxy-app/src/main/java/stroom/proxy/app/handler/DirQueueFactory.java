@@ -21,6 +21,7 @@ import stroom.proxy.repo.queue.QueueMonitors;
 import stroom.proxy.repo.store.FileStores;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 
 import java.nio.file.Path;
 
@@ -29,14 +30,17 @@ public class DirQueueFactory {
     private final Path dataDir;
     private final QueueMonitors queueMonitors;
     private final FileStores fileStores;
+    private final Provider<DirQueueConfig> dirQueueConfigProvider;
 
     @Inject
     public DirQueueFactory(final DataDirProvider dataDirProvider,
                            final QueueMonitors queueMonitors,
-                           final FileStores fileStores) {
+                           final FileStores fileStores,
+                           final Provider<DirQueueConfig> dirQueueConfigProvider) {
         this.dataDir = dataDirProvider.get();
         this.queueMonitors = queueMonitors;
         this.fileStores = fileStores;
+        this.dirQueueConfigProvider = dirQueueConfigProvider;
     }
 
     public DirQueue create(final String dirName,
@@ -49,6 +53,16 @@ public class DirQueueFactory {
     public DirQueue create(final Path rootDir,
                            final int order,
                            final String name) {
-        return new DirQueue(rootDir, queueMonitors, fileStores, order, name);
+        return create(rootDir, order, name, dirQueueConfigProvider.get().getType(name));
+    }
+
+    public DirQueue create(final Path rootDir,
+                           final int order,
+                           final String name,
+                           final DirQueueType type) {
+        return switch (type) {
+            case NUMBERED -> new NumberedDirQueue(rootDir, queueMonitors, fileStores, order, name);
+            case JOURNAL -> new JournalDirQueue(rootDir, queueMonitors, fileStores, order, name);
+        };
     }
 }
@@ -0,0 +1,30 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.proxy.app.handler;
+
+public enum DirQueueType {
+    /**
+     * Finds the next item by looking for the next sequentially numbered dir on the file system.
+     * See {@link NumberedDirQueue}.
+     */
+    NUMBERED,
+    /**
+     * Finds the next item from a memory mapped journal of the dirs that have been added.
+     * See {@link JournalDirQueue}.
+     */
+    JOURNAL
+}
@@ -23,11 +23,8 @@ import stroom.proxy.app.DownstreamHostConfig;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 
-import java.io.BufferedInputStream;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.UncheckedIOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 
 public class ForwardHttpPostDestination implements ForwardDestination {
@@ -62,11 +59,8 @@ public class ForwardHttpPostDestination implements ForwardDestination {
             // Make sure we tell the destination we are sending zip data.
             attributeMap.put(StandardHeaderArguments.COMPRESSION, StandardHeaderArguments.COMPRESSION_ZIP);
 
-            // Send the data.
-            try (final InputStream inputStream =
-                    new BufferedInputStream(Files.newInputStream(fileGroup.getZip()))) {
-                destination.send(attributeMap, inputStream);
-            }
+            // Send the data straight from the zip file.
+            destination.send(attributeMap, fileGroup.getZip());
 
             // We have completed sending so can delete the data.
             cleanupDirQueue.add(sourceDir);
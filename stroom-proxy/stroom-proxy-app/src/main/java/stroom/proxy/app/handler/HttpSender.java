@@ -35,6 +35,7 @@ import stroom.util.metrics.Metrics;
 import stroom.util.shared.NullSafe;
 import stroom.util.shared.string.CIKey;
 
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
 import org.apache.commons.io.IOUtils;
 import org.apache.hc.client5.http.classic.HttpClient;
@@ -43,9 +44,11 @@ import org.apache.hc.client5.http.classic.methods.HttpPost;
 import org.apache.hc.core5.http.ClassicHttpResponse;
 import org.apache.hc.core5.http.ContentType;
 import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.HttpStatus;
 import org.apache.hc.core5.http.ProtocolException;
 import org.apache.hc.core5.http.io.entity.BasicHttpEntity;
+import org.apache.hc.core5.http.io.entity.FileEntity;
 import org.apache.hc.core5.http.message.BasicHttpRequest;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -53,6 +56,7 @@ import org.slf4j.LoggerFactory;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.util.AbstractMap.SimpleEntry;
 import java.util.EnumSet;
@@ -71,6 +75,7 @@ public class HttpSender implements StreamDestination {
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(HttpSender.class);
     private static final Logger SEND_LOG = LoggerFactory.getLogger("send");
     private static final int ONE_SECOND = 1_000;
+    private static final ContentType CONTENT_TYPE = ContentType.create("application/audit");
 
     // TODO Consider whether a UNKNOWN_ERROR(500) is recoverable or not
     private static final Set<StroomStatusCode> NON_RECOVERABLE_STATUS_CODES = EnumSet.of(
@@ -89,6 +94,7 @@ public class HttpSender implements StreamDestination {
     private final String forwarderName;
     private final ProxyServices proxyServices;
     private final Timer sendTimer;
+    private final Meter sendBytesMeter;
     private final Set<CIKey> headerAllowSet;
 
     public HttpSender(final LogStream logStream,
@@ -113,12 +119,38 @@ public class HttpSender implements StreamDestination {
                 .addNamePart(Metrics.SEND)
                 .timer()
                 .createAndRegister();
+        // Throughput of data successfully sent to this destination
+        this.sendBytesMeter = metrics.registrationBuilder(getClass())
+                .addNamePart(forwarderName)
+                .addNamePart(Metrics.SEND)
+                .addNamePart(Metrics.SIZE_IN_BYTES)
+                .meter()
+                .createAndRegister();
         this.headerAllowSet = buildHeaderAllowSet(forwardHttpPostConfig);
     }
 
     @Override
     public void send(final AttributeMap attributeMap,
                      final InputStream inputStream) throws ForwardException {
+        final ByteCountInputStream byteCountInputStream = new ByteCountInputStream(inputStream);
+        send(attributeMap,
+                new BasicHttpEntity(byteCountInputStream, CONTENT_TYPE, true),
+                byteCountInputStream::getCount);
+    }
+
+    /**
+     * Sends the file as a {@link FileEntity} so the post has a known length.
+     */
+    @Override
+    public void send(final AttributeMap attributeMap,
+                     final Path file) throws ForwardException {
+        final FileEntity fileEntity = new FileEntity(file.toFile(), CONTENT_TYPE);
+        send(attributeMap, fileEntity, fileEntity::getContentLength);
+    }
+
+    private void send(final AttributeMap attributeMap,
+                      final HttpEntity httpEntity,
+                      final LongSupplier contentLengthSupplier) throws ForwardException {
         if (NullSafe.isEmptyString(attributeMap.get(StandardHeaderArguments.FEED))) {
             throw new StroomStreamException(StroomStatusCode.FEED_MUST_BE_SPECIFIED, attributeMap);
         }
@@ -131,16 +163,12 @@ public class HttpSender implements StreamDestination {
                 forwarderName, forwardUrl, userAgent, formatAttributeMapLogging(attributeMap)));
 
         final HttpPost httpPost = createHttpPost(attributeMap);
-
-        final ByteCountInputStream byteCountInputStream = new ByteCountInputStream(inputStream);
-        httpPost.setEntity(new BasicHttpEntity(
-                byteCountInputStream,
-                ContentType.create("application/audit"),
-                true));
+        httpPost.setEntity(httpEntity);
 
         // Execute and get the response.
         final ResponseStatus responseStatus = sendTimer.timeSupplier(() ->
-                post(httpPost, attributeMap, byteCountInputStream::getCount));
+                post(httpPost, attributeMap, contentLengthSupplier));
+        sendBytesMeter.mark(contentLengthSupplier.getAsLong());
         LOGGER.debug("responseStatus: {}", responseStatus);
     }
 
@@ -0,0 +1,647 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.proxy.app.handler;
+
+import stroom.proxy.repo.queue.QueueMonitor;
+import stroom.proxy.repo.queue.QueueMonitors;
+import stroom.proxy.repo.store.FileStores;
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.exception.ThrowingSupplier;
+import stroom.util.logging.DurationTimer;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.logging.LogUtil;
+import stroom.util.shared.ModelStringUtil;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.invoke.VarHandle;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * A concurrent directory based queue that keeps an append only journal of the queued dirs.
+ * Directories are added to the queue by performing an atomic move of the source directory
+ * into the same directory structure as {@link NumberedDirQueue}, see {@link DirUtil}.
+ * <p>
+ * Each added dir is also appended as a fixed length record to a memory mapped journal held in
+ * {@code <rootDir>/journal}. Readers claim the next record by advancing a read cursor with a CAS
+ * so finding the next item needs no file system access and multiple consumers never contend on
+ * a lock unless the queue is empty. Closing a dir marks its record as closed and once all records
+ * in a journal segment are closed the segment file is deleted.
+ * </p>
+ * <p>
+ * On initialisation, the journal is replayed to re-queue any dir that was added but not closed,
+ * including any that were being processed when the proxy stopped. Any dirs on disk that are not
+ * in the journal (e.g. those left by a {@link NumberedDirQueue} or a crash between the move and
+ * the journal write) are appended to the journal.
+ * </p>
+ * <p>
+ * The journal is never forced to disk. It is an index over the queued dirs rather than the record of
+ * what is queued, so it only needs to survive the proxy process stopping, which it does as the mapped
+ * pages belong to the OS page cache. If the OS itself stops then any journal writes that had not been
+ * written back by the OS may be lost. Recovery copes with this as the dirs on disk are the source of truth,
+ * i.e. a lost queued record is re-journalled by the scan for dirs that are not in the journal, and a lost
+ * closed record is closed again once recovery finds that its dir has gone. Note that the dir moves are
+ * not forced to disk either, as is the case with {@link NumberedDirQueue}.
+ * </p>
+ */
+public class JournalDirQueue implements DirQueue {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(JournalDirQueue.class);
+
+    static final String JOURNAL_DIR_NAME = "journal";
+    private static final String SEGMENT_FILE_EXTENSION = ".jnl";
+
+    static final int RECORDS_PER_SEGMENT = 65_536;
+    // id (long), state (int), padding (int)
+    private static final int RECORD_SIZE = 16;
+    private static final long SEGMENT_SIZE = (long) RECORDS_PER_SEGMENT * RECORD_SIZE;
+    private static final long ID_OFFSET = 0;
+    private static final long STATE_OFFSET = Long.BYTES;
+
+    private static final int STATE_EMPTY = 0;
+    private static final int STATE_QUEUED = 1;
+    private static final int STATE_CLOSED = 2;
+
+    private final Path rootDir;
+    private final Path journalDir;
+    private final QueueMonitor queueMonitor;
+    private final String name;
+    private final ConcurrentSkipListMap<Long, Segment> segments = new ConcurrentSkipListMap<>();
+
+    /**
+     * Journal position that the next reader will claim.
+     */
+    private final AtomicLong readPosition = new AtomicLong();
+    /**
+     * Journal position after the last fully written record, i.e. 0 if never written to.
+     */
+    private final AtomicLong writePosition = new AtomicLong();
+    /**
+     * ID last written to, i.e. 0 if never written to. Guarded by lock.
+     */
+    private long writeId;
+
+    private final Lock lock = new ReentrantLock();
+    private final Condition condition = lock.newCondition();
+
+    JournalDirQueue(final Path rootDir,
+                    final QueueMonitors queueMonitors,
+                    final FileStores fileStores,
+                    final int order,
+                    final String name) {
+        this.rootDir = rootDir;
+        this.journalDir = rootDir.resolve(JOURNAL_DIR_NAME);
+        this.queueMonitor = queueMonitors.create(order, name);
+        this.name = name;
+
+        // Create the root and journal directories
+        DirUtil.ensureDirExists(rootDir);
+        DirUtil.ensureDirExists(journalDir);
+
+        // Create the store directory and initialise the store id.
+        fileStores.add(order, name + " - store", rootDir);
+
+        final DurationTimer timer = DurationTimer.start();
+        recover();
+        queueMonitor.setWritePos(writeId);
+        queueMonitor.setReadPos(getReadId());
+        LOGGER.info("Initialising journal queue '{}' in {} with readPosition {}, writePosition {} " +
+                    "and writeId {} in {}",
+                name,
+                LogUtil.path(rootDir),
+                ModelStringUtil.formatCsv(readPosition.get()),
+                ModelStringUtil.formatCsv(writePosition.get()),
+                ModelStringUtil.formatCsv(writeId),
+                timer.get());
+    }
+
+    /**
+     * Get the next dir that is available in the queue as soon as one is available, block until then.
+     *
+     * @return A dir that is managed by this queue. The dir should be closed once used to ensure parent dirs are
+     * deleted if empty.
+     */
+    @Override
+    public Dir next() {
+        try {
+            Dir dir = tryNext();
+            while (dir == null) {
+                lock.lockInterruptibly();
+                try {
+                    while (readPosition.get() >= writePosition.get()) {
+                        condition.await();
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                dir = tryNext();
+            }
+            LOGGER.trace("next() - {} ({}) - next() dir: {}", name, rootDir, dir);
+            return dir;
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+    }
+
+    /**
+     * Get the next dir that is available in the queue as soon as one is available, block until then or timeout.
+     *
+     * @return A dir that is managed by this queue. The dir should be closed once used to ensure parent dirs are
+     * deleted if empty.
+     */
+    @Override
+    public Optional<Dir> next(final long time, final TimeUnit unit) {
+        try {
+            long remainingNanos = unit.toNanos(time);
+            Dir dir = tryNext();
+            while (dir == null) {
+                lock.lockInterruptibly();
+                try {
+                    while (readPosition.get() >= writePosition.get()) {
+                        if (remainingNanos <= 0) {
+                            return Optional.empty();
+                        }
+                        remainingNanos = condition.awaitNanos(remainingNanos);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+                dir = tryNext();
+            }
+            LOGGER.trace("next() - {} ({}) - next() time: {}, unit: {}, dir: {}", name, rootDir, time, unit, dir);
+            return Optional.of(dir);
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+    }
+
+    /**
+     * Claim the next queued record in the journal without taking the lock.
+     *
+     * @return The dir for the claimed record or null if there are no records to read.
+     */
+    private Dir tryNext() {
+        while (true) {
+            final long position = readPosition.get();
+            if (position >= writePosition.get()) {
+                return null;
+            }
+            if (readPosition.compareAndSet(position, position + 1)) {
+                final Segment segment = segments.get(getSegmentNo(position));
+                // Records closed before a restart will be skipped, as will whole segments that have been deleted.
+                if (segment != null) {
+                    final long recordOffset = getRecordOffset(position);
+                    if (segment.getState(recordOffset) == STATE_QUEUED) {
+                        final long id = segment.getId(recordOffset);
+                        queueMonitor.setReadPos(id);
+                        return new Dir(this, DirUtil.createPath(rootDir, id), position);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Add a dir to the queue. In the process this will move (atomically) the source dir to a dir managed
+     * by the queue so that the process providing the dir will no longer be responsible
+     * for managing the supplied dir.
+     *
+     * @param sourceDir The source dir to move to the queue.
+     */
+    @Override
+    public void add(final Path sourceDir) {
+        try {
+            lock.lockInterruptibly();
+            try {
+                // Increment the sequence id.
+                final long id = ++writeId;
+                queueMonitor.setWritePos(id);
+                final Path targetDir = DirUtil.createPath(rootDir, id);
+                final Path targetParent = targetDir.getParent();
+                try {
+                    DirUtil.ensureDirExists(targetParent);
+                    Files.move(sourceDir, targetDir, StandardCopyOption.ATOMIC_MOVE);
+                    LOGGER.trace("add() - {} ({}) - Added sourceDir {}", name, rootDir, sourceDir);
+                } catch (final IOException e) {
+                    final boolean targetParentExists = LogUtil.swallowExceptions(
+                                    ThrowingSupplier.unchecked(() -> Files.exists(targetParent)))
+                            .orElse(false);
+                    final boolean sourceExists = LogUtil.swallowExceptions(
+                                    ThrowingSupplier.unchecked(() -> Files.exists(sourceDir)))
+                            .orElse(false);
+                    LOGGER.error("Error moving {} -> {}, sourceExists: {}, targetParentExists: {}, msg: {}",
+                            sourceDir, targetDir, sourceExists, targetParentExists, LogUtil.exceptionMessage(e), e);
+                    throw new UncheckedIOException(e);
+                }
+                // Only journal the dir once it is in place, so a crash before this point is picked up
+                // by the scan for dirs that are not in the journal.
+                append(id);
+                condition.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+    }
+
+    /**
+     * Append a queued record to the journal and publish it to readers. Must be called under the lock
+     * or before the queue is in use.
+     */
+    private void append(final long id) {
+        final long position = writePosition.get();
+        final Segment segment = getOrCreateSegment(getSegmentNo(position));
+        final long recordOffset = getRecordOffset(position);
+        segment.putId(recordOffset, id);
+        // Write the state last so a partially written record reads as empty.
+        segment.putState(recordOffset, STATE_QUEUED);
+        // Publishing the new write position makes the record visible to readers.
+        writePosition.set(position + 1);
+    }
+
+    /**
+     * When we have finished with a dir we should be in a position where the dir has been
+     * moved so can try to delete the parent directories. We never want to delete the dir
+     * itself as it should have been moved and any failure to do so is an error.
+     *
+     * @param dir The dir to close.
+     */
+    @Override
+    public void close(final Dir dir) {
+        try {
+            lock.lockInterruptibly();
+            try {
+                // Try to delete parent directories. This needs the lock so we don't delete a parent
+                // that add() has just created.
+                try {
+                    boolean success = true;
+                    Path path = dir.getPath().getParent();
+                    while (!path.equals(rootDir) && success) {
+                        success = Files.deleteIfExists(path);
+                        path = path.getParent();
+                    }
+                } catch (final DirectoryNotEmptyException e) {
+                    // Expected error.
+                    LOGGER.trace(() -> LogUtil.message("close() - {} is not empty so can't be deleted",
+                            e.getMessage()));
+                } catch (final IOException e) {
+                    LOGGER.error(e::getMessage, e);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+
+        final long position = dir.getPosition();
+        if (position >= 0) {
+            markClosed(position);
+        }
+    }
+
+    private void markClosed(final long position) {
+        final long segmentNo = getSegmentNo(position);
+        final Segment segment = segments.get(segmentNo);
+        if (segment != null) {
+            final long recordOffset = getRecordOffset(position);
+            // Only the caller that changes the state counts the close, so closing the same dir
+            // more than once, even concurrently, can't delete the segment early.
+            if (segment.compareAndSetState(recordOffset, STATE_QUEUED, STATE_CLOSED)) {
+                if (segment.incrementClosedCount() == RECORDS_PER_SEGMENT) {
+                    deleteSegment(segmentNo);
+                }
+            }
+        }
+    }
+
+    private void deleteSegment(final long segmentNo) {
+        // The mapping is released by the GC once no reader holds the segment, so it is safe to delete
+        // the file while a reader that is skipping closed records still has hold of it.
+        final Segment segment = segments.remove(segmentNo);
+        if (segment != null) {
+            try {
+                Files.deleteIfExists(segment.path);
+                LOGGER.debug("deleteSegment() - {} ({}) - Deleted closed segment {}", name, rootDir, segment.path);
+            } catch (final IOException e) {
+                LOGGER.error("Error deleting journal segment '{}' - {}",
+                        segment.path, LogUtil.exceptionMessage(e), e);
+            }
+        }
+    }
+
+    private Segment getOrCreateSegment(final long segmentNo) {
+        Segment segment = segments.get(segmentNo);
+        if (segment == null) {
+            segment = openSegment(segmentNo, getSegmentPath(segmentNo));
+            segments.put(segmentNo, segment);
+        }
+        return segment;
+    }
+
+    private Segment openSegment(final long segmentNo, final Path path) {
+        try (final FileChannel fileChannel = FileChannel.open(path,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            // Use an automatic arena so the mapping lives until the segment is no longer reachable,
+            // rather than having to coordinate unmapping with lock free readers.
+            final MemorySegment memorySegment = fileChannel.map(MapMode.READ_WRITE, 0, SEGMENT_SIZE, Arena.ofAuto());
+            return new Segment(segmentNo, path, memorySegment);
+        } catch (final IOException e) {
+            LOGGER.error("Error opening journal segment '{}' - {}", path, LogUtil.exceptionMessage(e), e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void recover() {
+        // Map all the existing segments.
+        try (final Stream<Path> stream = Files.list(journalDir)) {
+            stream
+                    .filter(path -> path.getFileName().toString().endsWith(SEGMENT_FILE_EXTENSION))
+                    .forEach(path -> {
+                        final String fileName = path.getFileName().toString();
+                        final String segmentNoPart = fileName.substring(
+                                0, fileName.length() - SEGMENT_FILE_EXTENSION.length());
+                        try {
+                            final long segmentNo = Long.parseLong(segmentNoPart);
+                            segments.put(segmentNo, openSegment(segmentNo, path));
+                        } catch (final NumberFormatException e) {
+                            LOGGER.warn("Ignoring unexpected file in journal dir: {}", path);
+                        }
+                    });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        // Replay the journal to find the read and write positions. Records are only ever appended so
+        // the first empty record is the end of the journal.
+        long firstQueuedPosition = -1;
+        long endPosition = segments.isEmpty()
+                ? 0
+                : segments.firstKey() * RECORDS_PER_SEGMENT;
+        long lastId = 0;
+        long minQueuedId = Long.MAX_VALUE;
+        final Set<Long> queuedIds = new HashSet<>();
+        final List<Long> emptySegmentNos = new ArrayList<>();
+        boolean foundEnd = false;
+        for (final Entry<Long, Segment> entry : segments.entrySet()) {
+            final Segment segment = entry.getValue();
+            if (foundEnd) {
+                // Anything after the end of the journal can't have been fully written.
+                emptySegmentNos.add(entry.getKey());
+                continue;
+            }
+            for (int i = 0; i < RECORDS_PER_SEGMENT; i++) {
+                final long position = entry.getKey() * RECORDS_PER_SEGMENT + i;
+                final long recordOffset = (long) i * RECORD_SIZE;
+                final int state = segment.getState(recordOffset);
+                if (state == STATE_EMPTY) {
+                    endPosition = position;
+                    foundEnd = true;
+                    break;
+                }
+
+                final long id = segment.getId(recordOffset);
+                lastId = Math.max(lastId, id);
+                if (state == STATE_QUEUED) {
+                    if (Files.isDirectory(DirUtil.createPath(rootDir, id))) {
+                        queuedIds.add(id);
+                        minQueuedId = Math.min(minQueuedId, id);
+                        if (firstQueuedPosition == -1) {
+                            firstQueuedPosition = position;
+                        }
+                    } else {
+                        // The dir was moved on but we stopped before it was closed.
+                        segment.putState(recordOffset, STATE_CLOSED);
+                        segment.incrementClosedCount();
+                    }
+                } else {
+                    segment.incrementClosedCount();
+                }
+                endPosition = position + 1;
+            }
+        }
+        emptySegmentNos.forEach(this::deleteSegment);
+        writePosition.set(endPosition);
+        readPosition.set(firstQueuedPosition == -1
+                ? endPosition
+                : firstQueuedPosition);
+
+        // Delete any segments that are fully closed now we know the state of each record.
+        segments.entrySet().stream()
+                .filter(entry -> entry.getValue().closedCount.get() == RECORDS_PER_SEGMENT)
+                .map(Entry::getKey)
+                .toList()
+                .forEach(this::deleteSegment);
+
+        // Make sure any dirs on disk that are not in the journal get queued. This will be the case
+        // if a dir was moved in but not journalled or if this queue was previously a numbered queue.
+        final long maxDirId = DirUtil.getMaxDirId(rootDir);
+        final long minDirId = DirUtil.getMinDirId(rootDir);
+        writeId = Math.max(lastId, maxDirId);
+        if (maxDirId > lastId || (minDirId > 0 && minDirId < minQueuedId)) {
+            final List<Long> unjournalledIds = findUnjournalledIds(queuedIds);
+            if (!unjournalledIds.isEmpty()) {
+                LOGGER.info("Adding {} dirs found in {} to the journal for queue '{}'",
+                        ModelStringUtil.formatCsv(unjournalledIds.size()), LogUtil.path(rootDir), name);
+                unjournalledIds.forEach(this::append);
+            }
+        }
+    }
+
+    private List<Long> findUnjournalledIds(final Set<Long> queuedIds) {
+        final List<Long> ids = new ArrayList<>();
+        try {
+            Files.walkFileTree(rootDir, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(final Path dir, final BasicFileAttributes attrs) {
+                    if (dir.equals(journalDir)) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    } else if (dir.equals(rootDir)) {
+                        return FileVisitResult.CONTINUE;
+                    } else if (DirUtil.isValidLeafPath(rootDir.relativize(dir))) {
+                        final Long id = DirUtil.pathToId(rootDir.relativize(dir));
+                        if (id != null && !queuedIds.contains(id)) {
+                            ids.add(id);
+                        }
+                        // Don't look inside the queued items.
+                        return FileVisitResult.SKIP_SUBTREE;
+                    } else {
+                        return FileVisitResult.CONTINUE;
+                    }
+                }
+            });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        ids.sort(Long::compare);
+        return ids;
+    }
+
+    private Path getSegmentPath(final long segmentNo) {
+        return journalDir.resolve(String.format("%019d", segmentNo) + SEGMENT_FILE_EXTENSION);
+    }
+
+    private static long getSegmentNo(final long position) {
+        return position / RECORDS_PER_SEGMENT;
+    }
+
+    private static long getRecordOffset(final long position) {
+        return (position % RECORDS_PER_SEGMENT) * RECORD_SIZE;
+    }
+
+    /**
+     * @return The ID of the next queued item to read or the ID after the last written ID if there is
+     * nothing to read.
+     */
+    long getReadId() {
+        long position = readPosition.get();
+        final long end = writePosition.get();
+        while (position < end) {
+            final Segment segment = segments.get(getSegmentNo(position));
+            if (segment != null) {
+                final long recordOffset = getRecordOffset(position);
+                if (segment.getState(recordOffset) == STATE_QUEUED) {
+                    return segment.getId(recordOffset);
+                }
+            }
+            position++;
+        }
+        return writeId + 1;
+    }
+
+    /**
+     * ID last written to, i.e. 0 if never written to
+     */
+    long getWriteId() {
+        return writeId;
+    }
+
+    /**
+     * @return The number of journal segment files currently in use.
+     */
+    int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return The number of closed records in the journal segments currently in use.
+     */
+    long getClosedCount() {
+        return segments.values()
+                .stream()
+                .mapToLong(segment -> segment.closedCount.get())
+                .sum();
+    }
+
+    @Override
+    public String toString() {
+        return "JournalDirQueue{" +
+               "rootDir=" + rootDir +
+               ", writeId=" + writeId +
+               ", readPosition=" + readPosition +
+               ", writePosition=" + writePosition +
+               '}';
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * A memory mapped file holding {@link #RECORDS_PER_SEGMENT} fixed length records.
+     */
+    private static class Segment {
+
+        private static final VarHandle STATE_HANDLE = ValueLayout.JAVA_INT.varHandle();
+
+        private final long segmentNo;
+        private final Path path;
+        private final MemorySegment memorySegment;
+        private final AtomicInteger closedCount = new AtomicInteger();
+
+        private Segment(final long segmentNo,
+                        final Path path,
+                        final MemorySegment memorySegment) {
+            this.segmentNo = segmentNo;
+            this.path = path;
+            this.memorySegment = memorySegment;
+        }
+
+        long getId(final long recordOffset) {
+            return memorySegment.get(ValueLayout.JAVA_LONG, recordOffset + ID_OFFSET);
+        }
+
+        void putId(final long recordOffset, final long id) {
+            memorySegment.set(ValueLayout.JAVA_LONG, recordOffset + ID_OFFSET, id);
+        }
+
+        int getState(final long recordOffset) {
+            return memorySegment.get(ValueLayout.JAVA_INT, recordOffset + STATE_OFFSET);
+        }
+
+        void putState(final long recordOffset, final int state) {
+            memorySegment.set(ValueLayout.JAVA_INT, recordOffset + STATE_OFFSET, state);
+        }
+
+        boolean compareAndSetState(final long recordOffset, final int expectedState, final int newState) {
+            return STATE_HANDLE.compareAndSet(memorySegment, recordOffset + STATE_OFFSET, expectedState, newState);
+        }
+
+        int incrementClosedCount() {
+            return closedCount.incrementAndGet();
+        }
+
+        @Override
+        public String toString() {
+            return "Segment{" +
+                   "segmentNo=" + segmentNo +
+                   ", path=" + path +
+                   ", closedCount=" + closedCount +
+                   '}';
+        }
+    }
+}
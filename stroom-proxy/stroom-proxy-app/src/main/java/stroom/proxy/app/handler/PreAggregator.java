@@ -16,6 +16,7 @@
 
 package stroom.proxy.app.handler;
 
+import stroom.meta.api.AttributeMap;
 import stroom.meta.api.AttributeMapUtil;
 import stroom.meta.api.StandardHeaderArguments;
 import stroom.proxy.app.DataDirProvider;
@@ -41,7 +42,6 @@ import jakarta.inject.Singleton;
 import org.apache.commons.compress.archivers.zip.ZipArchiveEntry;
 import org.apache.commons.compress.archivers.zip.ZipFile;
 import org.jspecify.annotations.NullMarked;
-import org.jspecify.annotations.Nullable;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -54,11 +54,16 @@ import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
@@ -80,6 +85,14 @@ public class PreAggregator {
     private static final int FEED_HEADER_KEY_INDEX = FEED_AND_TYPE_HEADER_KEYS.indexOf(StandardHeaderArguments.FEED);
     private static final int TYPE_HEADER_KEY_INDEX = FEED_AND_TYPE_HEADER_KEYS.indexOf(StandardHeaderArguments.TYPE);
 
+    // Keys used in the aggregate state checkpoint files
+    private static final String STATE_FILE_EXTENSION = ".state";
+    private static final String TEMP_STATE_FILE_EXTENSION = ".state.tmp";
+    private static final String CREATE_TIME_KEY = "CreateTime";
+    private static final String PART_COUNT_KEY = "PartCount";
+    private static final String ITEM_COUNT_KEY = "ItemCount";
+    private static final String TOTAL_BYTES_KEY = "TotalBytes";
+
     /**
      * /22_splitting/
      */
@@ -94,7 +107,13 @@ public class PreAggregator {
      * 21_pre_aggregates
      */
     private final Path aggregatingDir;
+    /**
+     * 24_pre_aggregate_state
+     */
+    private final Path aggregateStateDir;
     private final Map<FeedKey, AggregateState> aggregateStateMap = new ConcurrentHashMap<>();
+    // Every aggregate in order of when it becomes too old, so we only look at the ones that are due
+    private final DelayQueue<AgeCheck> ageChecks = new DelayQueue<>();
     private final Striped<Lock> feedKeyLock = Striped.lock(FEED_KEY_LOCK_STRIPES);
     private final Histogram aggregateItemCountHistogram;
     private final Histogram aggregateByteSizeHistogram;
@@ -116,6 +135,10 @@ public class PreAggregator {
         LOGGER.info("Initialising PreAggregator with aggregateDir: {}", aggregatingDir);
         DirUtil.ensureDirExists(aggregatingDir);
 
+        // Get or create the dir we checkpoint the aggregate state to.
+        aggregateStateDir = dataDirProvider.get().resolve(DirNames.PRE_AGGREGATE_STATE);
+        DirUtil.ensureDirExists(aggregateStateDir);
+
         // Read all the current aggregates and establish the aggregation state.
         initialiseAggregateStateMap();
 
@@ -182,73 +205,249 @@ public class PreAggregator {
                 .histogram()
                 .createAndRegister();
 
-        // Periodically close old aggregates.
+        // Periodically close old aggregates. This only looks at the aggregates that are due to be
+        // closed, so it is cheap to run often.
         // Initialise this last in the ctor so that it is not fighting with the code
         // above that initialises all the unfinished aggregates found on disk.
         proxyServices.addFrequencyExecutor(
                 "Close Old Aggregates",
                 () -> this::closeOldAggregates,
+                Duration.ofSeconds(1).toMillis());
+
+        // Periodically checkpoint the state of aggregates that have changed.
+        proxyServices.addFrequencyExecutor(
+                "Checkpoint Aggregates",
+                () -> this::checkpointAggregates,
                 Duration.ofSeconds(10).toMillis());
     }
 
     private void initialiseAggregateStateMap() {
         LOGGER.debug("Initialising the state of existing pre-aggregates");
-        // Read all the current aggregates and establish the aggregation state.
         final AggregatorConfig aggregatorConfig = aggregatorConfigProvider.get();
+        final Set<Path> restoredAggregateDirs = new HashSet<>();
+
+        // First restore the aggregates that have a checkpoint, so we only need to read the
+        // parts that have been added since the checkpoint was written.
+        try (final Stream<Path> stream = Files.list(aggregateStateDir)) {
+            stream.forEach(stateFile -> {
+                final String fileName = stateFile.getFileName().toString();
+                if (fileName.endsWith(STATE_FILE_EXTENSION)) {
+                    NullSafe.consume(restoreAggregateState(stateFile, aggregatorConfig),
+                            restoredAggregateDirs::add);
+                } else {
+                    // A temp file left behind by a failed checkpoint
+                    deleteStateFile(stateFile);
+                }
+            });
+        } catch (final IOException e) {
+            LOGGER.error(e::getMessage, e);
+            throw new UncheckedIOException(e);
+        }
+        final int restoredCount = restoredAggregateDirs.size();
+
+        // Now read all parts of any aggregates that don't have a checkpoint, e.g. ones written
+        // by an older version of proxy.
         try (final Stream<Path> stream = Files.list(aggregatingDir)) {
             // Look at each aggregate dir.
-            stream.forEach(aggregateDir -> {
-                final AggregateState aggregateState = new AggregateState(aggregatorConfig, aggregateDir);
-                final AtomicReference<FeedKey> feedKeyRef = new AtomicReference<>();
-                // Intern the feedKeys in the entries to reduce mem use
-                final FeedKeyInterner feedKeyInterner = FeedKey.createInterner();
-                // Now examine each file group to read state.
-                try (final Stream<Path> groupStream = Files.list(aggregateDir)) {
-                    // Now read the entries.
-                    groupStream.forEach(groupDir -> {
-                        final FileGroup fileGroup = new FileGroup(groupDir);
-                        final Path entriesFile = fileGroup.getEntries();
-                        aggregateState.partCount++;
-                        try (final BufferedReader bufferedReader = Files.newBufferedReader(entriesFile)) {
-                            String line = bufferedReader.readLine();
-                            while (line != null) {
-                                final ZipEntryGroup zipEntryGroup = ZipEntryGroup.read(line, feedKeyInterner);
-                                final long totalUncompressedSize = zipEntryGroup.getTotalUncompressedSize();
-                                aggregateState.addItem(totalUncompressedSize);
-
-                                final FeedKey existingFeedKey = feedKeyRef.get();
-                                final FeedKey newFeedKey = zipEntryGroup.getFeedKey();
-                                if (existingFeedKey != null) {
-                                    if (!existingFeedKey.equals(newFeedKey)) {
-                                        LOGGER.error("Unexpected feed key mismatch!!!");
-                                    }
-                                } else {
-                                    feedKeyRef.set(newFeedKey);
-                                }
-
-                                line = bufferedReader.readLine();
-                            }
-                        } catch (final IOException e) {
-                            LOGGER.error(e::getMessage, e);
-                            throw new UncheckedIOException(e);
-                        }
+            stream.filter(aggregateDir -> !restoredAggregateDirs.contains(aggregateDir))
+                    .forEach(aggregateDir -> {
+                        final AggregateState aggregateState = new AggregateState(aggregatorConfig, aggregateDir);
+                        final FeedKey feedKey = readAllParts(aggregateState);
+                        LOGGER.debug("Initialised aggregateState {}", aggregateState);
+                        NullSafe.consume(feedKey, key ->
+                                addAggregateState(key, aggregateState));
                     });
-                } catch (final IOException e) {
-                    LOGGER.error(e::getMessage, e);
-                    throw new UncheckedIOException(e);
+        } catch (final IOException e) {
+            LOGGER.error(e::getMessage, e);
+            throw new UncheckedIOException(e);
+        }
+        final int size = aggregateStateMap.size();
+        if (size > 0) {
+            LOGGER.info("Completed initialisation of {} pre-aggregates, {} restored from checkpoint",
+                    size, restoredCount);
+        }
+    }
+
+    /**
+     * Restore an aggregate from its checkpoint and read any parts added after the checkpoint.
+     *
+     * @return The aggregate dir of the restored aggregate or null if there was nothing to restore.
+     */
+    private Path restoreAggregateState(final Path stateFile, final AggregatorConfig aggregatorConfig) {
+        try {
+            final AttributeMap attributeMap = new AttributeMap();
+            AttributeMapUtil.read(stateFile, attributeMap);
+            final FeedKey feedKey = FeedKey.of(
+                    attributeMap.get(StandardHeaderArguments.FEED),
+                    attributeMap.get(StandardHeaderArguments.TYPE));
+            final Path aggregateDir = aggregatingDir.resolve(DirUtil.makeSafeName(feedKey));
+            if (!Files.isDirectory(aggregateDir)) {
+                // The aggregate was closed after the checkpoint was written
+                LOGGER.debug("No aggregate dir for checkpoint {}", stateFile);
+                deleteStateFile(stateFile);
+                return null;
+            }
+
+            final AggregateState aggregateState = new AggregateState(
+                    aggregatorConfig,
+                    Instant.parse(attributeMap.get(CREATE_TIME_KEY)),
+                    aggregateDir);
+            final long partCount = Long.parseLong(attributeMap.get(PART_COUNT_KEY));
+            final FeedKeyInterner feedKeyInterner = FeedKey.createInterner();
+            feedKeyInterner.intern(feedKey);
+            final AtomicReference<FeedKey> feedKeyRef = new AtomicReference<>(feedKey);
+            if (partCount == 0 || Files.isDirectory(getPartDir(aggregateDir, partCount))) {
+                aggregateState.partCount = partCount;
+                aggregateState.itemCount = Long.parseLong(attributeMap.get(ITEM_COUNT_KEY));
+                aggregateState.totalBytes = Long.parseLong(attributeMap.get(TOTAL_BYTES_KEY));
+                aggregateState.checkpointPartCount = partCount;
+
+                // Parts are numbered in the order they are added so read any after the checkpoint.
+                Path partDir = getPartDir(aggregateDir, aggregateState.partCount + 1);
+                while (Files.isDirectory(partDir)) {
+                    aggregateState.partCount++;
+                    readPart(partDir, aggregateState, feedKeyRef, feedKeyInterner);
+                    partDir = getPartDir(aggregateDir, aggregateState.partCount + 1);
                 }
+            } else {
+                // The checkpoint doesn't match the parts on disk so read them all.
+                LOGGER.warn("Checkpoint {} does not match the parts in {}, reading all parts",
+                        stateFile, aggregateDir);
+                readAllParts(aggregateState);
+            }
+
+            if (aggregateState.partCount == 0) {
+                // Nothing was ever added so leave the empty dir to be reused
+                deleteStateFile(stateFile);
+                return null;
+            }
+
+            LOGGER.debug("Restored aggregateState {}", aggregateState);
+            addAggregateState(feedKey, aggregateState);
+            return aggregateDir;
+        } catch (final IOException | RuntimeException e) {
+            // Fall back to reading all the parts
+            LOGGER.error("Unable to restore aggregate state from {}, {}",
+                    stateFile, LogUtil.exceptionMessage(e), e);
+            deleteStateFile(stateFile);
+            return null;
+        }
+    }
+
+    /**
+     * Add an aggregate found on startup and make sure its checkpoint is up to date.
+     */
+    private void addAggregateState(final FeedKey feedKey, final AggregateState aggregateState) {
+        aggregateStateMap.put(feedKey, aggregateState);
+        ageChecks.add(new AgeCheck(feedKey, aggregateState));
+        if (aggregateState.isCheckpointDue()) {
+            try {
+                writeAggregateState(feedKey, aggregateState);
+            } catch (final IOException e) {
+                LOGGER.error("Unable to checkpoint aggregate {}, {}",
+                        aggregateState, LogUtil.exceptionMessage(e), e);
+            }
+        }
+    }
 
-                LOGGER.debug("Initialised aggregateState {}", aggregateState);
-                NullSafe.consume(feedKeyRef.get(), feedKey ->
-                        aggregateStateMap.put(feedKey, aggregateState));
+    /**
+     * Read the entries of all parts in the aggregate dir to establish the aggregate state.
+     *
+     * @return The feed key of the aggregate or null if it has no parts.
+     */
+    private FeedKey readAllParts(final AggregateState aggregateState) {
+        final AtomicReference<FeedKey> feedKeyRef = new AtomicReference<>();
+        // Intern the feedKeys in the entries to reduce mem use
+        final FeedKeyInterner feedKeyInterner = FeedKey.createInterner();
+        aggregateState.partCount = 0;
+        aggregateState.itemCount = 0;
+        aggregateState.totalBytes = 0;
+        // Now examine each file group to read state.
+        try (final Stream<Path> groupStream = Files.list(aggregateState.aggregateDir)) {
+            groupStream.forEach(groupDir -> {
+                aggregateState.partCount++;
+                readPart(groupDir, aggregateState, feedKeyRef, feedKeyInterner);
             });
         } catch (final IOException e) {
             LOGGER.error(e::getMessage, e);
             throw new UncheckedIOException(e);
         }
-        final int size = aggregateStateMap.size();
-        if (size > 0) {
-            LOGGER.info("Completed initialisation of {} pre-aggregates", size);
+        return feedKeyRef.get();
+    }
+
+    /**
+     * Read the entries of a part and add them to the aggregate state.
+     */
+    private void readPart(final Path groupDir,
+                          final AggregateState aggregateState,
+                          final AtomicReference<FeedKey> feedKeyRef,
+                          final FeedKeyInterner feedKeyInterner) {
+        final FileGroup fileGroup = new FileGroup(groupDir);
+        final Path entriesFile = fileGroup.getEntries();
+        try (final BufferedReader bufferedReader = Files.newBufferedReader(entriesFile)) {
+            String line = bufferedReader.readLine();
+            while (line != null) {
+                final ZipEntryGroup zipEntryGroup = ZipEntryGroup.read(line, feedKeyInterner);
+                final long totalUncompressedSize = zipEntryGroup.getTotalUncompressedSize();
+                aggregateState.addItem(totalUncompressedSize);
+
+                final FeedKey existingFeedKey = feedKeyRef.get();
+                final FeedKey newFeedKey = zipEntryGroup.getFeedKey();
+                if (existingFeedKey != null) {
+                    if (!existingFeedKey.equals(newFeedKey)) {
+                        LOGGER.error("Unexpected feed key mismatch!!!");
+                    }
+                } else {
+                    feedKeyRef.set(newFeedKey);
+                }
+
+                line = bufferedReader.readLine();
+            }
+        } catch (final IOException e) {
+            LOGGER.error(e::getMessage, e);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Path getPartDir(final Path aggregateDir, final long partNo) {
+        return aggregateDir.resolve(StringIdUtil.idToString(partNo));
+    }
+
+    private Path getStateFile(final FeedKey feedKey) {
+        return aggregateStateDir.resolve(DirUtil.makeSafeName(feedKey) + STATE_FILE_EXTENSION);
+    }
+
+    /**
+     * Atomically replace the checkpoint of the aggregate.
+     * <p>
+     * MUST be called under the feedKeyLock.
+     * </p>
+     */
+    private void writeAggregateState(final FeedKey feedKey,
+                                     final AggregateState aggregateState) throws IOException {
+        final AttributeMap attributeMap = new AttributeMap();
+        AttributeMapUtil.addFeedAndType(attributeMap, feedKey.feed(), feedKey.type());
+        attributeMap.put(CREATE_TIME_KEY, aggregateState.createTime.toString());
+        attributeMap.put(PART_COUNT_KEY, String.valueOf(aggregateState.partCount));
+        attributeMap.put(ITEM_COUNT_KEY, String.valueOf(aggregateState.itemCount));
+        attributeMap.put(TOTAL_BYTES_KEY, String.valueOf(aggregateState.totalBytes));
+
+        final String name = DirUtil.makeSafeName(feedKey);
+        final Path tempFile = aggregateStateDir.resolve(name + TEMP_STATE_FILE_EXTENSION);
+        AttributeMapUtil.write(attributeMap, tempFile);
+        Files.move(tempFile,
+                aggregateStateDir.resolve(name + STATE_FILE_EXTENSION),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        aggregateState.checkpointPartCount = aggregateState.partCount;
+        LOGGER.trace("Checkpointed aggregateState {}", aggregateState);
+    }
+
+    private void deleteStateFile(final Path stateFile) {
+        try {
+            Files.deleteIfExists(stateFile);
+        } catch (final IOException e) {
+            LOGGER.error("Unable to delete {}, {}", stateFile, LogUtil.exceptionMessage(e), e);
         }
     }
 
@@ -539,6 +738,7 @@ public class PreAggregator {
 
             destination.accept(aggregateState.aggregateDir);
             aggregateStateMap.remove(feedKey);
+            deleteStateFile(getStateFile(feedKey));
             captureAggregateMetrics(aggregateState);
             LOGGER.debug(() -> LogUtil.message("closeAggregate() - feedKey: {}, {}, closed aggregate",
                     feedKey, aggregateState));
@@ -645,11 +845,17 @@ public class PreAggregator {
             final Path aggregateDir = aggregatingDir.resolve(feedKeyDirName);
             LOGGER.debug(() -> "Creating aggregate: " + FileUtil.getCanonicalPath(aggregateDir));
 
+            // Checkpoint the new aggregate before any parts are added so that a checkpoint
+            // from a previous aggregate with the same dir can never be applied to this one.
+            final AggregateState aggregateState = new AggregateState(aggregatorConfig, aggregateDir);
+            writeAggregateState(feedKey, aggregateState);
+
             // Ensure the dir exists.
             Files.createDirectories(aggregateDir);
 
             LOGGER.debug(() -> "Created aggregate: " + FileUtil.getCanonicalPath(aggregateDir));
-            return new AggregateState(aggregatorConfig, aggregateDir);
+            ageChecks.add(new AgeCheck(feedKey, aggregateState));
+            return aggregateState;
 
         } catch (final IOException e) {
             LOGGER.error(e::getMessage, e);
@@ -658,37 +864,29 @@ public class PreAggregator {
     }
 
     /**
-     * Synchronised is ONLY to stop closeOldAggregates being called concurrently
-     * (which shouldn't really happen with the frequency executor).
-     * We additionally get a feedKeyLock on each feedKey to process each feedKey.
+     * Close any aggregates that have become too old. Aggregates are checked in the order they
+     * become too old, so we only look at the feeds that are due rather than all of them.
+     * Each feedKey is closed under its feedKeyLock.
      */
-    private synchronized void closeOldAggregates() {
-        final AtomicInteger count = new AtomicInteger();
-        // The keys in the map may be removed while we are building the copy, but hopefully it is OK
-        // as FeedKey is immutable, and we will re-check the items in our copy under feedKeyLock.
-        // Copy to a list to avoid using the set view that is backed by the map
-        final List<FeedKey> feedKeys = new ArrayList<>(aggregateStateMap.keySet());
-
-        for (final FeedKey feedKey : feedKeys) {
-            // It's possible another thread may have removed it as we don't yet hold a lock.
-            // We are OK to check the age without a lock as the age aggregateAfter is final.
-            if (isAggregateTooOld(aggregateStateMap.get(feedKey))) {
+    void closeOldAggregates() {
+        int count = 0;
+        AgeCheck ageCheck = ageChecks.poll();
+        while (ageCheck != null) {
+            final FeedKey feedKey = ageCheck.feedKey();
+            // The aggregate may already have been closed for being too big, in which case there
+            // is nothing to do.
+            if (aggregateStateMap.get(feedKey) == ageCheck.aggregateState()) {
                 // Get exclusive use of this feedKey
                 final Lock lock = feedKeyLock.get(feedKey);
                 lock.lock();
                 try {
-                    // Re-fetch and Re-test under lock
+                    // Re-test under lock
                     final AggregateState aggregateState = aggregateStateMap.get(feedKey);
-                    if (isAggregateTooOld(aggregateState)) {
-                        final boolean didClose = closeAggregate(feedKey, aggregateState);
-                        if (didClose) {
-                            count.incrementAndGet();
-                        } else {
-                            LOGGER.debug("closeOldAggregate() - feedKey: {}, aggregateState: {}, didn't close",
-                                    feedKey, aggregateState);
-                        }
+                    if (aggregateState == ageCheck.aggregateState()) {
+                        closeAggregate(feedKey, aggregateState);
+                        count++;
                     } else {
-                        LOGGER.debug("closeOldAggregate() - Null after re-fetch, feedKey: {}, " +
+                        LOGGER.debug("closeOldAggregate() - Changed after re-fetch, feedKey: {}, " +
                                      "aggregateState: {}, didn't close",
                                 feedKey, aggregateState);
                     }
@@ -696,16 +894,43 @@ public class PreAggregator {
                     lock.unlock();
                 }
             }
+            ageCheck = ageChecks.poll();
         }
-        if (LOGGER.isDebugEnabled()) {
-            if (count.get() > 0) {
-                LOGGER.debug("closeOldAggregates() - closed {} old aggregates", count);
-            }
+        if (count > 0) {
+            LOGGER.debug("closeOldAggregates() - closed {} old aggregates", count);
         }
     }
 
-    private boolean isAggregateTooOld(@Nullable final AggregateState aggregateState) {
-        return aggregateState != null && aggregateState.isAggregateTooOld();
+    /**
+     * Checkpoint the state of any aggregates that have had parts added since their
+     * last checkpoint.
+     */
+    void checkpointAggregates() {
+        int count = 0;
+        for (final Map.Entry<FeedKey, AggregateState> entry : aggregateStateMap.entrySet()) {
+            // Not under lock so may be stale, but we will see the change on the next run
+            if (entry.getValue().isCheckpointDue()) {
+                final FeedKey feedKey = entry.getKey();
+                final Lock lock = feedKeyLock.get(feedKey);
+                lock.lock();
+                try {
+                    // Re-test under lock, don't checkpoint an aggregate that has been closed
+                    final AggregateState aggregateState = aggregateStateMap.get(feedKey);
+                    if (aggregateState == entry.getValue() && aggregateState.isCheckpointDue()) {
+                        writeAggregateState(feedKey, aggregateState);
+                        count++;
+                    }
+                } catch (final IOException e) {
+                    LOGGER.error("Unable to checkpoint aggregate {}, {}",
+                            entry.getValue(), LogUtil.exceptionMessage(e), e);
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+        if (count > 0) {
+            LOGGER.debug("checkpointAggregates() - checkpointed {} aggregates", count);
+        }
     }
 
     public void setDestination(final Consumer<Path> destination) {
@@ -730,6 +955,8 @@ public class PreAggregator {
         private long partCount;
         private long itemCount;
         private long totalBytes;
+        // The partCount when the state was last checkpointed
+        private long checkpointPartCount = -1;
 
         private AggregateState(final AggregatorConfig aggregatorConfig,
                                final Path aggregateDir) {
@@ -791,6 +1018,14 @@ public class PreAggregator {
             return isReadyToClose;
         }
 
+        /**
+         * @return True if parts have been added since the last checkpoint. Must be called under
+         * feedKeyLock unless a stale answer is acceptable.
+         */
+        private boolean isCheckpointDue() {
+            return partCount != checkpointPartCount;
+        }
+
         /**
          * @return Current age of the aggregate, i.e. time between its creation time and now
          */
@@ -814,6 +1049,29 @@ public class PreAggregator {
     // --------------------------------------------------------------------------------
 
 
+    /**
+     * An aggregate that is due to be closed once it is too old.
+     *
+     * @param feedKey        The feed key of the aggregate.
+     * @param aggregateState The aggregate, which may have been closed already.
+     */
+    private record AgeCheck(FeedKey feedKey, AggregateState aggregateState) implements Delayed {
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(Duration.between(Instant.now(), aggregateState.aggregateAfter));
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            return aggregateState.aggregateAfter.compareTo(((AgeCheck) other).aggregateState.aggregateAfter);
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
     /**
      * Record of a part items and total byte size.
      *
@@ -18,13 +18,29 @@ package stroom.proxy.app.handler;
 
 import stroom.meta.api.AttributeMap;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public interface StreamDestination {
 
     void send(AttributeMap attributeMap,
               InputStream inputStream) throws ForwardException;
 
+    /**
+     * Send a file that has already been written, e.g. an aggregate zip. By default, this
+     * streams the file to {@link #send(AttributeMap, InputStream)}, implementations may
+     * be able to send it more efficiently.
+     */
+    default void send(final AttributeMap attributeMap,
+                      final Path file) throws ForwardException, IOException {
+        try (final InputStream inputStream = new BufferedInputStream(Files.newInputStream(file))) {
+            send(attributeMap, inputStream);
+        }
+    }
+
     boolean performLivenessCheck() throws Exception;
 
     boolean hasLivenessCheck();
@@ -34,6 +34,7 @@ public class DirQueueFactoryFactory {
         return new DirQueueFactory(
                 dataDirProvider,
                 mockQueueMonitors,
-                mockFileStores);
+                mockFileStores,
+                DirQueueConfig::new);
     }
 }
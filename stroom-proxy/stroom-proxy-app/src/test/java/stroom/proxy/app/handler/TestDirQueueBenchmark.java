@@ -0,0 +1,109 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.proxy.app.handler;
+
+import stroom.proxy.repo.queue.QueueMonitors;
+import stroom.proxy.repo.store.FileStores;
+import stroom.test.common.MockMetrics;
+import stroom.util.io.FileUtil;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Compares the throughput of the {@link DirQueueType} implementations when adding an item, taking
+ * it off the queue and closing it. The queue is pre-filled with items so consumers also have to
+ * find the next item in a populated directory structure.
+ */
+public class TestDirQueueBenchmark {
+
+    @Fork(value = 1, warmups = 1)
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @Measurement(iterations = 3)
+    @Threads(4)
+    public void benchAddNextClose(final ExecutionPlan plan, final Blackhole blackhole) {
+        plan.dirQueue.add(plan.createSourceDir());
+        try (final Dir dir = plan.dirQueue.next()) {
+            blackhole.consume(dir.getPath());
+            FileUtil.deleteDir(dir.getPath());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"NUMBERED", "JOURNAL"})
+        public DirQueueType type;
+
+        @Param({"0", "10000"})
+        public int backlog;
+
+        public DirQueue dirQueue;
+
+        private Path baseDir;
+        private Path tempDir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            baseDir = Files.createTempDirectory("dir_queue_benchmark");
+            tempDir = FileUtil.ensureDirExists(baseDir.resolve("temp"));
+            final MockMetrics metrics = new MockMetrics();
+            final Path rootDir = baseDir.resolve("queue");
+            dirQueue = switch (type) {
+                case NUMBERED -> new NumberedDirQueue(
+                        rootDir, new QueueMonitors(metrics), new FileStores(metrics), 1, "benchmark");
+                case JOURNAL -> new JournalDirQueue(
+                        rootDir, new QueueMonitors(metrics), new FileStores(metrics), 1, "benchmark");
+            };
+            for (int i = 0; i < backlog; i++) {
+                dirQueue.add(createSourceDir());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            FileUtil.deleteDir(baseDir);
+        }
+
+        Path createSourceDir() {
+            try {
+                final Path sourceDir = Files.createTempDirectory(tempDir, "");
+                Files.writeString(sourceDir.resolve("proxy.meta"), "Feed:TEST_FEED");
+                return sourceDir;
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
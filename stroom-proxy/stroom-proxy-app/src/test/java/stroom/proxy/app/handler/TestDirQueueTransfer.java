@@ -64,8 +64,8 @@ class TestDirQueueTransfer {
 
     @Test
     void test_success() {
-        sourceQueue = new DirQueue(sourceQueueDir, queueMonitors, fileStores, 1, "source");
-        destQueue = new DirQueue(destQueueDir, queueMonitors, fileStores, 2, "dest");
+        sourceQueue = new NumberedDirQueue(sourceQueueDir, queueMonitors, fileStores, 1, "source");
+        destQueue = new NumberedDirQueue(destQueueDir, queueMonitors, fileStores, 2, "dest");
 
         final DirQueueTransfer dirQueueTransfer = new DirQueueTransfer(sourceQueue::next, destQueue::add);
 
@@ -98,8 +98,8 @@ class TestDirQueueTransfer {
 
     @Test
     void test_destinationFailure() {
-        sourceQueue = new DirQueue(sourceQueueDir, queueMonitors, fileStores, 1, "source");
-        destQueue = new DirQueue(destQueueDir, queueMonitors, fileStores, 2, "dest");
+        sourceQueue = new NumberedDirQueue(sourceQueueDir, queueMonitors, fileStores, 1, "source");
+        destQueue = new NumberedDirQueue(destQueueDir, queueMonitors, fileStores, 2, "dest");
 
         final DirQueueTransfer dirQueueTransfer = new DirQueueTransfer(
                 sourceQueue::next,
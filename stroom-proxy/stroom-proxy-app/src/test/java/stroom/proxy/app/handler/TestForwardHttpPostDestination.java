@@ -82,7 +82,7 @@ class TestForwardHttpPostDestination {
                             sentLatch.countDown();
                             return null;
                         })
-                .when(mockStreamDestination).send(Mockito.any(), Mockito.any());
+                .when(mockStreamDestination).send(Mockito.any(), Mockito.any(Path.class));
 
         final Path source1 = createSourceDir(1);
         forwardHttpPostDestination.add(source1);
@@ -111,7 +111,7 @@ class TestForwardHttpPostDestination {
                 downstreamHostConfig);
 
         Mockito.doThrow(new RuntimeException("Send failed"))
-                .when(mockStreamDestination).send(Mockito.any(), Mockito.any());
+                .when(mockStreamDestination).send(Mockito.any(), Mockito.any(Path.class));
 
         final Path source1 = createSourceDir(1);
 
@@ -48,17 +48,22 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.extension.RegisterExtension;
+import org.junit.jupiter.api.io.TempDir;
 import org.junit.jupiter.api.parallel.ResourceLock;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.Logger;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -261,6 +266,69 @@ class TestHttpSender {
                         Mockito.anyLong());
     }
 
+    @Test
+    void testSendFile(@TempDir final Path tempDir) throws IOException, ProtocolException, ForwardException {
+        final ForwardHttpPostConfig config = MockHttpDestination.createForwardHttpPostConfig(false);
+        final DownstreamHostConfig downstreamHostConfig = MockHttpDestination.createDownstreamHostConfig();
+        final StroomStatusCode stroomStatusCode = StroomStatusCode.OK;
+        final String receiptId = "my-receipt-id";
+        Mockito.when(mockHttpResponse.getCode())
+                .thenReturn(stroomStatusCode.getHttpCode());
+        Mockito.when(mockHttpResponse.getHeader(Mockito.anyString()))
+                .thenReturn(TestHeader.of(String.valueOf(stroomStatusCode.getCode())));
+        Mockito.when(mockHttpResponse.getEntity())
+                .thenReturn(mockHttpEntity);
+        Mockito.when(mockHttpEntity.getContent())
+                .thenReturn(IOUtils.toInputStream(receiptId, StandardCharsets.UTF_8));
+
+        final byte[] payload = new byte[(128 * 1024) + 123];
+        new Random(1).nextBytes(payload);
+        final Path file = tempDir.resolve("proxy.zip");
+        Files.write(file, payload);
+
+        final ByteArrayOutputStream sent = new ByteArrayOutputStream();
+        Mockito.doAnswer(
+                        invocation -> {
+                            final HttpPost httpPost = invocation.getArgument(0, HttpPost.class);
+                            assertThat(httpPost.getEntity().getContentLength())
+                                    .isEqualTo(payload.length);
+                            assertThat(httpPost.getEntity().isRepeatable())
+                                    .isTrue();
+                            httpPost.getEntity().writeTo(sent);
+                            final HttpClientResponseHandler<?> responseHandler = invocation.getArgument(
+                                    1, HttpClientResponseHandler.class);
+                            return responseHandler.handleResponse(mockHttpResponse);
+                        })
+                .when(mockHttpClient)
+                .execute(Mockito.any(HttpPost.class), Mockito.any(HttpClientResponseHandler.class));
+
+        final HttpSender httpSender = new HttpSender(
+                mockLogStream,
+                downstreamHostConfig,
+                config,
+                "my-user-agent",
+                mockUserIdentityFactory,
+                mockHttpClient,
+                new MockMetrics(),
+                mockProxyServices);
+        final AttributeMap attributeMap = new AttributeMap(Map.of(
+                StandardHeaderArguments.FEED, "MY_FEED"
+        ));
+        httpSender.send(attributeMap, file);
+
+        assertThat(sent.toByteArray())
+                .isEqualTo(payload);
+        Mockito.verify(mockLogStream, Mockito.times(1))
+                .log(Mockito.any(Logger.class),
+                        Mockito.any(AttributeMap.class),
+                        Mockito.eq(EventType.SEND),
+                        Mockito.eq(config.createForwardUrl(downstreamHostConfig)),
+                        Mockito.eq(stroomStatusCode),
+                        Mockito.eq(receiptId),
+                        Mockito.eq((long) payload.length),
+                        Mockito.anyLong());
+    }
+
     @Test
     void testRejected() throws IOException, ProtocolException {
         final ForwardHttpPostConfig config = MockHttpDestination.createForwardHttpPostConfig(false);
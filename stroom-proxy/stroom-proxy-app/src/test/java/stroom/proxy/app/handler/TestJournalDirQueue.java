@@ -0,0 +1,265 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.proxy.app.handler;
+
+import stroom.proxy.repo.queue.QueueMonitors;
+import stroom.proxy.repo.store.FileStores;
+import stroom.test.common.MockMetrics;
+import stroom.util.io.FileUtil;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestJournalDirQueue {
+
+    private final MockMetrics metrics = new MockMetrics();
+
+    @Test
+    void testAddNextClose(@TempDir final Path baseDir) {
+        final Path rootDir = baseDir.resolve("queue");
+        final JournalDirQueue dirQueue = createQueue(rootDir);
+
+        addDir(baseDir, dirQueue, "a");
+        addDir(baseDir, dirQueue, "b");
+        addDir(baseDir, dirQueue, "c");
+        assertThat(dirQueue.getWriteId())
+                .isEqualTo(3);
+
+        for (final String expected : List.of("a", "b", "c")) {
+            try (final Dir dir = dirQueue.next()) {
+                assertThat(readContent(dir))
+                        .isEqualTo(expected);
+                FileUtil.deleteDir(dir.getPath());
+            }
+        }
+
+        assertThat(dirQueue.next(10, TimeUnit.MILLISECONDS))
+                .isEmpty();
+        // Only the journal should be left.
+        assertThat(FileUtil.count(rootDir))
+                .isEqualTo(1);
+        assertThat(Files.isDirectory(rootDir.resolve(JournalDirQueue.JOURNAL_DIR_NAME)))
+                .isTrue();
+    }
+
+    @Test
+    void testReopen(@TempDir final Path baseDir) {
+        final Path rootDir = baseDir.resolve("queue");
+        final JournalDirQueue dirQueue = createQueue(rootDir);
+
+        addDir(baseDir, dirQueue, "a");
+        addDir(baseDir, dirQueue, "b");
+        addDir(baseDir, dirQueue, "c");
+
+        // Fully process the first.
+        try (final Dir dir = dirQueue.next()) {
+            FileUtil.deleteDir(dir.getPath());
+        }
+        // Take the second but don't close it, as if we stopped mid-process.
+        final Dir unclosedDir = dirQueue.next();
+        assertThat(readContent(unclosedDir))
+                .isEqualTo("b");
+
+        // Re open.
+        final JournalDirQueue reopenedQueue = createQueue(rootDir);
+        assertThat(reopenedQueue.getWriteId())
+                .isEqualTo(3);
+        assertThat(reopenedQueue.getReadId())
+                .isEqualTo(2);
+
+        final List<String> contents = new ArrayList<>();
+        Optional<Dir> optDir = reopenedQueue.next(10, TimeUnit.MILLISECONDS);
+        while (optDir.isPresent()) {
+            try (final Dir dir = optDir.get()) {
+                contents.add(readContent(dir));
+                FileUtil.deleteDir(dir.getPath());
+            }
+            optDir = reopenedQueue.next(10, TimeUnit.MILLISECONDS);
+        }
+        assertThat(contents)
+                .containsExactly("b", "c");
+
+        // New items carry on from the last ID.
+        addDir(baseDir, reopenedQueue, "d");
+        assertThat(reopenedQueue.getWriteId())
+                .isEqualTo(4);
+    }
+
+    @Test
+    void testExistingDirs(@TempDir final Path baseDir) {
+        final Path rootDir = baseDir.resolve("queue");
+        // Dirs that are not in the journal, e.g. left by a numbered queue.
+        writeContent(DirUtil.createPath(rootDir, 101L), "101");
+        writeContent(DirUtil.createPath(rootDir, 123L), "123");
+        writeContent(DirUtil.createPath(rootDir, 1_999L), "1999");
+
+        final JournalDirQueue dirQueue = createQueue(rootDir);
+        assertThat(dirQueue.getWriteId())
+                .isEqualTo(1_999L);
+        assertThat(dirQueue.getReadId())
+                .isEqualTo(101L);
+
+        addDir(baseDir, dirQueue, "2000");
+
+        final List<String> contents = new ArrayList<>();
+        Optional<Dir> optDir = dirQueue.next(10, TimeUnit.MILLISECONDS);
+        while (optDir.isPresent()) {
+            try (final Dir dir = optDir.get()) {
+                contents.add(readContent(dir));
+                FileUtil.deleteDir(dir.getPath());
+            }
+            optDir = dirQueue.next(10, TimeUnit.MILLISECONDS);
+        }
+        assertThat(contents)
+                .containsExactly("101", "123", "1999", "2000");
+    }
+
+    @Test
+    void testConcurrentConsumers(@TempDir final Path baseDir) throws Exception {
+        final int count = 2_000;
+        final int consumerCount = 4;
+        final Path rootDir = baseDir.resolve("queue");
+        final JournalDirQueue dirQueue = createQueue(rootDir);
+        final Set<String> consumed = ConcurrentHashMap.newKeySet();
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(consumerCount + 1);
+        try {
+            final CompletableFuture<Void> producer = CompletableFuture.runAsync(() -> {
+                for (int i = 0; i < count; i++) {
+                    addDir(baseDir, dirQueue, String.valueOf(i));
+                }
+            }, executorService);
+
+            final List<CompletableFuture<Void>> consumers = new ArrayList<>();
+            for (int i = 0; i < consumerCount; i++) {
+                consumers.add(CompletableFuture.runAsync(() -> {
+                    Optional<Dir> optDir = dirQueue.next(1, TimeUnit.SECONDS);
+                    while (optDir.isPresent()) {
+                        try (final Dir dir = optDir.get()) {
+                            // Each item must only be consumed once.
+                            assertThat(consumed.add(readContent(dir)))
+                                    .isTrue();
+                            FileUtil.deleteDir(dir.getPath());
+                        }
+                        optDir = dirQueue.next(1, TimeUnit.SECONDS);
+                    }
+                }, executorService));
+            }
+
+            producer.get(1, TimeUnit.MINUTES);
+            CompletableFuture.allOf(consumers.toArray(new CompletableFuture[0]))
+                    .get(1, TimeUnit.MINUTES);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        assertThat(consumed)
+                .hasSize(count);
+    }
+
+    @Test
+    void testConcurrentCloseOfSameDir(@TempDir final Path baseDir) throws Exception {
+        final int closerCount = 8;
+        final Path rootDir = baseDir.resolve("queue");
+        final JournalDirQueue dirQueue = createQueue(rootDir);
+        addDir(baseDir, dirQueue, "a");
+        addDir(baseDir, dirQueue, "b");
+
+        final Dir dir = dirQueue.next();
+        FileUtil.deleteDir(dir.getPath());
+
+        final ExecutorService executorService = Executors.newFixedThreadPool(closerCount);
+        try {
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final List<CompletableFuture<Void>> closers = new ArrayList<>();
+            for (int i = 0; i < closerCount; i++) {
+                closers.add(CompletableFuture.runAsync(() -> {
+                    try {
+                        startLatch.await();
+                    } catch (final InterruptedException e) {
+                        throw new RuntimeException(e);
+                    }
+                    dirQueue.close(dir);
+                }, executorService));
+            }
+            startLatch.countDown();
+            CompletableFuture.allOf(closers.toArray(new CompletableFuture[0]))
+                    .get(1, TimeUnit.MINUTES);
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        // The close is only counted once.
+        assertThat(dirQueue.getClosedCount())
+                .isOne();
+        assertThat(dirQueue.getSegmentCount())
+                .isOne();
+    }
+
+    private JournalDirQueue createQueue(final Path rootDir) {
+        return new JournalDirQueue(
+                rootDir,
+                new QueueMonitors(metrics),
+                new FileStores(metrics),
+                1,
+                "test");
+    }
+
+    private void addDir(final Path baseDir, final DirQueue dirQueue, final String content) {
+        try {
+            final Path sourceDir = Files.createTempDirectory(FileUtil.ensureDirExists(baseDir.resolve("temp")), "");
+            writeContent(sourceDir, content);
+            dirQueue.add(sourceDir);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeContent(final Path dir, final String content) {
+        try {
+            Files.createDirectories(dir);
+            Files.writeString(dir.resolve("content.txt"), content);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String readContent(final Dir dir) {
+        try {
+            return Files.readString(dir.getPath().resolve("content.txt"));
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
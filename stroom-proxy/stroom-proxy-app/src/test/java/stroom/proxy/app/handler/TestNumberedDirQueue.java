@@ -52,16 +52,16 @@ import java.util.concurrent.atomic.LongAdder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
-class TestDirQueue extends StroomUnitTest {
+class TestNumberedDirQueue extends StroomUnitTest {
 
-    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(TestDirQueue.class);
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(TestNumberedDirQueue.class);
 
     private static final long MAX = 10_000;
 
     @Test
     void test() {
         final Path dataDir = FileUtil.createTempDirectory("stroom").resolve("repo1");
-        final DirQueue dirQueue = new DirQueue(dataDir,
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(dataDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
                 1,
@@ -73,7 +73,7 @@ class TestDirQueue extends StroomUnitTest {
         addFile(dirQueue);
 
         // Re open.
-        final DirQueue reopenFileStore = new DirQueue(dataDir,
+        final NumberedDirQueue reopenFileStore = new NumberedDirQueue(dataDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
                 1,
@@ -127,7 +127,7 @@ class TestDirQueue extends StroomUnitTest {
         final Snapshot snapshot = DirectorySnapshot.of(rootDir);
         LOGGER.info("snapshot of {}\n{}", rootDir, snapshot);
 
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 rootDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -177,7 +177,7 @@ class TestDirQueue extends StroomUnitTest {
 
         LOGGER.info("snapshot of {}\n{}", rootDir, DirectorySnapshot.of(rootDir));
 
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 rootDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -225,7 +225,7 @@ class TestDirQueue extends StroomUnitTest {
         Snapshot snapshot = DirectorySnapshot.of(rootDir);
         LOGGER.info("snapshot of {}\n{}", rootDir, snapshot);
 
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 rootDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -277,7 +277,7 @@ class TestDirQueue extends StroomUnitTest {
         Snapshot snapshot = DirectorySnapshot.of(rootDir);
         LOGGER.info("snapshot of {}\n{}", rootDir, snapshot);
 
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 rootDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -335,7 +335,7 @@ class TestDirQueue extends StroomUnitTest {
     @Test
     void testPerformance() {
         final Path dataDir = FileUtil.createTempDirectory("stroom").resolve("repo1");
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 dataDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -364,7 +364,7 @@ class TestDirQueue extends StroomUnitTest {
         final Path dataDir = FileUtil.createTempDirectory("stroom").resolve("repo1");
         // Multiple rounds to simulate a proxy rebooting and picking up from where it left off.
         for (int round = 1; round <= 3; round++) {
-            final DirQueue dirQueue = new DirQueue(
+            final NumberedDirQueue dirQueue = new NumberedDirQueue(
                     dataDir,
                     new QueueMonitors(getMetrics()),
                     new FileStores(getMetrics()),
@@ -487,7 +487,7 @@ class TestDirQueue extends StroomUnitTest {
     @Test
     void testPerformanceWithData() {
         final Path dataDir = FileUtil.createTempDirectory("stroom").resolve("repo1");
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 dataDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
@@ -523,7 +523,7 @@ class TestDirQueue extends StroomUnitTest {
 
         LOGGER.info("snapshot of {}\n{}", rootDir, DirectorySnapshot.of(rootDir));
 
-        final DirQueue dirQueue = new DirQueue(
+        final NumberedDirQueue dirQueue = new NumberedDirQueue(
                 rootDir,
                 new QueueMonitors(getMetrics()),
                 new FileStores(getMetrics()),
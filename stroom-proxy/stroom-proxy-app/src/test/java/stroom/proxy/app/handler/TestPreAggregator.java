@@ -108,6 +108,83 @@ public class TestPreAggregator extends StroomUnitTest {
         }
     }
 
+    @Test
+    void testRestoreFromCheckpoint() throws IOException {
+        final Path dataDir = Files.createTempDirectory("data");
+        final DataDirProvider dataDirProvider = () -> dataDir;
+        final ProxyConfig proxyConfig = getProxyConfig(5, StroomDuration.ofDays(1));
+        final List<Integer> partCounts = new ArrayList<>();
+
+        final PreAggregator preAggregator1 = createPreAggregator(dataDirProvider, proxyConfig, partCounts);
+        addInputs(preAggregator1, 2);
+        preAggregator1.checkpointAggregates();
+        assertThat(dataDir.resolve(DirNames.PRE_AGGREGATE_STATE).resolve("test-feed__test-type.state"))
+                .isRegularFile();
+        // Added after the checkpoint so must be read on restart
+        addInputs(preAggregator1, 1);
+        assertThat(partCounts).isEmpty();
+
+        // Simulate a restart
+        final PreAggregator preAggregator2 = createPreAggregator(dataDirProvider, proxyConfig, partCounts);
+        addInputs(preAggregator2, 1);
+        assertThat(partCounts).isEmpty();
+        addInputs(preAggregator2, 1);
+        assertThat(partCounts).containsExactly(5);
+
+        // The checkpoint is removed along with the closed aggregate
+        assertThat(dataDir.resolve(DirNames.PRE_AGGREGATE_STATE)).isEmptyDirectory();
+    }
+
+    @Test
+    void testCloseOldAggregates() throws IOException, InterruptedException {
+        final Path dataDir = Files.createTempDirectory("data");
+        final DataDirProvider dataDirProvider = () -> dataDir;
+        final ProxyConfig proxyConfig = getProxyConfig(5, StroomDuration.ofMillis(500));
+        final List<Integer> partCounts = new ArrayList<>();
+
+        final PreAggregator preAggregator1 = createPreAggregator(dataDirProvider, proxyConfig, partCounts);
+        addInputs(preAggregator1, 2);
+        preAggregator1.closeOldAggregates();
+        assertThat(partCounts).isEmpty();
+
+        // Simulate a restart, the aggregate keeps its original age
+        final PreAggregator preAggregator2 = createPreAggregator(dataDirProvider, proxyConfig, partCounts);
+        Thread.sleep(600);
+        preAggregator2.closeOldAggregates();
+        assertThat(partCounts).containsExactly(2);
+    }
+
+    private PreAggregator createPreAggregator(final DataDirProvider dataDirProvider,
+                                              final ProxyConfig proxyConfig,
+                                              final List<Integer> partCounts) {
+        final PreAggregator preAggregator = new PreAggregator(
+                new CleanupDirQueue(dataDirProvider),
+                dataDirProvider,
+                proxyServices,
+                proxyConfig::getAggregatorConfig,
+                new MockMetrics());
+        preAggregator.setDestination(preAggregateDir -> {
+            try (final Stream<Path> stream = Files.list(preAggregateDir)) {
+                partCounts.add((int) stream.count());
+            } catch (final IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            // Simulate the dir being moved on to the next stage
+            FileUtil.deleteDir(preAggregateDir);
+        });
+        return preAggregator;
+    }
+
+    private void addInputs(final PreAggregator preAggregator, final int count) throws IOException {
+        final NumberedDirProvider numberedDirProvider = new NumberedDirProvider(
+                Files.createTempDirectory("temp"));
+        for (int i = 0; i < count; i++) {
+            final Path dir = numberedDirProvider.get();
+            TestDataUtil.writeFileGroup(new FileGroup(dir), 1, 1, FEED_KEY);
+            preAggregator.addDir(dir);
+        }
+    }
+
     private List<ExpectedOutput> createExpectedOutput(final int inputZipCount,
                                                       final int entryCountPerZip,
                                                       final boolean splitSources) {
@@ -236,6 +313,18 @@ public class TestPreAggregator extends StroomUnitTest {
                 .build();
     }
 
+    private ProxyConfig getProxyConfig(final int maxItemsPerAggregate,
+                                       final StroomDuration aggregationFrequency) {
+        return ProxyConfig.builder()
+                .aggregatorConfig(AggregatorConfig.builder()
+                        .maxUncompressedByteSizeString("1G")
+                        .aggregationFrequency(aggregationFrequency)
+                        .maxItemsPerAggregate(maxItemsPerAggregate)
+                        .splitSources(true)
+                        .build())
+                .build();
+    }
+
     /**
      * Using records takes ~x5 as long
      */
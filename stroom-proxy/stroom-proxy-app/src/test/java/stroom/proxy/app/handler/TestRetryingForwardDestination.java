@@ -77,7 +77,8 @@ class TestRetryingForwardDestination {
         this.proxyServices = new ProxyServices();
         this.dirQueueFactory = new DirQueueFactory(this::getDataDir,
                 new QueueMonitors(new MockMetrics()),
-                mockFileStores);
+                mockFileStores,
+                DirQueueConfig::new);
 
         Mockito.when(mockDelegateDestination.getName())
                 .thenReturn("TestDest");
@@ -34,6 +34,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
     static final int DEFAULT_MAX_STRING_FIELD_LENGTH = 1000;
     static final int DEFAULT_VALUE_QUEUE_SIZE = 10_000;
     static final int DEFAULT_MAX_SORTED_ITEMS = 500_000;
+    static final int DEFAULT_WRITER_PARTITIONS = 1;
 
     private final int maxPutsBeforeCommit;
     private final boolean offHeapResults;
@@ -42,6 +43,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
     private final ByteSize maxPayloadSize;
     private final int maxStringFieldLength;
     private final int maxSortedItems;
+    private final int writerPartitions;
 
     private final ResultStoreLmdbConfig lmdbConfig;
 
@@ -52,6 +54,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
                               final int maxStringFieldLength,
                               final int valueQueueSize,
                               final int maxSortedItems,
+                              final int writerPartitions,
                               final ResultStoreLmdbConfig lmdbConfig) {
         this.maxPutsBeforeCommit = maxPutsBeforeCommit;
         this.offHeapResults = offHeapResults;
@@ -60,6 +63,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
         this.maxStringFieldLength = maxStringFieldLength;
         this.valueQueueSize = valueQueueSize;
         this.maxSortedItems = maxSortedItems;
+        this.writerPartitions = writerPartitions;
         this.lmdbConfig = lmdbConfig;
     }
 
@@ -108,6 +112,18 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
         return maxSortedItems;
     }
 
+    @Min(1)
+    @JsonPropertyDescription("The number of partitions to split an off heap result store into when the results " +
+            "are grouped. Each partition has its own LMDB environment and writer thread, with groups assigned to a " +
+            "partition by the hash of the top level group key, so that high cardinality aggregations can use " +
+            "multiple cores. Results are merged across partitions when read. Each partition can grow to the " +
+            "configured maxStoreSize. Stores that produce payloads or track the latest event reference always use " +
+            "a single partition.")
+    @JsonProperty("writerPartitions")
+    public int getWriterPartitions() {
+        return writerPartitions;
+    }
+
     @JsonProperty("lmdb")
     public ResultStoreLmdbConfig getLmdbConfig() {
         return lmdbConfig;
@@ -123,6 +139,7 @@ public abstract class AbstractResultStoreConfig extends AbstractConfig {
                 ", maxPayloadSize=" + maxPayloadSize +
                 ", maxStringFieldLength=" + maxStringFieldLength +
                 ", maxSortedItems=" + maxSortedItems +
+                ", writerPartitions=" + writerPartitions +
                 ", lmdbConfig=" + lmdbConfig +
                 '}';
     }
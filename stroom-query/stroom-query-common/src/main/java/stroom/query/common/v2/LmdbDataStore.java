@@ -19,9 +19,12 @@ package stroom.query.common.v2;
 import stroom.bytebuffer.impl6.ByteBufferFactory;
 import stroom.dictionary.api.WordListProvider;
 import stroom.lmdb.stream.LmdbEntry;
+import stroom.lmdb.stream.LmdbIterable;
 import stroom.lmdb.stream.LmdbKeyRange;
+import stroom.lmdb.stream.LmdbMergedIterator;
 import stroom.lmdb2.LmdbDb;
 import stroom.lmdb2.LmdbEnv;
+import stroom.lmdb2.LmdbEnvDir;
 import stroom.lmdb2.ReadTxn;
 import stroom.lmdb2.WriteTxn;
 import stroom.query.api.Column;
@@ -48,6 +51,7 @@ import stroom.query.language.functions.ref.StoredValues;
 import stroom.query.language.functions.ref.ValueReferenceIndex;
 import stroom.util.concurrent.CompleteException;
 import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.io.ByteSize;
 import stroom.util.io.FileUtil;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
@@ -63,6 +67,7 @@ import org.lmdbjava.LmdbException;
 import org.lmdbjava.PutFlags;
 
 import java.nio.ByteBuffer;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -89,8 +94,7 @@ public class LmdbDataStore implements DataStore {
     private static final long COMMIT_FREQUENCY_MS = 10000;
     private static final int MAX_LIST_SIZE = 10_000;
 
-    private final LmdbEnv env;
-    private final LmdbDb db;
+    private final Partition[] partitions;
     private final LmdbDb stateDb;
     private final ValueReferenceIndex valueReferenceIndex;
     private final CompiledColumns compiledColumns;
@@ -103,9 +107,8 @@ public class LmdbDataStore implements DataStore {
     private final AtomicBoolean shutdown = new AtomicBoolean();
     private final Predicate<Val[]> valueFilter;
 
-    private final LmdbWriteQueue queue;
-    private final CountDownLatch complete = new CountDownLatch(1);
-    private final CompletionState completionState = new CompletionStateImpl(this, complete);
+    private final CountDownLatch complete;
+    private final CompletionState completionState;
     private final QueryKey queryKey;
     private final String componentId;
     private final FieldIndex fieldIndex;
@@ -118,7 +121,6 @@ public class LmdbDataStore implements DataStore {
     private final KeyFactoryConfig keyFactoryConfig;
     private final KeyFactory keyFactory;
     private final LmdbPayloadCreator payloadCreator;
-    private final TransferState transferState = new TransferState();
     private final WindowProcessor windowProcessor;
     private final StoredValueMapper storedValueMapper;
 
@@ -167,7 +169,6 @@ public class LmdbDataStore implements DataStore {
         this.windowProcessor = CompiledWindow.create(tableSettings.getWindow()).createWindowProcessor(fieldIndex);
         final List<Column> columns = Objects
                 .requireNonNullElse(tableSettings.getColumns(), Collections.emptyList());
-        queue = new LmdbWriteQueue(resultStoreConfig.getValueQueueSize(), bufferFactory);
         maxSortedItems = resultStoreConfig.getMaxSortedItems();
         this.dateTimeSettings = expressionContext == null
                 ? null
@@ -205,14 +206,47 @@ public class LmdbDataStore implements DataStore {
                 bufferFactory);
         maxPutsBeforeCommit = resultStoreConfig.getMaxPutsBeforeCommit();
 
-        this.env = lmdbEnvBuilder
-                .maxDbs(2)
-                .addEnvFlag(EnvFlags.MDB_NOTLS)
-                .maxReaders(1)
-                .errorHandler(this::error)
-                .build();
-        this.db = env.openDb(queryKey + "_" + componentId);
-        this.stateDb = env.openDb("state");
+        // Create a factory that makes DB state objects.
+        currentDbStateFactory = new CurrentDbStateFactory(sourceType, fieldIndex, dataStoreSettings);
+
+        // Grouped results can be split across several partitions, each with its own env and transfer thread, so that
+        // merging rows into groups is spread over multiple cores. All rows for a top level group are written to the
+        // same partition. Payloads and the latest event reference are only maintained for a single partition.
+        final int partitionCount = producePayloads ||
+                                   currentDbStateFactory.isStoreLatestEventReference() ||
+                                   !lmdbRowKeyFactory.isGroup(0)
+                ? 1
+                : Math.max(1, resultStoreConfig.getWriterPartitions());
+        final int queueSize = Math.max(1, resultStoreConfig.getValueQueueSize() / partitionCount);
+        partitions = new Partition[partitionCount];
+        LmdbEnvDir firstEnvDir = null;
+        for (int i = 0; i < partitionCount; i++) {
+            if (firstEnvDir != null) {
+                // Put the env for each additional partition in its own dir alongside the first.
+                final Path envDir = firstEnvDir.getEnvDir();
+                final LmdbEnvDir partitionEnvDir = new LmdbEnvDir(
+                        envDir.resolveSibling(envDir.getFileName() + "_" + i),
+                        true);
+                partitionEnvDir.ensureExists();
+                lmdbEnvBuilder.lmdbEnvDir(partitionEnvDir);
+            }
+            final LmdbEnv env = lmdbEnvBuilder
+                    .maxDbs(2)
+                    .addEnvFlag(EnvFlags.MDB_NOTLS)
+                    .maxReaders(1)
+                    .errorHandler(this::error)
+                    .build();
+            if (firstEnvDir == null) {
+                firstEnvDir = env.getDir();
+            }
+            partitions[i] = new Partition(
+                    env,
+                    env.openDb(queryKey + "_" + componentId),
+                    new LmdbWriteQueue(queueSize, bufferFactory));
+        }
+        this.stateDb = partitions[0].env.openDb("state");
+        complete = new CountDownLatch(partitionCount);
+        completionState = new CompletionStateImpl(this, complete);
 
         // Create a filter for incoming data.
         valueFilter = ValFilter.create(
@@ -231,14 +265,13 @@ public class LmdbDataStore implements DataStore {
                 totalResultCount,
                 completionState);
 
-        // Create a factory that makes DB state objects.
-        currentDbStateFactory = new CurrentDbStateFactory(sourceType, fieldIndex, dataStoreSettings);
-
         // Create a mapper to add annotation data.
         storedValueMapper = annotationMapperFactory.createMapper(valueReferenceIndex);
 
-        // Start transfer loop.
-        executorProvider.get().execute(this::transfer);
+        // Start a transfer loop for each partition.
+        for (final Partition partition : partitions) {
+            executorProvider.get().execute(() -> transfer(partition));
+        }
     }
 
     /**
@@ -313,7 +346,22 @@ public class LmdbDataStore implements DataStore {
 
     private void doPut(final LmdbQueueItem queueItem) {
         try {
-            queue.put(queueItem);
+            if (partitions.length == 1) {
+                partitions[0].queue.put(queueItem);
+            } else {
+                switch (queueItem) {
+                    case final LmdbKV lmdbKV -> getPartition(lmdbKV).queue.put(lmdbKV);
+                    // The DB state is only held by the first partition.
+                    case final CurrentDbStateLmdbQueueItem currentDbStateLmdbQueueItem ->
+                            partitions[0].queue.put(currentDbStateLmdbQueueItem);
+                    // Syncs and deletes need to be applied by every partition.
+                    default -> {
+                        for (final Partition partition : partitions) {
+                            partition.queue.put(queueItem);
+                        }
+                    }
+                }
+            }
         } catch (final InterruptedException e) {
             LOGGER.trace(e::getMessage, e);
             // Keep interrupting this thread.
@@ -321,11 +369,23 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
-    private void transfer() {
+    private Partition getPartition(final LmdbKV lmdbKV) {
+        final long partitionHash = lmdbRowKeyFactory.getPartitionHash(lmdbKV.key());
+        return partitions[Math.floorMod(Long.hashCode(partitionHash), partitions.length)];
+    }
+
+    int getPartitionCount() {
+        return partitions.length;
+    }
+
+    private void transfer(final Partition partition) {
+        final LmdbDb db = partition.db;
+        final LmdbWriteQueue queue = partition.queue;
+        final TransferState transferState = partition.transferState;
         SimpleMetrics.measure("Transfer", () -> {
             transferState.setThread(Thread.currentThread());
             try {
-                env.write(writeTxn -> {
+                partition.env.write(writeTxn -> {
                     CurrentDbState currentDbState = getCurrentDbState();
                     long lastCommitMs = System.currentTimeMillis();
                     long uncommittedCount = 0;
@@ -350,7 +410,7 @@ public class LmdbDataStore implements DataStore {
                                         commit(writeTxn, currentDbState);
                                         sync.sync();
                                     }
-                                    case final DeleteCommand deleteCommand -> delete(writeTxn, deleteCommand);
+                                    case final DeleteCommand deleteCommand -> delete(writeTxn, db, deleteCommand);
                                     default -> {
                                     }
                                 }
@@ -433,6 +493,7 @@ public class LmdbDataStore implements DataStore {
     }
 
     private void delete(final WriteTxn writeTxn,
+                        final LmdbDb db,
                         final DeleteCommand deleteCommand) {
         lmdbRowKeyFactory.createChildKeyRange(
                 deleteCommand.getParentKey(), deleteCommand.getTimeFilter(), keyRange -> {
@@ -574,7 +635,7 @@ public class LmdbDataStore implements DataStore {
         LOGGER.debug(e::getMessage, e);
         if (e instanceof MapFullException) {
             errorConsumer.add(() -> "Unable to add search result as result store has reached max capacity of " +
-                                    env.getMaxStoreSize());
+                                    getMaxStoreSizeDescription());
         } else if (e instanceof LmdbException) {
             String message = e.getMessage();
             if (message != null) {
@@ -593,6 +654,23 @@ public class LmdbDataStore implements DataStore {
         }
     }
 
+    private String getMaxStoreSizeDescription() {
+        // Each partition has its own env, any one of which can fill up.
+        ByteSize partitionMaxStoreSize = null;
+        long totalBytes = 0;
+        for (final Partition partition : partitions) {
+            if (partition != null) {
+                partitionMaxStoreSize = partition.env.getMaxStoreSize();
+                totalBytes += partitionMaxStoreSize.getBytes();
+            }
+        }
+        if (partitions.length == 1) {
+            return String.valueOf(partitionMaxStoreSize);
+        }
+        return partitionMaxStoreSize + " per partition (" + ByteSize.ofBytes(totalBytes) + " across " +
+               partitions.length + " partitions)";
+    }
+
     @Override
     public List<Column> getColumns() {
         return compiledColumns.getColumns();
@@ -604,11 +682,15 @@ public class LmdbDataStore implements DataStore {
         if (shutdown.compareAndSet(false, true)) {
             SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_CLEAR);
 
-            // Let the transfer loop know it should stop ASAP.
-            transferState.terminate();
+            // Let the transfer loops know they should stop ASAP.
+            for (final Partition partition : partitions) {
+                partition.transferState.terminate();
+            }
 
-            // Terminate the queue.
-            queue.terminate();
+            // Terminate the queues.
+            for (final Partition partition : partitions) {
+                partition.queue.terminate();
+            }
 
             // If the transfer loop is waiting on new queue items ensure it loops once more.
             completionState.signalComplete();
@@ -623,7 +705,9 @@ public class LmdbDataStore implements DataStore {
                 Thread.currentThread().interrupt();
             }
 
-            env.close();
+            for (final Partition partition : partitions) {
+                partition.env.close();
+            }
         }
     }
 
@@ -635,7 +719,9 @@ public class LmdbDataStore implements DataStore {
     public synchronized void clear() {
         try {
             close();
-            env.delete();
+            for (final Partition partition : partitions) {
+                partition.env.delete();
+            }
         } finally {
             resultCount.set(0);
             totalResultCount.set(0);
@@ -680,7 +766,11 @@ public class LmdbDataStore implements DataStore {
 
     @Override
     public long getByteSize() {
-        return FileUtil.getByteSize(env.getDir().getEnvDir());
+        long byteSize = 0;
+        for (final Partition partition : partitions) {
+            byteSize += FileUtil.getByteSize(partition.env.getDir().getEnvDir());
+        }
+        return byteSize;
     }
 
     @Override
@@ -721,7 +811,7 @@ public class LmdbDataStore implements DataStore {
             return null;
         }
 
-        return env.readResult(readTxn -> {
+        return partitions[0].env.readResult(readTxn -> {
             final ByteBuffer val = stateDb.get(readTxn, LmdbRowKeyFactoryFactory.DB_STATE_KEY);
             if (val == null) {
                 return null;
@@ -751,7 +841,8 @@ public class LmdbDataStore implements DataStore {
         final CurrentDbState currentDbState;
         try {
             // Synchronise the puts so we know all current items have been added to LMDB.
-            final CountDownLatch complete = new CountDownLatch(1);
+            // Every partition will count down once it has committed.
+            final CountDownLatch complete = new CountDownLatch(partitions.length);
             put((Sync) complete::countDown);
             complete.await();
 
@@ -790,7 +881,7 @@ public class LmdbDataStore implements DataStore {
 
         SearchProgressLog.increment(queryKey, SearchPhase.LMDB_DATA_STORE_GET);
 
-        if (env.isClosed()) {
+        if (partitions[0].env.isClosed()) {
             // If we query LMDB after the env has been closed then we are likely to crash the JVM
             // see https://github.com/lmdbjava/lmdbjava/issues/185
             LOGGER.debug(() -> "fetch called (queryKey =" +
@@ -800,7 +891,7 @@ public class LmdbDataStore implements DataStore {
                                ") after store has been shut down");
 
         } else {
-            env.read(readTxn ->
+            readPartitions(readTxns ->
                     SimpleMetrics.measure("fetch", () -> {
                         try {
                             final FetchState fetchState = new FetchState();
@@ -810,8 +901,7 @@ public class LmdbDataStore implements DataStore {
 
                             final LmdbReadContext readContext = new LmdbReadContext(
                                     LmdbDataStore.this,
-                                    db,
-                                    readTxn,
+                                    readTxns,
                                     timeFilter);
 
                             getChildren(
@@ -1141,6 +1231,25 @@ public class LmdbDataStore implements DataStore {
         });
     }
 
+    private void readPartitions(final Consumer<ReadTxn[]> consumer) {
+        final ReadTxn[] readTxns = new ReadTxn[partitions.length];
+        try {
+            for (int i = 0; i < partitions.length; i++) {
+                readTxns[i] = partitions[i].env.readTxn();
+            }
+            consumer.accept(readTxns);
+        } catch (final RuntimeException e) {
+            error(e);
+            throw e;
+        } finally {
+            for (final ReadTxn readTxn : readTxns) {
+                if (readTxn != null) {
+                    readTxn.close();
+                }
+            }
+        }
+    }
+
     private StoredValues readValues(final ByteBuffer valueBuffer) {
         try (final DataReader reader =
                 new KryoDataReader(new ByteBufferInput(valueBuffer))) {
@@ -1154,28 +1263,52 @@ public class LmdbDataStore implements DataStore {
     private static class LmdbReadContext {
 
         private final LmdbDataStore dataStore;
-        private final LmdbDb db;
-        private final ReadTxn readTxn;
+        private final ReadTxn[] readTxns;
         private final TimeFilter timeFilter;
 
         public LmdbReadContext(final LmdbDataStore dataStore,
-                               final LmdbDb db,
-                               final ReadTxn readTxn,
+                               final ReadTxn[] readTxns,
                                final TimeFilter timeFilter) {
             this.dataStore = dataStore;
-            this.db = db;
-            this.readTxn = readTxn;
+            this.readTxns = readTxns;
             this.timeFilter = timeFilter;
         }
 
         public <R> R readResult(final LmdbKeyRange keyRange,
                                 final Function<Iterator<LmdbEntry>, R> iteratorConsumer) {
-            return db.iterateResult(readTxn, keyRange, iteratorConsumer);
+            final Partition[] partitions = dataStore.partitions;
+            if (partitions.length == 1) {
+                return partitions[0].db.iterateResult(readTxns[0], keyRange, iteratorConsumer);
+            }
+
+            // Merge the entries from all partitions in key order so rows are read in the same order as they would be
+            // from a single partition.
+            final List<LmdbIterable> iterables = new ArrayList<>(partitions.length);
+            try {
+                final List<Iterator<LmdbEntry>> iterators = new ArrayList<>(partitions.length);
+                for (int i = 0; i < partitions.length; i++) {
+                    final LmdbIterable iterable = LmdbIterable.create(
+                            readTxns[i].get(),
+                            partitions[i].db.getDbi(),
+                            keyRange);
+                    iterables.add(iterable);
+                    iterators.add(iterable.iterator());
+                }
+                return iteratorConsumer.apply(new LmdbMergedIterator(iterators));
+            } catch (final RuntimeException e) {
+                LOGGER.debug(e::getMessage, e);
+                throw e;
+            } finally {
+                iterables.forEach(LmdbIterable::close);
+            }
         }
 
         public void read(final LmdbKeyRange keyRange,
                          final Consumer<Iterator<LmdbEntry>> iteratorConsumer) {
-            db.iterate(readTxn, keyRange, iteratorConsumer);
+            readResult(keyRange, iterator -> {
+                iteratorConsumer.accept(iterator);
+                return null;
+            });
         }
 
         public Val createValue(final Key key,
@@ -1209,6 +1342,26 @@ public class LmdbDataStore implements DataStore {
     // --------------------------------------------------------------------------------
 
 
+    private static class Partition {
+
+        private final LmdbEnv env;
+        private final LmdbDb db;
+        private final LmdbWriteQueue queue;
+        private final TransferState transferState = new TransferState();
+
+        public Partition(final LmdbEnv env,
+                         final LmdbDb db,
+                         final LmdbWriteQueue queue) {
+            this.env = env;
+            this.db = db;
+            this.queue = queue;
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
     private static class ChildDataImpl implements ChildData {
 
         private final LmdbReadContext readContext;
@@ -1509,8 +1662,10 @@ public class LmdbDataStore implements DataStore {
         @Override
         public void signalComplete() {
             if (!isComplete()) {
-                // Add an empty item to the transfer queue.
-                lmdbDataStore.queue.complete();
+                // Add an empty item to each transfer queue.
+                for (final Partition partition : lmdbDataStore.partitions) {
+                    partition.queue.complete();
+                }
             }
         }
 
@@ -61,6 +61,15 @@ public interface LmdbRowKeyFactory {
      */
     int getDepth(LmdbKV lmdbKV);
 
+    /**
+     * Get a hash for the supplied row key that is the same for every row that belongs to the same top level group,
+     * so that all rows for a group are always written to the same store partition.
+     *
+     * @param rowKey The row key to get the partition hash for.
+     * @return A hash of the top level group the row belongs to.
+     */
+    long getPartitionHash(ByteBuffer rowKey);
+
     /**
      * Create a key range to filter rows to find the children of the supplied parent key.
      *
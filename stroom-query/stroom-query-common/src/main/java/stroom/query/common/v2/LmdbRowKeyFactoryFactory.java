@@ -123,6 +123,11 @@ public class LmdbRowKeyFactoryFactory {
             return 0;
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            return rowKey.getLong(0);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             consumer.accept(all());
@@ -191,6 +196,11 @@ public class LmdbRowKeyFactoryFactory {
             return 0;
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            return rowKey.getLong(0);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             consumer.accept(all());
@@ -262,6 +272,12 @@ public class LmdbRowKeyFactoryFactory {
             return 0;
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            // Skip the time so all time buckets for a group are written to the same partition.
+            return rowKey.getLong(Long.BYTES);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             consumer.accept(all());
@@ -347,6 +363,11 @@ public class LmdbRowKeyFactoryFactory {
             return 0;
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            return rowKey.getLong(Long.BYTES);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             consumer.accept(all());
@@ -477,6 +498,12 @@ public class LmdbRowKeyFactoryFactory {
             return Byte.toUnsignedInt(lmdbKV.key().get(0));
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            // The first group hash is the top level group that all child rows belong to.
+            return rowKey.getLong(Byte.BYTES);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             LmdbKeyRange keyRange = ZERO_DEPTH_KEY_RANGE;
@@ -650,6 +677,12 @@ public class LmdbRowKeyFactoryFactory {
             return Byte.toUnsignedInt(lmdbKV.key().get(0));
         }
 
+        @Override
+        public long getPartitionHash(final ByteBuffer rowKey) {
+            // The first group hash is the top level group that all child rows belong to.
+            return rowKey.getLong(Byte.BYTES + Long.BYTES);
+        }
+
         @Override
         public void createChildKeyRange(final Key parentKey, final Consumer<LmdbKeyRange> consumer) {
             // Create a first level child group key. <DEPTH = 0>
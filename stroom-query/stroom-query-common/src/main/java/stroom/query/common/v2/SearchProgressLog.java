@@ -117,6 +117,7 @@ public class SearchProgressLog {
         EXTRACTION_DECORATOR_FACTORY_CREATE_TASKS_EVENTS("ExtractionDecoratorFactory - createTasks - events"),
         EXTRACTION_DECORATOR_FACTORY_CREATE_TASKS_DOCREF("ExtractionDecoratorFactory - createTasks - docref"),
         EXTRACTION_DECORATOR_FACTORY_CREATE_TASKS_NO_DOCREF("ExtractionDecoratorFactory - createTasks - no docref"),
+        EXTRACTION_DECORATOR_FACTORY_CREATE_TASKS_CACHED("ExtractionDecoratorFactory - createTasks - cached"),
         CLUSTER_SEARCH_TASK_HANDLER_EXEC("ClusterSearchTaskHandler - exec"),
         CLUSTER_SEARCH_TASK_HANDLER_SEARCH("ClusterSearchTaskHandler - search"),
         INDEX_SHARD_SEARCH_FACTORY_SEARCH("IndexShardSearchFactory - search"),
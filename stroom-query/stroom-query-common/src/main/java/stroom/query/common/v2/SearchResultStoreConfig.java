@@ -42,6 +42,7 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                 DEFAULT_MAX_STRING_FIELD_LENGTH,
                 DEFAULT_VALUE_QUEUE_SIZE,
                 DEFAULT_MAX_SORTED_ITEMS,
+                DEFAULT_WRITER_PARTITIONS,
                 DEFAULT_LMDB_CONFIG);
         this.mapConfig = DEFAULT_MAP_CONFIG;
     }
@@ -54,6 +55,7 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                                    @JsonProperty("maxStringFieldLength") final Integer maxStringFieldLength,
                                    @JsonProperty("valueQueueSize") final Integer valueQueueSize,
                                    @JsonProperty("maxSortedItems") final Integer maxSortedItems,
+                                   @JsonProperty("writerPartitions") final Integer writerPartitions,
                                    @JsonProperty("lmdb") final ResultStoreLmdbConfig lmdbConfig,
                                    @JsonProperty("map") final ResultStoreMapConfig mapConfig) {
         super(Objects.requireNonNullElse(maxPutsBeforeCommit, DEFAULT_MAX_PUTS_BEFORE_COMMIT),
@@ -63,6 +65,7 @@ public class SearchResultStoreConfig extends AbstractResultStoreConfig implement
                 Objects.requireNonNullElse(maxStringFieldLength, DEFAULT_MAX_STRING_FIELD_LENGTH),
                 Objects.requireNonNullElse(valueQueueSize, DEFAULT_VALUE_QUEUE_SIZE),
                 Objects.requireNonNullElse(maxSortedItems, DEFAULT_MAX_SORTED_ITEMS),
+                Objects.requireNonNullElse(writerPartitions, DEFAULT_WRITER_PARTITIONS),
                 Objects.requireNonNullElse(lmdbConfig, DEFAULT_LMDB_CONFIG));
         this.mapConfig = Objects.requireNonNullElse(mapConfig, DEFAULT_MAP_CONFIG);
     }
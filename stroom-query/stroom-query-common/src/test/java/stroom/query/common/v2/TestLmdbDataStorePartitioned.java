@@ -0,0 +1,150 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.query.common.v2;
+
+import stroom.query.api.Column;
+import stroom.query.api.Format;
+import stroom.query.api.OffsetRange;
+import stroom.query.api.ParamUtil;
+import stroom.query.api.QueryKey;
+import stroom.query.api.ResultRequest;
+import stroom.query.api.Row;
+import stroom.query.api.SearchRequestSource;
+import stroom.query.api.TableResult;
+import stroom.query.api.TableSettings;
+import stroom.query.language.functions.Val;
+import stroom.query.language.functions.ValString;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs all the {@link TestLmdbDataStore} tests with grouped results split across several partitions.
+ */
+class TestLmdbDataStorePartitioned extends TestLmdbDataStore {
+
+    private static final int WRITER_PARTITIONS = 4;
+
+    @Override
+    DataStore create(final SearchRequestSource searchRequestSource,
+                     final QueryKey queryKey,
+                     final String componentId,
+                     final TableSettings tableSettings,
+                     final SearchResultStoreConfig resultStoreConfig,
+                     final DataStoreSettings dataStoreSettings,
+                     final String subDirectory) {
+        final SearchResultStoreConfig partitionedResultStoreConfig = new SearchResultStoreConfig(
+                resultStoreConfig.getMaxPutsBeforeCommit(),
+                resultStoreConfig.isOffHeapResults(),
+                resultStoreConfig.getMinPayloadSize(),
+                resultStoreConfig.getMaxPayloadSize(),
+                resultStoreConfig.getMaxStringFieldLength(),
+                resultStoreConfig.getValueQueueSize(),
+                resultStoreConfig.getMaxSortedItems(),
+                WRITER_PARTITIONS,
+                resultStoreConfig.getLmdbConfig(),
+                resultStoreConfig.getMapConfig());
+        return super.create(
+                searchRequestSource,
+                queryKey,
+                componentId,
+                tableSettings,
+                partitionedResultStoreConfig,
+                dataStoreSettings,
+                subDirectory);
+    }
+
+    @Test
+    void testGroupsMergedAcrossPartitions() {
+        final TableSettings tableSettings = TableSettings.builder()
+                .addColumns(Column.builder()
+                        .id("Text")
+                        .name("Text")
+                        .expression(ParamUtil.create("Text"))
+                        .format(Format.TEXT)
+                        .group(0)
+                        .build())
+                .addColumns(Column.builder()
+                        .id("Count")
+                        .name("Count")
+                        .expression("count()")
+                        .format(Format.NUMBER)
+                        .build())
+                .build();
+
+        final LmdbDataStore dataStore = (LmdbDataStore) createUnlimitedDataStore(tableSettings);
+        assertThat(dataStore.getPartitionCount())
+                .isEqualTo(WRITER_PARTITIONS);
+
+        // Add each group several times so rows for a group have to be merged.
+        final int groupCount = 1_000;
+        for (int j = 0; j < 3; j++) {
+            for (int i = 0; i < groupCount; i++) {
+                dataStore.accept(Val.of(ValString.create("Text " + i)));
+            }
+        }
+
+        // Wait for all items to be added.
+        try {
+            dataStore.getCompletionState().signalComplete();
+            dataStore.getCompletionState().awaitCompletion();
+        } catch (final InterruptedException e) {
+            throw new RuntimeException(e.getMessage(), e);
+        }
+
+        final ResultRequest tableResultRequest = ResultRequest.builder()
+                .componentId("componentX")
+                .addMappings(tableSettings)
+                .requestedRange(new OffsetRange(0, groupCount * 2))
+                .build();
+        final TableResult searchResult = (TableResult) new TableResultCreator().create(
+                dataStore,
+                tableResultRequest);
+
+        assertThat(searchResult.getTotalResults())
+                .isEqualTo((long) groupCount);
+        final Set<String> groups = new HashSet<>();
+        for (final Row row : searchResult.getRows()) {
+            groups.add(row.getValues().get(0));
+            assertThat(Double.parseDouble(row.getValues().get(1)))
+                    .isEqualTo(3);
+        }
+        assertThat(groups)
+                .hasSize(groupCount);
+    }
+
+    @Test
+    void testUngroupedNotPartitioned() {
+        final TableSettings tableSettings = TableSettings.builder()
+                .addColumns(Column.builder()
+                        .id("Text")
+                        .name("Text")
+                        .expression(ParamUtil.create("Text"))
+                        .format(Format.TEXT)
+                        .build())
+                .build();
+
+        final LmdbDataStore dataStore = (LmdbDataStore) createUnlimitedDataStore(tableSettings);
+        assertThat(dataStore.getPartitionCount())
+                .isOne();
+        dataStore.clear();
+    }
+}
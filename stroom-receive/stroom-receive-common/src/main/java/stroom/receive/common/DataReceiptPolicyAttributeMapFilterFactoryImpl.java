@@ -22,6 +22,7 @@ import stroom.meta.api.StandardHeaderArguments;
 import stroom.proxy.StroomStatusCode;
 import stroom.query.api.ExpressionOperator;
 import stroom.query.api.ExpressionUtil;
+import stroom.query.api.datasource.FieldType;
 import stroom.query.api.datasource.QueryField;
 import stroom.query.common.v2.ExpressionPredicateFactory;
 import stroom.query.common.v2.ExpressionPredicateFactory.ValueFunctionFactories;
@@ -43,13 +44,15 @@ import jakarta.inject.Provider;
 import jakarta.inject.Singleton;
 
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
@@ -151,6 +154,19 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
                     final ValueFunctionFactories<AttributeMap> valueFunctionFactories =
                             createAttributeMapExtractor(usedFieldMap);
 
+                    // The outcome only depends on the values of the fields used by the rules, so
+                    // decisions can be memoised on those values. Hashed fields are derived from the
+                    // un-hashed value, so we key on that. Date terms can be relative to now so any
+                    // date field means the outcome can change over time and can't be memoised.
+                    final List<String> decisionFieldNames = fieldSet.stream()
+                            .map(HashedReceiveDataRules::stripHashedSuffix)
+                            .distinct()
+                            .sorted()
+                            .toList();
+                    final boolean memoiseDecisions = usedFieldMap.values()
+                            .stream()
+                            .noneMatch(queryField -> queryField.getFldType() == FieldType.DATE);
+
                     final AttributeMapper attributeMapper = bundledRules.attributeMapper();
 
                     final ExpressionPredicateFactory expressionPredicateFactory =
@@ -161,6 +177,8 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
                             activeRules,
                             valueFunctionFactories,
                             attributeMapper,
+                            decisionFieldNames,
+                            memoiseDecisions,
                             NO_MATCH_OR_NO_RULES_ACTION, // Rules are essentially 'allow' rules rather than 'deny'.
                             receiveActionMetricsRecorderProvider.get());
                 }
@@ -218,11 +236,22 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
 
     private static class CheckerImpl implements Checker {
 
+        /**
+         * Limit on the number of memoised decisions so that a rule set that uses a field with
+         * unbounded values, e.g. a GUID, can't grow the cache forever. Once full, requests
+         * that don't match a memoised decision are just evaluated against the rules. The
+         * checker is re-created periodically, so this is not a lifetime limit.
+         */
+        private static final int MAX_MEMOISED_DECISIONS = 10_000;
+
         private final ExpressionPredicateFactory expressionMatcher;
         private final List<ReceiveDataRule> activeRules;
         private final ValueFunctionFactories<AttributeMap> valueFunctionFactories;
         private final AttributeMapper attributeMapper;
+        private final List<String> decisionFieldNames;
+        private final boolean memoiseDecisions;
         private final Map<Integer, Predicate<AttributeMap>> ruleNoToPredicateFactoryMap;
+        private final Map<List<String>, Optional<ReceiveDataRule>> decisionCache;
         private final ReceiveAction noMatchAction;
         private final ReceiveActionMetricsRecorder receiveActionMetricsRecorder;
 
@@ -230,14 +259,20 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
                     final List<ReceiveDataRule> activeRules,
                     final ValueFunctionFactories<AttributeMap> valueFunctionFactories,
                     final AttributeMapper attributeMapper,
+                    final List<String> decisionFieldNames,
+                    final boolean memoiseDecisions,
                     final ReceiveAction noMatchAction,
                     final ReceiveActionMetricsRecorder receiveActionMetricsRecorder) {
             this.expressionMatcher = expressionMatcher;
             this.activeRules = activeRules;
             this.valueFunctionFactories = valueFunctionFactories;
             this.attributeMapper = attributeMapper;
+            this.decisionFieldNames = decisionFieldNames;
+            this.memoiseDecisions = memoiseDecisions;
             this.receiveActionMetricsRecorder = receiveActionMetricsRecorder;
-            this.ruleNoToPredicateFactoryMap = new HashMap<>();
+            // The checker is shared by all receiving threads.
+            this.ruleNoToPredicateFactoryMap = new ConcurrentHashMap<>();
+            this.decisionCache = new ConcurrentHashMap<>();
             this.noMatchAction = noMatchAction;
         }
 
@@ -245,12 +280,7 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
         public ReceiveAction check(final AttributeMap attributeMap) throws StroomStreamException {
             return LOGGER.logDurationIfDebugEnabled(
                     () -> {
-                        // First we need to hash any values for fields that need hashing.
-                        // Then we will be evaluating hashed values in the attribute map against hashed
-                        // values in the terms.
-                        final AttributeMap effectiveAttrMap = attributeMapper.mapAttributes(attributeMap);
-
-                        final ReceiveDataRule matchingRule = findMatchingRule(effectiveAttrMap);
+                        final ReceiveDataRule matchingRule = getMatchingRule(attributeMap);
                         // The default action is to receive data.
                         final ReceiveAction receiveAction = NullSafe.getOrElse(
                                 matchingRule,
@@ -282,15 +312,51 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
                             attributeMap, ruleAction));
         }
 
-        private ReceiveDataRule findMatchingRule(final AttributeMap attributeMap) {
+        private ReceiveDataRule getMatchingRule(final AttributeMap attributeMap) {
+            if (!memoiseDecisions) {
+                return findMatchingRule(attributeMap).rule();
+            }
+
+            final List<String> decisionKey = createDecisionKey(attributeMap);
+            final Optional<ReceiveDataRule> memoisedRule = decisionCache.get(decisionKey);
+            if (memoisedRule != null) {
+                LOGGER.trace(() -> LogUtil.message(
+                        "getMatchingRule() - Memoised decision for {}, rule: {}", decisionKey, memoisedRule));
+                return memoisedRule.orElse(null);
+            }
+
+            final RuleMatch ruleMatch = findMatchingRule(attributeMap);
+            // Don't memoise if a rule errored as we want the error to be logged again
+            if (!ruleMatch.hadError() && decisionCache.size() < MAX_MEMOISED_DECISIONS) {
+                decisionCache.putIfAbsent(decisionKey, Optional.ofNullable(ruleMatch.rule()));
+            }
+            return ruleMatch.rule();
+        }
+
+        private List<String> createDecisionKey(final AttributeMap attributeMap) {
+            // Values may be null so can't use List.of
+            final String[] values = new String[decisionFieldNames.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = attributeMap.get(decisionFieldNames.get(i));
+            }
+            return Arrays.asList(values);
+        }
+
+        private RuleMatch findMatchingRule(final AttributeMap attributeMap) {
+            // First we need to hash any values for fields that need hashing.
+            // Then we will be evaluating hashed values in the attribute map against hashed
+            // values in the terms.
+            final AttributeMap effectiveAttrMap = attributeMapper.mapAttributes(attributeMap);
+
+            boolean hadError = false;
             for (final ReceiveDataRule rule : activeRules) {
                 final ExpressionOperator ruleExpression = rule.getExpression();
 
                 if (ruleExpression == null) {
                     LOGGER.trace(() -> LogUtil.message(
                             "findMatchingRule() - Null ruleExpression, rule {}, ruleAction: {}, attributeMap: {}",
-                            rule, rule.getAction(), attributeMap));
-                    return rule;
+                            rule, rule.getAction(), effectiveAttrMap));
+                    return new RuleMatch(rule, hadError);
                 }
 
                 // Lazily create the predicate in case we match on the first rule
@@ -298,22 +364,31 @@ public class DataReceiptPolicyAttributeMapFilterFactoryImpl implements DataRecei
                         rule.getRuleNumber(),
                         ruleNo -> expressionMatcher.create(ruleExpression, valueFunctionFactories));
                 try {
-                    final boolean isMatch = predicate.test(attributeMap);
+                    final boolean isMatch = predicate.test(effectiveAttrMap);
                     LOGGER.trace(() -> LogUtil.message(
                             "findMatchingRule() - Rule {}, isMatch: {}, ruleAction: {}, attributeMap: {}",
-                            rule, isMatch, rule.getAction(), attributeMap));
+                            rule, isMatch, rule.getAction(), effectiveAttrMap));
                     if (isMatch) {
-                        return rule;
+                        return new RuleMatch(rule, hadError);
                     }
                     // Carry on to the next rule
                 } catch (final RuntimeException e) {
                     LOGGER.error("Error in rule '{}': {}", rule, LogUtil.exceptionMessage(e), e);
+                    hadError = true;
                     // Try the next rule
                 }
             }
             LOGGER.trace(() -> LogUtil.message("findMatchingRule() - No matched after {} active rules",
                     activeRules.size()));
-            return null;
+            return new RuleMatch(null, hadError);
         }
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record RuleMatch(ReceiveDataRule rule, boolean hadError) {
+
+    }
 }
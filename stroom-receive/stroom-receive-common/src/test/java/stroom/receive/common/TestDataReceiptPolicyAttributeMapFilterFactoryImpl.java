@@ -51,6 +51,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -337,6 +338,64 @@ class TestDataReceiptPolicyAttributeMapFilterFactoryImpl {
         });
     }
 
+    @Test
+    void test_memoisedDecisions() {
+        final DataReceiptPolicyAttributeMapFilterFactoryImpl factory =
+                new DataReceiptPolicyAttributeMapFilterFactoryImpl(
+                        mockReceiveDataRuleSetService,
+                        new ExpressionPredicateFactoryFactory(),
+                        () -> mockReceiveDataConfig,
+                        () -> mockReceiveActionMetricsRecorder);
+
+        final ReceiveDataRules receiveDataRules = ReceiveDataRules.builder()
+                .uuid(UUID.randomUUID().toString())
+                .addRule(ReceiveDataRule.builder()
+                        .withRuleNumber(1)
+                        .withAction(ReceiveAction.DROP)
+                        .withEnabled(true)
+                        .withExpression(ExpressionUtil.equals(StandardHeaderArguments.FEED, FEED_2))
+                        .build())
+                .addRule(createReceiveAllRule())
+                .addField(FIELD_FEED)
+                .build();
+
+        final WordListProvider wordListProvider = new WordListProviderFactory().create(Map.of());
+
+        // The mapper is only called when the rules are evaluated, so count the calls
+        final AtomicInteger mapperCallCount = new AtomicInteger();
+        final AttributeMapper countingMapper = attributeMap -> {
+            mapperCallCount.incrementAndGet();
+            return attributeMap;
+        };
+
+        Mockito.when(mockReceiveDataRuleSetService.getBundledRules())
+                .thenReturn(new BundledRules(
+                        receiveDataRules,
+                        wordListProvider,
+                        countingMapper));
+
+        final AttributeMapFilter filter = factory.create();
+
+        for (int i = 0; i < 3; i++) {
+            // System and environment aren't used by the rules so shouldn't affect memoisation
+            final AttributeMap attributeMap1 = createAttrMap(FEED_1, SYSTEM_1, "ENV_" + i);
+            assertThat(filter.filter(attributeMap1))
+                    .isTrue();
+            assertThat(attributeMap1.get(StandardHeaderArguments.DATA_RECEIPT_RULE))
+                    .isEqualTo("999");
+
+            final AttributeMap attributeMap2 = createAttrMap(FEED_2, SYSTEM_2, "ENV_" + i);
+            assertThat(filter.filter(attributeMap2))
+                    .isFalse();
+            assertThat(attributeMap2.get(StandardHeaderArguments.DATA_RECEIPT_RULE))
+                    .isEqualTo("1");
+        }
+
+        // One evaluation per distinct feed
+        assertThat(mapperCallCount)
+                .hasValue(2);
+    }
+
     @Test
     void test_numericValue() {
         final DataReceiptPolicyAttributeMapFilterFactoryImpl factory =
@@ -0,0 +1,393 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.elastic.indexing;
+
+import stroom.search.elastic.ElasticClientCache;
+import stroom.search.elastic.shared.ElasticConnectionConfig;
+import stroom.task.api.TaskContext;
+import stroom.task.api.TaskContextFactory;
+import stroom.util.concurrent.UncheckedInterruptedException;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch._types.ErrorCause;
+import co.elastic.clients.elasticsearch._types.Refresh;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.transport.rest5_client.low_level.ResponseException;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Sends bulk indexing requests to Elasticsearch on a separate thread pool so that the pipeline can
+ * carry on producing documents while Elasticsearch indexes earlier batches.
+ * <p>
+ * The number of requests in flight is limited, so {@link #send(List, List)} blocks when
+ * Elasticsearch can't keep up. Documents that Elasticsearch rejects because it is overloaded are
+ * retried on their own after a delay, and the batch size is reduced until requests are accepted
+ * again. Any other failure is reported back to the pipeline on the next call to {@link #send(List, List)}
+ * or {@link #flush()}.
+ * <p>
+ * {@link #close()} must be called when the pipeline has finished so that no requests are left
+ * running. Batches that have not been sent yet can be dropped with {@link #cancel()}. Each batch
+ * runs as a child task of the pipeline task that sent it.
+ * <p>
+ * Not thread safe, each pipeline must use its own instance.
+ */
+class ElasticBulkSender {
+
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ElasticBulkSender.class);
+
+    private static final String TASK_NAME = "Elasticsearch Bulk Indexing";
+
+    private static final int ES_TOO_MANY_REQUESTS_STATUS = 429;
+    private static final long MIN_BATCH_BYTES = 1024 * 1024;
+
+    private final ElasticClientCache elasticClientCache;
+    private final ElasticIndexingConfig indexingConfig;
+    private final Executor executor;
+    private final TaskContextFactory taskContextFactory;
+    private final ElasticConnectionConfig connectionConfig;
+    private final boolean refresh;
+    private final String description;
+    private final Counter inFlightRequestsCounter;
+    private final Meter bytesSentMeter;
+    private final Counter rejectedDocumentsCounter;
+    private final Timer bulkRequestTimer;
+
+    private final Semaphore permits;
+    private final Set<CompletableFuture<Void>> inFlight = ConcurrentHashMap.newKeySet();
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+    private final AtomicLong maxBatchBytes;
+    private volatile boolean cancelled;
+
+    ElasticBulkSender(final ElasticClientCache elasticClientCache,
+                      final ElasticIndexingConfig indexingConfig,
+                      final Executor executor,
+                      final TaskContextFactory taskContextFactory,
+                      final ElasticConnectionConfig connectionConfig,
+                      final boolean refresh,
+                      final String description,
+                      final Counter inFlightRequestsCounter,
+                      final Meter bytesSentMeter,
+                      final Counter rejectedDocumentsCounter,
+                      final Timer bulkRequestTimer) {
+        this.elasticClientCache = elasticClientCache;
+        this.indexingConfig = indexingConfig;
+        this.executor = executor;
+        this.taskContextFactory = taskContextFactory;
+        this.connectionConfig = connectionConfig;
+        this.refresh = refresh;
+        this.description = description;
+        this.inFlightRequestsCounter = inFlightRequestsCounter;
+        this.bytesSentMeter = bytesSentMeter;
+        this.rejectedDocumentsCounter = rejectedDocumentsCounter;
+        this.bulkRequestTimer = bulkRequestTimer;
+
+        permits = new Semaphore(Math.max(1, indexingConfig.getMaxRequestsInFlight()));
+        maxBatchBytes = new AtomicLong(getConfiguredMaxBatchBytes());
+    }
+
+    /**
+     * @return The size in bytes that the documents in a batch should not exceed. This is lower than
+     * the configured maximum while Elasticsearch is rejecting documents.
+     */
+    long getMaxBatchBytes() {
+        return maxBatchBytes.get();
+    }
+
+    /**
+     * Send a batch of operations asynchronously, waiting first if the maximum number of requests
+     * are already in flight.
+     *
+     * @param operations    The operations to send. The caller must not change the list after this call.
+     * @param documentBytes The size of the document in each operation, in the same order as the operations.
+     */
+    void send(final List<BulkOperation> operations, final List<Long> documentBytes) {
+        checkFailure();
+        if (operations.isEmpty()) {
+            return;
+        }
+        if (operations.size() != documentBytes.size()) {
+            throw new IllegalArgumentException("Expected " + operations.size() + " document sizes but got " +
+                                               documentBytes.size());
+        }
+        final TaskContext parentTaskContext = taskContextFactory.current();
+
+        try {
+            permits.acquire();
+        } catch (final InterruptedException e) {
+            throw UncheckedInterruptedException.create(e);
+        }
+
+        final CompletableFuture<Void> future;
+        try {
+            inFlightRequestsCounter.inc();
+            // The pipeline waits for the batch in flush or close, so it can be a child task.
+            final Runnable runnable = taskContextFactory.childContext(
+                    parentTaskContext,
+                    TASK_NAME,
+                    taskContext -> sendWithRetry(taskContext, operations, documentBytes));
+            future = CompletableFuture.runAsync(() -> {
+                try {
+                    runnable.run();
+                } catch (final RuntimeException e) {
+                    if (!cancelled) {
+                        failure.compareAndSet(null, e);
+                    }
+                    throw e;
+                } finally {
+                    // Done in the task rather than a completion stage, so it has happened by the
+                    // time anyone waiting on the future sees it complete.
+                    inFlightRequestsCounter.dec();
+                    permits.release();
+                }
+            }, executor);
+        } catch (final RuntimeException e) {
+            inFlightRequestsCounter.dec();
+            permits.release();
+            throw e;
+        }
+
+        // The future is never cancelled, so it only completes once the batch has finished running and
+        // close can wait on it.
+        inFlight.add(future);
+        future.whenComplete((ignored, throwable) -> inFlight.remove(future));
+    }
+
+    /**
+     * Wait for all requests in flight to complete.
+     *
+     * @throws RuntimeException If any request failed.
+     */
+    void flush() {
+        for (final CompletableFuture<Void> future : new ArrayList<>(inFlight)) {
+            try {
+                future.join();
+            } catch (final CompletionException e) {
+                failure.compareAndSet(null, unwrap(e));
+            }
+        }
+        checkFailure();
+    }
+
+    /**
+     * Drop any batches that have not been sent yet and stop retrying rejected documents. Requests
+     * that Elasticsearch is already handling are left to complete. Batches check the flag when they
+     * run, so {@link #close()} must still be called to wait for them.
+     */
+    void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Wait for all batches to finish running, including any that are only waiting to see that they
+     * have been cancelled. Failures are not reported as they will already have been reported by
+     * {@link #send(List, List)} or {@link #flush()}, or the sender has been cancelled.
+     */
+    void close() {
+        for (final CompletableFuture<Void> future : new ArrayList<>(inFlight)) {
+            try {
+                future.join();
+            } catch (final CompletionException e) {
+                LOGGER.debug(e::getMessage, e);
+            }
+        }
+    }
+
+    private void checkFailure() {
+        final RuntimeException e = failure.get();
+        if (e != null) {
+            throw e;
+        }
+    }
+
+    private void sendWithRetry(final TaskContext taskContext,
+                               final List<BulkOperation> operations,
+                               final List<Long> documentBytes) {
+        List<BulkOperation> pending = operations;
+        List<Long> pendingBytes = documentBytes;
+        int retry = 0;
+        while (true) {
+            if (cancelled || taskContext.isTerminated()) {
+                LOGGER.debug("{} cancelled, dropping {} documents", description, pending.size());
+                return;
+            }
+
+            final int count = pending.size();
+            taskContext.info(() -> "Sending " + count + " documents to Elasticsearch");
+            final List<Integer> rejected = trySend(pending, sum(pendingBytes));
+            if (rejected.isEmpty()) {
+                onAccepted();
+                final String retryMessage = retry > 0
+                        ? " (retries: " + retry + ")"
+                        : "";
+                LOGGER.info("{} indexed {} documents{}", description, operations.size(), retryMessage);
+                return;
+            }
+
+            rejectedDocumentsCounter.inc(rejected.size());
+            onRejected();
+            if (retry >= indexingConfig.getRetryCount()) {
+                throw new RuntimeException("Indexing failed to complete after " + retry + " retries: " +
+                                           rejected.size() + " documents rejected by Elasticsearch");
+            }
+
+            // Backoff by the initial interval plus an exponential amount
+            final long sleepDurationMs = indexingConfig.getInitialRetryBackoffPeriodMs() + (long) retry * retry;
+            LOGGER.warn("{} had {} documents rejected by Elasticsearch. Retrying in {} milliseconds (retries: {})",
+                    description, rejected.size(), sleepDurationMs, retry);
+            try {
+                Thread.sleep(sleepDurationMs);
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw UncheckedInterruptedException.create(
+                        "Indexing terminated after " + retry + " retries", e);
+            }
+
+            // Only the rejected documents are sent again.
+            final List<BulkOperation> rejectedOperations = new ArrayList<>(rejected.size());
+            final List<Long> rejectedBytes = new ArrayList<>(rejected.size());
+            for (final int index : rejected) {
+                rejectedOperations.add(pending.get(index));
+                rejectedBytes.add(pendingBytes.get(index));
+            }
+            pending = rejectedOperations;
+            pendingBytes = rejectedBytes;
+            retry++;
+        }
+    }
+
+    private static long sum(final List<Long> values) {
+        long total = 0;
+        for (final long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    /**
+     * @param bytes The size of the documents in this request.
+     * @return The indexes of the operations that Elasticsearch rejected because it is overloaded and
+     * should be retried.
+     */
+    private List<Integer> trySend(final List<BulkOperation> operations, final long bytes) {
+        final BulkRequest bulkRequest = new BulkRequest.Builder()
+                .operations(operations)
+                .refresh(refresh
+                        ? Refresh.True
+                        : Refresh.False)
+                .build();
+
+        final BulkResponse response;
+        try (final Timer.Context ignored = bulkRequestTimer.time()) {
+            bytesSentMeter.mark(bytes);
+            response = elasticClientCache.contextResult(connectionConfig, elasticClient -> {
+                try {
+                    return elasticClient.bulk(bulkRequest);
+                } catch (final IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (final ElasticsearchException e) {
+            if (e.status() == ES_TOO_MANY_REQUESTS_STATUS) {
+                return allIndexes(operations);
+            }
+            throw e;
+        } catch (final UncheckedIOException e) {
+            if (e.getCause() instanceof final ResponseException responseException &&
+                responseException.getResponse().getStatusCode() == ES_TOO_MANY_REQUESTS_STATUS) {
+                return allIndexes(operations);
+            }
+            throw e;
+        }
+
+        if (!response.errors()) {
+            return List.of();
+        }
+
+        // Response items are in the same order as the request operations.
+        final List<Integer> rejected = new ArrayList<>();
+        final List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            final BulkResponseItem item = items.get(i);
+            final ErrorCause error = item.error();
+            if (error != null) {
+                if (item.status() == ES_TOO_MANY_REQUESTS_STATUS) {
+                    rejected.add(i);
+                } else {
+                    // Request failed for some other reason, so abort without retry
+                    throw new RuntimeException("Bulk indexing request failed for document in index '" +
+                                               item.index() + "': " + error.reason());
+                }
+            }
+        }
+        return rejected;
+    }
+
+    private static List<Integer> allIndexes(final List<BulkOperation> operations) {
+        final List<Integer> indexes = new ArrayList<>(operations.size());
+        for (int i = 0; i < operations.size(); i++) {
+            indexes.add(i);
+        }
+        return indexes;
+    }
+
+    private void onRejected() {
+        // Halve the batch size while Elasticsearch is overloaded.
+        final long minBatchBytes = Math.min(MIN_BATCH_BYTES, getConfiguredMaxBatchBytes());
+        maxBatchBytes.updateAndGet(current -> Math.max(minBatchBytes, current / 2));
+    }
+
+    private void onAccepted() {
+        // Grow the batch size back towards the configured maximum.
+        final long configuredMax = getConfiguredMaxBatchBytes();
+        maxBatchBytes.updateAndGet(current -> Math.min(configuredMax, current + Math.max(1, current / 4)));
+    }
+
+    private long getConfiguredMaxBatchBytes() {
+        return Math.max(1, indexingConfig.getMaxBatchSize().getBytes());
+    }
+
+    private static RuntimeException unwrap(final Throwable throwable) {
+        Throwable cause = throwable;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof final RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new RuntimeException(cause.getMessage(), cause);
+    }
+}
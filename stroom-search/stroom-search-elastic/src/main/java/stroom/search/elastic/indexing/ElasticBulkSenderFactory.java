@@ -0,0 +1,104 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.elastic.indexing;
+
+import stroom.search.elastic.ElasticClientCache;
+import stroom.search.elastic.ElasticConfig;
+import stroom.search.elastic.shared.ElasticConnectionConfig;
+import stroom.task.api.ExecutorProvider;
+import stroom.task.api.TaskContextFactory;
+import stroom.task.api.ThreadPoolImpl;
+import stroom.task.shared.ThreadPool;
+import stroom.util.metrics.Metrics;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.concurrent.Executor;
+
+/**
+ * Creates {@link ElasticBulkSender} instances that share a thread pool and metrics.
+ */
+@Singleton
+class ElasticBulkSenderFactory {
+
+    private static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Elasticsearch Bulk Indexing");
+
+    private final ElasticClientCache elasticClientCache;
+    private final Provider<ElasticConfig> elasticConfigProvider;
+    private final Executor executor;
+    private final TaskContextFactory taskContextFactory;
+    private final Counter inFlightRequestsCounter;
+    private final Meter bytesSentMeter;
+    private final Counter rejectedDocumentsCounter;
+    private final Timer bulkRequestTimer;
+
+    @Inject
+    ElasticBulkSenderFactory(final ElasticClientCache elasticClientCache,
+                             final Provider<ElasticConfig> elasticConfigProvider,
+                             final ExecutorProvider executorProvider,
+                             final TaskContextFactory taskContextFactory,
+                             final Metrics metrics) {
+        this.elasticClientCache = elasticClientCache;
+        this.elasticConfigProvider = elasticConfigProvider;
+        this.executor = executorProvider.get(THREAD_POOL);
+        this.taskContextFactory = taskContextFactory;
+
+        inFlightRequestsCounter = metrics.registrationBuilder(getClass())
+                .addNamePart("inFlightRequests")
+                .counter()
+                .createAndRegister();
+        bytesSentMeter = metrics.registrationBuilder(getClass())
+                .addNamePart("bytesSent")
+                .meter()
+                .createAndRegister();
+        rejectedDocumentsCounter = metrics.registrationBuilder(getClass())
+                .addNamePart("rejectedDocuments")
+                .counter()
+                .createAndRegister();
+        bulkRequestTimer = metrics.registrationBuilder(getClass())
+                .addNamePart("bulkRequest")
+                .timer()
+                .createAndRegister();
+    }
+
+    /**
+     * @param connectionConfig The connection to the cluster to send the requests to.
+     * @param refresh          Whether the index should be refreshed after each request.
+     * @param description      Describes the source of the documents for logging.
+     */
+    ElasticBulkSender create(final ElasticConnectionConfig connectionConfig,
+                             final boolean refresh,
+                             final String description) {
+        return new ElasticBulkSender(
+                elasticClientCache,
+                elasticConfigProvider.get().getIndexingConfig(),
+                executor,
+                taskContextFactory,
+                connectionConfig,
+                refresh,
+                description,
+                inFlightRequestsCounter,
+                bytesSentMeter,
+                rejectedDocumentsCounter,
+                bulkRequestTimer);
+    }
+}
@@ -16,6 +16,7 @@
 
 package stroom.search.elastic.indexing;
 
+import stroom.util.io.ByteSize;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
 
@@ -32,15 +33,21 @@ public class ElasticIndexingConfig extends AbstractConfig implements IsStroomCon
     private static final int DEFAULT_MAX_NESTED_ELEMENT_DEPTH = 10;
     private static final int DEFAULT_INITIAL_RETRY_BACKOFF_PERIOD_MS = 1000;
     private static final int DEFAULT_RETRY_COUNT = 5;
+    private static final int DEFAULT_MAX_REQUESTS_IN_FLIGHT = 4;
+    private static final ByteSize DEFAULT_MAX_BATCH_SIZE = ByteSize.ofMebibytes(10);
 
     private final int maxNestedElementDepth;
     private final int initialRetryBackoffPeriodMs;
     private final int retryCount;
+    private final int maxRequestsInFlight;
+    private final ByteSize maxBatchSize;
 
     public ElasticIndexingConfig() {
         maxNestedElementDepth = DEFAULT_MAX_NESTED_ELEMENT_DEPTH;
         initialRetryBackoffPeriodMs = DEFAULT_INITIAL_RETRY_BACKOFF_PERIOD_MS;
         retryCount = DEFAULT_RETRY_COUNT;
+        maxRequestsInFlight = DEFAULT_MAX_REQUESTS_IN_FLIGHT;
+        maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
     }
 
     @SuppressWarnings("unused")
@@ -48,12 +55,16 @@ public class ElasticIndexingConfig extends AbstractConfig implements IsStroomCon
     public ElasticIndexingConfig(
             @JsonProperty("maxNestedElementDepth") final Integer maxNestedElementDepth,
             @JsonProperty("initialRetryBackoffPeriodMs") final Integer initialRetryBackoffPeriodMs,
-            @JsonProperty("retryCount") final Integer retryCount) {
+            @JsonProperty("retryCount") final Integer retryCount,
+            @JsonProperty("maxRequestsInFlight") final Integer maxRequestsInFlight,
+            @JsonProperty("maxBatchSize") final ByteSize maxBatchSize) {
         this.maxNestedElementDepth =
                 Objects.requireNonNullElse(maxNestedElementDepth, DEFAULT_MAX_NESTED_ELEMENT_DEPTH);
         this.initialRetryBackoffPeriodMs =
                 Objects.requireNonNullElse(initialRetryBackoffPeriodMs, DEFAULT_INITIAL_RETRY_BACKOFF_PERIOD_MS);
         this.retryCount = Objects.requireNonNullElse(retryCount, DEFAULT_RETRY_COUNT);
+        this.maxRequestsInFlight = Objects.requireNonNullElse(maxRequestsInFlight, DEFAULT_MAX_REQUESTS_IN_FLIGHT);
+        this.maxBatchSize = Objects.requireNonNullElse(maxBatchSize, DEFAULT_MAX_BATCH_SIZE);
     }
 
     @JsonPropertyDescription("Maximum allowed depth of JSON XML `array`/`map` elements, that a JSON document " +
@@ -73,12 +84,27 @@ public class ElasticIndexingConfig extends AbstractConfig implements IsStroomCon
         return retryCount;
     }
 
+    @JsonPropertyDescription("Maximum number of bulk indexing requests that each indexing pipeline may have " +
+            "waiting on Elasticsearch at once. The pipeline waits when this limit is reached.")
+    public int getMaxRequestsInFlight() {
+        return maxRequestsInFlight;
+    }
+
+    @JsonPropertyDescription("Maximum size of the documents in a single bulk indexing request. A batch is sent " +
+            "when either this size or the batch size of the indexing filter is reached. The size is reduced " +
+            "temporarily while Elasticsearch is rejecting documents because it is overloaded.")
+    public ByteSize getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
     @Override
     public String toString() {
         return "ElasticSearchConfig{" +
                 "maxNestedElementDepth=" + maxNestedElementDepth +
                 ", initialRetryBackoffPeriodMs=" + initialRetryBackoffPeriodMs +
                 ", retryCount=" + retryCount +
+                ", maxRequestsInFlight=" + maxRequestsInFlight +
+                ", maxBatchSize=" + maxBatchSize +
                 '}';
     }
 }
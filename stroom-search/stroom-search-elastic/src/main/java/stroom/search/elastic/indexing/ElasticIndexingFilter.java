@@ -45,23 +45,16 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.Severity;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
-import co.elastic.clients.elasticsearch._types.ElasticsearchException;
 import co.elastic.clients.elasticsearch._types.FieldValue;
-import co.elastic.clients.elasticsearch._types.Refresh;
 import co.elastic.clients.elasticsearch._types.aggregations.AggregationBuilders;
 import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregate;
 import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregation;
 import co.elastic.clients.elasticsearch._types.aggregations.CompositeAggregationSource;
 import co.elastic.clients.elasticsearch._types.query_dsl.TermQuery;
-import co.elastic.clients.elasticsearch.core.BulkRequest;
-import co.elastic.clients.elasticsearch.core.BulkRequest.Builder;
-import co.elastic.clients.elasticsearch.core.BulkResponse;
 import co.elastic.clients.elasticsearch.core.DeleteByQueryRequest;
 import co.elastic.clients.elasticsearch.core.DeleteByQueryResponse;
 import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
-import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
-import co.elastic.clients.transport.rest5_client.low_level.ResponseException;
 import co.elastic.clients.util.BinaryData;
 import co.elastic.clients.util.ContentType;
 import co.elastic.clients.util.NamedValue;
@@ -84,7 +77,6 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -111,7 +103,6 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private static final int INITIAL_JSON_STREAM_SIZE_BYTES = 1024;
     private static final int ES_COMPOSITE_BATCH_SIZE = 100; // Number of index names to retrieve per request
     private static final int ES_MAX_EXCEPTION_CHARS = 4096;
-    private static final int ES_TOO_MANY_REQUESTS_STATUS = 429;
     private static final Pattern INDEX_NAME_VALUE_PATTERN = Pattern.compile("(\\{[^}]+?})");
     private static final Pattern INDEX_BASE_NAME_PATTERN = Pattern.compile("^([^{]+)");
 
@@ -120,6 +111,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private final ErrorReceiverProxy errorReceiverProxy;
     private final Provider<ElasticConfig> elasticConfigProvider;
     private final ElasticClientCache elasticClientCache;
+    private final ElasticBulkSenderFactory elasticBulkSenderFactory;
     private final ElasticClusterStore elasticClusterStore;
     private final PipelineStore pipelineStore;
     private final StreamProcessorHolder streamProcessorHolder;
@@ -138,7 +130,11 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     String pipelineName;
 
     // State
-    private final List<BulkOperation> bulkOperations;
+    private ElasticBulkSender bulkSender;
+    private boolean fatalErrorOccurred;
+    private List<BulkOperation> bulkOperations;
+    private long bulkOperationsBytes;
+    private List<Long> bulkOperationSizes;
     private final ByteArrayOutputStream currentDocument;
     private final CharBuffer content = new CharBuffer();
     private Set<String> indexNameVariables = new HashSet<>();
@@ -149,7 +145,6 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     private int currentDepth = 0;
     private int maxNestedElementDepth;
     private JsonGenerator jsonGenerator;
-    private int currentRetry;
 
     private Locator locator;
 
@@ -159,6 +154,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             final ErrorReceiverProxy errorReceiverProxy,
             final Provider<ElasticConfig> elasticConfigProvider,
             final ElasticClientCache elasticClientCache,
+            final ElasticBulkSenderFactory elasticBulkSenderFactory,
             final ElasticClusterStore elasticClusterStore,
             final PipelineStore pipelineStore,
             final StreamProcessorHolder streamProcessorHolder,
@@ -167,14 +163,15 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
         this.errorReceiverProxy = errorReceiverProxy;
         this.elasticConfigProvider = elasticConfigProvider;
         this.elasticClientCache = elasticClientCache;
+        this.elasticBulkSenderFactory = elasticBulkSenderFactory;
         this.elasticClusterStore = elasticClusterStore;
         this.pipelineStore = pipelineStore;
         this.streamProcessorHolder = streamProcessorHolder;
         this.metaHolder = metaHolder;
 
         bulkOperations = new ArrayList<>();
+        bulkOperationSizes = new ArrayList<>();
         currentDocument = new ByteArrayOutputStream(INITIAL_JSON_STREAM_SIZE_BYTES);
-        currentRetry = 0;
     }
 
     /**
@@ -183,6 +180,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     @Override
     public void startProcessing() {
         try {
+            fatalErrorOccurred = false;
+
             if (clusterRef == null) {
                 fatalError("Elasticsearch cluster ref has not been set", new NotFoundException());
             }
@@ -195,6 +194,11 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
                     .getName();
             elasticCluster = elasticClusterStore.readDocument(clusterRef);
             final ElasticConnectionConfig connectionConfig = elasticCluster.getConnection();
+            bulkSender = elasticBulkSenderFactory.create(
+                    connectionConfig,
+                    refreshAfterEachBatch,
+                    "Pipeline '" + pipelineName + "' stream " + metaHolder.getMeta().getId() +
+                    " to Elasticsearch cluster '" + elasticCluster.getName() + "'");
 
             elasticClientCache.context(connectionConfig, elasticClient -> {
                 try {
@@ -240,8 +244,27 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     @Override
     public void endProcessing() {
         try {
-            // Send any remaining documents
-            indexDocuments();
+            if (bulkSender != null) {
+                try {
+                    if (!fatalErrorOccurred) {
+                        // Send any remaining documents and wait for all of them to be indexed
+                        indexDocuments();
+                        try {
+                            bulkSender.flush();
+                        } catch (final RuntimeException e) {
+                            fatalError(getErrorDetail(e), e);
+                        }
+                    }
+                } finally {
+                    // Processing has failed so don't send any more batches.
+                    if (fatalErrorOccurred) {
+                        bulkSender.cancel();
+                    }
+                    // Make sure no requests are left running once the pipeline has finished.
+                    bulkSender.close();
+                    bulkSender = null;
+                }
+            }
         } finally {
             super.endProcessing();
         }
@@ -475,6 +498,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             if (currentDocPropertyCount > 0) {
                 jsonGenerator.flush();
 
+                bulkOperationsBytes += currentDocument.size();
+                bulkOperationSizes.add((long) currentDocument.size());
                 bulkOperations.add(BulkOperation.of(b -> b
                         .create(createOp -> {
                             createOp.index(formatIndexName());
@@ -491,7 +516,8 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
                 ));
 
                 // If the maximum batch size has been reached, send the current batch for indexing
-                if (bulkOperations.size() >= batchSize) {
+                if (bulkOperations.size() >= batchSize ||
+                    (bulkSender != null && bulkOperationsBytes >= bulkSender.getMaxBatchBytes())) {
                     indexDocuments();
                 }
             }
@@ -631,158 +657,30 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
     }
 
     /**
-     * Index the current batch of documents
+     * Send the current batch of documents for indexing. The batch is indexed asynchronously, so
+     * this only waits if too many batches are already waiting on Elasticsearch.
      */
     private void indexDocuments() {
-        if (bulkOperations.isEmpty()) {
+        if (bulkOperations.isEmpty() || bulkSender == null) {
             return;
         }
 
+        final List<BulkOperation> operations = bulkOperations;
+        final List<Long> documentBytes = bulkOperationSizes;
+        bulkOperations = new ArrayList<>();
+        bulkOperationSizes = new ArrayList<>();
+        bulkOperationsBytes = 0;
         try {
-            final AtomicBoolean succeeded = new AtomicBoolean(false);
-            while (!succeeded.get()) {
-                elasticClientCache.context(elasticCluster.getConnection(), elasticClient -> {
-                    try {
-                        // Create a new bulk indexing request, containing the current batch of documents
-                        final Builder bulkRequestBuilder = new BulkRequest.Builder();
-
-                        // For each document, create an indexing request and append to the bulk request
-                        bulkRequestBuilder.operations(bulkOperations);
-
-                        if (refreshAfterEachBatch) {
-                            // Refresh upon completion of the batch index request
-                            bulkRequestBuilder.refresh(Refresh.True);
-                        } else {
-                            bulkRequestBuilder.refresh(Refresh.False);
-                        }
-
-                        final BulkResponse response = elasticClient.bulk(bulkRequestBuilder.build());
-                        if (response.errors()) {
-                            final boolean overloaded = response.items().stream()
-                                    .anyMatch(item -> item.status() == ES_TOO_MANY_REQUESTS_STATUS);
-                            if (overloaded) {
-                                // Failure was due to Elasticsearch being overloaded, so retry after a delay
-                                deleteBulkRequestDocuments(elasticClient, response);
-                                throw new ElasticsearchOverloadedException(response.toString());
-                            } else {
-                                // Request failed for some other reason, so abort without retry
-                                throw new IOException("Bulk indexing request failed: " + response);
-                            }
-                        } else {
-                            succeeded.set(true);
-                            final String retryMessage = currentRetry > 0
-                                    ? " (retries: " + currentRetry + ")"
-                                    : "";
-                            LOGGER.info("Pipeline '{}' indexed {} documents from stream {} to Elasticsearch cluster " +
-                                        "'{}' in {} seconds{}", pipelineName, bulkOperations.size(),
-                                    metaHolder.getMeta().getId(), elasticCluster.getName(), response.took() / 1000,
-                                    retryMessage);
-                        }
-                    } catch (final ElasticsearchOverloadedException e) {
-                        handleElasticsearchOverloadedException(e);
-                    } catch (final ElasticsearchException e) {
-                        if (e.status() == ES_TOO_MANY_REQUESTS_STATUS) {
-                            handleElasticsearchOverloadedException(e);
-                        } else {
-                            handleElasticsearchException(e);
-                        }
-                    } catch (final ResponseException e) {
-                        if (e.getResponse().getStatusCode() == ES_TOO_MANY_REQUESTS_STATUS) {
-                            handleElasticsearchOverloadedException(e);
-                        } else {
-                            handleElasticsearchException(e);
-                        }
-                    } catch (final RuntimeException | IOException e) {
-                        fatalError(e.getMessage() != null
-                                ? e.getMessage().substring(0,
-                                Math.min(ES_MAX_EXCEPTION_CHARS, e.getMessage().length()))
-                                : "", e);
-                    } finally {
-                        currentRetry++;
-                    }
-                });
-            }
-        } finally {
-            currentRetry = 0;
-            bulkOperations.clear();
+            bulkSender.send(operations, documentBytes);
+        } catch (final RuntimeException e) {
+            fatalError(getErrorDetail(e), e);
         }
     }
 
-    /**
-     * Delete any documents that were successfully indexed during a failed bulk request.
-     * This removes duplicates in the destination index.
-     */
-    private void deleteBulkRequestDocuments(final ElasticsearchClient elasticClient,
-                                            final BulkResponse response) {
-        final List<BulkOperation> deleteOperations = new ArrayList<>();
-
-        for (final BulkResponseItem item : response.items()) {
-            if (item.error() == null) {
-                deleteOperations.add(BulkOperation.of(b -> b
-                        .delete(deleteOp -> deleteOp
-                                .index(item.index())
-                                .id(item.id())
-                        )
-                ));
-            }
-        }
-
-        if (!deleteOperations.isEmpty()) {
-            try {
-                final BulkRequest bulkRequest = new BulkRequest.Builder()
-                        .operations(deleteOperations)
-                        .build();
-
-                elasticClient.bulk(bulkRequest);
-
-                LOGGER.info("Deleted {} documents from failed bulk indexing request for stream {}, pipeline '{}'",
-                        deleteOperations.size(), metaHolder.getMeta().getId(), pipelineName);
-            } catch (final IOException e) {
-                LOGGER.warn("Error occurred when deleting documents indexed during a failed bulk request. " +
-                            "Stream: {}, pipeline: '{}'", metaHolder.getMeta().getId(), pipelineName, e);
-            }
-        }
-    }
-
-    /**
-     * Elasticsearch rejected the indexing request, because it is overloaded and
-     * cannot queue the batched payload. Retry after a delay, if we haven't exceeded the retry
-     * limit. Otherwise, terminate this thread and create an `Error` stream.
-     */
-    private void handleElasticsearchOverloadedException(final Exception e) {
-        final String errorDetailMsg = e.getMessage() != null
-                ? e.getMessage().substring(0,
-                Math.min(ES_MAX_EXCEPTION_CHARS, e.getMessage().length()))
-                : "";
-        final ElasticIndexingConfig indexingConfig = elasticConfigProvider.get().getIndexingConfig();
-
-        if (currentRetry < indexingConfig.getRetryCount()) {
-            // Backoff by the initial interval plus an exponential amount
-            final long sleepDurationMs = indexingConfig.getInitialRetryBackoffPeriodMs() +
-                                         (long) currentRetry * currentRetry;
-            try {
-                LOGGER.warn("Indexing request by pipeline '{}' for stream {} was rejected by Elasticsearch. " +
-                            "Retrying in {} milliseconds (retries: {})", pipelineName, metaHolder.getMeta().getId(),
-                        sleepDurationMs, currentRetry);
-                Thread.sleep(sleepDurationMs);
-            } catch (final InterruptedException ex) {
-                Thread.currentThread().interrupt();
-                fatalError("Indexing terminated after " + currentRetry + " retries: " + errorDetailMsg, ex);
-            }
-        } else {
-            fatalError("Indexing failed to complete after " + currentRetry + " retries: " + errorDetailMsg, e);
-        }
-    }
-
-    /**
-     * A general Elasticsearch indexing error occurred. Terminate processing and create an `Error` stream.
-     */
-    private void handleElasticsearchException(final Exception e) {
-        final String errorDetailMsg = e.getMessage() != null
+    private String getErrorDetail(final Exception e) {
+        return e.getMessage() != null
                 ? e.getMessage().substring(0, Math.min(ES_MAX_EXCEPTION_CHARS, e.getMessage().length()))
                 : "";
-
-        fatalError("Indexing failed to complete after " + currentRetry + " retries: " + errorDetailMsg, e);
     }
 
     /**
@@ -876,6 +774,7 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
      */
     private void fatalError(final String message, final Exception e) throws LoggedException {
         // Terminate processing as this is a fatal error
+        fatalErrorOccurred = true;
         log(Severity.FATAL_ERROR, message, e);
 
         if (e != null) {
@@ -884,11 +783,4 @@ class ElasticIndexingFilter extends AbstractXMLFilter {
             throw LoggedException.create(message);
         }
     }
-
-    private static class ElasticsearchOverloadedException extends RuntimeException {
-
-        public ElasticsearchOverloadedException(final String message) {
-            super(message);
-        }
-    }
 }
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.elastic.indexing;
+
+import stroom.search.elastic.ElasticClientCache;
+import stroom.search.elastic.shared.ElasticConnectionConfig;
+import stroom.task.api.SimpleTaskContextFactory;
+import stroom.util.io.ByteSize;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.elasticsearch.core.bulk.OperationType;
+import co.elastic.clients.util.BinaryData;
+import co.elastic.clients.util.ContentType;
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
+import com.codahale.metrics.Timer;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TestElasticBulkSender {
+
+    private static final long MAX_BATCH_BYTES = ByteSize.ofMebibytes(4).getBytes();
+    private static final long DOCUMENT_BYTES = 100;
+
+    private final ElasticsearchClient elasticClient = mock(ElasticsearchClient.class);
+    private final Counter inFlightRequestsCounter = new Counter();
+    private final Counter rejectedDocumentsCounter = new Counter();
+    private final Meter bytesSentMeter = new Meter();
+
+    @Test
+    void testOnlyRejectedDocumentsAreRetried() throws IOException {
+        when(elasticClient.bulk(any(BulkRequest.class)))
+                .thenReturn(createResponse(201, 429, 201))
+                .thenReturn(createResponse(201));
+
+        final ElasticBulkSender sender = createSender();
+        sender.send(createOperations(3), sizes(3));
+        sender.flush();
+
+        final ArgumentCaptor<BulkRequest> captor = ArgumentCaptor.forClass(BulkRequest.class);
+        verify(elasticClient, times(2)).bulk(captor.capture());
+        assertThat(captor.getAllValues())
+                .extracting(request -> request.operations().size())
+                .containsExactly(3, 1);
+        assertThat(rejectedDocumentsCounter.getCount()).isEqualTo(1);
+        assertThat(inFlightRequestsCounter.getCount()).isZero();
+        // The retry only sends the bytes of the rejected document.
+        assertThat(bytesSentMeter.getCount()).isEqualTo((3 * DOCUMENT_BYTES) + DOCUMENT_BYTES);
+
+        // The batch size is halved on rejection then grows back on success.
+        assertThat(sender.getMaxBatchBytes()).isEqualTo((MAX_BATCH_BYTES / 2) + (MAX_BATCH_BYTES / 8));
+    }
+
+    @Test
+    void testFailureReportedToCaller() throws IOException {
+        when(elasticClient.bulk(any(BulkRequest.class)))
+                .thenReturn(createResponse(201, 400));
+
+        final ElasticBulkSender sender = createSender();
+        sender.send(createOperations(2), sizes(2));
+
+        assertThatThrownBy(sender::flush)
+                .hasMessageContaining("Bulk indexing request failed");
+        assertThatThrownBy(() -> sender.send(createOperations(1), sizes(1)))
+                .hasMessageContaining("Bulk indexing request failed");
+        verify(elasticClient, times(1)).bulk(any(BulkRequest.class));
+    }
+
+    @Test
+    void testCancelDropsPendingBatches() throws IOException {
+        final List<Runnable> queued = new ArrayList<>();
+        final ElasticBulkSender sender = createSender(queued::add);
+        sender.send(createOperations(2), sizes(2));
+        sender.send(createOperations(2), sizes(2));
+        assertThat(inFlightRequestsCounter.getCount()).isEqualTo(2);
+
+        sender.cancel();
+        // The executor gets round to the batches after they have been cancelled.
+        queued.forEach(Runnable::run);
+        sender.close();
+
+        verify(elasticClient, never()).bulk(any(BulkRequest.class));
+        assertThat(inFlightRequestsCounter.getCount()).isZero();
+    }
+
+    @Test
+    void testCloseWaitsForRunningRequestAfterCancel() throws Exception {
+        final CountDownLatch requestStarted = new CountDownLatch(1);
+        final CountDownLatch releaseRequest = new CountDownLatch(1);
+        when(elasticClient.bulk(any(BulkRequest.class)))
+                .thenAnswer(invocation -> {
+                    requestStarted.countDown();
+                    releaseRequest.await();
+                    return createResponse(201, 201);
+                });
+
+        final ExecutorService executorService = Executors.newSingleThreadExecutor();
+        try {
+            final ElasticBulkSender sender = createSender(executorService);
+            sender.send(createOperations(2), sizes(2));
+            // Queued behind the slow request on the single thread.
+            sender.send(createOperations(2), sizes(2));
+            assertThat(requestStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+            sender.cancel();
+            final CompletableFuture<Void> closeFuture = CompletableFuture.runAsync(sender::close);
+
+            // Close must not return while the request is still running.
+            Thread.sleep(200);
+            assertThat(closeFuture).isNotDone();
+            assertThat(inFlightRequestsCounter.getCount()).isEqualTo(2);
+
+            releaseRequest.countDown();
+            closeFuture.get(5, TimeUnit.SECONDS);
+
+            // The queued batch was dropped.
+            verify(elasticClient, times(1)).bulk(any(BulkRequest.class));
+            assertThat(inFlightRequestsCounter.getCount()).isZero();
+        } finally {
+            releaseRequest.countDown();
+            executorService.shutdownNow();
+        }
+    }
+
+    private ElasticBulkSender createSender() {
+        return createSender(Runnable::run);
+    }
+
+    private ElasticBulkSender createSender(final Executor executor) {
+        final ElasticClientCache elasticClientCache = new ElasticClientCache() {
+            @Override
+            public void context(final ElasticConnectionConfig key,
+                                final Consumer<ElasticsearchClient> consumer) {
+                consumer.accept(elasticClient);
+            }
+
+            @Override
+            public <R> R contextResult(final ElasticConnectionConfig key,
+                                       final Function<ElasticsearchClient, R> function) {
+                return function.apply(elasticClient);
+            }
+        };
+        final ElasticIndexingConfig indexingConfig = new ElasticIndexingConfig(
+                10,
+                0,
+                3,
+                2,
+                ByteSize.ofBytes(MAX_BATCH_BYTES));
+
+        return new ElasticBulkSender(
+                elasticClientCache,
+                indexingConfig,
+                executor,
+                new SimpleTaskContextFactory(),
+                new ElasticConnectionConfig(),
+                false,
+                "Test",
+                inFlightRequestsCounter,
+                bytesSentMeter,
+                rejectedDocumentsCounter,
+                new Timer());
+    }
+
+    private List<Long> sizes(final int count) {
+        return Collections.nCopies(count, DOCUMENT_BYTES);
+    }
+
+    private List<BulkOperation> createOperations(final int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BulkOperation.of(b -> b
+                        .create(createOp -> createOp
+                                .index("test")
+                                .document(BinaryData.of(
+                                        ("{\"value\":" + i + "}").getBytes(StandardCharsets.UTF_8),
+                                        ContentType.APPLICATION_JSON)))))
+                .toList();
+    }
+
+    private BulkResponse createResponse(final int... statuses) {
+        final List<BulkResponseItem> items = IntStream.of(statuses)
+                .mapToObj(status -> BulkResponseItem.of(item -> {
+                    item.operationType(OperationType.Create)
+                            .index("test")
+                            .status(status);
+                    if (status >= 300) {
+                        item.error(error -> error
+                                .type("error")
+                                .reason("Status " + status));
+                    }
+                    return item;
+                }))
+                .toList();
+        final boolean errors = IntStream.of(statuses).anyMatch(status -> status >= 300);
+        return BulkResponse.of(response -> response
+                .errors(errors)
+                .took(1)
+                .items(items));
+    }
+}
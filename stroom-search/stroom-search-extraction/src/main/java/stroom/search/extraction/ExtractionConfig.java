@@ -16,8 +16,10 @@
 
 package stroom.search.extraction;
 
+import stroom.util.cache.CacheConfig;
 import stroom.util.shared.AbstractConfig;
 import stroom.util.shared.IsStroomConfig;
+import stroom.util.time.StroomDuration;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
@@ -38,24 +40,33 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
     private static final int DEFAULT_MAX_THREADS_PER_TASK = 5;
     private static final int DEFAULT_MAX_STREAM_EVENT_MAP_SIZE = 1000000;
     private static final long DEFAULT_EXTRACTION_DELAY_MS = 100;
+    // The extraction result cache holds records on the heap so is off unless it is sized for the heap.
+    private static final int DEFAULT_EXTRACTION_RESULT_CACHE_MAX_RECORDS = 0;
 
     private final int maxStoredDataQueueSize;
     private final int maxThreadsPerTask;
     private final int maxStreamEventMapSize;
     private final long extractionDelayMs;
+    private final CacheConfig extractionResultCache;
+    private final int extractionResultCacheMaxRecords;
 
     public ExtractionConfig() {
         maxStoredDataQueueSize = DEFAULT_MAX_STORED_DATA_QUEUE_SIZE;
         maxThreadsPerTask = DEFAULT_MAX_THREADS_PER_TASK;
         maxStreamEventMapSize = DEFAULT_MAX_STREAM_EVENT_MAP_SIZE;
         extractionDelayMs = DEFAULT_EXTRACTION_DELAY_MS;
+        extractionResultCache = createDefaultExtractionResultCacheConfig();
+        extractionResultCacheMaxRecords = DEFAULT_EXTRACTION_RESULT_CACHE_MAX_RECORDS;
     }
 
     @JsonCreator
     public ExtractionConfig(@JsonProperty("maxStoredDataQueueSize") final Integer maxStoredDataQueueSize,
                             @JsonProperty("maxThreadsPerTask") final Integer maxThreadsPerTask,
                             @JsonProperty("maxStreamEventMapSize") final Integer maxStreamEventMapSize,
-                            @JsonProperty("extractionDelayMs") final Long extractionDelayMs) {
+                            @JsonProperty("extractionDelayMs") final Long extractionDelayMs,
+                            @JsonProperty("extractionResultCache") final CacheConfig extractionResultCache,
+                            @JsonProperty("extractionResultCacheMaxRecords") final Integer
+                                    extractionResultCacheMaxRecords) {
         this.maxStoredDataQueueSize =
                 Objects.requireNonNullElse(maxStoredDataQueueSize, DEFAULT_MAX_STORED_DATA_QUEUE_SIZE);
         this.maxThreadsPerTask =
@@ -64,6 +75,19 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
                 Objects.requireNonNullElse(maxStreamEventMapSize, DEFAULT_MAX_STREAM_EVENT_MAP_SIZE);
         this.extractionDelayMs =
                 Objects.requireNonNullElse(extractionDelayMs, DEFAULT_EXTRACTION_DELAY_MS);
+        this.extractionResultCache = Objects.requireNonNullElseGet(
+                extractionResultCache,
+                ExtractionConfig::createDefaultExtractionResultCacheConfig);
+        this.extractionResultCacheMaxRecords = Objects.requireNonNullElse(
+                extractionResultCacheMaxRecords,
+                DEFAULT_EXTRACTION_RESULT_CACHE_MAX_RECORDS);
+    }
+
+    private static CacheConfig createDefaultExtractionResultCacheConfig() {
+        return CacheConfig.builder()
+                .maximumSize(100L)
+                .expireAfterWrite(StroomDuration.ofMinutes(10))
+                .build();
     }
 
     @JsonPropertyDescription("The maximum number documents that will have stored data retrieved from the index " +
@@ -89,6 +113,24 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
         return extractionDelayMs;
     }
 
+    @JsonPropertyDescription("Cache of extraction pipeline output, keyed by pipeline version, stream and the set of " +
+            "events extracted, so that repeated searches over the same data do not re-run extraction. " +
+            "The entries are held on the heap, so maximumSize multiplied by extractionResultCacheMaxRecords " +
+            "records may be held.")
+    public CacheConfig getExtractionResultCache() {
+        return extractionResultCache;
+    }
+
+    @JsonPropertyDescription("The maximum number of records output by the extraction pipeline for a single stream " +
+            "that will be held in the extraction result cache. If extraction outputs more records than this " +
+            "then the output is not cached, so that a few large streams can't fill the heap. " +
+            "Set to 0 to disable the cache, which is the default. Up to extractionResultCache.maximumSize " +
+            "multiplied by this many records may be held on the heap so size the two together, " +
+            "e.g. 1000 records with a maximumSize of 100.")
+    public int getExtractionResultCacheMaxRecords() {
+        return extractionResultCacheMaxRecords;
+    }
+
     @Override
     public String toString() {
         return "ExtractionConfig{" +
@@ -96,6 +138,8 @@ public class ExtractionConfig extends AbstractConfig implements IsStroomConfig {
                 ", maxThreadsPerTask=" + maxThreadsPerTask +
                 ", maxStreamEventMapSize=" + maxStreamEventMapSize +
                 ", extractionDelayMs=" + extractionDelayMs +
+                ", extractionResultCache=" + extractionResultCache +
+                ", extractionResultCacheMaxRecords=" + extractionResultCacheMaxRecords +
                 '}';
     }
 }
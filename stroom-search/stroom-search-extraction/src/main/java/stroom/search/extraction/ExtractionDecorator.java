@@ -36,6 +36,8 @@ import stroom.query.language.functions.FieldIndex;
 import stroom.query.language.functions.Val;
 import stroom.query.language.functions.ValuesConsumer;
 import stroom.query.language.functions.ref.ErrorConsumer;
+import stroom.search.extraction.ExtractionResultCache.Key;
+import stroom.search.extraction.ExtractionResultCache.Recorder;
 import stroom.search.extraction.StreamEventMap.EventSet;
 import stroom.security.api.SecurityContext;
 import stroom.task.api.ExecutorProvider;
@@ -48,10 +50,13 @@ import stroom.util.concurrent.CompleteException;
 import stroom.util.logging.LambdaLogger;
 import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.pipeline.scope.PipelineScopeRunnable;
+import stroom.util.shared.NullSafe;
+import stroom.util.shared.UserRef;
 
 import jakarta.inject.Provider;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -90,8 +95,9 @@ public class ExtractionDecorator {
     private final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider;
     private final QueryKey queryKey;
     private final RerankScoringFilterFactory rerankScoringFilterFactory;
+    private final ExtractionResultCache extractionResultCache;
 
-    private final Map<DocRef, PipelineData> pipelineDataMap = new ConcurrentHashMap<>();
+    private final Map<DocRef, ExtractionPipeline> pipelineMap = new ConcurrentHashMap<>();
     private final StreamEventMap streamEventMap;
     private final StoredDataQueue storedDataQueue;
     private final Map<DocRef, Receiver> receivers;
@@ -112,7 +118,8 @@ public class ExtractionDecorator {
                         final Provider<QueryInfoHolder> queryInfoHolderProvider,
                         final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider,
                         final QueryKey queryKey,
-                        final RerankScoringFilterFactory rerankScoringFilterFactory) {
+                        final RerankScoringFilterFactory rerankScoringFilterFactory,
+                        final ExtractionResultCache extractionResultCache) {
         this.fieldValueExtractorFactory = fieldValueExtractorFactory;
         this.extractionConfig = extractionConfig;
         this.executorProvider = executorProvider;
@@ -127,6 +134,7 @@ public class ExtractionDecorator {
         this.fieldListConsumerHolderProvider = fieldListConsumerHolderProvider;
         this.queryKey = queryKey;
         this.rerankScoringFilterFactory = rerankScoringFilterFactory;
+        this.extractionResultCache = extractionResultCache;
 
         // Create a queue to receive values and store them for asynchronous processing.
         streamEventMap = new StreamEventMap(extractionConfig.getMaxStreamEventMapSize());
@@ -386,35 +394,58 @@ public class ExtractionDecorator {
                                 events.size());
 
                         // Get cached pipeline data.
-                        final PipelineData pipelineData = getPipelineData(docRef);
-
-                        // Execute the extraction within a fresh pipeline scope.
-                        meta = pipelineScopeRunnable.scopeResult(() -> {
-                            final ExtractionTaskHandler handler = handlerProvider.get();
-
-                            // Get the index and index fields from the cache.
-                            final FieldValueExtractor fieldValueExtractor =
-                                    fieldValueExtractorFactory.create(dataSource, receiver.fieldIndex);
-                            final StandardFieldListConsumer fieldListConsumer =
-                                    new StandardFieldListConsumer(fieldValueExtractor);
-                            fieldListConsumer.setQueryKey(queryKey);
-                            fieldListConsumer.setFieldIndex(receiver.fieldIndex);
-                            fieldListConsumer.setReceiver(receiver.valuesConsumer);
-                            fieldListConsumerHolderProvider.get().setFieldListConsumer(fieldListConsumer);
-
-                            final QueryInfoHolder queryInfoHolder = queryInfoHolderProvider.get();
-                            queryInfoHolder.setQueryKey(queryKey);
-                            queryInfoHolder.setFieldIndex(receiver.fieldIndex);
-
-                            return handler.extract(
-                                    taskContext,
-                                    queryKey,
-                                    streamId,
-                                    eventIds,
-                                    docRef,
-                                    errorConsumer,
-                                    pipelineData);
-                        });
+                        final ExtractionPipeline extractionPipeline = getExtractionPipeline(docRef);
+
+                        // See if we have already extracted these events with this pipeline for the same
+                        // fields, in which case we can skip running the pipeline.
+                        final Key key = new Key(
+                                docRef.getUuid(),
+                                extractionPipeline.pipelineDoc().getVersion(),
+                                NullSafe.get(securityContext.getUserRef(), UserRef::getUuid),
+                                streamId,
+                                eventIds,
+                                Arrays.asList(receiver.fieldIndex.getFields()));
+                        if (meta == null) {
+                            // Make sure we are still allowed to read the stream.
+                            meta = getMeta(streamId);
+                        }
+                        if (extractionResultCache.replay(key, createFieldListConsumer(receiver))) {
+                            SearchProgressLog.add(queryKey,
+                                    SearchPhase.EXTRACTION_DECORATOR_FACTORY_CREATE_TASKS_CACHED,
+                                    events.size());
+                        } else {
+                            // Execute the extraction within a fresh pipeline scope.
+                            pipelineScopeRunnable.scopeRunnable(() -> {
+                                final ExtractionTaskHandler handler = handlerProvider.get();
+
+                                // Record the extracted values so we can cache them if extraction succeeds.
+                                final Recorder recorder = extractionResultCache.createRecorder(
+                                        key,
+                                        createFieldListConsumer(receiver));
+                                fieldListConsumerHolderProvider.get().setFieldListConsumer(recorder);
+
+                                final QueryInfoHolder queryInfoHolder = queryInfoHolderProvider.get();
+                                queryInfoHolder.setQueryKey(queryKey);
+                                queryInfoHolder.setFieldIndex(receiver.fieldIndex);
+
+                                final Meta extractedMeta = handler.extract(
+                                        taskContext,
+                                        queryKey,
+                                        streamId,
+                                        eventIds,
+                                        docRef,
+                                        errorConsumer,
+                                        extractionPipeline.pipelineData());
+
+                                // Don't cache partial results if we were stopped part way through or
+                                // an empty result if the stream couldn't be opened.
+                                if (extractedMeta != null &&
+                                    !taskContext.isTerminated() &&
+                                    !Thread.currentThread().isInterrupted()) {
+                                    recorder.put();
+                                }
+                            });
+                        }
 
                         extractionCount.add(events.size());
 
@@ -422,11 +453,7 @@ public class ExtractionDecorator {
                         // See if we can load the stream. We might get a StreamPermissionException if we aren't
                         // allowed to read from this stream.
                         if (meta == null) {
-                            meta = metaService.getMeta(streamId);
-                            if (meta == null) {
-                                throw new DataException(
-                                        "Unable to find data, could be due to lack of permissions");
-                            }
+                            meta = getMeta(streamId);
                         }
 
                         SearchProgressLog.add(queryKey,
@@ -461,8 +488,29 @@ public class ExtractionDecorator {
         }
     }
 
-    private PipelineData getPipelineData(final DocRef pipelineRef) {
-        return pipelineDataMap.computeIfAbsent(pipelineRef, k -> {
+    private StandardFieldListConsumer createFieldListConsumer(final Receiver receiver) {
+        // Get the index and index fields from the cache.
+        final FieldValueExtractor fieldValueExtractor =
+                fieldValueExtractorFactory.create(dataSource, receiver.fieldIndex);
+        final StandardFieldListConsumer fieldListConsumer =
+                new StandardFieldListConsumer(fieldValueExtractor);
+        fieldListConsumer.setQueryKey(queryKey);
+        fieldListConsumer.setFieldIndex(receiver.fieldIndex);
+        fieldListConsumer.setReceiver(receiver.valuesConsumer);
+        return fieldListConsumer;
+    }
+
+    private Meta getMeta(final long streamId) {
+        final Meta meta = metaService.getMeta(streamId);
+        if (meta == null) {
+            throw new DataException(
+                    "Unable to find data, could be due to lack of permissions");
+        }
+        return meta;
+    }
+
+    private ExtractionPipeline getExtractionPipeline(final DocRef pipelineRef) {
+        return pipelineMap.computeIfAbsent(pipelineRef, k -> {
             // Check the pipelineRef is not our 'NULL SELECTION'
             if (pipelineRef == null || NULL_SELECTION.compareTo(pipelineRef) == 0) {
                 throw new ExtractionException("Extraction is enabled, but no extraction pipeline is configured.");
@@ -476,7 +524,7 @@ public class ExtractionDecorator {
             }
 
             // Create the parser.
-            return pipelineDataCache.get(pipelineDoc);
+            return new ExtractionPipeline(pipelineDoc, pipelineDataCache.get(pipelineDoc));
         });
     }
 
@@ -487,4 +535,12 @@ public class ExtractionDecorator {
     private record Receiver(FieldIndex fieldIndex, ValuesConsumer valuesConsumer) {
 
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record ExtractionPipeline(PipelineDoc pipelineDoc, PipelineData pipelineData) {
+
+    }
 }
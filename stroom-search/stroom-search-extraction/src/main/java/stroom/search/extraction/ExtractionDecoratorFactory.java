@@ -44,6 +44,7 @@ public class ExtractionDecoratorFactory {
     private final Provider<QueryInfoHolder> queryInfoHolderProvider;
     private final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider;
     private final RerankScoringFilterFactory rerankScoringFilterFactory;
+    private final ExtractionResultCache extractionResultCache;
 
     @Inject
     ExtractionDecoratorFactory(final FieldValueExtractorFactory fieldValueExtractorFactory,
@@ -58,7 +59,8 @@ public class ExtractionDecoratorFactory {
                                final Provider<ExtractionTaskHandler> handlerProvider,
                                final Provider<QueryInfoHolder> queryInfoHolderProvider,
                                final Provider<FieldListConsumerHolder> fieldListConsumerHolderProvider,
-                               final RerankScoringFilterFactory rerankScoringFilterFactory) {
+                               final RerankScoringFilterFactory rerankScoringFilterFactory,
+                               final ExtractionResultCache extractionResultCache) {
         this.fieldValueExtractorFactory = fieldValueExtractorFactory;
         this.extractionConfig = extractionConfig;
         this.executorProvider = executorProvider;
@@ -72,6 +74,7 @@ public class ExtractionDecoratorFactory {
         this.queryInfoHolderProvider = queryInfoHolderProvider;
         this.fieldListConsumerHolderProvider = fieldListConsumerHolderProvider;
         this.rerankScoringFilterFactory = rerankScoringFilterFactory;
+        this.extractionResultCache = extractionResultCache;
     }
 
     public ExtractionDecorator create(final QueryKey queryKey) {
@@ -89,6 +92,7 @@ public class ExtractionDecoratorFactory {
                 queryInfoHolderProvider,
                 fieldListConsumerHolderProvider,
                 queryKey,
-                rerankScoringFilterFactory);
+                rerankScoringFilterFactory,
+                extractionResultCache);
     }
 }
@@ -0,0 +1,233 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.extraction;
+
+import stroom.cache.api.CacheManager;
+import stroom.cache.api.StroomCache;
+import stroom.dictionary.shared.DictionaryDoc;
+import stroom.pipeline.shared.PipelineDoc;
+import stroom.pipeline.shared.TextConverterDoc;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.query.common.v2.StringFieldValue;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+import stroom.util.entityevent.EntityEventHandler;
+import stroom.util.shared.Clearable;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Holds the records output by an extraction pipeline for a set of events in a stream so that
+ * repeated searches over the same data, e.g. dashboard refreshes or several users looking at the
+ * same time range, don't need to run the extraction pipeline again.
+ * <p>
+ * The output of a pipeline can depend on any of the docs it uses so all entries are dropped if a
+ * pipeline, XSLT, text converter or dictionary changes. Reference data can't be tracked in the
+ * same way so entries also expire a fixed time after they are written.
+ * <p>
+ * Pipelines can output different values depending on the user running them, e.g. through
+ * {@code current-user()} in an XSLT, so entries are keyed by user. Extractions that output more
+ * than {@link ExtractionConfig#getExtractionResultCacheMaxRecords()} records are not cached so a
+ * single large result can't take up a disproportionate amount of memory. This limit is 0 by default,
+ * which turns the cache off, as the cache has no weigher and everything it holds is on the heap.
+ */
+@Singleton
+@EntityEventHandler(
+        type = PipelineDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = XsltDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = TextConverterDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+@EntityEventHandler(
+        type = DictionaryDoc.TYPE,
+        action = {EntityAction.UPDATE, EntityAction.DELETE, EntityAction.CLEAR_CACHE})
+public class ExtractionResultCache implements Clearable, EntityEvent.Handler {
+
+    private static final String CACHE_NAME = "Extraction Result Cache";
+
+    private final StroomCache<Key, List<Consumer<FieldListConsumer>>> cache;
+    private final Provider<ExtractionConfig> extractionConfigProvider;
+
+    @Inject
+    public ExtractionResultCache(final CacheManager cacheManager,
+                                 final Provider<ExtractionConfig> extractionConfigProvider) {
+        this.extractionConfigProvider = extractionConfigProvider;
+        cache = cacheManager.create(
+                CACHE_NAME,
+                () -> extractionConfigProvider.get().getExtractionResultCache());
+    }
+
+    /**
+     * Send any cached records for the key to the supplied consumer.
+     *
+     * @return True if records were found in the cache.
+     */
+    boolean replay(final Key key, final FieldListConsumer fieldListConsumer) {
+        final Optional<List<Consumer<FieldListConsumer>>> optional = cache.getIfPresent(key);
+        optional.ifPresent(records -> records.forEach(record -> record.accept(fieldListConsumer)));
+        return optional.isPresent();
+    }
+
+    /**
+     * Create a consumer that passes records on to the supplied consumer and records them so
+     * they can be cached with {@link Recorder#put()} once the extraction has succeeded.
+     */
+    Recorder createRecorder(final Key key, final FieldListConsumer fieldListConsumer) {
+        return new Recorder(
+                key,
+                fieldListConsumer,
+                extractionConfigProvider.get().getExtractionResultCacheMaxRecords());
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void onChange(final EntityEvent event) {
+        // Too many things can affect the output of an extraction pipeline to work out which
+        // entries are affected, so just drop the lot.
+        clear();
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * @param pipelineUuid    The UUID of the extraction pipeline.
+     * @param pipelineVersion The version of the extraction pipeline doc.
+     * @param userUuid        The UUID of the user running the extraction as the output may depend on
+     *                        the user.
+     * @param streamId        The stream the events are in.
+     * @param eventIds        The sorted ids of the events that were extracted.
+     * @param fieldNames      The fields requested by the query as some output filters only output
+     *                        the requested fields.
+     */
+    record Key(String pipelineUuid,
+               String pipelineVersion,
+               String userUuid,
+               long streamId,
+               long[] eventIds,
+               List<String> fieldNames) {
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Key key = (Key) o;
+            return streamId == key.streamId &&
+                   Objects.equals(pipelineUuid, key.pipelineUuid) &&
+                   Objects.equals(pipelineVersion, key.pipelineVersion) &&
+                   Objects.equals(userUuid, key.userUuid) &&
+                   Arrays.equals(eventIds, key.eventIds) &&
+                   Objects.equals(fieldNames, key.fieldNames);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = Objects.hash(pipelineUuid, pipelineVersion, userUuid, streamId, fieldNames);
+            result = 31 * result + Arrays.hashCode(eventIds);
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Key{" +
+                   "pipelineUuid='" + pipelineUuid + '\'' +
+                   ", pipelineVersion='" + pipelineVersion + '\'' +
+                   ", userUuid='" + userUuid + '\'' +
+                   ", streamId=" + streamId +
+                   ", eventCount=" + eventIds.length +
+                   '}';
+        }
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    class Recorder implements FieldListConsumer {
+
+        private final Key key;
+        private final FieldListConsumer delegate;
+        private final int maxRecords;
+        private final List<Consumer<FieldListConsumer>> records = new ArrayList<>();
+        private boolean overLimit;
+
+        private Recorder(final Key key, final FieldListConsumer delegate, final int maxRecords) {
+            this.key = key;
+            this.delegate = delegate;
+            this.maxRecords = maxRecords;
+            this.overLimit = maxRecords <= 0;
+        }
+
+        @Override
+        public void acceptFieldValues(final List<FieldValue> fieldValues) {
+            if (canRecord()) {
+                final List<FieldValue> copy = Collections.unmodifiableList(new ArrayList<>(fieldValues));
+                records.add(consumer -> consumer.acceptFieldValues(copy));
+            }
+            delegate.acceptFieldValues(fieldValues);
+        }
+
+        @Override
+        public void acceptStringValues(final List<StringFieldValue> stringValues) {
+            if (canRecord()) {
+                final List<StringFieldValue> copy = Collections.unmodifiableList(new ArrayList<>(stringValues));
+                records.add(consumer -> consumer.acceptStringValues(copy));
+            }
+            delegate.acceptStringValues(stringValues);
+        }
+
+        private boolean canRecord() {
+            if (!overLimit && records.size() >= maxRecords) {
+                // Too big to cache so stop recording and let go of what we have so far.
+                overLimit = true;
+                records.clear();
+            }
+            return !overLimit;
+        }
+
+        /**
+         * Put the recorded records in the cache unless there were too many to cache.
+         */
+        void put() {
+            if (!overLimit) {
+                cache.put(key, List.copyOf(records));
+            }
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.extraction;
+
+import stroom.cache.impl.CacheManagerImpl;
+import stroom.docref.DocRef;
+import stroom.pipeline.shared.XsltDoc;
+import stroom.query.common.v2.StringFieldValue;
+import stroom.search.extraction.ExtractionResultCache.Key;
+import stroom.search.extraction.ExtractionResultCache.Recorder;
+import stroom.util.entityevent.EntityAction;
+import stroom.util.entityevent.EntityEvent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestExtractionResultCache {
+
+    private static final long[] EVENT_IDS = new long[]{1, 2, 3};
+    private static final List<String> FIELD_NAMES = List.of("a", "b");
+
+    @Test
+    void testHitAndMiss() {
+        final ExtractionResultCache cache = createCache(100);
+        final Key key = createKey("user1");
+
+        final TestConsumer missConsumer = new TestConsumer();
+        assertThat(cache.replay(key, missConsumer)).isFalse();
+        assertThat(missConsumer.values).isEmpty();
+
+        // Recording passes values straight through.
+        final TestConsumer extractConsumer = new TestConsumer();
+        final Recorder recorder = cache.createRecorder(key, extractConsumer);
+        recorder.acceptStringValues(List.of(new StringFieldValue("a", "1")));
+        recorder.acceptStringValues(List.of(new StringFieldValue("a", "2")));
+        assertThat(extractConsumer.values).containsExactly("1", "2");
+
+        // Nothing is cached until the extraction has succeeded.
+        assertThat(cache.replay(key, new TestConsumer())).isFalse();
+        recorder.put();
+
+        final TestConsumer hitConsumer = new TestConsumer();
+        assertThat(cache.replay(createKey("user1"), hitConsumer)).isTrue();
+        assertThat(hitConsumer.values).containsExactly("1", "2");
+    }
+
+    @Test
+    void testKeyedByUser() {
+        final ExtractionResultCache cache = createCache(100);
+        final Recorder recorder = cache.createRecorder(createKey("user1"), new TestConsumer());
+        recorder.acceptStringValues(List.of(new StringFieldValue("a", "1")));
+        recorder.put();
+
+        assertThat(cache.replay(createKey("user1"), new TestConsumer())).isTrue();
+        assertThat(cache.replay(createKey("user2"), new TestConsumer())).isFalse();
+        assertThat(cache.replay(createKey(null), new TestConsumer())).isFalse();
+    }
+
+    @Test
+    void testInvalidation() {
+        final ExtractionResultCache cache = createCache(100);
+        final Key key = createKey("user1");
+
+        cache.createRecorder(key, new TestConsumer()).put();
+        assertThat(cache.replay(key, new TestConsumer())).isTrue();
+        cache.onChange(new EntityEvent(new DocRef(XsltDoc.TYPE, "xslt1"), EntityAction.UPDATE));
+        assertThat(cache.replay(key, new TestConsumer())).isFalse();
+
+        cache.createRecorder(key, new TestConsumer()).put();
+        assertThat(cache.replay(key, new TestConsumer())).isTrue();
+        cache.clear();
+        assertThat(cache.replay(key, new TestConsumer())).isFalse();
+    }
+
+    @Test
+    void testTooManyRecordsToCache() {
+        final ExtractionResultCache cache = createCache(2);
+        final Key key = createKey("user1");
+
+        final TestConsumer extractConsumer = new TestConsumer();
+        final Recorder recorder = cache.createRecorder(key, extractConsumer);
+        for (int i = 0; i < 3; i++) {
+            recorder.acceptStringValues(List.of(new StringFieldValue("a", String.valueOf(i))));
+        }
+        recorder.put();
+
+        // All values still get through but the result isn't cached.
+        assertThat(extractConsumer.values).containsExactly("0", "1", "2");
+        assertThat(cache.replay(key, new TestConsumer())).isFalse();
+    }
+
+    @Test
+    void testCachingDisabled() {
+        final ExtractionResultCache cache = createCache(0);
+        final Key key = createKey("user1");
+
+        cache.createRecorder(key, new TestConsumer()).put();
+        assertThat(cache.replay(key, new TestConsumer())).isFalse();
+    }
+
+    private ExtractionResultCache createCache(final int maxRecords) {
+        final ExtractionConfig extractionConfig = new ExtractionConfig(
+                null,
+                null,
+                null,
+                null,
+                null,
+                maxRecords);
+        return new ExtractionResultCache(new CacheManagerImpl(), () -> extractionConfig);
+    }
+
+    private Key createKey(final String userUuid) {
+        // Use new arrays/lists each time to check the key compares by value.
+        return new Key("pipeline1", "version1", userUuid, 10L, EVENT_IDS.clone(), new ArrayList<>(FIELD_NAMES));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class TestConsumer implements FieldListConsumer {
+
+        private final List<String> values = new ArrayList<>();
+
+        @Override
+        public void acceptFieldValues(final List<FieldValue> fieldValues) {
+            fieldValues.forEach(fieldValue -> values.add(fieldValue.value().toString()));
+        }
+
+        @Override
+        public void acceptStringValues(final List<StringFieldValue> stringValues) {
+            stringValues.forEach(stringValue -> values.add(stringValue.fieldValue()));
+        }
+    }
+}
@@ -50,7 +50,8 @@ class FederatedSearchTaskHandler {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(FederatedSearchTaskHandler.class);
 
-    public static final ThreadPool THREAD_POOL = new ThreadPoolImpl("Search");
+    // Node search tasks spend most of their time waiting on remote nodes so run them on virtual threads.
+    public static final ThreadPool THREAD_POOL = ThreadPoolImpl.virtual("Search");
 
     private final TargetNodeSetFactory targetNodeSetFactory;
     private final TaskManager taskManager;
@@ -16,6 +16,7 @@
 
 package stroom.search.impl;
 
+import stroom.index.impl.IndexShardSearchConfig;
 import stroom.node.api.NodeCallUtil;
 import stroom.node.api.NodeInfo;
 import stroom.node.api.NodeService;
@@ -28,6 +29,7 @@ import stroom.util.logging.LambdaLoggerFactory;
 import stroom.util.shared.ResourcePaths;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 import jakarta.ws.rs.NotFoundException;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.client.Entity;
@@ -36,8 +38,10 @@ import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 
+import java.io.DataInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.function.Predicate;
 
 public class RemoteNodeSearch implements NodeSearch {
 
@@ -46,14 +50,17 @@ public class RemoteNodeSearch implements NodeSearch {
     private final NodeService nodeService;
     private final NodeInfo nodeInfo;
     private final WebTargetFactory webTargetFactory;
+    private final Provider<IndexShardSearchConfig> searchConfigProvider;
 
     @Inject
     public RemoteNodeSearch(final NodeService nodeService,
                             final NodeInfo nodeInfo,
-                            final WebTargetFactory webTargetFactory) {
+                            final WebTargetFactory webTargetFactory,
+                            final Provider<IndexShardSearchConfig> searchConfigProvider) {
         this.nodeService = nodeService;
         this.nodeInfo = nodeInfo;
         this.webTargetFactory = webTargetFactory;
+        this.searchConfigProvider = searchConfigProvider;
     }
 
     @Override
@@ -89,10 +96,15 @@ public class RemoteNodeSearch implements NodeSearch {
             LOGGER.debug(() -> task.getSearchName() + " - searching node: " + targetNode + "...");
             parentContext.info(() -> task.getSearchName() + " - searching node: " + targetNode + "...");
 
-            // Poll for results until completion.
-            boolean complete = false;
-            while (!Thread.currentThread().isInterrupted() && !complete) {
-                complete = pollRemoteSearch(targetNode, queryKey, resultCollector);
+            if (searchConfigProvider.get().isRemoteSearchStreamingEnabled()) {
+                // Receive results pushed by the remote node until completion.
+                streamRemoteSearch(targetNode, queryKey, resultCollector);
+            } else {
+                // Poll for results until completion.
+                boolean complete = false;
+                while (!Thread.currentThread().isInterrupted() && !complete) {
+                    complete = pollRemoteSearch(targetNode, queryKey, resultCollector);
+                }
             }
 
         } catch (final Throwable e) {
@@ -163,6 +175,52 @@ public class RemoteNodeSearch implements NodeSearch {
         return complete;
     }
 
+    /**
+     * Open a single request to the remote node and read the result frames it pushes
+     * to us until it tells us it is complete. We consume each frame before reading the next so a slow
+     * result store will apply back pressure to the remote node via the connection.
+     */
+    private void streamRemoteSearch(final String nodeName,
+                                    final String queryKey,
+                                    final ResultStore resultCollector) throws IOException {
+        final String url = NodeCallUtil.getBaseEndpointUrl(nodeInfo, nodeService, nodeName)
+                + ResourcePaths.buildAuthenticatedApiPath(
+                RemoteSearchResource.BASE_PATH,
+                RemoteSearchResource.STREAM_PATH_PART);
+
+        WebTarget webTarget = webTargetFactory.create(url);
+        webTarget = UriBuilderUtil.addParam(webTarget, "queryKey", queryKey);
+
+        final long maxFrameBytes = searchConfigProvider.get().getRemoteSearchStreamMaxFrameSize().getBytes();
+        try (final DataInputStream dataInputStream = new DataInputStream(webTarget
+                .request(MediaType.APPLICATION_OCTET_STREAM)
+                .get(InputStream.class))) {
+            readFrames(dataInputStream, maxFrameBytes, frame -> {
+                LOGGER.debug(() -> "Receive result frame for node: " + nodeName);
+                return resultCollector.onSuccess(nodeName, frame);
+            });
+        }
+    }
+
+    /**
+     * Read frames, passing each to the frame consumer as it arrives until it says the results are complete.
+     * Frames are not buffered, the consumer reads each one straight from the connection.
+     *
+     * @param maxFrameBytes The largest frame we will accept.
+     */
+    static void readFrames(final DataInputStream dataInputStream,
+                           final long maxFrameBytes,
+                           final Predicate<InputStream> frameConsumer) throws IOException {
+        boolean complete = false;
+        while (!Thread.currentThread().isInterrupted() && !complete) {
+            final ResultFrameInputStream frame = new ResultFrameInputStream(dataInputStream, maxFrameBytes);
+            complete = frameConsumer.test(frame);
+            // Skip anything the consumer didn't read. If the consumer failed then the connection is
+            // abandoned so there is no point reading the rest of the frame.
+            frame.close();
+        }
+    }
+
     private Boolean destroyRemoteSearch(final String nodeName,
                                         final String queryKey) {
         final String url = NodeCallUtil.getBaseEndpointUrl(nodeInfo, nodeService, nodeName)
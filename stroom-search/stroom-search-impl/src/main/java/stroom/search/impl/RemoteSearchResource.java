@@ -39,6 +39,7 @@ public interface RemoteSearchResource extends RestResource {
     String BASE_PATH = "/remoteSearch" + ResourcePaths.V1;
     String START_PATH_PART = "/start";
     String POLL_PATH_PART = "/poll";
+    String STREAM_PATH_PART = "/stream";
     String DESTROY_PATH_PART = "/destroy";
 
     @POST
@@ -56,6 +57,15 @@ public interface RemoteSearchResource extends RestResource {
             operationId = "pollRemoteSearch")
     StreamingOutput poll(@QueryParam("queryKey") String queryKey);
 
+    @GET
+    @Path(STREAM_PATH_PART)
+    @Produces("application/octet-stream")
+    @Operation(
+            summary = "Stream length prefixed frames of search results for the supplied queryKey " +
+                      "until the search is complete",
+            operationId = "streamRemoteSearch")
+    StreamingOutput stream(@QueryParam("queryKey") String queryKey);
+
     @GET
     @Path(DESTROY_PATH_PART)
     @Operation(
@@ -27,6 +27,8 @@ import stroom.util.shared.ErrorMessage;
 
 import com.esotericsoftware.kryo.io.Output;
 
+import java.io.DataOutputStream;
+import java.io.IOException;
 import java.io.OutputStream;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -35,6 +37,13 @@ class RemoteSearchResultFactory {
 
     private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(RemoteSearchResultFactory.class);
 
+    private static final long POLL_AWAIT_MS = 1000;
+    /**
+     * When streaming, the longest we will go without sending a frame even if nothing has changed, so the
+     * coordinating node knows we are still alive.
+     */
+    static final long STREAM_HEARTBEAT_MS = TimeUnit.SECONDS.toMillis(10);
+
     private final TaskManager taskManager;
     private final SecurityContext securityContext;
 
@@ -43,6 +52,8 @@ class RemoteSearchResultFactory {
     private volatile boolean destroy;
     private volatile boolean started;
     private volatile List<ErrorMessage> initialisationError;
+    private long lastValueCount;
+    private long lastByteSize;
 
     RemoteSearchResultFactory(final TaskManager taskManager,
                               final SecurityContext securityContext) {
@@ -52,39 +63,123 @@ class RemoteSearchResultFactory {
 
     public void write(final OutputStream outputStream) {
         try (final Output output = new Output(outputStream)) {
-            if (initialisationError != null) {
-                NodeResultSerialiser.write(output, true, coprocessors, initialisationError);
-            } else {
-                try {
-                    // Wait to complete.
-                    final boolean complete = coprocessors.getCompletionState().awaitCompletion(1, TimeUnit.SECONDS);
-
-                    // Write completion status.
-                    if (!started) {
-                        LOGGER.debug(() -> "Node search not started");
-                        NodeResultSerialiser.writeEmptyResponse(output, false);
-
-                    } else if (Thread.currentThread().isInterrupted() || destroy) {
-                        LOGGER.debug(() -> "Terminated or destroyed: terminated=" +
-                                Thread.currentThread().isInterrupted() +
-                                ", destroyed=" +
-                                destroy);
-                        NodeResultSerialiser.writeEmptyResponse(output, true);
-
-                    } else {
-                        // Drain all current errors to a list.
-                        final List<ErrorMessage> errorsSnapshot = coprocessors.getErrorConsumer().drain();
-                        NodeResultSerialiser.write(output, complete, coprocessors, errorsSnapshot);
-                    }
-
-                } catch (final InterruptedException e) {
-                    LOGGER.debug(e::getMessage, e);
-                    NodeResultSerialiser.writeEmptyResponse(output, true);
-
-                    // Keep interrupting.
-                    Thread.currentThread().interrupt();
+            write(output, POLL_AWAIT_MS);
+        }
+    }
+
+    /**
+     * Push frames of results to the supplied output stream until the search is complete.
+     * A frame is only written when the results have changed, or as a heartbeat if nothing has been written
+     * for {@code heartbeatMs}. Frames are written straight to the stream in chunks, see
+     * {@link ResultFrameOutputStream}, and each frame is flushed as soon as it is written so the coordinating
+     * node receives payloads as they are produced. If the coordinating node is slow to consume frames then the
+     * flush will block, which in turn stops us taking further payloads from the coprocessors.
+     *
+     * @param outputStream    The stream to write frames to.
+     * @param frameIntervalMs How often to check whether the results have changed.
+     * @param heartbeatMs     The longest time to go without writing a frame.
+     */
+    public void stream(final OutputStream outputStream,
+                       final long frameIntervalMs,
+                       final long heartbeatMs) throws IOException {
+        final DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+        long lastFrameTimeMs = 0;
+        boolean complete = false;
+        while (!complete) {
+            final boolean done = awaitCompletion(frameIntervalMs);
+            final long now = System.currentTimeMillis();
+            if (done || hasChanged() || now - lastFrameTimeMs >= heartbeatMs) {
+                try (final Output output = new Output(new ResultFrameOutputStream(dataOutputStream))) {
+                    complete = write(output, 0);
                 }
+                lastFrameTimeMs = now;
+            }
+        }
+    }
+
+    /**
+     * @return True if there is nothing more to wait for, i.e. the search is complete, has failed or been
+     * terminated.
+     */
+    private boolean awaitCompletion(final long awaitMs) {
+        if (initialisationError != null || destroy || Thread.currentThread().isInterrupted()) {
+            return true;
+        }
+        try {
+            if (!started) {
+                Thread.sleep(awaitMs);
+                return false;
             }
+            return coprocessors.getCompletionState()
+                    .awaitCompletion(awaitMs, TimeUnit.MILLISECONDS);
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            // Keep interrupting.
+            Thread.currentThread().interrupt();
+            return true;
+        }
+    }
+
+    /**
+     * @return True if the results have changed since the last time this was called.
+     */
+    private boolean hasChanged() {
+        if (!started) {
+            return false;
+        }
+        final long valueCount = coprocessors.getValueCount();
+        final long byteSize = coprocessors.getByteSize();
+        final boolean changed = valueCount != lastValueCount ||
+                                byteSize != lastByteSize ||
+                                // Errors are drained as each frame is written so any left are new.
+                                !coprocessors.getErrorConsumer().getErrorMessages().isEmpty();
+        lastValueCount = valueCount;
+        lastByteSize = byteSize;
+        return changed;
+    }
+
+    /**
+     * @return True if this is the last set of results that will be written.
+     */
+    private boolean write(final Output output, final long awaitMs) {
+        if (initialisationError != null) {
+            NodeResultSerialiser.write(output, true, coprocessors, initialisationError);
+            return true;
+        }
+
+        try {
+            // Wait to complete.
+            final boolean complete = coprocessors.getCompletionState()
+                    .awaitCompletion(awaitMs, TimeUnit.MILLISECONDS);
+
+            // Write completion status.
+            if (!started) {
+                LOGGER.debug(() -> "Node search not started");
+                NodeResultSerialiser.writeEmptyResponse(output, false);
+                return false;
+
+            } else if (Thread.currentThread().isInterrupted() || destroy) {
+                LOGGER.debug(() -> "Terminated or destroyed: terminated=" +
+                        Thread.currentThread().isInterrupted() +
+                        ", destroyed=" +
+                        destroy);
+                NodeResultSerialiser.writeEmptyResponse(output, true);
+                return true;
+
+            } else {
+                // Drain all current errors to a list.
+                final List<ErrorMessage> errorsSnapshot = coprocessors.getErrorConsumer().drain();
+                NodeResultSerialiser.write(output, complete, coprocessors, errorsSnapshot);
+                return complete;
+            }
+
+        } catch (final InterruptedException e) {
+            LOGGER.debug(e::getMessage, e);
+            NodeResultSerialiser.writeEmptyResponse(output, true);
+
+            // Keep interrupting.
+            Thread.currentThread().interrupt();
+            return true;
         }
     }
 
@@ -16,6 +16,7 @@
 
 package stroom.search.impl;
 
+import stroom.index.impl.IndexShardSearchConfig;
 import stroom.query.api.Query;
 import stroom.query.common.v2.CoprocessorsFactory;
 import stroom.query.common.v2.CoprocessorsImpl;
@@ -33,6 +34,7 @@ import stroom.util.string.ExceptionStringUtil;
 
 import com.esotericsoftware.kryo.KryoException;
 import jakarta.inject.Inject;
+import jakarta.inject.Provider;
 
 import java.io.IOException;
 import java.io.OutputStream;
@@ -54,6 +56,7 @@ public class RemoteSearchService {
     private final NodeSearchTaskHandlers nodeSearchTaskHandlers;
     private final CoprocessorsFactory coprocessorsFactory;
     private final SecurityContext securityContext;
+    private final Provider<IndexShardSearchConfig> searchConfigProvider;
 
     private CoprocessorsImpl coprocessors;
 
@@ -64,7 +67,8 @@ public class RemoteSearchService {
                                final TaskContextFactory taskContextFactory,
                                final NodeSearchTaskHandlers nodeSearchTaskHandlers,
                                final CoprocessorsFactory coprocessorsFactory,
-                               final SecurityContext securityContext) {
+                               final SecurityContext securityContext,
+                               final Provider<IndexShardSearchConfig> searchConfigProvider) {
         this.remoteSearchResults = remoteSearchResults;
         this.taskManager = taskManager;
         this.executorProvider = executorProvider;
@@ -72,6 +76,7 @@ public class RemoteSearchService {
         this.nodeSearchTaskHandlers = nodeSearchTaskHandlers;
         this.coprocessorsFactory = coprocessorsFactory;
         this.securityContext = securityContext;
+        this.searchConfigProvider = searchConfigProvider;
     }
 
     public Boolean start(final NodeSearchTask nodeSearchTask) {
@@ -202,6 +207,34 @@ public class RemoteSearchService {
         }
     }
 
+    public void stream(final String queryKey, final OutputStream outputStream) throws IOException {
+        try {
+            LOGGER.debug(() -> "stream " + queryKey);
+            final Optional<RemoteSearchResultFactory> optional = remoteSearchResults.get(queryKey);
+
+            if (optional.isPresent()) {
+                final RemoteSearchResultFactory factory = optional.get();
+                factory.stream(
+                        outputStream,
+                        searchConfigProvider.get().getRemoteSearchStreamFrameInterval().toMillis(),
+                        RemoteSearchResultFactory.STREAM_HEARTBEAT_MS);
+
+            } else {
+                // There aren't any results in the cache so the search is probably dead
+                LOGGER.error("Expected search results in cache for " + queryKey);
+                throw new RuntimeException("Expected search results in cache for " + queryKey);
+            }
+
+            outputStream.close();
+        } catch (final KryoException | IOException e) {
+            // Expected as the output stream is closed by the receiving node if it no longer needs results.
+            LOGGER.debug(e::getMessage, e);
+        } catch (final RuntimeException e) {
+            LOGGER.error(e.getMessage(), e);
+            throw e;
+        }
+    }
+
     public Boolean destroy(final String queryKey) {
         LOGGER.debug(() -> "destroy " + queryKey);
         remoteSearchResults.invalidate(queryKey);
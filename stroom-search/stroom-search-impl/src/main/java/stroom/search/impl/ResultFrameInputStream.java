@@ -0,0 +1,102 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.impl;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Reads a single frame written by {@link ResultFrameOutputStream}, returning end of stream once the
+ * frame has been read. Closing this stream skips anything left in the frame but leaves the underlying
+ * stream open for the next frame.
+ */
+class ResultFrameInputStream extends InputStream {
+
+    private final DataInputStream dataInputStream;
+    private final long maxFrameBytes;
+    private long frameBytes;
+    private int chunkRemaining;
+    private boolean ended;
+
+    /**
+     * @param maxFrameBytes The largest frame we will accept. The chunk lengths come from another node so
+     *                      are checked against this so a broken node can't send us an endless frame.
+     */
+    ResultFrameInputStream(final DataInputStream dataInputStream, final long maxFrameBytes) {
+        this.dataInputStream = dataInputStream;
+        this.maxFrameBytes = maxFrameBytes;
+    }
+
+    /**
+     * @return False if the end of the frame has been reached.
+     */
+    private boolean nextChunk() throws IOException {
+        while (!ended && chunkRemaining == 0) {
+            final int length = dataInputStream.readInt();
+            if (length == 0) {
+                ended = true;
+            } else if (length < 0 || length > maxFrameBytes - frameBytes) {
+                throw new IOException("Invalid result frame chunk length " + length +
+                                      ", the maximum frame size is " + maxFrameBytes + " bytes");
+            } else {
+                frameBytes += length;
+                chunkRemaining = length;
+            }
+        }
+        return !ended;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!nextChunk()) {
+            return -1;
+        }
+        final int b = dataInputStream.read();
+        if (b == -1) {
+            throw new EOFException("Result frame truncated");
+        }
+        chunkRemaining--;
+        return b;
+    }
+
+    @Override
+    public int read(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextChunk()) {
+            return -1;
+        }
+        final int count = dataInputStream.read(b, off, Math.min(len, chunkRemaining));
+        if (count == -1) {
+            throw new EOFException("Result frame truncated");
+        }
+        chunkRemaining -= count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Skip the rest of the frame so the next frame can be read.
+        while (nextChunk()) {
+            dataInputStream.skipNBytes(chunkRemaining);
+            chunkRemaining = 0;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.impl;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Writes a single frame of remote search results straight to the connection as a sequence of length
+ * prefixed chunks, so the frame never has to be held in memory as a whole. A zero length chunk marks
+ * the end of the frame. Closing this stream ends the frame and flushes it but leaves the underlying
+ * stream open for the next frame.
+ */
+class ResultFrameOutputStream extends OutputStream {
+
+    static final int CHUNK_SIZE = 64 * 1024;
+
+    private final DataOutputStream dataOutputStream;
+    private final byte[] chunk;
+    private int chunkLength;
+    private boolean closed;
+
+    ResultFrameOutputStream(final DataOutputStream dataOutputStream) {
+        this(dataOutputStream, CHUNK_SIZE);
+    }
+
+    ResultFrameOutputStream(final DataOutputStream dataOutputStream, final int chunkSize) {
+        this.dataOutputStream = dataOutputStream;
+        this.chunk = new byte[chunkSize];
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        if (chunkLength == chunk.length) {
+            writeChunk();
+        }
+        chunk[chunkLength++] = (byte) b;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        int offset = off;
+        int remaining = len;
+        while (remaining > 0) {
+            if (chunkLength == chunk.length) {
+                writeChunk();
+            }
+            final int length = Math.min(remaining, chunk.length - chunkLength);
+            System.arraycopy(b, offset, chunk, chunkLength, length);
+            chunkLength += length;
+            offset += length;
+            remaining -= length;
+        }
+    }
+
+    private void writeChunk() throws IOException {
+        if (chunkLength > 0) {
+            dataOutputStream.writeInt(chunkLength);
+            dataOutputStream.write(chunk, 0, chunkLength);
+            chunkLength = 0;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            writeChunk();
+            dataOutputStream.writeInt(0);
+            dataOutputStream.flush();
+        }
+    }
+}
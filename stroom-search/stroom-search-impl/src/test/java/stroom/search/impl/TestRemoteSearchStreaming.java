@@ -0,0 +1,258 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.search.impl;
+
+import stroom.query.common.v2.CompletionStateImpl;
+import stroom.query.common.v2.Coprocessors;
+import stroom.query.common.v2.CoprocessorsImpl;
+import stroom.query.common.v2.ErrorConsumerImpl;
+import stroom.query.common.v2.NodeResultSerialiser;
+import stroom.util.shared.ErrorMessage;
+import stroom.util.shared.Severity;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+
+class TestRemoteSearchStreaming {
+
+    private static final long MAX_FRAME_BYTES = 1024;
+
+    @Test
+    void testRoundTrip() throws Exception {
+        final CompletionStateImpl completionState = new CompletionStateImpl();
+        final ErrorConsumerImpl errorConsumer = new ErrorConsumerImpl();
+        final AtomicLong valueCount = new AtomicLong();
+        final RemoteSearchResultFactory factory = createFactory(completionState, errorConsumer, valueCount);
+        factory.setStarted(true);
+
+        final PipedInputStream pipedInputStream = new PipedInputStream();
+        final PipedOutputStream pipedOutputStream = new PipedOutputStream(pipedInputStream);
+        // Check for changes every ms but never send a heartbeat after the first frame.
+        final CompletableFuture<Void> server = CompletableFuture.runAsync(() -> {
+            try (pipedOutputStream) {
+                factory.stream(pipedOutputStream, 1, TimeUnit.HOURS.toMillis(1));
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        // Each frame triggers the next change, so an unexpected frame for an unchanged state would be
+        // picked up by the checks on the following frame.
+        final List<Frame> frames = new ArrayList<>();
+        RemoteNodeSearch.readFrames(new DataInputStream(pipedInputStream), MAX_FRAME_BYTES, inputStream -> {
+            final Frame frame = readFrame(inputStream);
+            frames.add(frame);
+            switch (frames.size()) {
+                case 1 -> valueCount.set(5);
+                case 2 -> errorConsumer.add(Severity.WARNING, () -> "Warning");
+                case 3 -> completionState.signalComplete();
+            }
+            return frame.complete();
+        });
+        server.get(10, TimeUnit.SECONDS);
+
+        assertThat(frames)
+                .containsExactly(
+                        new Frame(false, List.of()),
+                        new Frame(false, List.of()),
+                        new Frame(false, List.of("Warning")),
+                        new Frame(true, List.of()));
+    }
+
+    @Test
+    void testErrorFrame() throws Exception {
+        final RemoteSearchResultFactory factory = createFactory(
+                new CompletionStateImpl(),
+                new ErrorConsumerImpl(),
+                new AtomicLong());
+        factory.setInitialisationError(List.of(new ErrorMessage(Severity.ERROR, "Failed to start")));
+
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        factory.stream(byteArrayOutputStream, 1, 1);
+
+        final List<Frame> frames = new ArrayList<>();
+        RemoteNodeSearch.readFrames(toDataInputStream(byteArrayOutputStream.toByteArray()),
+                MAX_FRAME_BYTES,
+                inputStream -> {
+                    final Frame frame = readFrame(inputStream);
+                    frames.add(frame);
+                    return frame.complete();
+                });
+
+        assertThat(frames)
+                .containsExactly(new Frame(true, List.of("Failed to start")));
+    }
+
+    @Test
+    void testFrameSpanningChunks() throws IOException {
+        final byte[] bytes = new byte[100];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = (byte) i;
+        }
+
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        try (final ResultFrameOutputStream frame = new ResultFrameOutputStream(dataOutputStream, 16)) {
+            frame.write(bytes, 0, 50);
+            frame.write(bytes[50]);
+            frame.write(bytes, 51, 49);
+        }
+        try (final ResultFrameOutputStream frame = new ResultFrameOutputStream(dataOutputStream, 16)) {
+            frame.write(bytes, 0, 20);
+        }
+
+        // Frames are chunked so only need to be within the maximum in total.
+        final List<byte[]> frames = new ArrayList<>();
+        RemoteNodeSearch.readFrames(toDataInputStream(byteArrayOutputStream.toByteArray()),
+                MAX_FRAME_BYTES,
+                inputStream -> {
+                    try {
+                        frames.add(inputStream.readAllBytes());
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return frames.size() == 2;
+                });
+
+        assertThat(frames)
+                .containsExactly(bytes, Arrays.copyOf(bytes, 20));
+    }
+
+    @Test
+    void testFrameTooBig() throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        try (final ResultFrameOutputStream frame = new ResultFrameOutputStream(dataOutputStream, 16)) {
+            frame.write(new byte[(int) MAX_FRAME_BYTES + 1]);
+        }
+
+        assertThatThrownBy(() -> RemoteNodeSearch.readFrames(
+                toDataInputStream(byteArrayOutputStream.toByteArray()),
+                MAX_FRAME_BYTES,
+                inputStream -> {
+                    try {
+                        inputStream.readAllBytes();
+                    } catch (final IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    return true;
+                }))
+                .hasRootCauseInstanceOf(IOException.class)
+                .hasRootCauseMessage("Invalid result frame chunk length 1, the maximum frame size is " +
+                                     MAX_FRAME_BYTES + " bytes");
+    }
+
+    @Test
+    void testTruncatedFrame() throws IOException {
+        final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+        final DataOutputStream dataOutputStream = new DataOutputStream(byteArrayOutputStream);
+        dataOutputStream.writeInt(100);
+        dataOutputStream.write(new byte[10]);
+
+        assertThatThrownBy(() -> RemoteNodeSearch.readFrames(
+                toDataInputStream(byteArrayOutputStream.toByteArray()),
+                MAX_FRAME_BYTES,
+                inputStream -> false))
+                .isInstanceOf(EOFException.class);
+    }
+
+    @Test
+    void testInvalidFrameLength() throws IOException {
+        for (final int length : new int[]{(int) MAX_FRAME_BYTES + 1, Integer.MAX_VALUE, -1}) {
+            final ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream();
+            new DataOutputStream(byteArrayOutputStream).writeInt(length);
+
+            assertThatThrownBy(() -> RemoteNodeSearch.readFrames(
+                    toDataInputStream(byteArrayOutputStream.toByteArray()),
+                    MAX_FRAME_BYTES,
+                    inputStream -> false))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("Invalid result frame chunk length " + length);
+        }
+    }
+
+    private RemoteSearchResultFactory createFactory(final CompletionStateImpl completionState,
+                                                    final ErrorConsumerImpl errorConsumer,
+                                                    final AtomicLong valueCount) {
+        final CoprocessorsImpl coprocessors = Mockito.mock(CoprocessorsImpl.class);
+        Mockito.when(coprocessors.getCompletionState()).thenReturn(completionState);
+        Mockito.when(coprocessors.getErrorConsumer()).thenReturn(errorConsumer);
+        Mockito.when(coprocessors.getValueCount()).thenAnswer(invocation -> valueCount.get());
+        Mockito.doAnswer(invocation -> {
+            // No payloads.
+            invocation.getArgument(0, Output.class).writeInt(0);
+            return null;
+        }).when(coprocessors).writePayloads(any());
+
+        final RemoteSearchResultFactory factory = new RemoteSearchResultFactory(null, null);
+        factory.setCoprocessors(coprocessors);
+        return factory;
+    }
+
+    private static Frame readFrame(final InputStream inputStream) {
+        final Coprocessors coprocessors = Mockito.mock(Coprocessors.class);
+        Mockito.doAnswer(invocation -> {
+            assertThat(invocation.getArgument(0, Input.class).readInt())
+                    .isZero();
+            return null;
+        }).when(coprocessors).readPayloads(any());
+
+        final ErrorConsumerImpl errorConsumer = new ErrorConsumerImpl();
+        try (final Input input = new Input(inputStream)) {
+            final boolean complete = NodeResultSerialiser.read(input, coprocessors, errorConsumer);
+            return new Frame(complete, errorConsumer.getErrorMessages()
+                    .stream()
+                    .map(ErrorMessage::getMessage)
+                    .toList());
+        }
+    }
+
+    private static DataInputStream toDataInputStream(final byte[] bytes) {
+        return new DataInputStream(new ByteArrayInputStream(bytes));
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record Frame(boolean complete, List<String> errors) {
+
+    }
+}
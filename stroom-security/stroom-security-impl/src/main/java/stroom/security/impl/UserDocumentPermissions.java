@@ -19,25 +19,42 @@ package stroom.security.impl;
 import stroom.docref.DocRef;
 import stroom.security.shared.DocumentPermission;
 
+import java.util.HashMap;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 /**
  * Hold all the document permissions that a user holds.
+ * <p>
+ * A user may hold permissions on a very large number of documents so rather than a map of
+ * UUID strings, document UUIDs in the standard lower case form are held as two longs in an
+ * open addressing table with the permission's primitive value held in a parallel byte array.
+ * Any other doc UUID is held in a normal map.
+ * <p>
+ * Not thread safe. An instance is filled when it is loaded into {@link UserDocumentPermissionsCache}
+ * and is only read after that, any change to a user's permissions invalidates their cached instance.
+ * Cleared permissions leave their slot behind with no permission, these slots are dropped when
+ * the table is next resized.
  */
 public class UserDocumentPermissions {
 
-    //docUuid => DocumentPermissionEnum.primitiveValue
-    private final Map<String, Byte> permissions;
+    private static final byte NO_PERMISSION = 0;
+    private static final int MIN_CAPACITY = 16;
+    private static final float LOAD_FACTOR = 0.75F;
+
+    private Table table;
+    // docUuid => DocumentPermissionEnum.primitiveValue for any doc UUID that is not a standard UUID
+    private final Map<String, Byte> otherPermissions = new HashMap<>();
 
     public UserDocumentPermissions() {
-        permissions = new ConcurrentHashMap<>();
+        this(0);
     }
 
-    public UserDocumentPermissions(final Map<String, Byte> permissions) {
-        this.permissions = permissions;
+    /**
+     * @param expectedSize The number of permissions expected to be set, to avoid resizing.
+     */
+    public UserDocumentPermissions(final int expectedSize) {
+        table = new Table(capacityFor(expectedSize));
     }
 
     /**
@@ -46,8 +63,8 @@ public class UserDocumentPermissions {
      * inherits Use so return true).
      */
     public boolean hasDocumentPermission(final DocRef docRef, final DocumentPermission permission) {
-        final Byte perm = permissions.get(docRef.getUuid());
-        if (perm != null) {
+        final byte perm = getPrimitiveValue(docRef.getUuid());
+        if (perm != NO_PERMISSION) {
             return perm >= permission.getPrimitiveValue();
         }
         return false;
@@ -58,7 +75,11 @@ public class UserDocumentPermissions {
     }
 
     public void setPermission(final String docUuid, final DocumentPermission permission) {
-        permissions.put(docUuid, permission.getPrimitiveValue());
+        if (isStandardUuid(docUuid)) {
+            put(parseHex(docUuid, 0, 18), parseHex(docUuid, 19, 36), permission.getPrimitiveValue());
+        } else {
+            otherPermissions.put(docUuid, permission.getPrimitiveValue());
+        }
     }
 
     public void clearPermission(final DocRef docRef) {
@@ -66,7 +87,18 @@ public class UserDocumentPermissions {
     }
 
     public void clearPermission(final String docUuid) {
-        permissions.remove(docUuid);
+        if (isStandardUuid(docUuid)) {
+            put(parseHex(docUuid, 0, 18), parseHex(docUuid, 19, 36), NO_PERMISSION);
+        } else {
+            otherPermissions.remove(docUuid);
+        }
+    }
+
+    /**
+     * @return The number of documents that the user holds a permission on.
+     */
+    public int size() {
+        return table.count + otherPermissions.size();
     }
 
     /**
@@ -75,11 +107,194 @@ public class UserDocumentPermissions {
      * @return A map of docUUID => {@link DocumentPermission}.
      */
     public Map<String, DocumentPermission> getPermissions() {
-        return permissions.entrySet()
-                .stream()
-                .collect(Collectors.toMap(
-                        Entry::getKey,
-                        entry ->
-                                DocumentPermission.PRIMITIVE_VALUE_CONVERTER.fromPrimitiveValue(entry.getValue())));
+        final Map<String, DocumentPermission> map = new HashMap<>();
+        for (int slot = 0; slot < table.capacity(); slot++) {
+            final long msb = table.getMsb(slot);
+            final long lsb = table.getLsb(slot);
+            final byte value = table.getValue(slot);
+            if (value != NO_PERMISSION) {
+                map.put(new UUID(msb, lsb).toString(),
+                        DocumentPermission.PRIMITIVE_VALUE_CONVERTER.fromPrimitiveValue(value));
+            }
+        }
+        otherPermissions.forEach((docUuid, value) ->
+                map.put(docUuid, DocumentPermission.PRIMITIVE_VALUE_CONVERTER.fromPrimitiveValue(value)));
+        return map;
+    }
+
+    private byte getPrimitiveValue(final String docUuid) {
+        if (isStandardUuid(docUuid)) {
+            final int slot = table.find(parseHex(docUuid, 0, 18), parseHex(docUuid, 19, 36));
+            return slot >= 0
+                    ? table.getValue(slot)
+                    : NO_PERMISSION;
+        } else {
+            final Byte perm = otherPermissions.get(docUuid);
+            return perm != null
+                    ? perm
+                    : NO_PERMISSION;
+        }
+    }
+
+    private void put(final long msb, final long lsb, final byte value) {
+        final int slot = table.find(msb, lsb);
+        if (slot >= 0) {
+            final byte current = table.getValue(slot);
+            if (current != value) {
+                if (current == NO_PERMISSION) {
+                    table.count++;
+                } else if (value == NO_PERMISSION) {
+                    table.count--;
+                }
+                table.setValue(slot, value);
+            }
+        } else if (value != NO_PERMISSION) {
+            if (table.used + 1 > table.capacity() * LOAD_FACTOR) {
+                table = table.resize(capacityFor(table.count + 1));
+            }
+            table.insert(msb, lsb, value);
+        }
+    }
+
+    private static int capacityFor(final int size) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * LOAD_FACTOR < size) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * @return True if the UUID is in the form {@code xxxxxxxx-xxxx-xxxx-xxxx-xxxxxxxxxxxx} with lower
+     * case hex digits so that it can be turned into two longs and back without change. The nil UUID
+     * is not standard as we use it to mark empty slots.
+     */
+    private static boolean isStandardUuid(final String uuid) {
+        if (uuid == null || uuid.length() != 36) {
+            return false;
+        }
+        boolean allZero = true;
+        for (int i = 0; i < 36; i++) {
+            final char c = uuid.charAt(i);
+            if (i == 8 || i == 13 || i == 18 || i == 23) {
+                if (c != '-') {
+                    return false;
+                }
+            } else if ((c >= '0' && c <= '9') || (c >= 'a' && c <= 'f')) {
+                allZero &= c == '0';
+            } else {
+                return false;
+            }
+        }
+        return !allZero;
+    }
+
+    /**
+     * Parse the hex digits in the range, ignoring the dashes. Must only be called once the UUID is
+     * known to be standard.
+     */
+    private static long parseHex(final String uuid, final int start, final int end) {
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            final char c = uuid.charAt(i);
+            if (c != '-') {
+                value = (value << 4) | (c <= '9'
+                        ? c - '0'
+                        : c - 'a' + 10);
+            }
+        }
+        return value;
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static final class Table {
+
+        // Two longs per slot, a key of 0,0 marks an empty slot
+        private final long[] keys;
+        private final byte[] values;
+        private final int mask;
+        // Slots with a key, including those with no permission
+        private int used;
+        // Slots with a permission
+        private int count;
+
+        private Table(final int capacity) {
+            keys = new long[capacity * 2];
+            values = new byte[capacity];
+            mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return values.length;
+        }
+
+        private long getMsb(final int slot) {
+            return keys[slot * 2];
+        }
+
+        private long getLsb(final int slot) {
+            return keys[(slot * 2) + 1];
+        }
+
+        private byte getValue(final int slot) {
+            return values[slot];
+        }
+
+        private void setValue(final int slot, final byte value) {
+            values[slot] = value;
+        }
+
+        /**
+         * @return The slot holding the key or -1 if it is not in the table.
+         */
+        private int find(final long msb, final long lsb) {
+            int slot = hash(msb, lsb) & mask;
+            while (true) {
+                final long slotMsb = getMsb(slot);
+                final long slotLsb = getLsb(slot);
+                if (slotMsb == msb && slotLsb == lsb) {
+                    return slot;
+                } else if (slotMsb == 0 && slotLsb == 0) {
+                    return -1;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        /**
+         * Add a key that is known not to be in the table.
+         */
+        private void insert(final long msb, final long lsb, final byte value) {
+            int slot = hash(msb, lsb) & mask;
+            while (keys[slot * 2] != 0 || keys[(slot * 2) + 1] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot * 2] = msb;
+            keys[(slot * 2) + 1] = lsb;
+            values[slot] = value;
+            used++;
+            count++;
+        }
+
+        /**
+         * @return A new table holding the permissions in this one.
+         */
+        private Table resize(final int capacity) {
+            final Table table = new Table(capacity);
+            for (int slot = 0; slot < values.length; slot++) {
+                if (values[slot] != NO_PERMISSION) {
+                    table.insert(keys[slot * 2], keys[(slot * 2) + 1], values[slot]);
+                }
+            }
+            return table;
+        }
+
+        private static int hash(final long msb, final long lsb) {
+            final long h = (msb ^ lsb) * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32));
+        }
     }
 }
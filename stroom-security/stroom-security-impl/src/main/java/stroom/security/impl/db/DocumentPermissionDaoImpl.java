@@ -47,7 +47,9 @@ import org.jooq.Name;
 import org.jooq.OrderField;
 import org.jooq.Record;
 import org.jooq.Record11;
+import org.jooq.Record2;
 import org.jooq.Record9;
+import org.jooq.Result;
 import org.jooq.Select;
 import org.jooq.SelectLimitPercentAfterOffsetStep;
 import org.jooq.Table;
@@ -64,7 +66,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 import static stroom.security.impl.db.jooq.tables.PermissionDoc.PERMISSION_DOC;
@@ -114,19 +115,22 @@ public class DocumentPermissionDaoImpl implements DocumentPermissionDao {
     public UserDocumentPermissions getPermissionsForUser(final String userUuid) {
         Objects.requireNonNull(userUuid, "Null user UUID");
 
-        final Map<String, Byte> permissionMap = new ConcurrentHashMap<>();
-        JooqUtil.contextResult(securityDbConnProvider, context -> context
+        final Result<Record2<String, UByte>> records = JooqUtil.contextResult(securityDbConnProvider,
+                context -> context
                         .select(PERMISSION_DOC.DOC_UUID, PERMISSION_DOC.PERMISSION_ID)
                         .from(PERMISSION_DOC)
                         .join(STROOM_USER).on(STROOM_USER.UUID.eq(PERMISSION_DOC.USER_UUID))
                         .where(PERMISSION_DOC.USER_UUID.eq(userUuid))
-                        .fetch())
-                .forEach(r -> {
-                    final String docUuid = r.get(PERMISSION_DOC.DOC_UUID);
-                    final byte permission = r.get(PERMISSION_DOC.PERMISSION_ID).byteValue();
-                    permissionMap.put(docUuid, permission);
-                });
-        return new UserDocumentPermissions(permissionMap);
+                        .fetch());
+        final UserDocumentPermissions userDocumentPermissions = new UserDocumentPermissions(records.size());
+        records.forEach(r -> {
+            final String docUuid = r.get(PERMISSION_DOC.DOC_UUID);
+            final byte permission = r.get(PERMISSION_DOC.PERMISSION_ID).byteValue();
+            userDocumentPermissions.setPermission(
+                    docUuid,
+                    DocumentPermission.PRIMITIVE_VALUE_CONVERTER.fromPrimitiveValue(permission));
+        });
+        return userDocumentPermissions;
     }
 
     @Override
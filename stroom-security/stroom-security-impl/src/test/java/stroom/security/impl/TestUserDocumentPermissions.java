@@ -26,6 +26,10 @@ import org.junit.jupiter.api.DynamicTest;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestFactory;
 
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -171,4 +175,69 @@ class TestUserDocumentPermissions {
         assertThat(userDocPerms.hasDocumentPermission(DOC_UUID_2, DocumentPermission.VIEW))
                 .isFalse();
     }
+
+    @Test
+    void testStandardUuids() {
+        final List<String> docUuids = IntStream.range(0, 10_000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+        final UserDocumentPermissions userDocumentPermissions = new UserDocumentPermissions();
+        for (int i = 0; i < docUuids.size(); i++) {
+            userDocumentPermissions.setPermission(docUuids.get(i), getPermission(i));
+        }
+        // Non standard UUIDs are held separately
+        userDocumentPermissions.setPermission(DOC_UUID_1, DocumentPermission.VIEW);
+        final String upperCaseUuid = docUuids.getFirst().toUpperCase();
+        userDocumentPermissions.setPermission(upperCaseUuid, DocumentPermission.USE);
+
+        assertThat(userDocumentPermissions.size())
+                .isEqualTo(docUuids.size() + 2);
+        for (int i = 0; i < docUuids.size(); i++) {
+            final DocRef docRef = new DocRef("test", docUuids.get(i));
+            assertThat(userDocumentPermissions.hasDocumentPermission(docRef, getPermission(i)))
+                    .isTrue();
+            assertThat(userDocumentPermissions.hasDocumentPermission(docRef, DocumentPermission.OWNER))
+                    .isEqualTo(getPermission(i) == DocumentPermission.OWNER);
+        }
+        assertThat(userDocumentPermissions.hasDocumentPermission(
+                new DocRef("test", UUID.randomUUID().toString()), DocumentPermission.USE))
+                .isFalse();
+
+        final Map<String, DocumentPermission> permissions = userDocumentPermissions.getPermissions();
+        assertThat(permissions)
+                .hasSize(docUuids.size() + 2)
+                .containsEntry(docUuids.get(1), getPermission(1))
+                .containsEntry(upperCaseUuid, DocumentPermission.USE)
+                .containsEntry(DOC_UUID_1.getUuid(), DocumentPermission.VIEW);
+
+        // Clear half of them then add some more so the table is resized
+        for (int i = 0; i < docUuids.size(); i += 2) {
+            userDocumentPermissions.clearPermission(docUuids.get(i));
+        }
+        final List<String> moreDocUuids = IntStream.range(0, 10_000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+        moreDocUuids.forEach(docUuid ->
+                userDocumentPermissions.setPermission(docUuid, DocumentPermission.EDIT));
+
+        assertThat(userDocumentPermissions.size())
+                .isEqualTo((docUuids.size() / 2) + moreDocUuids.size() + 2);
+        for (int i = 0; i < docUuids.size(); i++) {
+            final DocRef docRef = new DocRef("test", docUuids.get(i));
+            assertThat(userDocumentPermissions.hasDocumentPermission(docRef, DocumentPermission.USE))
+                    .isEqualTo(i % 2 == 1);
+        }
+        moreDocUuids.forEach(docUuid ->
+                assertThat(userDocumentPermissions.hasDocumentPermission(
+                        new DocRef("test", docUuid), DocumentPermission.EDIT))
+                        .isTrue());
+        assertThat(userDocumentPermissions.hasDocumentPermission(
+                new DocRef("test", upperCaseUuid), DocumentPermission.USE))
+                .isTrue();
+    }
+
+    private DocumentPermission getPermission(final int i) {
+        final DocumentPermission[] values = DocumentPermission.values();
+        return values[i % values.length];
+    }
 }
@@ -58,7 +58,7 @@ public class SQLStatKey {
      * where XXXXXXXXXX is the stat name and aaaa is the hex form of the rollup
      * bit mask
      */
-    private String buildKeyString(final String statName, final List<StatisticTag> tags) {
+    static String buildKeyString(final String statName, final List<StatisticTag> tags) {
         Objects.requireNonNull(statName);
         final StringBuilder keyStringBuilder = new StringBuilder();
 
@@ -85,7 +85,7 @@ public class SQLStatKey {
         return keyStringBuilder.toString();
     }
 
-    private String cleanTagValue(final String tagValue) {
+    private static String cleanTagValue(final String tagValue) {
         if (tagValue != null && tagValue.equals(RollUpBitMask.ROLL_UP_TAG_VALUE)) {
             return tagValue;
         } else {
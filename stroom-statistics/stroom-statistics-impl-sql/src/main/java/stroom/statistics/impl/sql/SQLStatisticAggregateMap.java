@@ -20,22 +20,50 @@ import stroom.statistics.impl.sql.exception.StatisticsEventValidationException;
 import stroom.statistics.impl.sql.rollup.RolledUpStatisticEvent;
 import stroom.statistics.impl.sql.shared.StatisticType;
 
+import it.unimi.dsi.fastutil.ints.Int2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2LongMap;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
 import java.time.Duration;
 import java.time.Instant;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.Set;
-import java.util.concurrent.atomic.DoubleAdder;
-import java.util.concurrent.atomic.LongAdder;
+import java.util.List;
 
+/**
+ * Aggregates rolled up statistic events by their rounded time and key name.
+ * <p>
+ * Each distinct key name (stat name, roll up mask and tags) is built and validated once and
+ * given an int id. The aggregates are then held in primitive maps of id to count/value for each
+ * rounded time, so adding an event permutation whose key has been seen before only allocates a
+ * small {@link KeyParts} record to look up its id rather than building and validating a key string
+ * and boxing its count and value.
+ * <p>
+ * Not thread safe.
+ */
 public class SQLStatisticAggregateMap {
-    private final Map<SQLStatKey, LongAdder> countMap = new HashMap<>();
-    private final Map<SQLStatKey, ValueStatValue> valueMap = new HashMap<>();
+
+    private static final int NO_ID = -1;
+
+    // Interned key names, the index in the list is the id
+    private final ObjectArrayList<String> names = new ObjectArrayList<>();
+    private final Object2IntOpenHashMap<String> nameToId = new Object2IntOpenHashMap<>();
+    // Avoids building the key name for tag lists we have seen before
+    private final Object2IntOpenHashMap<KeyParts> keyPartsToId = new Object2IntOpenHashMap<>();
+
+    private final Long2ObjectOpenHashMap<Int2LongOpenHashMap> countMap = new Long2ObjectOpenHashMap<>();
+    private final Long2ObjectOpenHashMap<ValueAggregates> valueMap = new Long2ObjectOpenHashMap<>();
+    // Running totals of the entries in each map so the size can be checked on every add
+    private int countSize;
+    private int valueSize;
     private final Instant createTime;
 
     public SQLStatisticAggregateMap() {
         createTime = Instant.now();
+        nameToId.defaultReturnValue(NO_ID);
+        keyPartsToId.defaultReturnValue(NO_ID);
     }
 
     public void addRolledUpEvent(final RolledUpStatisticEvent rolledUpStatisticEvent,
@@ -48,25 +76,20 @@ public class SQLStatisticAggregateMap {
             roundedMs = multiple * precisionMs;
         }
 
-        for (final TimeAgnosticStatisticEvent timeAgnosticStatisticEvent : rolledUpStatisticEvent) {
-            // Create a key using the rounded time
-            final SQLStatKey key = new SQLStatKey(roundedMs, rolledUpStatisticEvent.getName(),
-                    timeAgnosticStatisticEvent.getTagList());
-
-            if (SQLStatisticsEventValidator.isKeyTooLong(key.getName())) {
-                throw new StatisticsEventValidationException(
-                        String.format("Statistic event key [%s] is too long to store. Length is [%s]",
-                                key.getName(),
-                                key.getName().length()));
+        // All the permutations have the same time so share the same aggregates
+        if (StatisticType.COUNT == rolledUpStatisticEvent.getType()) {
+            final Int2LongOpenHashMap counts = getCounts(roundedMs);
+            final long count = rolledUpStatisticEvent.getCount();
+            for (final TimeAgnosticStatisticEvent timeAgnosticStatisticEvent : rolledUpStatisticEvent) {
+                final int id = getId(rolledUpStatisticEvent.getName(), timeAgnosticStatisticEvent.getTagList());
+                addCount(counts, id, count);
             }
-
-            if (StatisticType.COUNT == rolledUpStatisticEvent.getType()) {
-                // Try and get the value
-                countMap.computeIfAbsent(key, k -> new LongAdder())
-                        .add(rolledUpStatisticEvent.getCount());
-            } else {
-                valueMap.computeIfAbsent(key, k -> new ValueStatValue())
-                        .add(rolledUpStatisticEvent.getValue());
+        } else {
+            final ValueAggregates values = getValues(roundedMs);
+            final double value = rolledUpStatisticEvent.getValue();
+            for (final TimeAgnosticStatisticEvent timeAgnosticStatisticEvent : rolledUpStatisticEvent) {
+                final int id = getId(rolledUpStatisticEvent.getName(), timeAgnosticStatisticEvent.getTagList());
+                valueSize += values.add(id, value, 1);
             }
         }
     }
@@ -77,74 +100,183 @@ public class SQLStatisticAggregateMap {
      * @param aggregateMap
      */
     public void add(final SQLStatisticAggregateMap aggregateMap) {
-        aggregateMap.countEntrySet().forEach(entry ->
-                countMap.computeIfAbsent(entry.getKey(), k -> new LongAdder())
-                        .add(entry.getValue().longValue()));
+        // Ids are local to each map so map the other's ids to ours
+        final int[] idMap = new int[aggregateMap.names.size()];
+        for (int i = 0; i < idMap.length; i++) {
+            idMap[i] = internName(aggregateMap.names.get(i));
+        }
+
+        for (final Long2ObjectMap.Entry<Int2LongOpenHashMap> msEntry : aggregateMap.countMap.long2ObjectEntrySet()) {
+            final Int2LongOpenHashMap counts = getCounts(msEntry.getLongKey());
+            for (final Int2LongMap.Entry entry : msEntry.getValue().int2LongEntrySet()) {
+                addCount(counts, idMap[entry.getIntKey()], entry.getLongValue());
+            }
+        }
+
+        for (final Long2ObjectMap.Entry<ValueAggregates> msEntry : aggregateMap.valueMap.long2ObjectEntrySet()) {
+            final ValueAggregates values = getValues(msEntry.getLongKey());
+            final ValueAggregates otherValues = msEntry.getValue();
+            for (final Int2LongMap.Entry entry : otherValues.counts.int2LongEntrySet()) {
+                final int otherId = entry.getIntKey();
+                valueSize += values.add(idMap[otherId], otherValues.values.get(otherId), entry.getLongValue());
+            }
+        }
+    }
+
+    /**
+     * Passes each aggregated COUNT entry to the consumer.
+     */
+    public void forEachCount(final CountConsumer consumer) {
+        for (final Long2ObjectMap.Entry<Int2LongOpenHashMap> msEntry : countMap.long2ObjectEntrySet()) {
+            final long ms = msEntry.getLongKey();
+            for (final Int2LongMap.Entry entry : msEntry.getValue().int2LongEntrySet()) {
+                consumer.accept(ms, names.get(entry.getIntKey()), entry.getLongValue());
+            }
+        }
+    }
 
-        aggregateMap.valueEntrySet().forEach(entry ->
-                valueMap.computeIfAbsent(entry.getKey(), k -> new ValueStatValue())
-                        .add(entry.getValue()));
+    /**
+     * Passes each aggregated VALUE entry to the consumer.
+     */
+    public void forEachValue(final ValueConsumer consumer) {
+        for (final Long2ObjectMap.Entry<ValueAggregates> msEntry : valueMap.long2ObjectEntrySet()) {
+            final long ms = msEntry.getLongKey();
+            final ValueAggregates values = msEntry.getValue();
+            for (final Int2LongMap.Entry entry : values.counts.int2LongEntrySet()) {
+                final int id = entry.getIntKey();
+                consumer.accept(ms, names.get(id), values.values.get(id), entry.getLongValue());
+            }
+        }
     }
 
-    public Set<Entry<SQLStatKey, LongAdder>> countEntrySet() {
-        return countMap.entrySet();
+    public int countSize() {
+        return countSize;
     }
 
-    public Set<Entry<SQLStatKey, ValueStatValue>> valueEntrySet() {
-        return valueMap.entrySet();
+    public int valueSize() {
+        return valueSize;
     }
 
     public int size() {
-        return countMap.size() + valueMap.size();
+        return countSize() + valueSize();
     }
 
     public Duration getAge() {
         return Duration.between(createTime, Instant.now());
     }
 
+    private void addCount(final Int2LongOpenHashMap counts, final int id, final long count) {
+        final int sizeBefore = counts.size();
+        counts.addTo(id, count);
+        countSize += counts.size() - sizeBefore;
+    }
+
+    private Int2LongOpenHashMap getCounts(final long ms) {
+        Int2LongOpenHashMap counts = countMap.get(ms);
+        if (counts == null) {
+            counts = new Int2LongOpenHashMap();
+            countMap.put(ms, counts);
+        }
+        return counts;
+    }
+
+    private ValueAggregates getValues(final long ms) {
+        ValueAggregates values = valueMap.get(ms);
+        if (values == null) {
+            values = new ValueAggregates();
+            valueMap.put(ms, values);
+        }
+        return values;
+    }
+
+    private int getId(final String statName, final List<StatisticTag> tags)
+            throws StatisticsEventValidationException {
+        final KeyParts keyParts = new KeyParts(statName, tags);
+        int id = keyPartsToId.getInt(keyParts);
+        if (id == NO_ID) {
+            final String name = SQLStatKey.buildKeyString(statName, tags);
+            if (SQLStatisticsEventValidator.isKeyTooLong(name)) {
+                throw new StatisticsEventValidationException(
+                        String.format("Statistic event key [%s] is too long to store. Length is [%s]",
+                                name,
+                                name.length()));
+            }
+            // Different dirty names can clean to the same key name so intern on the name too
+            id = internName(name);
+            keyPartsToId.put(keyParts, id);
+        }
+        return id;
+    }
+
+    private int internName(final String name) {
+        int id = nameToId.getInt(name);
+        if (id == NO_ID) {
+            id = names.size();
+            names.add(name);
+            nameToId.put(name, id);
+        }
+        return id;
+    }
+
     @Override
     public String toString() {
         return "" +
-                "countMapSize=" + countMap.size() +
-                ", valueMapSize=" + valueMap.size() +
+                "countMapSize=" + countSize() +
+                ", valueMapSize=" + valueSize() +
+                ", keyNames=" + names.size() +
                 ", age=" + getAge().toString();
     }
 
-    public static class ValueStatValue {
-        // We are basically storing the sum of values and the count so
-        // we can compute the mean
-        private final DoubleAdder value;
-        private final LongAdder count;
 
-        public ValueStatValue() {
-            this.value = new DoubleAdder();
-            this.count = new LongAdder();
-        }
+    // --------------------------------------------------------------------------------
 
-        public void add(final double value) {
-            this.value.add(value);
-            this.count.add(1);
-        }
 
-        public void add(final ValueStatValue other) {
-            this.value.add(other.getValue());
-            this.count.add(other.getCount());
-        }
+    @FunctionalInterface
+    public interface CountConsumer {
 
-        public double getValue() {
-            return value.doubleValue();
-        }
+        void accept(long ms, String name, long count);
+    }
 
-        public long getCount() {
-            return count.longValue();
-        }
 
-        @Override
-        public String toString() {
-            return "ValueStatValue{" +
-                    "value=" + value +
-                    ", count=" + count +
-                    '}';
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    public interface ValueConsumer {
+
+        /**
+         * @param value The sum of the values, divide by count to get the mean.
+         */
+        void accept(long ms, String name, double value, long count);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record KeyParts(String statName, List<StatisticTag> tags) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private static class ValueAggregates {
+
+        // We are basically storing the sum of values and the count so
+        // we can compute the mean
+        private final Int2DoubleOpenHashMap values = new Int2DoubleOpenHashMap();
+        private final Int2LongOpenHashMap counts = new Int2LongOpenHashMap();
+
+        /**
+         * @return The number of entries added, i.e. 1 if this is the first value for the id, otherwise 0.
+         */
+        int add(final int id, final double value, final long count) {
+            final int sizeBefore = counts.size();
+            values.addTo(id, value);
+            counts.addTo(id, count);
+            return counts.size() - sizeBefore;
         }
     }
 }
@@ -155,10 +155,22 @@ public class SQLStatisticCacheImpl implements SQLStatisticCache, HasSystemInfo {
 
     @Override
     public SystemInfoResult getSystemInfo() {
+        // The map is not thread safe so read its state under the lock.
+        final String mapAge;
+        final int countMapSize;
+        final int valueMapSize;
+        mapLock.lock();
+        try {
+            mapAge = map.getAge().toString();
+            countMapSize = map.countSize();
+            valueMapSize = map.valueSize();
+        } finally {
+            mapLock.unlock();
+        }
         return SystemInfoResult.builder(this)
-                .addDetail("mapAge", map.getAge().toString())
-                .addDetail("countMapSize", map.countEntrySet().size())
-                .addDetail("valueMapSize", map.valueEntrySet().size())
+                .addDetail("mapAge", mapAge)
+                .addDetail("countMapSize", countMapSize)
+                .addDetail("valueMapSize", valueMapSize)
                 .build();
     }
 }
@@ -32,8 +32,6 @@ import java.sql.BatchUpdateException;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
-import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Supplier;
 
 
@@ -96,33 +94,22 @@ public class SQLStatisticFlushTaskHandler {
 
             final List<SQLStatValSourceDO> batchInsert = new ArrayList<>();
             // Store all aggregated COUNT entries.
-            for (final Entry<SQLStatKey, LongAdder> entry : map.countEntrySet()) {
-                final long ms = entry.getKey().getMs();
-                final String name = entry.getKey().getName();
-                final long count = entry.getValue().longValue();
-
-                // This does a flush when the batch is full
-                addEntryToBatch(
-                        taskContext,
-                        batchInsert,
-                        SQLStatValSourceDO.createCountStat(ms, name, count),
-                        batchSize);
-            }
+            map.forEachCount((ms, name, count) ->
+                    // This does a flush when the batch is full
+                    addEntryToBatch(
+                            taskContext,
+                            batchInsert,
+                            SQLStatValSourceDO.createCountStat(ms, name, count),
+                            batchSize));
             // Store all aggregated VALUE entries.
-            for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : map.valueEntrySet()) {
-                final long ms = entry.getKey().getMs();
-                final String name = entry.getKey().getName();
-                // TODO should not be storing this as a long in the db
-                final long value = (long) entry.getValue().getValue();
-                final long count = entry.getValue().getCount();
-
-                // This does a flush when the batch is full
-                addEntryToBatch(
-                        taskContext,
-                        batchInsert,
-                        SQLStatValSourceDO.createValueStat(ms, name, value, count),
-                        batchSize);
-            }
+            map.forEachValue((ms, name, value, count) ->
+                    // This does a flush when the batch is full
+                    addEntryToBatch(
+                            taskContext,
+                            batchInsert,
+                            // TODO should not be storing this as a long in the db
+                            SQLStatValSourceDO.createValueStat(ms, name, (long) value, count),
+                            batchSize));
 
             // Flush of any remaining
             if (batchInsert.size() > 0) {
@@ -29,9 +29,7 @@ import org.junit.jupiter.api.Test;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.UUID;
-import java.util.concurrent.atomic.LongAdder;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
@@ -68,10 +66,10 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, LongAdder> entry : aggregateMap.countEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final CountEntry entry : countEntries(aggregateMap)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
-            assertThat(entry.getValue().longValue())
+            assertThat(entry.count())
                     .isEqualTo(1);
         }
     }
@@ -89,12 +87,12 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : aggregateMap.valueEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final ValueEntry entry : valueEntries(aggregateMap)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
-            assertThat(entry.getValue().getValue())
+            assertThat(entry.value())
                     .isCloseTo(VALUE_VAL, within(JUNIT_DOUBLE_DELTA));
-            assertThat(entry.getValue().getCount())
+            assertThat(entry.count())
                     .isEqualTo(1);
         }
     }
@@ -114,12 +112,12 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, LongAdder> entry : aggregateMap.countEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final CountEntry entry : countEntries(aggregateMap)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // three events each with a count of 1 so value in map should be 3
-            assertThat(entry.getValue().longValue())
+            assertThat(entry.count())
                     .isEqualTo(3);
         }
     }
@@ -139,14 +137,14 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : aggregateMap.valueEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final ValueEntry entry : valueEntries(aggregateMap)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // three events each with a count of 1 so value in map should be 3
-            assertThat(entry.getValue().getValue())
+            assertThat(entry.value())
                     .isCloseTo(VALUE_VAL * 3, within(JUNIT_DOUBLE_DELTA));
-            assertThat(entry.getValue().getCount())
+            assertThat(entry.count())
                     .isEqualTo(3);
         }
     }
@@ -169,13 +167,13 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, LongAdder> entry : aggregateMap.countEntrySet()) {
-            final int markerCount = countStringInString(entry.getKey().getName(), RollUpBitMask.ROLL_UP_TAG_VALUE);
+        for (final CountEntry entry : countEntries(aggregateMap)) {
+            final int markerCount = countStringInString(entry.name(), RollUpBitMask.ROLL_UP_TAG_VALUE);
 
             System.out.println(
-                    entry.getKey() + "  val: " + entry.getValue().longValue()
+                    entry.name() + "  val: " + entry.count()
                     + " markerCount: " + markerCount);
-            assertThat(entry.getKey().getMs())
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // all event perms are put into different keys so value should be 1
@@ -184,10 +182,10 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
             // Use split as a bit of a hack to count the number of roll up
             // marker chars in the name
             if (markerCount == 3) {
-                assertThat(entry.getValue().longValue())
+                assertThat(entry.count())
                         .isEqualTo(3);
             } else {
-                assertThat(entry.getValue().longValue())
+                assertThat(entry.count())
                         .isEqualTo(1);
             }
 
@@ -212,13 +210,13 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : aggregateMap.valueEntrySet()) {
-            final int markerCount = countStringInString(entry.getKey().getName(), RollUpBitMask.ROLL_UP_TAG_VALUE);
+        for (final ValueEntry entry : valueEntries(aggregateMap)) {
+            final int markerCount = countStringInString(entry.name(), RollUpBitMask.ROLL_UP_TAG_VALUE);
 
             System.out.println(
-                    entry.getKey() + "  val: " + entry.getValue()
+                    entry.name() + "  val: " + entry
                     + " markerCount: " + markerCount);
-            assertThat(entry.getKey().getMs())
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // all event perms are put into different keys so value should be 1
@@ -227,14 +225,14 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
             // Use split as a bit of a hack to count the number of roll up
             // marker chars in the name
             if (markerCount == 3) {
-                assertThat(entry.getValue().getValue())
+                assertThat(entry.value())
                         .isCloseTo(VALUE_VAL * 3, within(JUNIT_DOUBLE_DELTA));
-                assertThat(entry.getValue().getCount())
+                assertThat(entry.count())
                         .isEqualTo(3);
             } else {
-                assertThat(entry.getValue().getValue())
+                assertThat(entry.value())
                         .isCloseTo(VALUE_VAL, within(JUNIT_DOUBLE_DELTA));
-                assertThat(entry.getValue().getCount())
+                assertThat(entry.count())
                         .isEqualTo(1);
             }
         }
@@ -269,12 +267,12 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, LongAdder> entry : aggregateMap1.countEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final CountEntry entry : countEntries(aggregateMap1)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // three events each with a count of 1 so value in map should be 3
-            assertThat(entry.getValue().longValue())
+            assertThat(entry.count())
                     .isEqualTo(6);
         }
     }
@@ -308,14 +306,14 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : aggregateMap1.valueEntrySet()) {
-            assertThat(entry.getKey().getMs())
+        for (final ValueEntry entry : valueEntries(aggregateMap1)) {
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // three events each with a count of 1 so value in map should be 3
-            assertThat(entry.getValue().getValue())
+            assertThat(entry.value())
                     .isCloseTo(VALUE_VAL * 6, within(JUNIT_DOUBLE_DELTA));
-            assertThat(entry.getValue().getCount())
+            assertThat(entry.count())
                     .isEqualTo(6);
         }
     }
@@ -353,12 +351,12 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, LongAdder> entry : aggregateMap1.countEntrySet()) {
-            final int markerCount = countStringInString(entry.getKey().getName(), RollUpBitMask.ROLL_UP_TAG_VALUE);
+        for (final CountEntry entry : countEntries(aggregateMap1)) {
+            final int markerCount = countStringInString(entry.name(), RollUpBitMask.ROLL_UP_TAG_VALUE);
 
             System.out.println(
-                    entry.getKey() + "  val: " + entry.getValue().longValue() + " markerCount: " + markerCount);
-            assertThat(entry.getKey().getMs())
+                    entry.name() + "  val: " + entry.count() + " markerCount: " + markerCount);
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // all event perms are put into different keys so value should be 1
@@ -367,10 +365,10 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
             // Use split as a bit of a hack to count the number of roll up
             // marker chars in the name
             if (markerCount == 3) {
-                assertThat(entry.getValue().longValue())
+                assertThat(entry.count())
                         .isEqualTo(3 * 2);
             } else {
-                assertThat(entry.getValue().longValue())
+                assertThat(entry.count())
                         .isEqualTo(1 * 2);
             }
 
@@ -410,12 +408,12 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
         // time gets rounded to 100_000L
         final long expectedKeyTime = (timeMs / precision) * precision;
 
-        for (final Entry<SQLStatKey, SQLStatisticAggregateMap.ValueStatValue> entry : aggregateMap1.valueEntrySet()) {
-            final int markerCount = countStringInString(entry.getKey().getName(), RollUpBitMask.ROLL_UP_TAG_VALUE);
+        for (final ValueEntry entry : valueEntries(aggregateMap1)) {
+            final int markerCount = countStringInString(entry.name(), RollUpBitMask.ROLL_UP_TAG_VALUE);
 
             System.out.println(
-                    entry.getKey() + "  val: " + entry.getValue() + " markerCount: " + markerCount);
-            assertThat(entry.getKey().getMs())
+                    entry.name() + "  val: " + entry + " markerCount: " + markerCount);
+            assertThat(entry.ms())
                     .isEqualTo(expectedKeyTime);
 
             // all event perms are put into different keys so value should be 1
@@ -424,14 +422,14 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
             // Use split as a bit of a hack to count the number of roll up
             // marker chars in the name
             if (markerCount == 3) {
-                assertThat(entry.getValue().getValue())
+                assertThat(entry.value())
                         .isCloseTo(VALUE_VAL * 3 * 2, within(JUNIT_DOUBLE_DELTA));
-                assertThat(entry.getValue().getCount())
+                assertThat(entry.count())
                         .isEqualTo(3 * 2);
             } else {
-                assertThat(entry.getValue().getValue())
+                assertThat(entry.value())
                         .isCloseTo(VALUE_VAL * 2, within(JUNIT_DOUBLE_DELTA));
-                assertThat(entry.getValue().getCount())
+                assertThat(entry.count())
                         .isEqualTo(2);
             }
         }
@@ -453,6 +451,82 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
                 .isInstanceOf(StatisticsEventValidationException.class);
     }
 
+    @Test
+    void testAddRolledUpEventDirtyNamesShareKey() throws StatisticsEventValidationException {
+        final SQLStatisticAggregateMap aggregateMap = new SQLStatisticAggregateMap();
+
+        // Both names are cleaned to the same key name so must aggregate together
+        aggregateMap.addRolledUpEvent(buildEvent("My¬Stat", "", COUNT_VAL), precision);
+        aggregateMap.addRolledUpEvent(buildEvent("My#Stat", "", COUNT_VAL), precision);
+
+        assertThat(aggregateMap.size())
+                .isEqualTo(8);
+        for (final CountEntry entry : countEntries(aggregateMap)) {
+            assertThat(entry.name())
+                    .startsWith("My#Stat");
+            assertThat(entry.count())
+                    .isEqualTo(2);
+        }
+    }
+
+    @Test
+    void testAdd_MapsWithDifferentTimesAndTypes() throws StatisticsEventValidationException {
+        final SQLStatisticAggregateMap aggregateMap1 = new SQLStatisticAggregateMap();
+        aggregateMap1.addRolledUpEvent(buildEvent("_1", COUNT_VAL), precision);
+
+        // Keys are added in a different order so get different ids in each map
+        final SQLStatisticAggregateMap aggregateMap2 = new SQLStatisticAggregateMap();
+        aggregateMap2.addRolledUpEvent(buildEvent("_2", COUNT_VAL), precision);
+        aggregateMap2.addRolledUpEvent(buildEvent("_1", COUNT_VAL), precision);
+        aggregateMap2.addRolledUpEvent(buildEvent("_1", VALUE_VAL), 0);
+
+        aggregateMap1.add(aggregateMap2);
+
+        assertThat(aggregateMap1.countSize())
+                .isEqualTo((8 * 2) - 1);
+        assertThat(aggregateMap1.valueSize())
+                .isEqualTo(8);
+
+        final List<CountEntry> countEntries = countEntries(aggregateMap1);
+        // The running sizes must agree with the entries actually held
+        assertThat(countEntries)
+                .hasSize(aggregateMap1.countSize());
+        assertThat(valueEntries(aggregateMap1))
+                .hasSize(aggregateMap1.valueSize());
+        assertThat(countEntries)
+                .filteredOn(entry -> entry.name().contains(TAG1_VALUE + "_1"))
+                .hasSize(4)
+                .allSatisfy(entry -> assertThat(entry.count()).isEqualTo(2));
+        assertThat(countEntries)
+                .filteredOn(entry -> entry.name().contains(TAG1_VALUE + "_2"))
+                .hasSize(4)
+                .allSatisfy(entry -> assertThat(entry.count()).isEqualTo(1));
+
+        for (final ValueEntry entry : valueEntries(aggregateMap1)) {
+            // No rounding as precision was zero
+            assertThat(entry.ms())
+                    .isEqualTo(timeMs);
+            assertThat(entry.value())
+                    .isCloseTo(VALUE_VAL, within(JUNIT_DOUBLE_DELTA));
+            assertThat(entry.count())
+                    .isEqualTo(1);
+        }
+    }
+
+    private List<CountEntry> countEntries(final SQLStatisticAggregateMap aggregateMap) {
+        final List<CountEntry> entries = new ArrayList<>();
+        aggregateMap.forEachCount((ms, name, count) ->
+                entries.add(new CountEntry(ms, name, count)));
+        return entries;
+    }
+
+    private List<ValueEntry> valueEntries(final SQLStatisticAggregateMap aggregateMap) {
+        final List<ValueEntry> entries = new ArrayList<>();
+        aggregateMap.forEachValue((ms, name, value, count) ->
+                entries.add(new ValueEntry(ms, name, value, count)));
+        return entries;
+    }
+
     private int countStringInString(final String text, final String searchString) {
         int counter = 0;
 
@@ -520,4 +594,20 @@ class TestSQLStatisticAggregateMap extends StroomUnitTest {
                 .rollUpType(statisticRollUpType)
                 .build();
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record CountEntry(long ms, String name, long count) {
+
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    private record ValueEntry(long ms, String name, double value, long count) {
+
+    }
 }
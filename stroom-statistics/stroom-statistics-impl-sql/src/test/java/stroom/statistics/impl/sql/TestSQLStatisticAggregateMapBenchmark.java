@@ -0,0 +1,128 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.statistics.impl.sql;
+
+import stroom.statistics.impl.sql.exception.StatisticsEventValidationException;
+import stroom.statistics.impl.sql.rollup.RolledUpStatisticEvent;
+import stroom.statistics.impl.sql.shared.StatisticField;
+import stroom.statistics.impl.sql.shared.StatisticRollUpType;
+import stroom.statistics.impl.sql.shared.StatisticStoreDoc;
+import stroom.statistics.impl.sql.shared.StatisticsDataSourceData;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compares {@link SQLStatisticAggregateMap} with the previous approach of building a
+ * {@link SQLStatKey} for every rolled up permutation and holding it in a {@link HashMap} of
+ * {@link LongAdder}. Each invocation aggregates a batch of events, each rolled up into 16
+ * permutations, into a new map as {@code SQLStatisticEventStore} does.
+ * <p>
+ * Run with {@code -prof gc} to compare the allocation rate ({@code gc.alloc.rate.norm}) as
+ * well as the throughput.
+ */
+@Fork(value = 1, warmups = 1)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+public class TestSQLStatisticAggregateMapBenchmark {
+
+    private static final long PRECISION_MS = 60_000L;
+
+    @Benchmark
+    public void aggregateMap(final ExecutionPlan plan, final Blackhole blackhole)
+            throws StatisticsEventValidationException {
+        final SQLStatisticAggregateMap aggregateMap = new SQLStatisticAggregateMap();
+        for (final RolledUpStatisticEvent event : plan.events) {
+            aggregateMap.addRolledUpEvent(event, PRECISION_MS);
+        }
+        blackhole.consume(aggregateMap.size());
+    }
+
+    @Benchmark
+    public void statKeyHashMap(final ExecutionPlan plan, final Blackhole blackhole) {
+        final Map<SQLStatKey, LongAdder> countMap = new HashMap<>();
+        for (final RolledUpStatisticEvent event : plan.events) {
+            final long roundedMs = (event.getTimeMs() / PRECISION_MS) * PRECISION_MS;
+            for (final TimeAgnosticStatisticEvent timeAgnosticStatisticEvent : event) {
+                final SQLStatKey key = new SQLStatKey(
+                        roundedMs, event.getName(), timeAgnosticStatisticEvent.getTagList());
+                countMap.computeIfAbsent(key, k -> new LongAdder())
+                        .add(event.getCount());
+            }
+        }
+        blackhole.consume(countMap.size());
+    }
+
+    @State(Scope.Benchmark)
+    public static class ExecutionPlan {
+
+        @Param({"10000"})
+        public int eventCount;
+
+        // The number of distinct values for each tag
+        @Param({"10", "1000"})
+        public int cardinality;
+
+        public List<RolledUpStatisticEvent> events;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            final List<StatisticField> fields = List.of(
+                    new StatisticField("feed"),
+                    new StatisticField("host"),
+                    new StatisticField("type"),
+                    new StatisticField("user"));
+            final StatisticStoreDoc statisticStoreDoc = StatisticStoreDoc.builder()
+                    .uuid(UUID.randomUUID().toString())
+                    .config(StatisticsDataSourceData.builder().fields(new ArrayList<>(fields)).build())
+                    .rollUpType(StatisticRollUpType.ALL)
+                    .build();
+
+            final long startMs = System.currentTimeMillis();
+            events = new ArrayList<>(eventCount);
+            for (int i = 0; i < eventCount; i++) {
+                final int tagNo = i % cardinality;
+                final List<StatisticTag> tags = List.of(
+                        new StatisticTag("feed", "FEED_" + tagNo),
+                        new StatisticTag("host", "host" + tagNo + ".example.com"),
+                        new StatisticTag("type", "Raw Events"),
+                        new StatisticTag("user", "user" + tagNo));
+                final StatisticEvent statisticEvent = StatisticEvent.createCount(
+                        startMs + (i * 10L), "BenchmarkStat", tags, 1L);
+                events.add(SQLStatisticEventStore.generateTagRollUps(statisticEvent, statisticStoreDoc));
+            }
+        }
+    }
+}
@@ -24,15 +24,27 @@ public class ThreadPoolImpl implements ThreadPool {
 
     private final String name;
     private final int priority;
+    private final boolean useVirtualThreads;
 
     public ThreadPoolImpl(final String name) {
-        this.name = name;
-        this.priority = Thread.NORM_PRIORITY;
+        this(name, Thread.NORM_PRIORITY, false);
     }
 
     public ThreadPoolImpl(final String name, final int priority) {
+        this(name, priority, false);
+    }
+
+    public ThreadPoolImpl(final String name, final int priority, final boolean useVirtualThreads) {
         this.name = name;
         this.priority = priority;
+        this.useVirtualThreads = useVirtualThreads;
+    }
+
+    /**
+     * Create a thread pool that runs each task on a new virtual thread.
+     */
+    public static ThreadPoolImpl virtual(final String name) {
+        return new ThreadPoolImpl(name, Thread.NORM_PRIORITY, true);
     }
 
     @Override
@@ -45,6 +57,11 @@ public class ThreadPoolImpl implements ThreadPool {
         return priority;
     }
 
+    @Override
+    public boolean isUseVirtualThreads() {
+        return useVirtualThreads;
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) {
@@ -55,12 +72,13 @@ public class ThreadPoolImpl implements ThreadPool {
         }
         final ThreadPoolImpl that = (ThreadPoolImpl) o;
         return priority == that.priority &&
-                Objects.equals(name, that.name);
+               useVirtualThreads == that.useVirtualThreads &&
+               Objects.equals(name, that.name);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, priority);
+        return Objects.hash(name, priority, useVirtualThreads);
     }
 
     @Override
@@ -19,30 +19,58 @@ package stroom.task.impl;
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.ThreadPoolImpl;
 import stroom.task.shared.ThreadPool;
+import stroom.util.logging.LambdaLogger;
+import stroom.util.logging.LambdaLoggerFactory;
+import stroom.util.metrics.Metrics;
 import stroom.util.thread.CustomThreadFactory;
 import stroom.util.thread.StroomThreadGroup;
 
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import jdk.management.VirtualThreadSchedulerMXBean;
 
+import java.lang.management.ManagementFactory;
 import java.util.Iterator;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReentrantLock;
 
 @Singleton
 public class ExecutorProviderImpl implements ExecutorProvider {
 
+    private static final LambdaLogger LOGGER = LambdaLoggerFactory.getLogger(ExecutorProviderImpl.class);
+
     public static final ThreadPool DEFAULT_THREAD_POOL = new ThreadPoolImpl("Stroom P2", 2);
 
     // The thread pools that will be used to execute tasks.
-    private final ConcurrentHashMap<ThreadPool, ExecutorService> threadPoolMap = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<ThreadPool, PoolHolder> threadPoolMap = new ConcurrentHashMap<>();
     private final ReentrantLock poolCreationLock = new ReentrantLock();
     private final AtomicBoolean stop = new AtomicBoolean();
+    // The names of the pools we have registered metrics for, so we only register once per pool.
+    private final Set<String> metricPoolNames = ConcurrentHashMap.newKeySet();
+
+    private final Metrics metrics;
+
+    /**
+     * Metrics are optional as many test guice modules don't bind them.
+     */
+    @Inject
+    public ExecutorProviderImpl(final Optional<Metrics> optionalMetrics) {
+        this.metrics = optionalMetrics.orElse(null);
+        if (metrics != null) {
+            registerCarrierMetrics(metrics);
+        }
+    }
 
     @Override
     public Executor get() {
@@ -56,8 +84,8 @@ public class ExecutorProviderImpl implements ExecutorProvider {
 
     private Executor getRealExecutor(final ThreadPool threadPool) {
         Objects.requireNonNull(threadPool, "Null thread pool");
-        ExecutorService executor = threadPoolMap.get(threadPool);
-        if (executor == null) {
+        PoolHolder poolHolder = threadPoolMap.get(threadPool);
+        if (poolHolder == null) {
             poolCreationLock.lock();
             try {
                 // Don't create a thread pool if we are supposed to be stopping
@@ -65,20 +93,104 @@ public class ExecutorProviderImpl implements ExecutorProvider {
                     throw new RejectedExecutionException("Stopping");
                 }
 
-                executor = threadPoolMap.computeIfAbsent(threadPool, k -> {
-                    // Create a thread factory for the thread pool
-                    final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
-                            threadPool.getName());
-                    final CustomThreadFactory taskThreadFactory = new CustomThreadFactory(
-                            threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
-
-                    return Executors.newCachedThreadPool(taskThreadFactory);
+                poolHolder = threadPoolMap.computeIfAbsent(threadPool, k -> {
+                    final PoolHolder newPoolHolder;
+                    if (threadPool.isUseVirtualThreads()) {
+                        newPoolHolder = createVirtualPool(threadPool);
+                    } else {
+                        newPoolHolder = createPlatformPool(threadPool);
+                    }
+                    registerPoolMetrics(threadPool);
+                    return newPoolHolder;
                 });
             } finally {
                 poolCreationLock.unlock();
             }
         }
-        return executor;
+        return poolHolder;
+    }
+
+    private PoolHolder createPlatformPool(final ThreadPool threadPool) {
+        // Create a thread factory for the thread pool
+        final ThreadGroup poolThreadGroup = new ThreadGroup(StroomThreadGroup.instance(),
+                threadPool.getName());
+        final CustomThreadFactory taskThreadFactory = new CustomThreadFactory(
+                threadPool.getName() + " #", poolThreadGroup, threadPool.getPriority());
+
+        return new PoolHolder(Executors.newCachedThreadPool(taskThreadFactory), false);
+    }
+
+    private PoolHolder createVirtualPool(final ThreadPool threadPool) {
+        LOGGER.debug("Creating virtual thread pool '{}'", threadPool.getName());
+        // Virtual threads can't belong to a custom thread group or have a priority so just name them.
+        // Each task gets its own virtual thread, so the thread locals used by CurrentTaskContext
+        // and the interrupt used by ThreadTerminateHandler behave as for platform threads.
+        return new PoolHolder(Executors.newThreadPerTaskExecutor(Thread.ofVirtual()
+                .name(threadPool.getName() + " #", 1)
+                .factory()), true);
+    }
+
+    private void registerPoolMetrics(final ThreadPool threadPool) {
+        if (metrics != null && metricPoolNames.add(threadPool.getName())) {
+            metrics.registrationBuilder(getClass())
+                    .addNamePart(threadPool.getName())
+                    .addNamePart("activeThreads")
+                    .gauge(() -> getPoolStat(threadPool, PoolHolder::getActiveCount))
+                    .register();
+            metrics.registrationBuilder(getClass())
+                    .addNamePart(threadPool.getName())
+                    .addNamePart("platformThreads")
+                    .gauge(() -> getPoolStat(threadPool, PoolHolder::getPlatformThreadCount))
+                    .register();
+            metrics.registrationBuilder(getClass())
+                    .addNamePart(threadPool.getName())
+                    .addNamePart("completedTasks")
+                    .gauge(() -> getPoolStat(threadPool, PoolHolder::getCompletedCount))
+                    .register();
+        }
+    }
+
+    private long getPoolStat(final ThreadPool threadPool, final PoolStatFunction function) {
+        final PoolHolder poolHolder = threadPoolMap.get(threadPool);
+        return poolHolder != null
+                ? function.apply(poolHolder)
+                : 0;
+    }
+
+    /**
+     * Register metrics for the scheduler that carries all virtual threads so the carrier
+     * utilisation can be compared with the platform thread counts of the other pools.
+     */
+    private static void registerCarrierMetrics(final Metrics metrics) {
+        final VirtualThreadSchedulerMXBean schedulerMXBean;
+        try {
+            schedulerMXBean = ManagementFactory.getPlatformMXBean(VirtualThreadSchedulerMXBean.class);
+        } catch (final RuntimeException e) {
+            LOGGER.debug(() -> "Unable to get virtual thread scheduler MX bean: " + e.getMessage(), e);
+            return;
+        }
+        if (schedulerMXBean != null) {
+            metrics.registrationBuilder(ExecutorProviderImpl.class)
+                    .addNamePart("carrier")
+                    .addNamePart("parallelism")
+                    .gauge(schedulerMXBean::getParallelism)
+                    .register();
+            metrics.registrationBuilder(ExecutorProviderImpl.class)
+                    .addNamePart("carrier")
+                    .addNamePart("poolSize")
+                    .gauge(schedulerMXBean::getPoolSize)
+                    .register();
+            metrics.registrationBuilder(ExecutorProviderImpl.class)
+                    .addNamePart("carrier")
+                    .addNamePart("mountedVirtualThreads")
+                    .gauge(schedulerMXBean::getMountedVirtualThreadCount)
+                    .register();
+            metrics.registrationBuilder(ExecutorProviderImpl.class)
+                    .addNamePart("carrier")
+                    .addNamePart("queuedVirtualThreads")
+                    .gauge(schedulerMXBean::getQueuedVirtualThreadCount)
+                    .register();
+        }
     }
 
     void setStop(final boolean stop) {
@@ -94,9 +206,9 @@ public class ExecutorProviderImpl implements ExecutorProvider {
         try {
             final Iterator<ThreadPool> iter = threadPoolMap.keySet().iterator();
             iter.forEachRemaining(threadPool -> {
-                final ExecutorService executor = threadPoolMap.get(threadPool);
-                if (executor != null) {
-                    executor.shutdown();
+                final PoolHolder poolHolder = threadPoolMap.get(threadPool);
+                if (poolHolder != null) {
+                    poolHolder.shutdown();
                     threadPoolMap.remove(threadPool);
                 }
             });
@@ -104,4 +216,71 @@ public class ExecutorProviderImpl implements ExecutorProvider {
             poolCreationLock.unlock();
         }
     }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    @FunctionalInterface
+    private interface PoolStatFunction {
+
+        long apply(PoolHolder poolHolder);
+    }
+
+
+    // --------------------------------------------------------------------------------
+
+
+    /**
+     * Wraps the {@link ExecutorService} for a pool so we can count the tasks running on it,
+     * as a thread per task executor has no equivalent of {@link ThreadPoolExecutor#getActiveCount()}.
+     */
+    private static class PoolHolder implements Executor {
+
+        private final ExecutorService executorService;
+        private final boolean virtual;
+        private final AtomicInteger activeCount = new AtomicInteger();
+        private final LongAdder completedCount = new LongAdder();
+
+        private PoolHolder(final ExecutorService executorService, final boolean virtual) {
+            this.executorService = executorService;
+            this.virtual = virtual;
+        }
+
+        @Override
+        public void execute(final Runnable command) {
+            executorService.execute(() -> {
+                activeCount.incrementAndGet();
+                try {
+                    command.run();
+                } finally {
+                    activeCount.decrementAndGet();
+                    completedCount.increment();
+                }
+            });
+        }
+
+        long getActiveCount() {
+            return activeCount.get();
+        }
+
+        long getCompletedCount() {
+            return completedCount.sum();
+        }
+
+        /**
+         * @return The number of platform threads held by this pool. Virtual pools hold none
+         * as their threads are mounted on the shared carrier pool.
+         */
+        long getPlatformThreadCount() {
+            if (!virtual && executorService instanceof final ThreadPoolExecutor threadPoolExecutor) {
+                return threadPoolExecutor.getPoolSize();
+            }
+            return 0;
+        }
+
+        void shutdown() {
+            executorService.shutdown();
+        }
+    }
 }
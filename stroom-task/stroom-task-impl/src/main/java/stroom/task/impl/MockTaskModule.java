@@ -18,8 +18,10 @@ package stroom.task.impl;
 
 import stroom.task.api.ExecutorProvider;
 import stroom.task.api.TaskManager;
+import stroom.util.metrics.Metrics;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.OptionalBinder;
 
 import java.util.concurrent.Executor;
 
@@ -30,6 +32,8 @@ public class MockTaskModule extends AbstractModule {
         install(new TaskContextModule());
         bind(ExecutorProvider.class).to(ExecutorProviderImpl.class);
         bind(Executor.class).toProvider(ExecutorProviderImpl.class);
+        // Not all injectors bind metrics, e.g. many test modules.
+        OptionalBinder.newOptionalBinder(binder(), Metrics.class);
         bind(TaskManager.class).to(TaskManagerImpl.class);
     }
 }
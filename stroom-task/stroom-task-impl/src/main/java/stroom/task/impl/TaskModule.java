@@ -25,8 +25,10 @@ import stroom.task.shared.TaskResource;
 import stroom.util.RunnableWrapper;
 import stroom.util.guice.GuiceUtil;
 import stroom.util.guice.RestResourcesBinder;
+import stroom.util.metrics.Metrics;
 
 import com.google.inject.AbstractModule;
+import com.google.inject.multibindings.OptionalBinder;
 import jakarta.inject.Inject;
 import jakarta.servlet.http.HttpSessionListener;
 
@@ -40,6 +42,8 @@ public class TaskModule extends AbstractModule {
 
         bind(ExecutorProvider.class).to(ExecutorProviderImpl.class);
         bind(Executor.class).toProvider(ExecutorProviderImpl.class);
+        // Not all injectors bind metrics, e.g. many test modules.
+        OptionalBinder.newOptionalBinder(binder(), Metrics.class);
         bind(TaskManager.class).to(TaskManagerImpl.class);
         bind(TaskResource.class).to(TaskResourceImpl.class);
 
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2016-2026 Crown Copyright
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package stroom.task.impl;
+
+import stroom.task.api.ThreadPoolImpl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TestExecutorProviderImpl {
+
+    @Test
+    void testPlatformPool() {
+        final ExecutorProviderImpl executorProvider = new ExecutorProviderImpl(Optional.empty());
+        try {
+            final Thread thread = CompletableFuture.supplyAsync(
+                            Thread::currentThread,
+                            executorProvider.get(new ThreadPoolImpl("Test Platform")))
+                    .join();
+            assertThat(thread.isVirtual())
+                    .isFalse();
+            assertThat(thread.getName())
+                    .startsWith("Test Platform #");
+        } finally {
+            executorProvider.shutdownExecutors();
+        }
+    }
+
+    @Test
+    void testVirtualPool() {
+        final ExecutorProviderImpl executorProvider = new ExecutorProviderImpl(Optional.empty());
+        try {
+            final Thread thread = CompletableFuture.supplyAsync(
+                            Thread::currentThread,
+                            executorProvider.get(ThreadPoolImpl.virtual("Test Virtual")))
+                    .join();
+            assertThat(thread.isVirtual())
+                    .isTrue();
+            assertThat(thread.getName())
+                    .startsWith("Test Virtual #");
+        } finally {
+            executorProvider.shutdownExecutors();
+        }
+    }
+
+    @Test
+    void testVirtualPool_terminate() throws InterruptedException {
+        final ExecutorProviderImpl executorProvider = new ExecutorProviderImpl(Optional.empty());
+        try {
+            final CountDownLatch started = new CountDownLatch(1);
+            final TaskContextImpl taskContext = new TaskContextImpl(
+                    TaskIdFactory.create(), "test", () -> null, false);
+
+            final CompletableFuture<Boolean> future = CompletableFuture.supplyAsync(() -> {
+                taskContext.setThread(Thread.currentThread());
+                taskContext.setTerminateHandler(new ThreadTerminateHandler(Thread.currentThread()));
+                CurrentTaskContext.pushContext(taskContext);
+                try {
+                    assertThat(CurrentTaskContext.currentContext())
+                            .isSameAs(taskContext);
+                    started.countDown();
+                    Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+                    return false;
+                } catch (final InterruptedException e) {
+                    return true;
+                } finally {
+                    CurrentTaskContext.popContext();
+                }
+            }, executorProvider.get(ThreadPoolImpl.virtual("Test Virtual")));
+
+            assertThat(started.await(10, TimeUnit.SECONDS))
+                    .isTrue();
+            taskContext.terminate();
+
+            assertThat(future.join())
+                    .isTrue();
+        } finally {
+            executorProvider.shutdownExecutors();
+        }
+    }
+}